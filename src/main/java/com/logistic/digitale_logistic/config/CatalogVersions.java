@@ -0,0 +1,72 @@
+package com.logistic.digitale_logistic.config;
+
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.event.ProductChangedEvent;
+import com.logistic.digitale_logistic.event.WarehouseChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counters behind the ETags of the polled catalog endpoints. Counters move only after the
+ * writing transaction commits, and a response is tagged with the version read before its query:
+ * a write racing a read can only leave a response tagged older than its data (one extra 200 on
+ * the next poll), never newer, so a 304 never hides a committed change.
+ *
+ * Versions live in memory, like the availability snapshot, and start over with a new epoch on
+ * every restart so tags from an earlier run never match.
+ */
+@Component
+public class CatalogVersions {
+
+    public enum Resource {
+        WAREHOUSES,     // Warehouse catalog with stock: warehouses, products and inventory
+        PRODUCTS        // Product list
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong warehouses = new AtomicLong();
+    private final AtomicLong products = new AtomicLong();
+
+    public long version(Resource resource) {
+        return counter(resource).get();
+    }
+
+    /**
+     * Weak tag: the same version always holds the same data, not necessarily the same bytes
+     */
+    public String eTag(Resource resource) {
+        return "W/\"" + resource.name().toLowerCase(Locale.ROOT) + "-" + epoch + "-" + version(resource) + "\"";
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        warehouses.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // The warehouse catalog shows product names, prices and only active products
+        products.incrementAndGet();
+        warehouses.incrementAndGet();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWarehouseChanged(WarehouseChangedEvent event) {
+        warehouses.incrementAndGet();
+    }
+
+    /**
+     * For writes that publish no event, e.g. the ledger's write-behind flush; call after they commit
+     */
+    public void advance(Resource resource) {
+        counter(resource).incrementAndGet();
+    }
+
+    private AtomicLong counter(Resource resource) {
+        return resource == Resource.WAREHOUSES ? warehouses : products;
+    }
+}
@@ -0,0 +1,168 @@
+package com.logistic.digitale_logistic.config;
+
+import com.logistic.digitale_logistic.config.CatalogVersions.Resource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Conditional GET for the catalog endpoints clients poll: responses carry a version ETag from
+ * {@link CatalogVersions}, and a request whose If-None-Match still matches gets a 304 straight
+ * from here, without reaching the controller or the database.
+ *
+ * The tag differs per representation (rows encoding, {@code ?fields=}), so a cached JSON body is
+ * never confirmed for a rows request. Runs after the security filter chain, so only authenticated
+ * requests are answered.
+ */
+@Component
+public class ConditionalGetFilter extends OncePerRequestFilter {
+
+    private static final Map<String, Resource> PATHS = new LinkedHashMap<>();
+
+    static {
+        PATHS.put("/api/client/warehouses", Resource.WAREHOUSES);
+        PATHS.put("/api/client/warehouses/*", Resource.WAREHOUSES);
+        PATHS.put("/api/products/all", Resource.PRODUCTS);
+    }
+
+    private final CatalogVersions catalogVersions;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<Resource, Counter> notModified = new EnumMap<>(Resource.class);
+    private final Map<Resource, Counter> full = new EnumMap<>(Resource.class);
+
+    public ConditionalGetFilter(CatalogVersions catalogVersions, MeterRegistry meterRegistry) {
+        this.catalogVersions = catalogVersions;
+        for (Resource resource : Resource.values()) {
+            String tag = resource.name().toLowerCase(Locale.ROOT);
+            Counter hits = Counter.builder("http.conditional.requests")
+                    .description("Polls of versioned catalog endpoints, by outcome")
+                    .tag("resource", tag)
+                    .tag("outcome", "not_modified")
+                    .register(meterRegistry);
+            Counter misses = Counter.builder("http.conditional.requests")
+                    .description("Polls of versioned catalog endpoints, by outcome")
+                    .tag("resource", tag)
+                    .tag("outcome", "full")
+                    .register(meterRegistry);
+            notModified.put(resource, hits);
+            full.put(resource, misses);
+            Gauge.builder("http.conditional.not_modified.ratio", () -> ratio(hits, misses))
+                    .description("Share of polls answered with 304 Not Modified")
+                    .tag("resource", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return resource(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Resource resource = resource(request);
+        // Read before the controller queries, so the tag is never newer than the data
+        String eTag = representation(catalogVersions.eTag(resource), request);
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        // Browsers may keep the body but must revalidate (Spring Security would send no-store)
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+            notModified.get(resource).increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        full.get(resource).increment();
+        filterChain.doFilter(request, response);
+    }
+
+    private Resource resource(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getServletPath();
+        return PATHS.entrySet().stream()
+                .filter(entry -> pathMatcher.match(entry.getKey(), path))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Version tag with a suffix for anything but the default JSON of every property. The fields
+     * suffix digests the sorted field list itself, so two field sets never share a tag.
+     */
+    static String representation(String eTag, HttpServletRequest request) {
+        StringBuilder suffix = new StringBuilder();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(RowsHttpMessageConverter.MEDIA_TYPE)) {
+            suffix.append("-rows");
+        }
+        Set<String> fields = SparseFieldsetAdvice.parse(request.getParameter(SparseFieldsetAdvice.PARAMETER));
+        if (fields != null) {
+            suffix.append("-f").append(sha256(String.join(",", new TreeSet<>(fields))));
+        }
+        return suffix.isEmpty() ? eTag : eTag.substring(0, eTag.length() - 1) + suffix + "\"";
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Weak comparison, as If-None-Match requires
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static double ratio(Counter hits, Counter misses) {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+}
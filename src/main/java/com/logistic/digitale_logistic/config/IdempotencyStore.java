@@ -0,0 +1,209 @@
+package com.logistic.digitale_logistic.config;
+
+import com.logistic.digitale_logistic.entity.IdempotencyRecord;
+import com.logistic.digitale_logistic.repository.IdempotencyJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Responses of requests sent with an Idempotency-Key: the most recent ones in an in-memory LRU,
+ * all of them in the idempotency_keys table until they expire ({@code idempotency.ttl}).
+ *
+ * A key is claimed before its request runs. A duplicate arriving while the first request is still
+ * running waits for it (up to {@code idempotency.wait-timeout}) and then gets its response:
+ * on this instance through the in-flight map, across instances by polling the table. A request
+ * whose claim is never completed (instance gone) frees the key after {@code idempotency.lock-timeout}.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public enum Outcome {
+        /** Run the request and complete the claim with its response */
+        EXECUTE,
+        /** Send the stored response */
+        REPLAY,
+        /** The key was used for a different request */
+        MISMATCH,
+        /** The first request with this key is still running */
+        IN_PROGRESS
+    }
+
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body,
+                                 LocalDateTime expiresAt) {
+    }
+
+    public record Claim(Outcome outcome, String key, String requestHash, StoredResponse response) {
+    }
+
+    private static final long POLL_MS = 50;
+
+    private final IdempotencyJdbcRepository repository;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration lockTimeout;
+    private final Map<String, StoredResponse> recent;
+    private final ConcurrentMap<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyJdbcRepository repository,
+                            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${idempotency.wait-timeout:PT30S}") Duration waitTimeout,
+                            @Value("${idempotency.lock-timeout:PT2M}") Duration lockTimeout,
+                            @Value("${idempotency.cache-size:10000}") int cacheSize) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.lockTimeout = lockTimeout;
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Claim {@code key} for a request with the given body hash, or find out what to answer instead
+     */
+    public Claim claim(String key, String requestHash) throws InterruptedException {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            Optional<StoredResponse> stored = cached(key);
+            if (stored.isPresent()) {
+                return answer(key, requestHash, stored.get());
+            }
+
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                // Same key running on this instance: wait for it, then look again
+                if (!await(running, deadline)) {
+                    return new Claim(Outcome.IN_PROGRESS, key, requestHash, null);
+                }
+                continue;
+            }
+
+            boolean claimed = false;
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                Optional<IdempotencyRecord> row = repository.findById(key);
+                if (row.isPresent() && row.get().getExpiresAt().isAfter(now)) {
+                    IdempotencyRecord record = row.get();
+                    if (record.getResponseStatus() != null) {
+                        StoredResponse response = toResponse(record);
+                        recent.put(key, response);
+                        return answer(key, requestHash, response);
+                    }
+                    if (!record.getRequestHash().equals(requestHash)) {
+                        return new Claim(Outcome.MISMATCH, key, requestHash, null);
+                    }
+                }
+                if (row.isPresent()) {
+                    repository.deleteIfStale(key, now, now.minus(lockTimeout));
+                }
+                claimed = repository.insertInProgress(key, requestHash, now, now.plus(ttl));
+                if (claimed) {
+                    return new Claim(Outcome.EXECUTE, key, requestHash, null);
+                }
+            } finally {
+                if (!claimed) {
+                    release(key, mine);
+                }
+            }
+
+            // Claimed by another instance: poll the table until it completes
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(POLL_MS) > deadline) {
+                return new Claim(Outcome.IN_PROGRESS, key, requestHash, null);
+            }
+            Thread.sleep(POLL_MS);
+        }
+    }
+
+    /**
+     * Store the response of a claimed request. Server errors are not kept: the key is freed so
+     * that a retry runs the request again.
+     */
+    public void complete(Claim claim, int status, String contentType, byte[] body) {
+        try {
+            if (status >= 500) {
+                repository.delete(claim.key());
+                return;
+            }
+            repository.complete(claim.key(), status, contentType, body);
+            recent.put(claim.key(), new StoredResponse(claim.requestHash(), status, contentType, body,
+                    LocalDateTime.now().plus(ttl)));
+        } finally {
+            release(claim.key(), inFlight.get(claim.key()));
+        }
+    }
+
+    /**
+     * Free the key of a claimed request that failed without a response
+     */
+    public void abandon(Claim claim) {
+        try {
+            repository.delete(claim.key());
+        } finally {
+            release(claim.key(), inFlight.get(claim.key()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-ms:600000}",
+            initialDelayString = "${idempotency.cleanup-ms:600000}")
+    public int deleteExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Removed {} expired idempotency keys", deleted);
+        }
+        return deleted;
+    }
+
+    private Optional<StoredResponse> cached(String key) {
+        StoredResponse response = recent.get(key);
+        if (response != null && !response.expiresAt().isAfter(LocalDateTime.now())) {
+            recent.remove(key);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(response);
+    }
+
+    private Claim answer(String key, String requestHash, StoredResponse response) {
+        if (!response.requestHash().equals(requestHash)) {
+            return new Claim(Outcome.MISMATCH, key, requestHash, null);
+        }
+        return new Claim(Outcome.REPLAY, key, requestHash, response);
+    }
+
+    private void release(String key, CompletableFuture<Void> future) {
+        if (future != null) {
+            inFlight.remove(key, future);
+            future.complete(null);
+        }
+    }
+
+    private static boolean await(CompletableFuture<Void> running, long deadline) throws InterruptedException {
+        try {
+            running.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    private static StoredResponse toResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(), record.getContentType(),
+                record.getResponseBody() != null ? record.getResponseBody() : new byte[0], record.getExpiresAt());
+    }
+}
@@ -0,0 +1,83 @@
+package com.logistic.digitale_logistic.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Hibernate second-level cache kept in this JVM: one bounded, expiring {@link LocalRegionStorage}
+ * per region. Regions are sized with
+ * {@code hibernate.cache.local.<region>.max-entries} and {@code hibernate.cache.local.<region>.ttl}
+ * (ISO-8601 duration), falling back to the {@code default} region settings.
+ *
+ * Hibernate keeps the entries in step with every write made through a session; writes made on
+ * other instances are only seen once the entry expires.
+ */
+public class LocalRegionFactory extends RegionFactoryTemplate {
+
+    public static final String PREFIX = "hibernate.cache.local.";
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private final Map<String, LocalRegionStorage> storages = new ConcurrentHashMap<>();
+    private Map<String, Object> settings = Map.of();
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions options, Map<String, Object> configValues) {
+        this.settings = configValues;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        storages.values().forEach(LocalRegionStorage::release);
+        storages.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return storage(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return storage(regionName);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return storage(regionName);
+    }
+
+    /**
+     * Every region built so far, by name
+     */
+    public Map<String, LocalRegionStorage> getStorages() {
+        return Collections.unmodifiableMap(storages);
+    }
+
+    private LocalRegionStorage storage(String regionName) {
+        return storages.computeIfAbsent(regionName, name -> new LocalRegionStorage(name,
+                setting(name, "max-entries", DEFAULT_MAX_ENTRIES, Integer::parseInt),
+                setting(name, "ttl", DEFAULT_TTL, Duration::parse),
+                System::nanoTime));
+    }
+
+    private <T> T setting(String region, String key, T fallback, Function<String, T> parser) {
+        Object value = settings.get(PREFIX + region + "." + key);
+        if (value == null) {
+            value = settings.get(PREFIX + "default." + key);
+        }
+        return value == null ? fallback : parser.apply(value.toString().trim());
+    }
+}
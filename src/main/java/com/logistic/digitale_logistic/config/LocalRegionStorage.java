@@ -0,0 +1,172 @@
+package com.logistic.digitale_logistic.config;
+
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * One cache region: at most {@code maxEntries} entries (least recently used go first), each
+ * dropped {@code ttl} after it was stored. Soft locks Hibernate places while a transaction
+ * writes an entity are not evicted for space, so a concurrent load cannot put the old state
+ * back before that transaction completes; the least recently used entry that is not locked goes
+ * instead. A soft lock still there after {@link #SOFT_LOCK_TIMEOUT} belongs to a transaction that
+ * never completed and is dropped like an expired entry.
+ */
+public class LocalRegionStorage implements DomainDataStorageAccess {
+
+    // Hibernate's own soft lock timeout (RegionFactory#getTimeout)
+    public static final Duration SOFT_LOCK_TIMEOUT = Duration.ofSeconds(60);
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Object, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LocalRegionStorage(String name, int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        this.name = name;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() <= LocalRegionStorage.this.maxEntries) {
+                    return false;
+                }
+                if (!(eldest.getValue().value() instanceof SoftLock)) {
+                    evictions.increment();
+                    return true;
+                }
+                evictPastLocks(this);
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Over the bound with a soft lock at the head: drop the least recently used entries that are
+     * not locked, or whose lock is stale, until the region fits again
+     */
+    private void evictPastLocks(Map<Object, Entry> map) {
+        Iterator<Entry> iterator = map.values().iterator();
+        while (map.size() > maxEntries && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!(entry.value() instanceof SoftLock) || expired(entry)) {
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        Object value;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && expired(entry)) {
+                entries.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+            value = entry != null ? entry.value() : null;
+        }
+        if (value == null || value instanceof SoftLock) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        synchronized (entries) {
+            entries.put(key, new Entry(value, nanoClock.getAsLong()));
+        }
+        puts.increment();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null && !expired(entry);
+        }
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        evictData(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        evictData();
+    }
+
+    @Override
+    public void evictData() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void evictData(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long puts() {
+        return puts.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private boolean expired(Entry entry) {
+        long age = nanoClock.getAsLong() - entry.storedAt();
+        return entry.value() instanceof SoftLock ? age >= SOFT_LOCK_TIMEOUT.toNanos() : age >= ttlNanos;
+    }
+
+    private record Entry(Object value, long storedAt) {
+    }
+}
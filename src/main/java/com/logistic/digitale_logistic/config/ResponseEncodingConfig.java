@@ -0,0 +1,55 @@
+package com.logistic.digitale_logistic.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.logistic.digitale_logistic.dto.InventoryDTO;
+import com.logistic.digitale_logistic.dto.ProductDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderDTO;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response encodings for integrations pulling the product, inventory and sales-order lists:
+ * {@code Accept: application/vnd.logistic.rows} for the compact {@link RowsHttpMessageConverter}
+ * and {@code ?fields=} for sparse fieldsets ({@link SparseFieldsetAdvice}). Compression is
+ * {@code server.compression} in application.properties.
+ */
+@Configuration
+public class ResponseEncodingConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+
+    public ResponseEncodingConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * DTOs that honour {@code ?fields=}; without the parameter the filter keeps every property
+     */
+    @Bean
+    public static Jackson2ObjectMapperBuilderCustomizer sparseFieldsetCustomizer() {
+        return builder -> builder
+                .mixIn(ProductDTO.class, SparseFieldsetMixin.class)
+                .mixIn(InventoryDTO.class, SparseFieldsetMixin.class)
+                .mixIn(SalesOrderDTO.class, SparseFieldsetMixin.class)
+                .filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * After the JSON converter, so rows are only written when asked for
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new RowsHttpMessageConverter(objectMapper));
+    }
+
+    @JsonFilter(SparseFieldsetAdvice.FILTER)
+    interface SparseFieldsetMixin {
+    }
+}
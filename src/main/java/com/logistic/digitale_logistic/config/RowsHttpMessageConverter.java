@@ -0,0 +1,149 @@
+package com.logistic.digitale_logistic.config;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lists as rows: {@code {"fields":["id","name",...],"rows":[[1,"Pallet",...],...]}}, for
+ * integrations pulling large lists, where the field names repeated on every element of plain JSON
+ * make up most of the payload. Values are written by the application's Jackson serializers, so
+ * each one reads exactly as in the JSON response; properties Jackson would leave out are null.
+ *
+ * Served for {@value #MEDIA_TYPE} only, never by default: the type has no {@code +json} suffix so
+ * the JSON converter does not claim it. A {@link SparseFieldsetAdvice.FieldSelection} keeps the
+ * requested columns, in the order of the element type.
+ */
+public class RowsHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE = "application/vnd.logistic.rows";
+    public static final MediaType ROWS = MediaType.parseMediaType(MEDIA_TYPE);
+
+    private final ObjectMapper objectMapper;
+
+    public RowsHttpMessageConverter(ObjectMapper objectMapper) {
+        super(ROWS);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return Collection.class.isAssignableFrom(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Set<String> fields = null;
+        Object value = body;
+        if (body instanceof MappingJacksonValue container) {
+            value = container.getValue();
+            if (container instanceof SparseFieldsetAdvice.FieldSelection selection) {
+                fields = selection.getFields();
+            }
+        }
+        Collection<?> rows = (Collection<?>) value;
+
+        DefaultSerializerProvider provider = (DefaultSerializerProvider) objectMapper.getSerializerProviderInstance();
+        List<PropertyWriter> columns = columns(provider, elementType(type, rows), fields);
+        try (JsonGenerator generator = objectMapper.getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("fields");
+            for (PropertyWriter column : columns) {
+                generator.writeString(column.getName());
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("rows");
+            for (Object row : rows) {
+                if (row == null) {
+                    generator.writeNull();
+                    continue;
+                }
+                generator.writeStartArray();
+                for (PropertyWriter column : columns) {
+                    column.serializeAsElement(row, generator, provider);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HttpMessageNotWritableException("Could not write rows: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Declared element type, or the class of the first element when the declaration is too loose
+     */
+    private static Class<?> elementType(Type type, Collection<?> rows) {
+        Class<?> declared = type == null ? null : ResolvableType.forType(type).asCollection().resolveGeneric(0);
+        if (declared != null && declared != Object.class) {
+            return declared;
+        }
+        return rows.stream().filter(row -> row != null).findFirst().<Class<?>>map(Object::getClass).orElse(null);
+    }
+
+    private static List<PropertyWriter> columns(DefaultSerializerProvider provider, Class<?> elementType,
+                                                Set<String> fields) throws IOException {
+        List<PropertyWriter> columns = new ArrayList<>();
+        if (elementType == null) {
+            return columns;
+        }
+        JsonSerializer<Object> serializer = provider.findTypedValueSerializer(elementType, true, null);
+        if (!(serializer instanceof BeanSerializerBase bean)) {
+            throw new HttpMessageNotWritableException("Rows need a list of objects, not of " + elementType.getSimpleName());
+        }
+        bean.properties().forEachRemaining(column -> {
+            if (fields == null || fields.contains(column.getName())) {
+                columns.add(column);
+            }
+        });
+        return columns;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Rows are a response encoding only", inputMessage);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Rows are a response encoding only", inputMessage);
+    }
+}
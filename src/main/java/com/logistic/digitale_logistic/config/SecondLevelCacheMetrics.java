@@ -0,0 +1,50 @@
+package com.logistic.digitale_logistic.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hit, miss, put and eviction counts and the size of every second-level cache region,
+ * tagged with the region name
+ */
+@Component
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory()
+                instanceof LocalRegionFactory regionFactory)) {
+            return;
+        }
+        regionFactory.getStorages().values().forEach(storage -> {
+            String region = storage.getName();
+            FunctionCounter.builder("hibernate.cache.region.hits", storage, LocalRegionStorage::hits)
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.misses", storage, LocalRegionStorage::misses)
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.puts", storage, LocalRegionStorage::puts)
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.evictions", storage, LocalRegionStorage::evictions)
+                    .description("Entries dropped for size or age")
+                    .tag("region", region)
+                    .register(registry);
+            Gauge.builder("hibernate.cache.region.size", storage, LocalRegionStorage::size)
+                    .tag("region", region)
+                    .register(registry);
+        });
+    }
+}
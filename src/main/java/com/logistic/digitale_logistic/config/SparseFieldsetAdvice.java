@@ -0,0 +1,83 @@
+package com.logistic.digitale_logistic.config;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@code ?fields=id,name} on a response whose type carries the {@value #FILTER} filter (see
+ * {@link ResponseEncodingConfig}) serialises only those properties, in JSON as in rows. Unknown
+ * names are ignored; without the parameter the response is unchanged.
+ */
+@ControllerAdvice
+public class SparseFieldsetAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String FILTER = "fields";
+    public static final String PARAMETER = "fields";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType)
+                || RowsHttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (body == null || body instanceof MappingJacksonValue
+                || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        Set<String> fields = parse(servletRequest.getServletRequest().getParameter(PARAMETER));
+        return fields == null ? body : new FieldSelection(body, fields);
+    }
+
+    /**
+     * Requested property names, or null when the parameter is absent or blank
+     */
+    static Set<String> parse(String parameter) {
+        if (parameter == null) {
+            return null;
+        }
+        Set<String> fields = Arrays.stream(parameter.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return fields.isEmpty() ? null : fields;
+    }
+
+    /**
+     * Response body restricted to the requested properties
+     */
+    public static class FieldSelection extends MappingJacksonValue {
+
+        private final Set<String> fields;
+
+        public FieldSelection(Object value, Set<String> fields) {
+            super(value);
+            this.fields = Set.copyOf(fields);
+            setFilters(new SimpleFilterProvider()
+                    .addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(this.fields))
+                    .setFailOnUnknownId(false));
+        }
+
+        public Set<String> getFields() {
+            return fields;
+        }
+    }
+}
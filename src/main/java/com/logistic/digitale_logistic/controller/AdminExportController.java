@@ -0,0 +1,124 @@
+package com.logistic.digitale_logistic.controller;
+
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.enums.ExportFormat;
+import com.logistic.digitale_logistic.service.Admin.DataExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@Tag(name = "Admin - Export", description = "Full data exports streamed as NDJSON or CSV")
+@SecurityRequirement(name = "Bearer Authentication")
+public class AdminExportController {
+
+    private final DataExportService dataExportService;
+
+    @Operation(
+            summary = "Export inventory",
+            description = "Every inventory row with its product SKU and warehouse name (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @GetMapping("/inventory")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportInventory(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                HttpServletResponse response) throws IOException {
+        dataExportService.exportInventory(format, open(response, "inventory", format));
+    }
+
+    @Operation(
+            summary = "Export products",
+            description = "Every product, active or not (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @GetMapping("/products")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportProducts(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                               HttpServletResponse response) throws IOException {
+        dataExportService.exportProducts(format, open(response, "products", format));
+    }
+
+    @Operation(
+            summary = "Export sales orders",
+            description = "Sales order headers, oldest first, with the same filters as the search: status, warehouse, " +
+                    "client and order date range [from, to) (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @GetMapping("/sales-orders")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportSalesOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        SalesOrderSearchCriteria criteria = SalesOrderSearchCriteria.builder()
+                .status(status)
+                .warehouseId(warehouseId)
+                .clientId(clientId)
+                .from(from)
+                .to(to)
+                .build();
+        dataExportService.exportSalesOrders(criteria, format, open(response, "sales-orders", format));
+    }
+
+    @Operation(
+            summary = "Export inventory movements",
+            description = "Inventory movements that occurred in [from, to), both optional (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @GetMapping("/inventory-movements")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportInventoryMovements(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            HttpServletResponse response) throws IOException {
+        dataExportService.exportInventoryMovements(from, to, format, open(response, "inventory-movements", format));
+    }
+
+    private static Writer open(HttpServletResponse response, String name, ExportFormat format) throws IOException {
+        boolean csv = format == ExportFormat.CSV;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"");
+        return response.getWriter();
+    }
+}
@@ -1,17 +1,33 @@
 package com.logistic.digitale_logistic.controller;
 
+import com.logistic.digitale_logistic.dto.BatchAllocationRequestDTO;
+import com.logistic.digitale_logistic.dto.BatchAllocationResultDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderPageDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.enums.ImportFormat;
+import com.logistic.digitale_logistic.enums.ImportReservationMode;
+import com.logistic.digitale_logistic.service.client.BatchAllocationService;
+import com.logistic.digitale_logistic.service.client.SalesOrderImportService;
+import com.logistic.digitale_logistic.service.client.SalesOrderSearchService;
 import com.logistic.digitale_logistic.service.client.SalesOrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,6 +38,9 @@ import java.util.List;
 public class AdminSalesOrderController {
 
     private final SalesOrderService salesOrderService;
+    private final BatchAllocationService batchAllocationService;
+    private final SalesOrderImportService salesOrderImportService;
+    private final SalesOrderSearchService salesOrderSearchService;
 
     /**
      * Get all sales orders (admin can view all orders)
@@ -30,7 +49,7 @@ public class AdminSalesOrderController {
      */
     @Operation(
             summary = "Get all sales orders",
-            description = "Retrieve all sales orders from all clients (Admin only)"
+            description = "Retrieve all sales orders from all clients (Admin only) - ?fields=a,b returns only those properties, Accept: application/vnd.logistic.rows a compact rows encoding"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved all sales orders"),
@@ -44,5 +63,97 @@ public class AdminSalesOrderController {
         return salesOrderService.getAllSalesOrders();
     }
 
+    /**
+     * Search sales orders, newest first, one page at a time
+     *
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     * @return the page and the cursor of the next one (null on the last page)
+     */
+    @Operation(
+            summary = "Search sales orders",
+            description = "Filter by status, warehouse, client and order date range [from, to). Pages are read with the " +
+                    "opaque nextCursor of the previous page; the total is only counted with includeTotal=true (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of matching sales orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public SalesOrderPageDTO searchSalesOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        SalesOrderSearchCriteria criteria = SalesOrderSearchCriteria.builder()
+                .status(status)
+                .warehouseId(warehouseId)
+                .clientId(clientId)
+                .from(from)
+                .to(to)
+                .build();
+        return salesOrderSearchService.search(criteria, cursor, size, includeTotal);
+    }
+
+    /**
+     * Reserve every CREATED order (optionally of one warehouse and/or order-date window) in one run
+     *
+     * @param request warehouse, window and allocation objective (all optional)
+     * @return per-order reservation results and overall fill rate
+     */
+    @Operation(
+            summary = "Batch allocation run",
+            description = "Reserve all CREATED sales orders at once from a single stock snapshot. " +
+                    "Objective FILL_RATE shares short stock pro rata, COMPLETE_ORDERS completes as many orders as possible first (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Allocation run completed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @PostMapping("/allocate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseStatus(HttpStatus.OK)
+    public BatchAllocationResultDTO allocate(@RequestBody(required = false) BatchAllocationRequestDTO request) {
+        return batchAllocationService.allocate(request != null ? request : new BatchAllocationRequestDTO());
+    }
+
+    /**
+     * Bulk import of sales orders from an ERP feed, streamed in and out
+     *
+     * @param reservation how the imported orders are reserved (default BATCH)
+     */
+    @Operation(
+            summary = "Bulk sales order import",
+            description = "Import sales orders from an NDJSON body (one order per line: ref, clientId, warehouseId, lines) " +
+                    "or a CSV body (text/csv, header ref,client_id,warehouse_id,product_id,quantity, one row per line). " +
+                    "The response is NDJSON with one result per order, written as chunks complete (Admin only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import report, one line per order"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Admin role required")
+    })
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public void importSalesOrders(@RequestParam(defaultValue = "BATCH") ImportReservationMode reservation,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        ImportFormat format = request.getContentType() != null && request.getContentType().startsWith("text/csv")
+                ? ImportFormat.CSV : ImportFormat.NDJSON;
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        salesOrderImportService.importOrders(request.getReader(), format, reservation, response.getWriter());
+    }
 
 }
@@ -0,0 +1,55 @@
+package com.logistic.digitale_logistic.controller.Client;
+
+import com.logistic.digitale_logistic.dto.AvailabilityQuoteDTO;
+import com.logistic.digitale_logistic.dto.AvailabilityQuoteRequestDTO;
+import com.logistic.digitale_logistic.service.client.AvailabilityQuoteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/client/availability")
+@RequiredArgsConstructor
+@Tag(name = "Client - Availability", description = "Client endpoints for checking stock before ordering")
+@SecurityRequirement(name = "Bearer Authentication")
+public class ClientAvailabilityController {
+
+    private final AvailabilityQuoteService availabilityQuoteService;
+
+    /**
+     * Quote the availability of a list of products without creating an order
+     *
+     * Returns, per product:
+     * - the quantity that can be promised right now
+     * - the available quantity in each warehouse
+     * - the warehouses a reservation would take it from
+     *
+     * Nothing is reserved; the quote can differ from the reservation made later.
+     *
+     * @param request the order warehouse and the (productId, quantity) lines to quote
+     * @return availability quote
+     */
+    @Operation(
+            summary = "Quote availability",
+            description = "Check promisable quantities and the sourcing that would be used for a list of products, without creating a sales order or reserving stock"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Quote computed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid quote request"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Client role required")
+    })
+    @PostMapping
+    @PreAuthorize("hasRole('CLIENT')")
+    @ResponseStatus(HttpStatus.OK)
+    public AvailabilityQuoteDTO quote(@Valid @RequestBody AvailabilityQuoteRequestDTO request) {
+        return availabilityQuoteService.quote(request);
+    }
+}
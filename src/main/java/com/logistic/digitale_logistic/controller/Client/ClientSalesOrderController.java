@@ -1,6 +1,9 @@
 package com.logistic.digitale_logistic.controller.Client;
+import com.logistic.digitale_logistic.dto.OrderTrackingPageDTO;
+import com.logistic.digitale_logistic.dto.ReservationResultDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderWithReservationDTO;
+import com.logistic.digitale_logistic.service.client.ReservationPipeline;
 import com.logistic.digitale_logistic.service.client.SalesOrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,11 +13,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/client/sales-orders")
@@ -28,35 +31,64 @@ public class ClientSalesOrderController {
 
     @Operation(
             summary = "Create sales order",
-            description = "Create a new sales order with automatic inventory reservation. The system will reserve available stock and create backorders for unavailable quantities"
+            description = "Create a new sales order with automatic inventory reservation. The system will reserve available stock and create backorders for unavailable quantities. With asynchronous intake the order is accepted (202) and the reservation result is polled afterwards"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Sales order created successfully"),
+            @ApiResponse(responseCode = "202", description = "Sales order accepted, reservation queued"),
             @ApiResponse(responseCode = "400", description = "Invalid sales order data"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
-            @ApiResponse(responseCode = "403", description = "Forbidden - Client role required")
+            @ApiResponse(responseCode = "403", description = "Forbidden - Client role required"),
+            @ApiResponse(responseCode = "503", description = "Too many orders waiting for reservation, retry later")
     })
     @PostMapping
     @PreAuthorize("hasRole('CLIENT')")
-    @ResponseStatus(HttpStatus.CREATED)
-    public SalesOrderWithReservationDTO createSalesOrder(@Valid @RequestBody SalesOrderDTO dto) {
-        return salesOrderService.createSalesOrder(dto);
+    public ResponseEntity<SalesOrderWithReservationDTO> createSalesOrder(@Valid @RequestBody SalesOrderDTO dto) {
+        SalesOrderWithReservationDTO result = salesOrderService.createSalesOrder(dto);
+        boolean queued = ReservationPipeline.PENDING.equals(result.getReservationResult().getStatus());
+        return ResponseEntity.status(queued ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(result);
+    }
+
+
+    @Operation(
+            summary = "Get reservation result",
+            description = "Poll the reservation result of one of my sales orders. Status is PENDING while the reservation is queued"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved reservation result"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Client role required or order of another client")
+    })
+    @GetMapping("/{id}/reservation")
+    @PreAuthorize("hasRole('CLIENT')")
+    @ResponseStatus(HttpStatus.OK)
+    public ReservationResultDTO getReservationResult(@PathVariable Long id) {
+        return salesOrderService.getReservationResult(id);
     }
 
 
+    /**
+     * My sales orders, newest first, one page at a time
+     *
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     * @return the page and the cursor of the next one (null on the last page)
+     */
     @Operation(
             summary = "Get my sales orders",
-            description = "Retrieve all sales orders belonging to the authenticated client"
+            description = "Track the sales orders of the authenticated client, newest first: status, totals, line " +
+                    "summaries, shipment and backorder progress. Pages are read with the opaque nextCursor of the previous page"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved sales orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
             @ApiResponse(responseCode = "401", description = "Unauthorized"),
             @ApiResponse(responseCode = "403", description = "Forbidden - Client role required")
     })
     @GetMapping
     @PreAuthorize("hasRole('CLIENT')")
     @ResponseStatus(HttpStatus.OK)
-    public List<SalesOrderDTO> getMyOrders() {
-        return salesOrderService.getMyOrders();
+    public OrderTrackingPageDTO getMyOrders(@RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        return salesOrderService.getMyOrders(cursor, size);
     }
 }
@@ -24,7 +24,7 @@ public class InventoryController {
 
     @Operation(
             summary = "Get all inventories",
-            description = "Retrieve all inventory records across all warehouses"
+            description = "Retrieve all inventory records across all warehouses - ?fields=a,b returns only those properties, Accept: application/vnd.logistic.rows a compact rows encoding"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved all inventories"),
@@ -37,7 +37,7 @@ public class InventoryController {
 
     @Operation(
             summary = "Get inventory by warehouse",
-            description = "Retrieve all inventory records for a specific warehouse"
+            description = "Retrieve all inventory records for a specific warehouse - ?fields=a,b returns only those properties, Accept: application/vnd.logistic.rows a compact rows encoding"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved warehouse inventory"),
@@ -1,10 +1,12 @@
 package com.logistic.digitale_logistic.controller;
 
 import com.logistic.digitale_logistic.dto.ProductDTO;
+import com.logistic.digitale_logistic.dto.ProductSearchResultDTO;
 import com.logistic.digitale_logistic.dto.UserDTO;
 import com.logistic.digitale_logistic.entity.Product;
 import com.logistic.digitale_logistic.service.Admin.ProductService;
 import com.logistic.digitale_logistic.service.Admin.UserService;
+import com.logistic.digitale_logistic.service.client.ProductSearchIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,6 +16,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.Table;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,14 +29,16 @@ import java.util.List;
 @SecurityRequirement(name = "Bearer Authentication")
 public class ProductController {
     private final ProductService productService;
+    private final ProductSearchIndex productSearchIndex;
 
-    public ProductController(ProductService service, UserService userService) {
+    public ProductController(ProductService service, UserService userService, ProductSearchIndex productSearchIndex) {
         this.productService = service;
+        this.productSearchIndex = productSearchIndex;
     }
 
     @Operation(
             summary = "Get all products",
-            description = "Retrieve all products in the system"
+            description = "Retrieve all products in the system - ?fields=a,b returns only those properties, Accept: application/vnd.logistic.rows a compact rows encoding"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved all products"),
@@ -48,6 +53,29 @@ public class ProductController {
 
     }
 
+    @Operation(
+            summary = "Search products",
+            description = "Search as you type: products whose SKU starts with the text, or whose name or category " +
+                    "contain every word of it, best matches first. Only admins can include inactive products."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching products"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WAREHOUSE_MANAGER', 'CLIENT')")
+    public ResponseEntity<List<ProductSearchResultDTO>> search(
+            @Parameter(description = "SKU prefix or words of the name or category", required = true, example = "pal")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of results (1-" + ProductSearchIndex.MAX_LIMIT + ")", example = "10")
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean includeInactive,
+            Authentication authentication) {
+        boolean admin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        return ResponseEntity.ok(productSearchIndex.search(q, limit, includeInactive && admin));
+    }
+
     @Operation(
             summary = "Create new product",
             description = "Create a new product in the system"
@@ -1,6 +1,9 @@
 package com.logistic.digitale_logistic.controller.warehouse_manager;
 
 import com.logistic.digitale_logistic.dto.SalesOrderDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderPageDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.service.client.SalesOrderSearchService;
 import com.logistic.digitale_logistic.service.client.SalesOrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -8,10 +11,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,6 +27,7 @@ import java.util.List;
 public class WarehouseManagerSalesOrderController {
 
     private final SalesOrderService salesOrderService;
+    private final SalesOrderSearchService salesOrderSearchService;
 
     /**
      * Get all sales orders (warehouse manager can view all orders)
@@ -30,7 +36,7 @@ public class WarehouseManagerSalesOrderController {
      */
     @Operation(
             summary = "Get all sales orders",
-            description = "Retrieve all sales orders for fulfillment purposes (Warehouse Manager only)"
+            description = "Retrieve all sales orders for fulfillment purposes (Warehouse Manager only) - ?fields=a,b returns only those properties, Accept: application/vnd.logistic.rows a compact rows encoding"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved all sales orders"),
@@ -44,5 +50,42 @@ public class WarehouseManagerSalesOrderController {
         return salesOrderService.getAllSalesOrders();
     }
 
-
+    /**
+     * Search sales orders, newest first, one page at a time
+     *
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     * @return the page and the cursor of the next one (null on the last page)
+     */
+    @Operation(
+            summary = "Search sales orders",
+            description = "Filter by status, warehouse, client and order date range [from, to). Pages are read with the " +
+                    "opaque nextCursor of the previous page; the total is only counted with includeTotal=true (Warehouse Manager only)"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of matching sales orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Warehouse Manager role required")
+    })
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('WAREHOUSE_MANAGER')")
+    @ResponseStatus(HttpStatus.OK)
+    public SalesOrderPageDTO searchSalesOrders(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        SalesOrderSearchCriteria criteria = SalesOrderSearchCriteria.builder()
+                .status(status)
+                .warehouseId(warehouseId)
+                .clientId(clientId)
+                .from(from)
+                .to(to)
+                .build();
+        return salesOrderSearchService.search(criteria, cursor, size, includeTotal);
+    }
 }
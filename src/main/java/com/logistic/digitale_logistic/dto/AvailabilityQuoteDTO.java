@@ -0,0 +1,35 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityQuoteDTO {
+
+    private Long warehouseId;
+    private boolean fullyAvailable;
+    private List<Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Line {
+        private Long productId;
+        private Integer requestedQuantity;
+        private Integer promisableQuantity;
+
+        // Available quantity of the product in each warehouse
+        private List<StockDelta> availableByWarehouse;
+
+        // Where the promisable quantity would be reserved from
+        private List<StockDelta> sourcing;
+    }
+}
@@ -0,0 +1,36 @@
+package com.logistic.digitale_logistic.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityQuoteRequestDTO {
+
+    @NotNull(message = "Warehouse ID is required")
+    private Long warehouseId;
+
+    @NotEmpty(message = "Quote must have at least one line")
+    @Valid
+    private List<Line> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+
+        @NotNull(message = "Product ID is required")
+        private Long productId;
+
+        @NotNull(message = "Quantity is required")
+        @Positive(message = "Quantity must be greater than 0")
+        private Integer quantity;
+    }
+}
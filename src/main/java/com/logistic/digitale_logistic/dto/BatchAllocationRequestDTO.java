@@ -0,0 +1,25 @@
+package com.logistic.digitale_logistic.dto;
+
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAllocationRequestDTO {
+
+    // Optional: only orders placed on this warehouse
+    private Long warehouseId;
+
+    // Optional window on the order date (from inclusive, to exclusive)
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    private AllocationObjective objective;
+}
@@ -0,0 +1,27 @@
+package com.logistic.digitale_logistic.dto;
+
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchAllocationResultDTO {
+
+    private AllocationObjective objective;
+    private int ordersConsidered;
+    private int ordersFullyReserved;
+    private int ordersPartiallyReserved;
+    private int ordersNotReserved;
+    private long unitsOrdered;
+    private long unitsReserved;
+    private double fillRate;
+    private long durationMs;
+    private List<ReservationResultDTO> results;
+}
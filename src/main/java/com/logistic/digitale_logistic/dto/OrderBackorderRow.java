@@ -0,0 +1,20 @@
+package com.logistic.digitale_logistic.dto;
+
+import com.logistic.digitale_logistic.enums.BackorderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One backorder of an order line
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBackorderRow {
+    private Long salesOrderId;
+    private Long soLineId;
+    private BackorderStatus status;
+    private Integer quantityBackordered;
+    private Integer quantityFulfilled;
+}
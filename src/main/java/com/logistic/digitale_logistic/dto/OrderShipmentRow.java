@@ -0,0 +1,19 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One shipment line of an order (line fields null for a shipment without lines)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderShipmentRow {
+    private Long salesOrderId;
+    private Long shipmentId;
+    private String status;
+    private Long soLineId;
+    private Integer quantityShipped;
+}
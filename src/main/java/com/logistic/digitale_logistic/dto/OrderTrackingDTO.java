@@ -0,0 +1,36 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderTrackingDTO {
+    private Long orderId;
+    private String orderNumber;
+    private String status;
+    private LocalDateTime orderDate;
+    private LocalDate plannedShipDate;
+    private LocalDateTime updatedAt;
+    private Long warehouseId;
+    private String warehouseName;
+    private BigDecimal totalAmount;
+    private Integer lineCount;
+    private Integer orderedQuantity;
+    private Integer reservedQuantity;
+    private Integer shippedQuantity;
+    private Integer shipmentCount;
+    private String shipmentStatus; // latest shipment, null before the first
+    private Integer openBackorders;
+    private Integer backorderedQuantity;
+    private List<OrderTrackingLineDTO> lines;
+}
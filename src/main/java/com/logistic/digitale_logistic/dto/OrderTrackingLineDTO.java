@@ -0,0 +1,28 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of an order as the client tracks it; stored as is in the order_tracking row
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderTrackingLineDTO {
+    private Long soLineId;
+    private Long productId;
+    private String productSku;
+    private String productName;
+    private Integer orderedQuantity;
+    private Integer reservedQuantity;
+    private Integer shippedQuantity;
+    private Integer backorderedQuantity; // still open
+    private BigDecimal unitPrice;
+    private BigDecimal lineTotal;
+}
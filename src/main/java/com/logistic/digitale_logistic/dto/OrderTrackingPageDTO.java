@@ -0,0 +1,17 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderTrackingPageDTO {
+    private List<OrderTrackingDTO> items;
+    private String nextCursor; // null on the last page
+}
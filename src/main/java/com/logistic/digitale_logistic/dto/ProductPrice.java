@@ -0,0 +1,16 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPrice {
+    private Long productId;
+    private BigDecimal sellingPrice;
+    private Boolean active;
+}
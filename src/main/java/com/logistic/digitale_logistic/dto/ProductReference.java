@@ -0,0 +1,18 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductReference {
+    private Long id;
+    private String sku;
+    private String name;
+    private BigDecimal sellingPrice;
+    private Boolean active;
+}
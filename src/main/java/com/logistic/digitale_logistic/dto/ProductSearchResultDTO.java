@@ -0,0 +1,16 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDTO {
+    private Long id;
+    private String sku;
+    private String name;
+    private String category;
+    private Boolean active;
+}
@@ -0,0 +1,25 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One order of a bulk import
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesOrderImportDTO {
+
+    // Sender's reference, echoed in the report
+    private String ref;
+
+    private Long clientId;
+    private Long warehouseId;
+    private List<SoLineDTO> lines;
+}
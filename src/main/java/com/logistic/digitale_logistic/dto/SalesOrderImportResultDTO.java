@@ -0,0 +1,28 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the bulk import report
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesOrderImportResultDTO {
+
+    // Position of the order in the imported file (1-based)
+    private Integer record;
+    private String ref;
+
+    private Long salesOrderId;
+    private String orderNumber;
+
+    // REJECTED, or the order status after the import (CREATED / RESERVED)
+    private String status;
+    private boolean fullyReserved;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesOrderPageDTO {
+    private List<SalesOrderDTO> items;
+    private String nextCursor; // null on the last page
+    private Long total; // only when requested
+}
@@ -0,0 +1,23 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the sales-order search, all optional; orderDate range is [from, to)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesOrderSearchCriteria {
+    private String status;
+    private Long warehouseId;
+    private Long clientId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
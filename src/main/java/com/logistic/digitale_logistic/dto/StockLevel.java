@@ -0,0 +1,21 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLevel {
+    private Long productId;
+    private Long warehouseId;
+    private Integer qtyOnHand;
+    private Integer qtyReserved;
+
+    public int getQtyAvailable() {
+        return qtyOnHand - qtyReserved;
+    }
+}
@@ -0,0 +1,37 @@
+package com.logistic.digitale_logistic.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the client warehouse catalog: a warehouse and one of its active products
+ * (product fields null for a warehouse without any)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseProductRow {
+    private Long warehouseId;
+    private String warehouseName;
+    private String location;
+    private Boolean active;
+    private Long productId;
+    private String name;
+    private String sku;
+    private String category;
+    private BigDecimal unitPrice;
+    private Integer availableQuantity;
+    private Integer qtyOnHand;
+    private Integer qtyReserved;
+
+    public WarehouseProductDTO toProduct() {
+        return new WarehouseProductDTO(productId, name, sku, category, unitPrice, availableQuantity, qtyOnHand, qtyReserved);
+    }
+
+    public ProductInventoryDTO toProductInventory() {
+        return new ProductInventoryDTO(productId, sku, name, category, unitPrice, qtyOnHand, qtyReserved, availableQuantity);
+    }
+}
@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 public class Backorder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "backorders_seq")
+    @SequenceGenerator(name = "backorders_seq", sequenceName = "backorders_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,31 @@
+package com.logistic.digitale_logistic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running total of a client's open orders (CREATED, RESERVED or SHIPPED), kept up to date as
+ * orders are created and delivered so that the credit check does not sum the order history
+ */
+@Entity
+@Table(name = "client_credit_exposure")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClientCreditExposure {
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "open_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal openAmount = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.logistic.digitale_logistic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Share of a combined reservation batch that its order has not committed yet. Inserted with the
+ * batch's qty_reserved UPDATE and deleted by the order's own transaction when it commits; a row
+ * still here after the grant timeout belongs to an order that never committed and is released.
+ */
+@Entity
+@Table(name = "inventory_reservation_grants", indexes = @Index(columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservationGrant {
+
+    // Issued by DocumentNumberGenerator, unique across instances
+    @Id
+    private Long id;
+
+    @Column(name = "inventory_id", nullable = false)
+    private Long inventoryId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
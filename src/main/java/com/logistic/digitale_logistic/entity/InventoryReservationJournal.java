@@ -0,0 +1,38 @@
+package com.logistic.digitale_logistic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Write-behind journal of qty_reserved deltas produced by the in-memory
+ * available-to-promise ledger. Rows are inserted in the reserving transaction
+ * and removed once applied to the inventory table.
+ */
+@Entity
+@Table(name = "inventory_reservation_journal")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservationJournal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_reservation_journal_seq")
+    @SequenceGenerator(name = "inventory_reservation_journal_seq", sequenceName = "inventory_reservation_journal_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(name = "qty_delta", nullable = false)
+    private Integer qtyDelta;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,113 @@
+package com.logistic.digitale_logistic.entity;
+
+import com.logistic.digitale_logistic.dto.OrderTrackingLineDTO;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read model of one sales order as its client tracks it: status, totals, shipment and backorder
+ * progress and a summary of every line, denormalised into one row so that listing a client's
+ * orders is a single index range scan. Rebuilt from the order by {@code OrderTrackingProjector}
+ * whenever the order changes, never written to otherwise.
+ */
+@Entity
+@Table(name = "order_tracking", indexes = {
+        @Index(name = "idx_order_tracking_client_order_date_id", columnList = "client_id, order_date, order_id")
+})
+@Data
+@NoArgsConstructor
+public class OrderTracking implements Persistable<Long> {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "client_id", nullable = false)
+    private Long clientId;
+
+    @Column(name = "order_number", nullable = false, length = 100)
+    private String orderNumber;
+
+    @Column(nullable = false, length = 50)
+    private String status;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Column(name = "planned_ship_date")
+    private LocalDate plannedShipDate;
+
+    // updated_at of the order this row was built from
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "warehouse_id")
+    private Long warehouseId;
+
+    @Column(name = "warehouse_name", length = 100)
+    private String warehouseName;
+
+    @Column(name = "total_amount", precision = 14, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount = 0;
+
+    @Column(name = "ordered_quantity", nullable = false)
+    private Integer orderedQuantity = 0;
+
+    @Column(name = "reserved_quantity", nullable = false)
+    private Integer reservedQuantity = 0;
+
+    @Column(name = "shipped_quantity", nullable = false)
+    private Integer shippedQuantity = 0;
+
+    @Column(name = "shipment_count", nullable = false)
+    private Integer shipmentCount = 0;
+
+    @Column(name = "shipment_status", length = 50)
+    private String shipmentStatus;
+
+    @Column(name = "open_backorders", nullable = false)
+    private Integer openBackorders = 0;
+
+    @Column(name = "backordered_quantity", nullable = false)
+    private Integer backorderedQuantity = 0;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "line_summaries")
+    private List<OrderTrackingLineDTO> lines = new ArrayList<>();
+
+    @Column(name = "refreshed_at")
+    private LocalDateTime refreshedAt;
+
+    // Rows are keyed by the order id, so save() must be told which ones are new
+    @Transient
+    private boolean created = true;
+
+    @Override
+    public Long getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        created = false;
+    }
+}
@@ -14,7 +14,8 @@ import java.time.LocalDateTime;
 public class PoLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_order_lines_seq")
+    @SequenceGenerator(name = "purchase_order_lines_seq", sequenceName = "purchase_order_lines_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
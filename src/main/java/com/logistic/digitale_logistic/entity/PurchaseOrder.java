@@ -17,7 +17,8 @@ import java.util.List;
 public class PurchaseOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_orders_seq")
+    @SequenceGenerator(name = "purchase_orders_seq", sequenceName = "purchase_orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "po_number", nullable = false, length = 100, unique = true)
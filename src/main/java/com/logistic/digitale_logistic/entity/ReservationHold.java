@@ -0,0 +1,43 @@
+package com.logistic.digitale_logistic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held in qty_reserved for one sales order, per inventory row.
+ * Holds expire with their order (sales_orders.reservation_expires_at) and are
+ * released, or dropped once the order goes to shipment.
+ */
+@Entity
+@Table(name = "reservation_holds", indexes = {
+        @Index(name = "idx_reservation_holds_sales_order", columnList = "sales_order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_holds_seq")
+    @SequenceGenerator(name = "reservation_holds_seq", sequenceName = "reservation_holds_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "sales_order_id", nullable = false)
+    private Long salesOrderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -10,14 +10,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sales_orders")
+@Table(name = "sales_orders", indexes = {
+        @Index(name = "idx_sales_orders_reservation_expires_at", columnList = "reservation_expires_at"),
+        // Keyset search (newest first), alone or with one filter
+        @Index(name = "idx_sales_orders_order_date_id", columnList = "order_date, id"),
+        @Index(name = "idx_sales_orders_status_order_date_id", columnList = "status, order_date, id"),
+        @Index(name = "idx_sales_orders_warehouse_order_date_id", columnList = "warehouse_id, order_date, id"),
+        @Index(name = "idx_sales_orders_client_order_date_id", columnList = "client_id, order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class SalesOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_orders_seq")
+    @SequenceGenerator(name = "sales_orders_seq", sequenceName = "sales_orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_number", nullable = false, length = 100, unique = true)
@@ -48,6 +56,10 @@ public class SalesOrder {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Reserved stock is released and the order goes back to CREATED after this instant
+    @Column(name = "reservation_expires_at")
+    private LocalDateTime reservationExpiresAt;
+
     @OneToMany(mappedBy = "salesOrder", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SoLine> lines = new ArrayList<>();
 
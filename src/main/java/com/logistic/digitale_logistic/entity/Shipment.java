@@ -16,7 +16,8 @@ import java.util.List;
 public class Shipment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipments_seq")
+    @SequenceGenerator(name = "shipments_seq", sequenceName = "shipments_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "shipment_number", nullable = false, length = 100, unique = true)
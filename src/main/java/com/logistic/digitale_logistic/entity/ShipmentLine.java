@@ -11,7 +11,8 @@ import lombok.*;
 public class ShipmentLine {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shipment_lines_seq")
+    @SequenceGenerator(name = "shipment_lines_seq", sequenceName = "shipment_lines_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -3,10 +3,14 @@ package com.logistic.digitale_logistic.entity;
 import jakarta.persistence.*;
 import jdk.jshell.Snippet;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "supplier")
 @Table(name = "suppliers")
 @Data
 @NoArgsConstructor
@@ -15,7 +19,8 @@ import java.time.LocalDateTime;
 public class Supplier {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "suppliers_seq")
+    @SequenceGenerator(name = "suppliers_seq", sequenceName = "suppliers_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
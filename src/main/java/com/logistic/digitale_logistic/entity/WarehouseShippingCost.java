@@ -0,0 +1,39 @@
+package com.logistic.digitale_logistic.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Cost of moving stock from one warehouse to another: a cost per unit plus a fixed
+ * cost per shipment. Used to score sourcing plans when an order's warehouse is short.
+ */
+@Entity
+@Table(name = "warehouse_shipping_costs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_warehouse_shipping_costs_lane", columnNames = {"from_warehouse_id", "to_warehouse_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseShippingCost {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "warehouse_shipping_costs_seq")
+    @SequenceGenerator(name = "warehouse_shipping_costs_seq", sequenceName = "warehouse_shipping_costs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "from_warehouse_id", nullable = false)
+    private Long fromWarehouseId;
+
+    @Column(name = "to_warehouse_id", nullable = false)
+    private Long toWarehouseId;
+
+    @Column(name = "unit_cost", nullable = false, precision = 10, scale = 2)
+    private BigDecimal unitCost = BigDecimal.ZERO;
+
+    @Column(name = "shipment_cost", nullable = false, precision = 10, scale = 2)
+    private BigDecimal shipmentCost = BigDecimal.ZERO;
+}
@@ -0,0 +1,6 @@
+package com.logistic.digitale_logistic.enums;
+
+public enum AllocationObjective {
+    FILL_RATE,        // Every unit that can be reserved is, shared pro rata when stock is short
+    COMPLETE_ORDERS   // Complete as many orders as possible first, then spread what is left
+}
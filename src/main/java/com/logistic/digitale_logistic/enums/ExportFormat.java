@@ -0,0 +1,6 @@
+package com.logistic.digitale_logistic.enums;
+
+public enum ExportFormat {
+    NDJSON,     // One JSON object per row, camelCase fields
+    CSV         // Header row of snake_case column names, then one row per record
+}
@@ -0,0 +1,6 @@
+package com.logistic.digitale_logistic.enums;
+
+public enum ImportFormat {
+    NDJSON,     // One sales order JSON object per line
+    CSV         // One row per order line: ref,client_id,warehouse_id,product_id,quantity
+}
@@ -0,0 +1,7 @@
+package com.logistic.digitale_logistic.enums;
+
+public enum ImportReservationMode {
+    NONE,       // Import only, orders stay CREATED
+    PER_ORDER,  // Reserve each imported order on its own, like the single-order API
+    BATCH       // Reserve each imported chunk as one batch allocation run
+}
@@ -0,0 +1,20 @@
+package com.logistic.digitale_logistic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by every service that writes qty_on_hand / qty_reserved directly
+ * on the inventory table. Quantities are deltas, never absolute values.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class InventoryChangedEvent {
+
+    private final Long productId;
+    private final Long warehouseId;
+    private final int qtyOnHandDelta;
+    private final int qtyReservedDelta;
+}
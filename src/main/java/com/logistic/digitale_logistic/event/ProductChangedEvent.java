@@ -0,0 +1,16 @@
+package com.logistic.digitale_logistic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a product is created or one of its fields changes
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ProductChangedEvent {
+
+    private final Long productId;
+}
@@ -0,0 +1,17 @@
+package com.logistic.digitale_logistic.event;
+
+import com.logistic.digitale_logistic.dto.ReservationResultDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a queued reservation has run (successfully or not)
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ReservationCompletedEvent {
+
+    private final ReservationResultDTO result;
+}
@@ -0,0 +1,19 @@
+package com.logistic.digitale_logistic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a sales order starts holding reserved stock until {@code expiresAt}
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ReservationHeldEvent {
+
+    private final Long salesOrderId;
+    private final LocalDateTime expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.logistic.digitale_logistic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by every service that changes a sales order, its lines' reservations, its shipments
+ * or its backorders, within the transaction that makes the change
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SalesOrderChangedEvent {
+
+    private final Long salesOrderId;
+}
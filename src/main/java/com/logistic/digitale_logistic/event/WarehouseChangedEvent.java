@@ -0,0 +1,16 @@
+package com.logistic.digitale_logistic.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published whenever a warehouse is created, updated or deleted
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class WarehouseChangedEvent {
+
+    private final Long warehouseId;
+}
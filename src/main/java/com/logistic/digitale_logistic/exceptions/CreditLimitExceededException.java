@@ -0,0 +1,7 @@
+package com.logistic.digitale_logistic.exceptions;
+
+public class CreditLimitExceededException extends RuntimeException {
+    public CreditLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.logistic.digitale_logistic.exceptions;
+
+public class IntakeOverloadedException extends RuntimeException {
+    public IntakeOverloadedException(String message) {
+        super(message);
+    }
+}
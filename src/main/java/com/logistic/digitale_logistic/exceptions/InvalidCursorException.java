@@ -0,0 +1,7 @@
+package com.logistic.digitale_logistic.exceptions;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
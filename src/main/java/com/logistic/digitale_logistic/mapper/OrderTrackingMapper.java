@@ -0,0 +1,11 @@
+package com.logistic.digitale_logistic.mapper;
+
+import com.logistic.digitale_logistic.dto.OrderTrackingDTO;
+import com.logistic.digitale_logistic.entity.OrderTracking;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface OrderTrackingMapper {
+
+    OrderTrackingDTO toDTO(OrderTracking orderTracking);
+}
@@ -1,12 +1,15 @@
 package com.logistic.digitale_logistic.repository;
 
+import com.logistic.digitale_logistic.dto.OrderBackorderRow;
 import com.logistic.digitale_logistic.entity.Backorder;
 import com.logistic.digitale_logistic.enums.BackorderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,6 +25,17 @@ public interface BackorderRepository extends JpaRepository<Backorder, Long> {
     @Query("SELECT b FROM Backorder b WHERE b.soLine.salesOrder.id = :salesOrderId")
     List<Backorder> findBySalesOrderId(@Param("salesOrderId") Long salesOrderId);
 
+    @Query("SELECT new com.logistic.digitale_logistic.dto.OrderBackorderRow(l.salesOrder.id, l.id, b.status, " +
+            "b.quantityBackordered, b.quantityFulfilled) FROM Backorder b JOIN b.soLine l WHERE l.salesOrder.id IN :salesOrderIds")
+    List<OrderBackorderRow> findRowsBySalesOrderIdIn(@Param("salesOrderIds") Collection<Long> salesOrderIds);
+
+    @Modifying
+    @Query("UPDATE Backorder b SET b.status = :cancelled WHERE b.status IN :open " +
+            "AND b.soLine.id IN (SELECT l.id FROM SoLine l WHERE l.salesOrder.id IN :salesOrderIds)")
+    int updateStatusForSalesOrders(@Param("salesOrderIds") Collection<Long> salesOrderIds,
+                                   @Param("open") Collection<BackorderStatus> open,
+                                   @Param("cancelled") BackorderStatus cancelled);
+
     @Query("SELECT COALESCE(SUM(b.quantityBackordered - b.quantityFulfilled), 0) FROM Backorder b WHERE b.product.id = :productId AND b.warehouse.id = :warehouseId AND b.status IN ('PENDING', 'PARTIALLY_FULFILLED')")
     Integer getTotalPendingBackorderQuantity(@Param("productId") Long productId, @Param("warehouseId") Long warehouseId);
 }
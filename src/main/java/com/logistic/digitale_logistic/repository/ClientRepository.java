@@ -2,12 +2,17 @@ package com.logistic.digitale_logistic.repository;
 
 import com.logistic.digitale_logistic.entity.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
     Optional<Client> findByUserEmail(String email);
+
+    @Query("SELECT c.userId FROM Client c")
+    List<Long> findAllIds();
 }
 
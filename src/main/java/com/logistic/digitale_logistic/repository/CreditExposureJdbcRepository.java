@@ -0,0 +1,132 @@
+package com.logistic.digitale_logistic.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to the per-client open exposure: admission is one conditional UPDATE
+ */
+@Repository
+@RequiredArgsConstructor
+public class CreditExposureJdbcRepository {
+
+    /** Orders that still count against the credit limit */
+    public static final List<String> OPEN_STATUSES = List.of("CREATED", "RESERVED", "SHIPPED");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Add {@code amount} to the client's exposure if it stays within the client's credit limit
+     * (no limit when the limit is null or zero, or when {@code enforce} is false)
+     *
+     * @return false when the limit would be exceeded or the client has no exposure row yet
+     */
+    public boolean tryAdd(Long clientId, BigDecimal amount, boolean enforce) {
+        String sql = "UPDATE client_credit_exposure SET open_amount = open_amount + :amount, updated_at = :now " +
+                "WHERE client_id = :clientId";
+        if (enforce) {
+            sql += " AND ((SELECT COALESCE(c.credit_limit, 0) FROM clients c WHERE c.user_id = :clientId) <= 0 " +
+                    "OR open_amount + :amount <= (SELECT c.credit_limit FROM clients c WHERE c.user_id = :clientId))";
+        }
+        return jdbcTemplate.update(sql,
+                new MapSqlParameterSource()
+                        .addValue("clientId", clientId)
+                        .addValue("amount", amount)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()))) == 1;
+    }
+
+    public void release(Long clientId, BigDecimal amount) {
+        jdbcTemplate.update(
+                "UPDATE client_credit_exposure SET open_amount = GREATEST(open_amount - :amount, 0), updated_at = :now " +
+                        "WHERE client_id = :clientId",
+                new MapSqlParameterSource()
+                        .addValue("clientId", clientId)
+                        .addValue("amount", amount)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    /**
+     * Create the client's row from its open orders
+     *
+     * @return false when the row already exists
+     */
+    public boolean insertFromOrders(Long clientId) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO client_credit_exposure (client_id, open_amount, updated_at) " +
+                            "SELECT :clientId, COALESCE(SUM(o.total_amount), 0), :now FROM sales_orders o " +
+                            "WHERE o.client_id = :clientId AND o.status IN (:open)",
+                    new MapSqlParameterSource()
+                            .addValue("clientId", clientId)
+                            .addValue("open", OPEN_STATUSES)
+                            .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lock the client's row until the end of the transaction
+     */
+    public Optional<BigDecimal> lock(Long clientId) {
+        return jdbcTemplate.queryForList(
+                "SELECT open_amount FROM client_credit_exposure WHERE client_id = :clientId FOR UPDATE",
+                new MapSqlParameterSource("clientId", clientId), BigDecimal.class).stream().findFirst();
+    }
+
+    /**
+     * Reset the client's row to the total of its open orders
+     */
+    public void recount(Long clientId) {
+        jdbcTemplate.update(
+                "UPDATE client_credit_exposure SET updated_at = :now, open_amount = " +
+                        "(SELECT COALESCE(SUM(o.total_amount), 0) FROM sales_orders o " +
+                        "WHERE o.client_id = :clientId AND o.status IN (:open)) " +
+                        "WHERE client_id = :clientId",
+                new MapSqlParameterSource()
+                        .addValue("clientId", clientId)
+                        .addValue("open", OPEN_STATUSES)
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+    }
+
+    public Optional<BigDecimal> findOpenAmount(Long clientId) {
+        return jdbcTemplate.queryForList(
+                "SELECT open_amount FROM client_credit_exposure WHERE client_id = :clientId",
+                new MapSqlParameterSource("clientId", clientId), BigDecimal.class).stream().findFirst();
+    }
+
+    public Map<Long, BigDecimal> findAllOpenAmounts() {
+        Map<Long, BigDecimal> amounts = new HashMap<>();
+        jdbcTemplate.query("SELECT client_id, open_amount FROM client_credit_exposure",
+                rs -> {
+                    amounts.put(rs.getLong("client_id"), rs.getBigDecimal("open_amount"));
+                });
+        return amounts;
+    }
+
+    /**
+     * Open order totals per client, straight from sales_orders
+     */
+    public Map<Long, BigDecimal> sumOpenOrdersByClient() {
+        Map<Long, BigDecimal> amounts = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT client_id, SUM(total_amount) AS open_amount FROM sales_orders WHERE status IN (:open) GROUP BY client_id",
+                new MapSqlParameterSource("open", OPEN_STATUSES),
+                rs -> {
+                    amounts.put(rs.getLong("client_id"), rs.getBigDecimal("open_amount"));
+                });
+        return amounts;
+    }
+}
@@ -0,0 +1,99 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Row-by-row reads for the exports: each row goes to the handler as it arrives and nothing is
+ * kept. With a fetch size inside a transaction the PostgreSQL driver reads through a server-side
+ * cursor, {@code export.fetch-size} rows at a time, instead of loading the whole result.
+ */
+@Repository
+public class ExportJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ExportJdbcRepository(DataSource dataSource, @Value("${export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+    }
+
+    public void streamInventory(RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT i.id, i.product_id, p.sku, i.warehouse_id, w.name AS warehouse_name, i.qty_on_hand, " +
+                        "i.qty_reserved, i.qty_on_hand - i.qty_reserved AS qty_available, i.updated_at " +
+                        "FROM inventory i JOIN products p ON p.id = i.product_id JOIN warehouses w ON w.id = i.warehouse_id " +
+                        "ORDER BY i.id",
+                new MapSqlParameterSource(), handler);
+    }
+
+    public void streamProducts(RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT id, sku, name, category, selling_price, cost_price, active, created_at FROM products ORDER BY id",
+                new MapSqlParameterSource(), handler);
+    }
+
+    /**
+     * Order headers matching the search filters, oldest first
+     */
+    public void streamSalesOrders(SalesOrderSearchCriteria criteria, RowCallbackHandler handler) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(
+                "SELECT o.id, o.order_number, o.client_id, u.name AS client_name, o.warehouse_id, w.name AS warehouse_name, " +
+                        "o.status, o.order_date, o.planned_ship_date, o.total_amount, o.updated_at " +
+                        "FROM sales_orders o JOIN users u ON u.id = o.client_id JOIN warehouses w ON w.id = o.warehouse_id " +
+                        "WHERE 1 = 1");
+        if (criteria.getStatus() != null) {
+            sql.append(" AND o.status = :status");
+            parameters.addValue("status", criteria.getStatus());
+        }
+        if (criteria.getWarehouseId() != null) {
+            sql.append(" AND o.warehouse_id = :warehouseId");
+            parameters.addValue("warehouseId", criteria.getWarehouseId());
+        }
+        if (criteria.getClientId() != null) {
+            sql.append(" AND o.client_id = :clientId");
+            parameters.addValue("clientId", criteria.getClientId());
+        }
+        if (criteria.getFrom() != null) {
+            sql.append(" AND o.order_date >= :from");
+            parameters.addValue("from", Timestamp.valueOf(criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            sql.append(" AND o.order_date < :to");
+            parameters.addValue("to", Timestamp.valueOf(criteria.getTo()));
+        }
+        sql.append(" ORDER BY o.order_date, o.id");
+        jdbcTemplate.query(sql.toString(), parameters, handler);
+    }
+
+    /**
+     * Movements that occurred in [from, to), either bound optional, oldest first
+     */
+    public void streamInventoryMovements(LocalDateTime from, LocalDateTime to, RowCallbackHandler handler) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(
+                "SELECT m.id, m.product_id, m.warehouse_id, m.movement_type, m.quantity, m.purchase_order_id, " +
+                        "m.sales_order_id, m.reference_doc, m.notes, m.occurred_at FROM inventory_movements m WHERE 1 = 1");
+        if (from != null) {
+            sql.append(" AND m.occurred_at >= :from");
+            parameters.addValue("from", Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND m.occurred_at < :to");
+            parameters.addValue("to", Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY m.id");
+        jdbcTemplate.query(sql.toString(), parameters, handler);
+    }
+}
@@ -0,0 +1,75 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.entity.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Plain JDBC access to idempotency keys: the filter runs outside any transaction and each
+ * statement commits on its own
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claim the key for a request about to run
+     *
+     * @return false when the key already has a row
+     */
+    public boolean insertInProgress(String id, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_keys (id, request_hash, created_at, expires_at) VALUES (?, ?, ?, ?)",
+                    id, requestHash, Timestamp.valueOf(createdAt), Timestamp.valueOf(expiresAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public Optional<IdempotencyRecord> findById(String id) {
+        return jdbcTemplate.query(
+                "SELECT id, request_hash, response_status, content_type, response_body, created_at, expires_at " +
+                        "FROM idempotency_keys WHERE id = ?",
+                (rs, rowNum) -> new IdempotencyRecord(
+                        rs.getString("id"),
+                        rs.getString("request_hash"),
+                        (Integer) rs.getObject("response_status"),
+                        rs.getString("content_type"),
+                        rs.getBytes("response_body"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getTimestamp("expires_at").toLocalDateTime()),
+                id).stream().findFirst();
+    }
+
+    public void complete(String id, int responseStatus, String contentType, byte[] responseBody) {
+        jdbcTemplate.update("UPDATE idempotency_keys SET response_status = ?, content_type = ?, response_body = ? WHERE id = ?",
+                responseStatus, contentType, responseBody, id);
+    }
+
+    public void delete(String id) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ?", id);
+    }
+
+    /**
+     * Remove the key if it has expired, or if its request started before {@code abandonedBefore}
+     * and never completed (the instance running it went away)
+     */
+    public boolean deleteIfStale(String id, LocalDateTime now, LocalDateTime abandonedBefore) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND " +
+                        "(expires_at <= ? OR (response_status IS NULL AND created_at < ?))",
+                id, Timestamp.valueOf(now), Timestamp.valueOf(abandonedBefore)) > 0;
+    }
+
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", Timestamp.valueOf(now));
+    }
+}
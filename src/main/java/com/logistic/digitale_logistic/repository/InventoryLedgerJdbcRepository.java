@@ -0,0 +1,90 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.entity.InventoryReservationJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Plain JDBC access for the ledger journal and bulk inventory reservations so that inserts,
+ * applies and deletes go out as JDBC batches (IDENTITY ids prevent Hibernate from batching them).
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryLedgerJdbcRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void appendJournal(Collection<StockDelta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inventory_reservation_journal (product_id, warehouse_id, qty_delta, created_at) VALUES (?, ?, ?, ?)",
+                deltas, deltas.size(),
+                (ps, delta) -> {
+                    ps.setLong(1, delta.getProductId());
+                    ps.setLong(2, delta.getWarehouseId());
+                    ps.setInt(3, delta.getQuantity());
+                    ps.setTimestamp(4, now);
+                });
+    }
+
+    public List<InventoryReservationJournal> findJournalBatch(int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, product_id, warehouse_id, qty_delta, created_at FROM inventory_reservation_journal ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new InventoryReservationJournal(
+                        rs.getLong("id"),
+                        rs.getLong("product_id"),
+                        rs.getLong("warehouse_id"),
+                        rs.getInt("qty_delta"),
+                        rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toLocalDateTime() : null),
+                limit);
+    }
+
+    public void applyReservedDeltas(Collection<StockDelta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "UPDATE inventory SET qty_reserved = qty_reserved + ?, updated_at = ? WHERE product_id = ? AND warehouse_id = ?",
+                deltas, deltas.size(),
+                (ps, delta) -> {
+                    ps.setInt(1, delta.getQuantity());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, delta.getProductId());
+                    ps.setLong(4, delta.getWarehouseId());
+                });
+    }
+
+    /**
+     * Conditional batch reservation: a row is only updated if it still has the quantity available.
+     *
+     * @return update count per delta, 0 where the stock was taken concurrently
+     */
+    public int[] reserveIfAvailable(List<StockDelta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "UPDATE inventory SET qty_reserved = qty_reserved + ?, updated_at = ? " +
+                        "WHERE product_id = ? AND warehouse_id = ? AND qty_on_hand - qty_reserved >= ?",
+                deltas, Math.max(1, deltas.size()),
+                (ps, delta) -> {
+                    ps.setInt(1, delta.getQuantity());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, delta.getProductId());
+                    ps.setLong(4, delta.getWarehouseId());
+                    ps.setInt(5, delta.getQuantity());
+                });
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    public void deleteJournalEntries(List<Long> ids) {
+        jdbcTemplate.batchUpdate(
+                "DELETE FROM inventory_reservation_journal WHERE id = ?",
+                ids, ids.size(),
+                (ps, id) -> ps.setLong(1, id));
+    }
+}
@@ -1,12 +1,18 @@
 package com.logistic.digitale_logistic.repository;
 
 
+import com.logistic.digitale_logistic.dto.InventoryDTO;
+import com.logistic.digitale_logistic.dto.ProductInventoryDTO;
+import com.logistic.digitale_logistic.dto.StockLevel;
 import com.logistic.digitale_logistic.entity.Inventory;
 import com.logistic.digitale_logistic.entity.Warehouse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +22,10 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     Optional<Inventory> findByProduct_IdAndWarehouse_Id(Long productId, Long warehouseId);
 
+    @Query("SELECT i FROM Inventory i WHERE i.warehouse.id = :warehouseId AND i.product.id IN :productIds")
+    List<Inventory> findByWarehouseIdAndProductIdIn(@Param("warehouseId") Long warehouseId,
+                                                    @Param("productIds") Collection<Long> productIds);
+
     @Query("SELECT i FROM Inventory i WHERE i.product.sku = :sku")
     Optional<Inventory> findByProductSku(@Param("sku") String sku);
 
@@ -24,4 +34,73 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
 
     @Query("SELECT COALESCE(SUM(i.qtyReserved), 0) FROM Inventory i WHERE i.product.id = :productId")
     Integer findTotalQtyReservedByProductId(@Param("productId") Long productId);
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.StockLevel(i.product.id, i.warehouse.id, i.qtyOnHand, i.qtyReserved) FROM Inventory i")
+    List<StockLevel> findAllStockLevels();
+
+    /**
+     * Stock levels of active products in active warehouses, the only positions that can be reserved
+     */
+    @Query("SELECT new com.logistic.digitale_logistic.dto.StockLevel(p.id, w.id, i.qtyOnHand, i.qtyReserved) " +
+            "FROM Inventory i JOIN i.product p JOIN i.warehouse w WHERE p.active = true AND w.active = true")
+    List<StockLevel> findActiveStockLevels();
+
+    /**
+     * Stock of the warehouse's active products, read straight into DTOs
+     */
+    @Query("SELECT new com.logistic.digitale_logistic.dto.ProductInventoryDTO(p.id, p.sku, p.name, p.category, " +
+            "p.sellingPrice, i.qtyOnHand, i.qtyReserved, i.qtyOnHand - i.qtyReserved) " +
+            "FROM Inventory i JOIN i.product p WHERE i.warehouse.id = :warehouseId AND p.active = true ORDER BY p.id")
+    List<ProductInventoryDTO> findActiveProductInventoryByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.InventoryDTO(i.id, i.product.id, i.warehouse.id, " +
+            "i.qtyOnHand, i.qtyReserved, i.qtyAvailable) FROM Inventory i WHERE i.warehouse.id = :warehouseId ORDER BY i.id")
+    List<InventoryDTO> findInventoryDTOsByWarehouseId(@Param("warehouseId") Long warehouseId);
+
+    @Query("SELECT i FROM Inventory i JOIN FETCH i.warehouse WHERE i.product.id IN :productIds")
+    List<Inventory> findAllByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.StockLevel(i.product.id, i.warehouse.id, i.qtyOnHand, i.qtyReserved) " +
+            "FROM Inventory i WHERE i.product.id IN :productIds")
+    List<StockLevel> findStockLevelsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Reserve only if the row still has enough stock: check and increment in one statement.
+     *
+     * @return 1 when reserved, 0 when another transaction took the stock first
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.qtyReserved = i.qtyReserved + :qty, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.qtyOnHand - i.qtyReserved >= :qty")
+    int reserveIfAvailable(@Param("id") Long id, @Param("qty") int qty, @Param("now") LocalDateTime now);
+
+    /**
+     * Ship reserved stock: on hand and reserved both go down by the quantity, relative to the row as
+     * it is now, and only while the row still holds that much.
+     *
+     * @return 1 when shipped, 0 when the row has less on hand than the quantity
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.qtyOnHand = i.qtyOnHand - :qty, i.qtyReserved = i.qtyReserved - :qty, " +
+            "i.updatedAt = :now WHERE i.id = :id AND i.qtyOnHand >= :qty")
+    int shipReserved(@Param("id") Long id, @Param("qty") int qty, @Param("now") LocalDateTime now);
+
+    /**
+     * Add received stock to the row as it is now
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.qtyOnHand = i.qtyOnHand + :qty, i.updatedAt = :now WHERE i.id = :id")
+    int receive(@Param("id") Long id, @Param("qty") int qty, @Param("now") LocalDateTime now);
+
+    /**
+     * Apply a correction to the row as it is now, keeping the changes committed since it was read
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Inventory i SET i.qtyOnHand = i.qtyOnHand + :onHandDelta, " +
+            "i.qtyReserved = i.qtyReserved + :reservedDelta, i.updatedAt = :now WHERE i.id = :id")
+    int adjust(@Param("id") Long id, @Param("onHandDelta") int onHandDelta,
+               @Param("reservedDelta") int reservedDelta, @Param("now") LocalDateTime now);
+
+    @Query("SELECT i.qtyOnHand - i.qtyReserved FROM Inventory i WHERE i.id = :id")
+    Integer findCurrentAvailableById(@Param("id") Long id);
 }
@@ -0,0 +1,35 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.entity.OrderTracking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderTrackingRepository extends JpaRepository<OrderTracking, Long> {
+
+    // Newest first on the (client_id, order_date, order_id) index
+    @Query("SELECT t FROM OrderTracking t WHERE t.clientId = :clientId AND t.orderDate IS NOT NULL " +
+            "ORDER BY t.orderDate DESC, t.orderId DESC")
+    List<OrderTracking> findFirstPage(@Param("clientId") Long clientId, Limit limit);
+
+    @Query("SELECT t FROM OrderTracking t WHERE t.clientId = :clientId AND t.orderDate IS NOT NULL " +
+            "AND (t.orderDate, t.orderId) < (:afterDate, :afterId) ORDER BY t.orderDate DESC, t.orderId DESC")
+    List<OrderTracking> findPageAfter(@Param("clientId") Long clientId,
+                                      @Param("afterDate") LocalDateTime afterDate,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
+
+    /**
+     * Orders after {@code afterId} without a row, or whose row was built from an older version of the order
+     */
+    @Query("SELECT o.id FROM SalesOrder o WHERE o.id > :afterId AND NOT EXISTS (SELECT t.orderId FROM OrderTracking t " +
+            "WHERE t.orderId = o.id AND (t.updatedAt = o.updatedAt OR (t.updatedAt IS NULL AND o.updatedAt IS NULL))) " +
+            "ORDER BY o.id")
+    List<Long> findStaleOrderIds(@Param("afterId") Long afterId, Limit limit);
+}
@@ -1,12 +1,41 @@
 package com.logistic.digitale_logistic.repository;
 
 
+import com.logistic.digitale_logistic.dto.ProductPrice;
+import com.logistic.digitale_logistic.dto.ProductSearchResultDTO;
 import com.logistic.digitale_logistic.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductSkuLookup {
     List<Product> findByActiveTrue();
-    Product findBySku(String sku);
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.ProductPrice(p.id, p.sellingPrice, p.active) FROM Product p")
+    List<ProductPrice> findAllPrices();
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.ProductSearchResultDTO(p.id, p.sku, p.name, p.category, p.active) " +
+            "FROM Product p")
+    List<ProductSearchResultDTO> findAllSearchEntries();
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.ProductSearchResultDTO(p.id, p.sku, p.name, p.category, p.active) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductSearchResultDTO> findSearchEntryById(@Param("id") Long id);
+
+    /**
+     * SKU prefix or name/category substring match, for when the in-memory index is unavailable
+     */
+    @Query("SELECT new com.logistic.digitale_logistic.dto.ProductSearchResultDTO(p.id, p.sku, p.name, p.category, p.active) " +
+            "FROM Product p " +
+            "WHERE (p.active = true OR :includeInactive = true) " +
+            "AND (LOWER(p.sku) LIKE CONCAT(:text, '%') OR LOWER(p.name) LIKE CONCAT('%', :text, '%') " +
+            "OR LOWER(p.category) LIKE CONCAT('%', :text, '%')) " +
+            "ORDER BY p.sku")
+    List<ProductSearchResultDTO> searchByText(@Param("text") String text,
+                                              @Param("includeInactive") boolean includeInactive,
+                                              Limit limit);
 }
@@ -0,0 +1,11 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.entity.Product;
+
+public interface ProductSkuLookup {
+
+    /**
+     * Product with this SKU, or null; resolved through the natural-id cache when warm
+     */
+    Product findBySku(String sku);
+}
@@ -0,0 +1,17 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.entity.Product;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+
+@RequiredArgsConstructor
+public class ProductSkuLookupImpl implements ProductSkuLookup {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Product findBySku(String sku) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Product.class).load(sku);
+    }
+}
@@ -0,0 +1,98 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.entity.ReservationHold;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Plain JDBC access for reservation holds so that inserts and releases go out as JDBC batches
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReservationHoldJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void insertHolds(Long salesOrderId, Collection<StockDelta> holds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO reservation_holds (sales_order_id, product_id, warehouse_id, quantity, created_at) VALUES (?, ?, ?, ?, ?)",
+                holds, holds.size(),
+                (ps, hold) -> {
+                    ps.setLong(1, salesOrderId);
+                    ps.setLong(2, hold.getProductId());
+                    ps.setLong(3, hold.getWarehouseId());
+                    ps.setInt(4, hold.getQuantity());
+                    ps.setTimestamp(5, now);
+                });
+    }
+
+    /**
+     * Lock the orders among the ids whose reservation has expired, so no shipment can take over
+     * their holds until the release commits. An order shipped or re-reserved meanwhile is left out.
+     *
+     * @return ids of the locked orders
+     */
+    public List<Long> lockExpiredReservations(Collection<Long> salesOrderIds, LocalDateTime now) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM sales_orders WHERE id IN (:ids) AND status = 'RESERVED' " +
+                        "AND reservation_expires_at <= :now FOR UPDATE",
+                new MapSqlParameterSource("ids", salesOrderIds).addValue("now", Timestamp.valueOf(now)),
+                Long.class);
+    }
+
+    /**
+     * Stop the expiry of a reserved order, locking it against a concurrent release
+     *
+     * @return false when the order is no longer reserved (its reservation expired meanwhile)
+     */
+    public boolean claimReservation(Long salesOrderId) {
+        return jdbcTemplate.update(
+                "UPDATE sales_orders SET reservation_expires_at = NULL WHERE id = :id AND status = 'RESERVED'",
+                new MapSqlParameterSource("id", salesOrderId)) == 1;
+    }
+
+    public List<ReservationHold> findBySalesOrderIds(Collection<Long> salesOrderIds) {
+        return jdbcTemplate.query(
+                "SELECT id, sales_order_id, product_id, warehouse_id, quantity, created_at FROM reservation_holds " +
+                        "WHERE sales_order_id IN (:ids)",
+                new MapSqlParameterSource("ids", salesOrderIds),
+                (rs, rowNum) -> new ReservationHold(
+                        rs.getLong("id"),
+                        rs.getLong("sales_order_id"),
+                        rs.getLong("product_id"),
+                        rs.getLong("warehouse_id"),
+                        rs.getInt("quantity"),
+                        rs.getTimestamp("created_at") != null ? rs.getTimestamp("created_at").toLocalDateTime() : null));
+    }
+
+    public int deleteBySalesOrderIds(Collection<Long> salesOrderIds) {
+        return jdbcTemplate.update("DELETE FROM reservation_holds WHERE sales_order_id IN (:ids)",
+                new MapSqlParameterSource("ids", salesOrderIds));
+    }
+
+    /**
+     * Give held quantities back to the available stock, one batch for all rows
+     */
+    public void releaseReserved(Collection<StockDelta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE inventory SET qty_reserved = GREATEST(qty_reserved - ?, 0), updated_at = ? " +
+                        "WHERE product_id = ? AND warehouse_id = ?",
+                deltas, deltas.size(),
+                (ps, delta) -> {
+                    ps.setInt(1, delta.getQuantity());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, delta.getProductId());
+                    ps.setLong(4, delta.getWarehouseId());
+                });
+    }
+}
@@ -0,0 +1,65 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC inserts for bulk imported orders: one batch for the orders, one for their lines
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesOrderImportJdbcRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Insert the orders and their lines, setting the generated order ids on the given entities
+     */
+    public void insertOrders(List<SalesOrder> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] rows = orders.stream()
+                .map(order -> new MapSqlParameterSource()
+                        .addValue("orderNumber", order.getOrderNumber())
+                        .addValue("clientId", order.getClient().getUserId())
+                        .addValue("warehouseId", order.getWarehouse().getId())
+                        .addValue("status", order.getStatus())
+                        .addValue("orderDate", Timestamp.valueOf(order.getOrderDate()))
+                        .addValue("totalAmount", order.getTotalAmount())
+                        .addValue("updatedAt", Timestamp.valueOf(order.getUpdatedAt())))
+                .toArray(SqlParameterSource[]::new);
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO sales_orders (order_number, client_id, warehouse_id, status, order_date, total_amount, updated_at) " +
+                        "VALUES (:orderNumber, :clientId, :warehouseId, :status, :orderDate, :totalAmount, :updatedAt)",
+                rows, keys, new String[]{"id"});
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setId(((Number) generated.get(i).get("id")).longValue());
+        }
+
+        List<SoLine> lines = orders.stream().flatMap(order -> order.getLines().stream()).toList();
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "INSERT INTO sales_order_lines (sales_order_id, product_id, ordered_quantity, reserved_quantity, unit_price) " +
+                        "VALUES (?, ?, ?, ?, ?)",
+                lines, lines.size(),
+                (ps, line) -> {
+                    ps.setLong(1, line.getSalesOrder().getId());
+                    ps.setLong(2, line.getProduct().getId());
+                    ps.setInt(3, line.getOrderedQuantity());
+                    ps.setInt(4, line.getReservedQuantity());
+                    ps.setBigDecimal(5, line.getUnitPrice());
+                });
+    }
+}
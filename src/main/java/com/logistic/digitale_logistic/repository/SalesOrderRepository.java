@@ -1,14 +1,66 @@
 package com.logistic.digitale_logistic.repository;
 
 import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.event.ReservationHeldEvent;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SalesOrderRepository extends JpaRepository<SalesOrder, Long> {
     List<SalesOrder> findByClientUserId(Long clientId);
 
+    @Query("SELECT DISTINCT o FROM SalesOrder o LEFT JOIN FETCH o.lines " +
+            "WHERE o.id IN :ids AND o.status = 'RESERVED' AND o.reservationExpiresAt <= :now")
+    List<SalesOrder> findExpiredReservations(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.logistic.digitale_logistic.event.ReservationHeldEvent(o.id, o.reservationExpiresAt) " +
+            "FROM SalesOrder o WHERE o.reservationExpiresAt IS NOT NULL AND o.status = 'RESERVED'")
+    List<ReservationHeldEvent> findActiveReservationExpiries();
+
+    @Query("SELECT DISTINCT o FROM SalesOrder o LEFT JOIN FETCH o.lines l LEFT JOIN FETCH l.product WHERE o.id = :id")
+    Optional<SalesOrder> findWithLinesAndProductsById(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT o FROM SalesOrder o JOIN FETCH o.warehouse LEFT JOIN FETCH o.lines l LEFT JOIN FETCH l.product " +
+            "WHERE o.status = :status AND o.orderDate >= :from AND o.orderDate < :to " +
+            "ORDER BY o.orderDate, o.id")
+    List<SalesOrder> findForAllocation(@Param("status") String status,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Query("SELECT DISTINCT o FROM SalesOrder o JOIN FETCH o.warehouse LEFT JOIN FETCH o.lines l LEFT JOIN FETCH l.product " +
+            "WHERE o.status = :status AND o.warehouse.id = :warehouseId AND o.orderDate >= :from AND o.orderDate < :to " +
+            "ORDER BY o.orderDate, o.id")
+    List<SalesOrder> findForAllocationInWarehouse(@Param("status") String status,
+                                                  @Param("warehouseId") Long warehouseId,
+                                                  @Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    @Query("SELECT DISTINCT o FROM SalesOrder o JOIN FETCH o.warehouse LEFT JOIN FETCH o.lines l LEFT JOIN FETCH l.product " +
+            "WHERE o.status = :status AND o.id IN :ids ORDER BY o.orderDate, o.id")
+    List<SalesOrder> findForAllocationByIdIn(@Param("status") String status, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT o FROM SalesOrder o JOIN FETCH o.client c JOIN FETCH c.user JOIN FETCH o.warehouse " +
+            "LEFT JOIN FETCH o.lines l LEFT JOIN FETCH l.product WHERE o.id IN :ids")
+    List<SalesOrder> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Row locks until the transaction ends, taken in id order so that lockers never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM SalesOrder o WHERE o.id IN :ids ORDER BY o.id")
+    List<SalesOrder> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Whole order graph the mapper reads (client name, warehouse, lines and products) in one query
+    @Query("SELECT DISTINCT o FROM SalesOrder o JOIN FETCH o.client c JOIN FETCH c.user JOIN FETCH o.warehouse " +
+            "LEFT JOIN FETCH o.lines l LEFT JOIN FETCH l.product ORDER BY o.id")
+    List<SalesOrder> findAllWithDetails();
+
 }
 
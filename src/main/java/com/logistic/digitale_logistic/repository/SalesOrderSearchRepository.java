@@ -0,0 +1,85 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales-order search with only the filters actually given in the WHERE clause, so each
+ * combination gets a plan on its own (order_date, id) index instead of one generic plan
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesOrderSearchRepository {
+
+    /**
+     * Position after which the next page starts, newest first
+     */
+    public record Keyset(LocalDateTime orderDate, Long id) {
+    }
+
+    private final EntityManager entityManager;
+
+    /**
+     * Ids of the next {@code limit} matching orders after {@code after} (from the newest when null),
+     * ordered by orderDate then id, descending
+     */
+    public List<Long> findIds(SalesOrderSearchCriteria criteria, Keyset after, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT o.id FROM SalesOrder o");
+        where(jpql, parameters, criteria);
+        if (after != null) {
+            // Row comparison: a range scan on the index, whatever the page
+            jpql.append(" AND (o.orderDate, o.id) < (:afterDate, :afterId)");
+            parameters.put("afterDate", after.orderDate());
+            parameters.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY o.orderDate DESC, o.id DESC");
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class).setMaxResults(limit);
+        parameters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    public long count(SalesOrderSearchCriteria criteria) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT COUNT(o) FROM SalesOrder o");
+        where(jpql, parameters, criteria);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private static void where(StringBuilder jpql, Map<String, Object> parameters, SalesOrderSearchCriteria criteria) {
+        // Orders without a date cannot be positioned by the keyset (every creation path sets one)
+        jpql.append(" WHERE o.orderDate IS NOT NULL");
+        if (criteria.getStatus() != null) {
+            jpql.append(" AND o.status = :status");
+            parameters.put("status", criteria.getStatus());
+        }
+        if (criteria.getWarehouseId() != null) {
+            jpql.append(" AND o.warehouse.id = :warehouseId");
+            parameters.put("warehouseId", criteria.getWarehouseId());
+        }
+        if (criteria.getClientId() != null) {
+            jpql.append(" AND o.client.userId = :clientId");
+            parameters.put("clientId", criteria.getClientId());
+        }
+        if (criteria.getFrom() != null) {
+            jpql.append(" AND o.orderDate >= :from");
+            parameters.put("from", criteria.getFrom());
+        }
+        if (criteria.getTo() != null) {
+            jpql.append(" AND o.orderDate < :to");
+            parameters.put("to", criteria.getTo());
+        }
+    }
+}
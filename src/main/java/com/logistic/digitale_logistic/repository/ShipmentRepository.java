@@ -1,10 +1,15 @@
 package com.logistic.digitale_logistic.repository;
 
+import com.logistic.digitale_logistic.dto.OrderShipmentRow;
 import com.logistic.digitale_logistic.entity.Shipment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
@@ -12,5 +17,15 @@ public interface ShipmentRepository extends JpaRepository<Shipment, Long> {
     List<Shipment> findBySalesOrder_Id(Long salesOrderId);
 
     List<Shipment> findByStatus(String status);
+
+    // Shipment with its order, warehouse, lines and products: what shipping and the mapper read
+    @Query("SELECT DISTINCT s FROM Shipment s JOIN FETCH s.salesOrder o JOIN FETCH o.warehouse " +
+            "LEFT JOIN FETCH s.lines l LEFT JOIN FETCH l.product WHERE s.id = :id")
+    Optional<Shipment> findWithDetailsById(@Param("id") Long id);
+
+    @Query("SELECT new com.logistic.digitale_logistic.dto.OrderShipmentRow(s.salesOrder.id, s.id, s.status, " +
+            "l.salesOrderLine.id, l.quantityShipped) FROM Shipment s LEFT JOIN s.lines l " +
+            "WHERE s.salesOrder.id IN :salesOrderIds ORDER BY s.id")
+    List<OrderShipmentRow> findRowsBySalesOrderIdIn(@Param("salesOrderIds") Collection<Long> salesOrderIds);
 }
 
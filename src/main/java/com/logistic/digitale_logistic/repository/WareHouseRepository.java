@@ -1,10 +1,27 @@
 package com.logistic.digitale_logistic.repository;
 
+import com.logistic.digitale_logistic.dto.WarehouseProductRow;
 import com.logistic.digitale_logistic.entity.Warehouse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface WareHouseRepository extends JpaRepository<Warehouse, Long> {
     boolean existsByName(String name);
+
+    @Query("SELECT w.id FROM Warehouse w")
+    List<Long> findAllIds();
+
+    /**
+     * Active warehouses with their active products in one query, ordered by warehouse
+     * (a warehouse without active products comes back as one row with null product fields)
+     */
+    @Query("SELECT new com.logistic.digitale_logistic.dto.WarehouseProductRow(w.id, w.name, w.location, w.active, " +
+            "p.id, p.name, p.sku, p.category, p.sellingPrice, i.qtyOnHand - i.qtyReserved, i.qtyOnHand, i.qtyReserved) " +
+            "FROM Inventory i JOIN i.product p ON p.active = true RIGHT JOIN i.warehouse w " +
+            "WHERE w.active = true ORDER BY w.id, p.id")
+    List<WarehouseProductRow> findActiveWarehouseProducts();
 }
@@ -0,0 +1,9 @@
+package com.logistic.digitale_logistic.repository;
+
+import com.logistic.digitale_logistic.entity.WarehouseShippingCost;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface WarehouseShippingCostRepository extends JpaRepository<WarehouseShippingCost, Long> {
+}
@@ -0,0 +1,241 @@
+package com.logistic.digitale_logistic.service.Admin;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.enums.ExportFormat;
+import com.logistic.digitale_logistic.repository.ExportJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Full exports of inventory, products, sales orders and inventory movements. Rows are written
+ * to the response as the cursor reads them, so memory stays flat whatever the table size; each
+ * export is one read-only transaction and therefore one consistent snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataExportService {
+
+    private static final int FLUSH_EVERY = 1_000;
+
+    private final ExportJdbcRepository exportRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportInventory(ExportFormat format, Writer out) throws IOException {
+        return export("inventory", format, out, exportRepository::streamInventory);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportProducts(ExportFormat format, Writer out) throws IOException {
+        return export("products", format, out, exportRepository::streamProducts);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportSalesOrders(SalesOrderSearchCriteria criteria, ExportFormat format, Writer out) throws IOException {
+        return export("sales-orders", format, out, handler -> exportRepository.streamSalesOrders(criteria, handler));
+    }
+
+    @Transactional(readOnly = true)
+    public long exportInventoryMovements(LocalDateTime from, LocalDateTime to, ExportFormat format, Writer out) throws IOException {
+        return export("inventory-movements", format, out,
+                handler -> exportRepository.streamInventoryMovements(from, to, handler));
+    }
+
+    private long export(String name, ExportFormat format, Writer out, Consumer<RowCallbackHandler> query) throws IOException {
+        long start = System.currentTimeMillis();
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        try {
+            query.accept(writer);
+        } catch (UncheckedIOException e) {
+            // Usually the client going away mid-download
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Export completed | export={} | format={} | rows={} | durationMs={}",
+                name, format, writer.rows, System.currentTimeMillis() - start);
+        return writer.rows;
+    }
+
+    /**
+     * Writes each row from the result set metadata, so the queries alone decide the columns
+     */
+    private abstract static class RowWriter implements RowCallbackHandler {
+
+        final Writer out;
+        String[] columns;
+        long rows;
+
+        RowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                if (columns == null) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    columns = new String[metaData.getColumnCount()];
+                    for (int i = 0; i < columns.length; i++) {
+                        columns[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+                    }
+                    start();
+                }
+                write(rs);
+                if (++rows % FLUSH_EVERY == 0) {
+                    flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void start() throws IOException {
+        }
+
+        abstract void write(ResultSet rs) throws IOException, SQLException;
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        void finish() throws IOException {
+            flush();
+        }
+
+        static Object value(ResultSet rs, int column) throws SQLException {
+            Object value = rs.getObject(column);
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toLocalDateTime();
+            }
+            if (value instanceof Date date) {
+                return date.toLocalDate();
+            }
+            return value;
+        }
+    }
+
+    private class NdjsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+        private String[] fields;
+
+        NdjsonRowWriter(Writer out) throws IOException {
+            super(out);
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void start() {
+            fields = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                fields[i] = camelCase(columns[i]);
+            }
+        }
+
+        @Override
+        void write(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < fields.length; i++) {
+                Object value = value(rs, i + 1);
+                generator.writeFieldName(fields[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    // Prices and amounts, written with their scale (12.50, not 12)
+                    generator.writeNumber(decimal);
+                } else if (value instanceof BigInteger integer) {
+                    generator.writeNumber(integer);
+                } else if (value instanceof Double || value instanceof Float) {
+                    generator.writeNumber(((Number) value).doubleValue());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            // Also flushes the writer underneath
+            generator.flush();
+        }
+
+        private static String camelCase(String column) {
+            StringBuilder field = new StringBuilder(column.length());
+            boolean upper = false;
+            for (char c : column.toCharArray()) {
+                if (c == '_') {
+                    upper = true;
+                } else {
+                    field.append(upper ? Character.toUpperCase(c) : c);
+                    upper = false;
+                }
+            }
+            return field.toString();
+        }
+    }
+
+    private static class CsvRowWriter extends RowWriter {
+
+        CsvRowWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        void start() throws IOException {
+            out.write(String.join(",", columns));
+            out.write('\n');
+        }
+
+        @Override
+        void write(ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object value = value(rs, i + 1);
+                if (value != null) {
+                    out.write(escape(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString()));
+                }
+            }
+            out.write('\n');
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -4,12 +4,16 @@ import com.logistic.digitale_logistic.dto.InventoryDTO;
 import com.logistic.digitale_logistic.entity.Inventory;
 import com.logistic.digitale_logistic.entity.Product;
 import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
 import com.logistic.digitale_logistic.mapper.InventoryMapper;
 import com.logistic.digitale_logistic.repository.InventoryRepository;
 import com.logistic.digitale_logistic.repository.ProductRepository;
 import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -18,12 +22,14 @@ public class InventoryService {
     private final WareHouseRepository warehouseRepository;
     private final InventoryMapper inventoryMapper;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public InventoryService(InventoryRepository inventoryRepository, WareHouseRepository warehouseRepository, InventoryMapper inventoryMapper, ProductRepository productRepository) {
+    public InventoryService(InventoryRepository inventoryRepository, WareHouseRepository warehouseRepository, InventoryMapper inventoryMapper, ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
         this.inventoryRepository = inventoryRepository;
         this.warehouseRepository = warehouseRepository;
         this.inventoryMapper = inventoryMapper;
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
     }
     public InventoryDTO getInventoryById(Long id) {
         Inventory inventory = inventoryRepository.findById(id)
@@ -50,31 +56,44 @@ public class InventoryService {
         inventory.setWarehouse(warehouse);
 
         Inventory saved = inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                product.getId(), warehouse.getId(), saved.getQtyOnHand(), saved.getQtyReserved()));
         return inventoryMapper.toDTO(saved);
     }
 
+    /**
+     * Correct the quantities to the values given, as a change from the ones read: reservations and
+     * receipts committed meanwhile, or still to be flushed by the ledger, are kept
+     */
+    @Transactional
     public InventoryDTO updateInventory(Long id, InventoryDTO dto) {
         Inventory inventory = inventoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Inventory not found"));
 
-        inventory.setQtyOnHand(dto.getQtyOnHand());
-        inventory.setQtyReserved(dto.getQtyReserved());
+        int onHandDelta = dto.getQtyOnHand() - inventory.getQtyOnHand();
+        int reservedDelta = dto.getQtyReserved() - inventory.getQtyReserved();
+        inventoryRepository.adjust(id, onHandDelta, reservedDelta, LocalDateTime.now());
 
-        return inventoryMapper.toDTO(inventoryRepository.save(inventory));
+        InventoryDTO updated = inventoryMapper.toDTO(inventoryRepository.findById(id).orElseThrow());
+        eventPublisher.publishEvent(new InventoryChangedEvent(
+                inventory.getProduct().getId(), inventory.getWarehouse().getId(), onHandDelta, reservedDelta));
+        return updated;
     }
 
     public void deleteInventory(Long id) {
-        inventoryRepository.deleteById(id);
+        inventoryRepository.findById(id).ifPresent(inventory -> {
+            inventoryRepository.delete(inventory);
+            eventPublisher.publishEvent(new InventoryChangedEvent(
+                    inventory.getProduct().getId(), inventory.getWarehouse().getId(),
+                    -inventory.getQtyOnHand(), -inventory.getQtyReserved()));
+        });
     }
 
     public List<InventoryDTO> getInventoryByWarehouse(Long warehouseId) {
-        Warehouse warehouse = warehouseRepository.findById(warehouseId)
-                .orElseThrow(() -> new RuntimeException("Warehouse not found"));
-
-        List<Inventory> inventories = inventoryRepository.findByWarehouse(warehouse);
+        if (!warehouseRepository.existsById(warehouseId)) {
+            throw new RuntimeException("Warehouse not found");
+        }
 
-        return inventories.stream()
-                .map(inventoryMapper::toDTO)
-                .toList();
+        return inventoryRepository.findInventoryDTOsByWarehouseId(warehouseId);
     }
 }
@@ -5,11 +5,14 @@ import com.logistic.digitale_logistic.dto.UserDTO;
 import com.logistic.digitale_logistic.entity.Product;
 import com.logistic.digitale_logistic.entity.SalesOrder;
 import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.event.ProductChangedEvent;
 import com.logistic.digitale_logistic.mapper.ProductMapper;
 import com.logistic.digitale_logistic.repository.InventoryRepository;
 import com.logistic.digitale_logistic.repository.ProductRepository;
 import com.logistic.digitale_logistic.repository.SalesOrderRepository;
 import com.logistic.digitale_logistic.repository.SoLineRepository;
+import com.logistic.digitale_logistic.service.client.ProductReferenceCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -23,13 +26,17 @@ public class ProductService {
     private final SalesOrderRepository salesOrderRepository;
     private final InventoryRepository inventoryRepository;
     private final SoLineRepository soLineRepository;
+    private final ProductReferenceCache productReferenceCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ProductService(ProductRepository repo, ProductMapper mapper, SalesOrderRepository salesOrderRepository, InventoryRepository inventoryRepository, SoLineRepository soLineRepository) {
+    public ProductService(ProductRepository repo, ProductMapper mapper, SalesOrderRepository salesOrderRepository, InventoryRepository inventoryRepository, SoLineRepository soLineRepository, ProductReferenceCache productReferenceCache, ApplicationEventPublisher eventPublisher) {
         this.productRepository = repo;
         this.productMapper = mapper;
         this.salesOrderRepository = salesOrderRepository;
         this.inventoryRepository = inventoryRepository;
         this.soLineRepository = soLineRepository;
+        this.productReferenceCache = productReferenceCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<ProductDTO> getAllProducts() {
@@ -46,6 +53,7 @@ public class ProductService {
         }
 
         Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId()));
         return productMapper.toProductDTO(saved);
     }
 
@@ -61,6 +69,8 @@ public class ProductService {
         if (dto.getActive() != null) product.setActive(dto.getActive());
 
         Product updated = productRepository.save(product);
+        productReferenceCache.invalidate(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
         return productMapper.toProductDTO(updated);
     }
 
@@ -69,6 +79,8 @@ public class ProductService {
                 .orElseThrow(() -> new Exception("Product not found"));
         product.setActive(true);
         productRepository.save(product);
+        productReferenceCache.invalidate(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(id));
     }
 
     public void deactivateProduct(String sku) throws Exception {
@@ -101,6 +113,8 @@ public class ProductService {
         }
         product.setActive(false);
         productRepository.save(product);
+        productReferenceCache.invalidate(product.getId());
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId()));
     }
 }
 
@@ -2,8 +2,10 @@ package com.logistic.digitale_logistic.service.Admin;
 
 import com.logistic.digitale_logistic.dto.WareHouseDTO;
 import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.event.WarehouseChangedEvent;
 import com.logistic.digitale_logistic.mapper.wareHouseMapper;
 import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -14,10 +16,13 @@ public class wareHouseService {
 
     private final WareHouseRepository warehouseRepository;
     private final wareHouseMapper warehouseMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public wareHouseService(WareHouseRepository warehouseRepository, wareHouseMapper warehouseMapper) {
+    public wareHouseService(WareHouseRepository warehouseRepository, wareHouseMapper warehouseMapper,
+                            ApplicationEventPublisher eventPublisher) {
         this.warehouseRepository = warehouseRepository;
         this.warehouseMapper = warehouseMapper;
+        this.eventPublisher = eventPublisher;
     }
 
     public WareHouseDTO create(WareHouseDTO dto) {
@@ -26,6 +31,7 @@ public class wareHouseService {
         }
         Warehouse entity = warehouseMapper.toEntity(dto);
         Warehouse saved = warehouseRepository.save(entity);
+        eventPublisher.publishEvent(new WarehouseChangedEvent(saved.getId()));
         return warehouseMapper.toDto(saved);
     }
 
@@ -50,6 +56,7 @@ public class wareHouseService {
         existing.setActive(dto.getActive());
 
         Warehouse updated = warehouseRepository.save(existing);
+        eventPublisher.publishEvent(new WarehouseChangedEvent(id));
         return warehouseMapper.toDto(updated);
     }
 
@@ -58,5 +65,6 @@ public class wareHouseService {
             throw new RuntimeException("Warehouse not found");
         }
         warehouseRepository.deleteById(id);
+        eventPublisher.publishEvent(new WarehouseChangedEvent(id));
     }
 }
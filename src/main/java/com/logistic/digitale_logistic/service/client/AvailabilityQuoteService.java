@@ -0,0 +1,62 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.AvailabilityQuoteDTO;
+import com.logistic.digitale_logistic.dto.AvailabilityQuoteRequestDTO;
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Quotes what an order would get without creating it: promisable quantity per line and the
+ * warehouses it would be reserved from, planned by the same {@link SourcingStrategy} as a real
+ * reservation. Served from the {@link AvailabilitySnapshot}; nothing is written and no
+ * transaction or database connection is used.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilityQuoteService {
+
+    private final AvailabilitySnapshot availabilitySnapshot;
+    private final SourcingStrategy sourcingStrategy;
+
+    public AvailabilityQuoteDTO quote(AvailabilityQuoteRequestDTO request) {
+        Long warehouseId = request.getWarehouseId();
+        List<StockDelta> demand = request.getLines().stream()
+                .map(line -> new StockDelta(line.getProductId(), warehouseId, line.getQuantity()))
+                .toList();
+
+        Map<Long, List<StockLevel>> levelsByProduct = new LinkedHashMap<>();
+        demand.forEach(line -> levelsByProduct.computeIfAbsent(line.getProductId(), availabilitySnapshot::stockLevels));
+        List<StockLevel> supply = levelsByProduct.values().stream().flatMap(List::stream).toList();
+
+        List<List<StockDelta>> sourcing = sourcingStrategy.plan(warehouseId, demand, supply);
+
+        List<AvailabilityQuoteDTO.Line> lines = new ArrayList<>(demand.size());
+        boolean fullyAvailable = true;
+        for (int i = 0; i < demand.size(); i++) {
+            StockDelta line = demand.get(i);
+            int promisable = sourcing.get(i).stream().mapToInt(StockDelta::getQuantity).sum();
+            fullyAvailable &= promisable >= line.getQuantity();
+            lines.add(AvailabilityQuoteDTO.Line.builder()
+                    .productId(line.getProductId())
+                    .requestedQuantity(line.getQuantity())
+                    .promisableQuantity(promisable)
+                    .availableByWarehouse(levelsByProduct.get(line.getProductId()).stream()
+                            .filter(level -> level.getQtyAvailable() > 0)
+                            .sorted(Comparator.comparing(StockLevel::getWarehouseId))
+                            .map(level -> new StockDelta(level.getProductId(), level.getWarehouseId(), level.getQtyAvailable()))
+                            .toList())
+                    .sourcing(sourcing.get(i))
+                    .build());
+        }
+
+        return AvailabilityQuoteDTO.builder()
+                .warehouseId(warehouseId)
+                .fullyAvailable(fullyAvailable)
+                .lines(lines)
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only copy of the stock levels for quotes.
+ *
+ * Only positions of active products in active warehouses are loaded, since no other can be
+ * reserved. The inventory table is loaded on startup, kept current with the
+ * {@link InventoryChangedEvent}s of committed writes and reloaded periodically to correct drift
+ * and pick up positions that became active. When the available-to-promise ledger is enabled its
+ * levels are read directly, restricted to the positions loaded here.
+ * Quotes may therefore lag behind the database by a few moments: they are a promise, not a hold.
+ */
+@Component
+@Slf4j
+public class AvailabilitySnapshot implements SmartInitializingSingleton {
+
+    private final InventoryRepository inventoryRepository;
+    private final AvailableToPromiseLedger availableToPromiseLedger;
+
+    private volatile Map<Long, Map<Long, StockLevel>> levelsByProduct = new ConcurrentHashMap<>();
+
+    public AvailabilitySnapshot(InventoryRepository inventoryRepository,
+                                AvailableToPromiseLedger availableToPromiseLedger) {
+        this.inventoryRepository = inventoryRepository;
+        this.availableToPromiseLedger = availableToPromiseLedger;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.availability.refresh-ms:30000}",
+            initialDelayString = "${inventory.availability.refresh-ms:30000}")
+    public void refresh() {
+        Map<Long, Map<Long, StockLevel>> loaded = new ConcurrentHashMap<>();
+        List<StockLevel> levels = inventoryRepository.findActiveStockLevels();
+        for (StockLevel level : levels) {
+            loaded.computeIfAbsent(level.getProductId(), id -> new ConcurrentHashMap<>())
+                    .put(level.getWarehouseId(), level);
+        }
+        levelsByProduct = loaded;
+        log.debug("Availability snapshot reloaded | positions={}", levels.size());
+    }
+
+    /**
+     * Stock levels of a product in every warehouse holding it
+     */
+    public List<StockLevel> stockLevels(Long productId) {
+        Map<Long, StockLevel> byWarehouse = levelsByProduct.get(productId);
+        if (byWarehouse == null) {
+            return List.of();
+        }
+        if (availableToPromiseLedger.isEnabled()) {
+            return availableToPromiseLedger.stockLevels(productId).stream()
+                    .filter(level -> byWarehouse.containsKey(level.getWarehouseId()))
+                    .toList();
+        }
+        return List.copyOf(byWarehouse.values());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        // Positions outside the snapshot are inactive or new; the next reload decides which
+        Map<Long, StockLevel> byWarehouse = levelsByProduct.get(event.getProductId());
+        if (byWarehouse == null) {
+            return;
+        }
+        // Levels are replaced, never modified, so readers always see a consistent one
+        byWarehouse.computeIfPresent(event.getWarehouseId(), (id, level) -> new StockLevel(event.getProductId(), id,
+                level.getQtyOnHand() + event.getQtyOnHandDelta(),
+                level.getQtyReserved() + event.getQtyReservedDelta()));
+    }
+}
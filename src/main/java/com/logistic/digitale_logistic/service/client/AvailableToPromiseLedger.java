@@ -0,0 +1,372 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.config.CatalogVersions;
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.InventoryReservationJournal;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryLedgerJdbcRepository;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory available-to-promise ledger keyed by (productId, warehouseId).
+ *
+ * - Positions are guarded by striped locks, so reservations on different SKUs never contend.
+ * - Every reservation is journaled in the reserving transaction (inventory_reservation_journal),
+ *   and a scheduled flush applies the journal to inventory.qty_reserved in batches.
+ *   A crash between commit and flush therefore loses nothing: the journal is replayed on startup.
+ * - Writes made by other services directly on the inventory table are mirrored
+ *   through {@link InventoryChangedEvent} after they commit. They must be relative updates
+ *   (qty_reserved = qty_reserved + ?), as every writer of the table is: an absolute write from
+ *   an entity read before a flush would drop the reservations that flush applied.
+ *
+ * The ledger is authoritative for one application instance only; keep it disabled
+ * (inventory.ledger.enabled=false) when running several instances against the same database.
+ */
+@Service
+@Slf4j
+public class AvailableToPromiseLedger implements SmartInitializingSingleton {
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryLedgerJdbcRepository ledgerJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersions catalogVersions;
+    private final boolean enabled;
+    private final int flushBatchSize;
+
+    private final ReentrantLock[] stripes;
+    private final Map<StockKey, Position> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> warehousesByProduct = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public AvailableToPromiseLedger(InventoryRepository inventoryRepository,
+                                   InventoryLedgerJdbcRepository ledgerJdbcRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   CatalogVersions catalogVersions,
+                                   @Value("${inventory.ledger.enabled:false}") boolean enabled,
+                                   @Value("${inventory.ledger.stripes:64}") int stripeCount,
+                                   @Value("${inventory.ledger.flush-batch-size:500}") int flushBatchSize) {
+        this.inventoryRepository = inventoryRepository;
+        this.ledgerJdbcRepository = ledgerJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogVersions = catalogVersions;
+        this.enabled = enabled;
+        this.flushBatchSize = flushBatchSize;
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return true when reservations should be served by the ledger
+     */
+    public boolean isEnabled() {
+        return enabled && ready;
+    }
+
+    /**
+     * Rebuild from the inventory table before the web server starts accepting requests.
+     * When that fails, reservations go to the database until a scheduled flush rebuilds it.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Available-to-promise ledger not rebuilt, reservations go to the database until it is: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload every position. Pending journal rows are applied first, with no flush running
+     * meanwhile: qty_reserved read before they are would undercount reservations.
+     *
+     * @throws RuntimeException when the journal could not be applied; the ledger then stays off
+     */
+    public void rebuild() {
+        ready = false;
+        flushLock.lock();
+        try {
+            int flushed = drainJournal();
+            positions.clear();
+            warehousesByProduct.clear();
+
+            List<StockLevel> levels = inventoryRepository.findAllStockLevels();
+            for (StockLevel level : levels) {
+                StockKey key = new StockKey(level.getProductId(), level.getWarehouseId());
+                positions.put(key, new Position(level.getQtyOnHand(), level.getQtyReserved()));
+                warehousesByProduct.computeIfAbsent(level.getProductId(), id -> ConcurrentHashMap.newKeySet())
+                        .add(level.getWarehouseId());
+            }
+            ready = true;
+            log.info("Available-to-promise ledger rebuilt | positions={} | replayedJournalRows={}", levels.size(), flushed);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Available quantity of one product in one warehouse
+     */
+    public int available(Long productId, Long warehouseId) {
+        StockKey key = new StockKey(productId, warehouseId);
+        ReentrantLock lock = stripeFor(key);
+        lock.lock();
+        try {
+            Position position = positions.get(key);
+            return position == null ? 0 : position.available();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Snapshot of every warehouse position for a product
+     */
+    public List<StockLevel> stockLevels(Long productId) {
+        Set<Long> warehouseIds = warehousesByProduct.getOrDefault(productId, Collections.emptySet());
+        List<StockLevel> levels = new ArrayList<>(warehouseIds.size());
+        for (Long warehouseId : warehouseIds) {
+            StockKey key = new StockKey(productId, warehouseId);
+            ReentrantLock lock = stripeFor(key);
+            lock.lock();
+            try {
+                Position position = positions.get(key);
+                if (position != null) {
+                    levels.add(new StockLevel(productId, warehouseId, position.onHand, position.reserved));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Reserve up to {@code qty} units and return the quantity actually granted.
+     * The grant is journaled with the current transaction and undone if it rolls back.
+     */
+    public int reserveUpTo(Long productId, Long warehouseId, int qty) {
+        if (qty <= 0) {
+            return 0;
+        }
+        StockKey key = new StockKey(productId, warehouseId);
+        int granted;
+        ReentrantLock lock = stripeFor(key);
+        lock.lock();
+        try {
+            Position position = positions.get(key);
+            if (position == null) {
+                return 0;
+            }
+            granted = Math.min(Math.max(position.available(), 0), qty);
+            position.reserved += granted;
+        } finally {
+            lock.unlock();
+        }
+        if (granted > 0) {
+            journal(new StockDelta(productId, warehouseId, granted));
+        }
+        return granted;
+    }
+
+    /**
+     * Mirror committed writes that other services applied directly on the inventory table
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onInventoryChanged(InventoryChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+        StockKey key = new StockKey(event.getProductId(), event.getWarehouseId());
+        ReentrantLock lock = stripeFor(key);
+        lock.lock();
+        try {
+            Position position = positions.computeIfAbsent(key, k -> new Position(0, 0));
+            position.onHand += event.getQtyOnHandDelta();
+            position.reserved += event.getQtyReservedDelta();
+        } finally {
+            lock.unlock();
+        }
+        warehousesByProduct.computeIfAbsent(event.getProductId(), id -> ConcurrentHashMap.newKeySet())
+                .add(event.getWarehouseId());
+    }
+
+    /**
+     * Apply journaled deltas to inventory.qty_reserved in batches.
+     * Apply and delete run in one transaction, so a failed flush is simply retried.
+     * A ledger whose rebuild failed is rebuilt here instead.
+     *
+     * @return number of journal rows applied
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:200}")
+    public int flush() {
+        if (!enabled || !flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            if (!ready) {
+                rebuild();
+                return 0;
+            }
+            return drainJournal();
+        } catch (RuntimeException e) {
+            log.error("Ledger journal flush failed, will retry on next run: {}", e.getMessage(), e);
+            return 0;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ready && flush() > 0) {
+            log.info("Ledger journal flushed on shutdown");
+        }
+    }
+
+    /**
+     * Flush until the journal is empty, the caller holding flushLock. No InventoryChangedEvent
+     * (the ledger already holds these reservations), so the warehouse catalog version is moved
+     * here once a batch has committed.
+     *
+     * @throws RuntimeException from the first batch that fails, later ones are not tried
+     */
+    private int drainJournal() {
+        int total = 0;
+        int applied;
+        do {
+            Integer batch = transactionTemplate.execute(status -> flushBatch());
+            applied = batch == null ? 0 : batch;
+            if (applied > 0) {
+                catalogVersions.advance(CatalogVersions.Resource.WAREHOUSES);
+            }
+            total += applied;
+        } while (applied == flushBatchSize);
+        return total;
+    }
+
+    private int flushBatch() {
+        List<InventoryReservationJournal> entries = ledgerJdbcRepository.findJournalBatch(flushBatchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        Map<StockKey, Integer> aggregated = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(entries.size());
+        for (InventoryReservationJournal entry : entries) {
+            aggregated.merge(new StockKey(entry.getProductId(), entry.getWarehouseId()), entry.getQtyDelta(), Integer::sum);
+            ids.add(entry.getId());
+        }
+
+        List<StockDelta> deltas = aggregated.entrySet().stream()
+                .filter(e -> e.getValue() != 0)
+                .map(e -> new StockDelta(e.getKey().productId(), e.getKey().warehouseId(), e.getValue()))
+                .toList();
+        if (!deltas.isEmpty()) {
+            ledgerJdbcRepository.applyReservedDeltas(deltas);
+        }
+        ledgerJdbcRepository.deleteJournalEntries(ids);
+
+        log.debug("Ledger journal flushed | rows={} | inventoryRows={}", entries.size(), deltas.size());
+        return entries.size();
+    }
+
+    /**
+     * Journal within the current transaction (one JDBC batch at commit time),
+     * or immediately when no transaction is active.
+     */
+    private void journal(StockDelta delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ledgerJdbcRepository.appendJournal(List.of(delta));
+            return;
+        }
+        TransactionalJournal pending = (TransactionalJournal) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new TransactionalJournal();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.deltas.add(delta);
+    }
+
+    private void release(StockDelta delta) {
+        StockKey key = new StockKey(delta.getProductId(), delta.getWarehouseId());
+        ReentrantLock lock = stripeFor(key);
+        lock.lock();
+        try {
+            Position position = positions.get(key);
+            if (position != null) {
+                position.reserved -= delta.getQuantity();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(StockKey key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return stripes[(h & 0x7fffffff) % stripes.length];
+    }
+
+    private record StockKey(long productId, long warehouseId) {
+    }
+
+    /**
+     * Guarded by the stripe lock of its key
+     */
+    private static final class Position {
+        private int onHand;
+        private int reserved;
+
+        private Position(int onHand, int reserved) {
+            this.onHand = onHand;
+            this.reserved = reserved;
+        }
+
+        private int available() {
+            return onHand - reserved;
+        }
+    }
+
+    private final class TransactionalJournal implements TransactionSynchronization {
+        private final List<StockDelta> deltas = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            ledgerJdbcRepository.appendJournal(deltas);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(AvailableToPromiseLedger.this);
+            if (status != STATUS_COMMITTED) {
+                deltas.forEach(AvailableToPromiseLedger.this::release);
+                log.warn("Transaction rolled back, released {} ledger reservations", deltas.size());
+            }
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.logistic.digitale_logistic.service.client;
 
+import com.logistic.digitale_logistic.dto.StockDelta;
 import com.logistic.digitale_logistic.entity.*;
 import com.logistic.digitale_logistic.enums.BackorderStatus;
 import com.logistic.digitale_logistic.enums.MovementType;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
 import com.logistic.digitale_logistic.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +26,8 @@ public class BackorderFulfillmentService {
     private final InventoryMovementRepository inventoryMovementRepository;
     private final SoLineRepository soLineRepository;
     private final SalesOrderRepository salesOrderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationHoldService reservationHoldService;
 
     /**
      * Automatically allocate incoming stock to pending backorders (FIFO)
@@ -57,7 +63,10 @@ public class BackorderFulfillmentService {
             int pendingQty = backorder.getQuantityBackordered() - backorder.getQuantityFulfilled();
             int toFulfill = Math.min(pendingQty, remainingStock);
 
-            fulfillBackorder(backorder, toFulfill, purchaseOrder);
+            if (!fulfillBackorder(backorder, toFulfill, purchaseOrder)) {
+                log.info("Received stock already taken, Backorder ID: {} stays pending", backorder.getId());
+                break;
+            }
             remainingStock -= toFulfill;
 
             log.info("Fulfilled {} units for Backorder ID: {}", toFulfill, backorder.getId());
@@ -68,8 +77,10 @@ public class BackorderFulfillmentService {
 
     /**
      * Fulfill a backorder (partial or full)
+     *
+     * @return false when the inventory row no longer has the quantity available
      */
-    private void fulfillBackorder(Backorder backorder, int quantity, PurchaseOrder purchaseOrder) {
+    private boolean fulfillBackorder(Backorder backorder, int quantity, PurchaseOrder purchaseOrder) {
         SoLine soLine = backorder.getSoLine();
         Product product = backorder.getProduct();
         Warehouse warehouse = backorder.getWarehouse();
@@ -87,14 +98,18 @@ public class BackorderFulfillmentService {
                     return inventoryRepository.save(newInv);
                 });
 
-        // Reserve the stock for the backorder (increase reserved quantity)
-        inventory.setQtyReserved(inventory.getQtyReserved() + quantity);
-        inventory.setUpdatedAt(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+        // Reserve the stock for the backorder, checked and incremented in the database: the entity may
+        // be older than a reservation committed since
+        if (inventoryRepository.reserveIfAvailable(inventory.getId(), quantity, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(new InventoryChangedEvent(product.getId(), warehouse.getId(), 0, quantity));
 
         // Update SO line reserved quantity
         soLine.setReservedQuantity(soLine.getReservedQuantity() + quantity);
         soLineRepository.save(soLine);
+        reservationHoldService.recordHolds(soLine.getSalesOrder(),
+                List.of(new StockDelta(product.getId(), warehouse.getId(), quantity)));
 
         // Update backorder
         backorder.setQuantityFulfilled(backorder.getQuantityFulfilled() + quantity);
@@ -114,9 +129,10 @@ public class BackorderFulfillmentService {
 
         // Update sales order status if needed
         updateSalesOrderStatus(soLine.getSalesOrder());
+        eventPublisher.publishEvent(new SalesOrderChangedEvent(soLine.getSalesOrder().getId()));
 
-        log.debug("Backorder fulfillment recorded: BO-{}, Qty={}, Reserved={}",
-                backorder.getId(), quantity, inventory.getQtyReserved());
+        log.debug("Backorder fulfillment recorded: BO-{}, Qty={}", backorder.getId(), quantity);
+        return true;
     }
 
     /**
@@ -0,0 +1,181 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Computes the allocation of a whole backlog of orders against one supply snapshot, in memory.
+ *
+ * Quantities are decided per product first (depending on the objective), then each line is
+ * sourced from its order's warehouse first and from the other warehouses by remaining stock,
+ * like a single reservation would. Every unit that can be reserved is reserved with both
+ * objectives; they differ in who gets the stock when it is short.
+ */
+@Component
+public class BatchAllocationPlanner {
+
+    public AllocationPlan plan(List<SalesOrder> orders, List<StockLevel> supply, AllocationObjective objective) {
+        Map<StockKey, Integer> remaining = new HashMap<>();
+        Map<Long, List<Long>> warehousesByProduct = new HashMap<>();
+        Map<Long, Integer> supplyByProduct = new HashMap<>();
+        for (StockLevel level : supply) {
+            int available = Math.max(0, level.getQtyAvailable());
+            remaining.merge(new StockKey(level.getProductId(), level.getWarehouseId()), available, Integer::sum);
+            warehousesByProduct.computeIfAbsent(level.getProductId(), id -> new ArrayList<>()).add(level.getWarehouseId());
+            supplyByProduct.merge(level.getProductId(), available, Integer::sum);
+        }
+
+        Map<SoLine, Integer> quantities = objective == AllocationObjective.COMPLETE_ORDERS
+                ? completeOrdersFirst(orders, supplyByProduct)
+                : proRata(orders, supplyByProduct);
+
+        // Source every line, in arrival order
+        Map<StockKey, Integer> reservedByKey = new LinkedHashMap<>();
+        Map<SalesOrder, List<StockDelta>> holdsByOrder = new IdentityHashMap<>();
+        for (SalesOrder order : orders) {
+            Long preferredWarehouseId = order.getWarehouse().getId();
+            List<StockDelta> holds = holdsByOrder.computeIfAbsent(order, o -> new ArrayList<>());
+            for (SoLine line : order.getLines()) {
+                Long productId = line.getProduct().getId();
+                int toSource = quantities.getOrDefault(line, 0);
+                List<Long> candidates = new ArrayList<>(warehousesByProduct.getOrDefault(productId, List.of()));
+                candidates.sort(Comparator
+                        .comparing((Long warehouseId) -> !warehouseId.equals(preferredWarehouseId))
+                        .thenComparing(warehouseId -> -remaining.get(new StockKey(productId, warehouseId))));
+
+                for (Long warehouseId : candidates) {
+                    if (toSource <= 0) break;
+                    StockKey key = new StockKey(productId, warehouseId);
+                    int take = Math.min(toSource, remaining.get(key));
+                    if (take > 0) {
+                        remaining.merge(key, -take, Integer::sum);
+                        reservedByKey.merge(key, take, Integer::sum);
+                        holds.add(new StockDelta(productId, warehouseId, take));
+                        toSource -= take;
+                    }
+                }
+            }
+        }
+
+        List<StockDelta> deltas = reservedByKey.entrySet().stream()
+                .map(e -> new StockDelta(e.getKey().productId(), e.getKey().warehouseId(), e.getValue()))
+                .toList();
+        return new AllocationPlan(quantities, holdsByOrder, deltas);
+    }
+
+    /**
+     * Short products are shared in proportion to the ordered quantity (largest remainder,
+     * ties by arrival), so every order gets a similar fill rate.
+     */
+    private Map<SoLine, Integer> proRata(List<SalesOrder> orders, Map<Long, Integer> supplyByProduct) {
+        Map<Long, List<SoLine>> linesByProduct = new LinkedHashMap<>();
+        for (SalesOrder order : orders) {
+            for (SoLine line : order.getLines()) {
+                linesByProduct.computeIfAbsent(line.getProduct().getId(), id -> new ArrayList<>()).add(line);
+            }
+        }
+
+        Map<SoLine, Integer> quantities = new IdentityHashMap<>();
+        linesByProduct.forEach((productId, lines) -> {
+            long demand = lines.stream().mapToLong(SoLine::getOrderedQuantity).sum();
+            long supply = supplyByProduct.getOrDefault(productId, 0);
+            if (supply >= demand) {
+                lines.forEach(line -> quantities.put(line, line.getOrderedQuantity()));
+                return;
+            }
+
+            long allocated = 0;
+            long[] remainders = new long[lines.size()];
+            for (int i = 0; i < lines.size(); i++) {
+                long scaled = lines.get(i).getOrderedQuantity() * supply;
+                quantities.put(lines.get(i), (int) (scaled / demand));
+                remainders[i] = scaled % demand;
+                allocated += scaled / demand;
+            }
+
+            List<Integer> byRemainder = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                byRemainder.add(i);
+            }
+            byRemainder.sort(Comparator.comparingLong((Integer i) -> remainders[i]).reversed());
+            for (int i = 0; i < supply - allocated; i++) {
+                quantities.merge(lines.get(byRemainder.get(i)), 1, Integer::sum);
+            }
+        });
+        return quantities;
+    }
+
+    /**
+     * Complete orders cheapest first (demand relative to the supply of each product), then
+     * spread what is left over the remaining orders in arrival order.
+     */
+    private Map<SoLine, Integer> completeOrdersFirst(List<SalesOrder> orders, Map<Long, Integer> supplyByProduct) {
+        Map<Long, Integer> remaining = new HashMap<>(supplyByProduct);
+        Map<SoLine, Integer> quantities = new IdentityHashMap<>();
+
+        List<SalesOrder> byCost = new ArrayList<>(orders);
+        byCost.sort(Comparator.comparingDouble(order -> completionCost(order, supplyByProduct)));
+
+        Set<SalesOrder> completed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (SalesOrder order : byCost) {
+            Map<Long, Integer> demand = demandByProduct(order);
+            boolean fits = demand.entrySet().stream()
+                    .allMatch(e -> e.getValue() <= remaining.getOrDefault(e.getKey(), 0));
+            if (fits) {
+                demand.forEach((productId, qty) -> remaining.merge(productId, -qty, Integer::sum));
+                order.getLines().forEach(line -> quantities.put(line, line.getOrderedQuantity()));
+                completed.add(order);
+            }
+        }
+
+        for (SalesOrder order : orders) {
+            if (completed.contains(order)) continue;
+            for (SoLine line : order.getLines()) {
+                Long productId = line.getProduct().getId();
+                int take = Math.min(line.getOrderedQuantity(), remaining.getOrDefault(productId, 0));
+                if (take > 0) {
+                    remaining.merge(productId, -take, Integer::sum);
+                }
+                quantities.put(line, take);
+            }
+        }
+        return quantities;
+    }
+
+    private double completionCost(SalesOrder order, Map<Long, Integer> supplyByProduct) {
+        double cost = 0;
+        for (Map.Entry<Long, Integer> e : demandByProduct(order).entrySet()) {
+            int supply = supplyByProduct.getOrDefault(e.getKey(), 0);
+            if (supply < e.getValue()) {
+                return Double.MAX_VALUE;
+            }
+            cost += (double) e.getValue() / supply;
+        }
+        return cost;
+    }
+
+    private Map<Long, Integer> demandByProduct(SalesOrder order) {
+        Map<Long, Integer> demand = new HashMap<>();
+        order.getLines().forEach(line -> demand.merge(line.getProduct().getId(), line.getOrderedQuantity(), Integer::sum));
+        return demand;
+    }
+
+    private record StockKey(long productId, long warehouseId) {
+    }
+
+    /**
+     * @param reservedByLine quantity reserved per order line
+     * @param holdsByOrder   stock taken by each order per (product, warehouse)
+     * @param deltas         stock to reserve per (product, warehouse), aggregated over all orders
+     */
+    public record AllocationPlan(Map<SoLine, Integer> reservedByLine,
+                                 Map<SalesOrder, List<StockDelta>> holdsByOrder,
+                                 List<StockDelta> deltas) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.*;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryLedgerJdbcRepository;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves a whole backlog of CREATED orders in one run.
+ *
+ * Demand (orders, lines, products) and supply (stock levels of the products involved) are
+ * loaded once, the allocation is computed in memory by {@link BatchAllocationPlanner} and
+ * written back in bulk: one conditional batch UPDATE for the inventory rows, Hibernate JDBC
+ * batching for the order lines. If a concurrent reservation took stock the snapshot counted
+ * on, the run is rolled back and recomputed from a fresh snapshot.
+ */
+@Service
+@Slf4j
+public class BatchAllocationService {
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final SalesOrderRepository salesOrderRepository;
+    private final InventoryRepository inventoryRepository;
+    private final InventoryLedgerJdbcRepository inventoryJdbcRepository;
+    private final AvailableToPromiseLedger availableToPromiseLedger;
+    private final InventoryReservationService inventoryReservationService;
+    private final BatchAllocationPlanner planner;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public BatchAllocationService(SalesOrderRepository salesOrderRepository,
+                                  InventoryRepository inventoryRepository,
+                                  InventoryLedgerJdbcRepository inventoryJdbcRepository,
+                                  AvailableToPromiseLedger availableToPromiseLedger,
+                                  InventoryReservationService inventoryReservationService,
+                                  BatchAllocationPlanner planner,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.reservation.max-attempts:3}") int maxAttempts) {
+        this.salesOrderRepository = salesOrderRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.inventoryJdbcRepository = inventoryJdbcRepository;
+        this.availableToPromiseLedger = availableToPromiseLedger;
+        this.inventoryReservationService = inventoryReservationService;
+        this.planner = planner;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public BatchAllocationResultDTO allocate(BatchAllocationRequestDTO request) {
+        AllocationObjective objective = request.getObjective() != null ? request.getObjective() : AllocationObjective.FILL_RATE;
+        LocalDateTime from = request.getFrom() != null ? request.getFrom() : BEGINNING;
+        LocalDateTime to = request.getTo() != null ? request.getTo() : LocalDateTime.now();
+        Long warehouseId = request.getWarehouseId();
+
+        return allocate(() -> warehouseId != null
+                ? salesOrderRepository.findForAllocationInWarehouse("CREATED", warehouseId, from, to)
+                : salesOrderRepository.findForAllocation("CREATED", from, to), objective);
+    }
+
+    /**
+     * Reserve the given orders (those still CREATED) in one run, e.g. a chunk of imported orders
+     */
+    public BatchAllocationResultDTO allocateOrders(Collection<Long> salesOrderIds, AllocationObjective objective) {
+        return allocate(() -> salesOrderRepository.findForAllocationByIdIn("CREATED", salesOrderIds), objective);
+    }
+
+    private BatchAllocationResultDTO allocate(Supplier<List<SalesOrder>> orderLoader, AllocationObjective objective) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long start = System.currentTimeMillis();
+            try {
+                BatchAllocationResultDTO result = transactionTemplate.execute(status ->
+                        allocateOnce(orderLoader.get(), objective));
+                result.setDurationMs(System.currentTimeMillis() - start);
+                log.info("Batch allocation completed | objective={} | orders={} | fullyReserved={} | fillRate={} | durationMs={}",
+                        objective, result.getOrdersConsidered(), result.getOrdersFullyReserved(),
+                        String.format("%.3f", result.getFillRate()), result.getDurationMs());
+                return result;
+            } catch (StockChangedException e) {
+                log.warn("Batch allocation attempt {} conflicted with concurrent reservations: {}", attempt, e.getMessage());
+            }
+        }
+        throw new IllegalStateException("Batch allocation kept conflicting with concurrent reservations, please retry");
+    }
+
+    private BatchAllocationResultDTO allocateOnce(List<SalesOrder> orders, AllocationObjective objective) {
+        Set<Long> productIds = orders.stream()
+                .flatMap(order -> order.getLines().stream())
+                .map(line -> line.getProduct().getId())
+                .collect(Collectors.toSet());
+        boolean useLedger = availableToPromiseLedger.isEnabled();
+        List<StockLevel> supply = productIds.isEmpty() ? List.of()
+                : useLedger ? productIds.stream().flatMap(id -> availableToPromiseLedger.stockLevels(id).stream()).toList()
+                : inventoryRepository.findStockLevelsByProductIdIn(productIds);
+
+        BatchAllocationPlanner.AllocationPlan plan = planner.plan(orders, supply, objective);
+        if (useLedger) {
+            reserveInLedger(plan.deltas());
+        } else {
+            reserveInInventory(plan.deltas());
+        }
+
+        List<ReservationResultDTO> results = new ArrayList<>(orders.size());
+        long unitsOrdered = 0;
+        long unitsReserved = 0;
+        for (SalesOrder order : orders) {
+            results.add(inventoryReservationService.completeReservation(order, plan.reservedByLine(),
+                    plan.holdsByOrder().getOrDefault(order, List.of())));
+            for (SoLine line : order.getLines()) {
+                unitsOrdered += line.getOrderedQuantity();
+                unitsReserved += line.getReservedQuantity();
+            }
+        }
+
+        int fully = (int) results.stream().filter(ReservationResultDTO::isFullyReserved).count();
+        int none = (int) results.stream().filter(r -> "CREATED".equals(r.getStatus())).count();
+        return BatchAllocationResultDTO.builder()
+                .objective(objective)
+                .ordersConsidered(orders.size())
+                .ordersFullyReserved(fully)
+                .ordersPartiallyReserved(orders.size() - fully - none)
+                .ordersNotReserved(none)
+                .unitsOrdered(unitsOrdered)
+                .unitsReserved(unitsReserved)
+                .fillRate(unitsOrdered == 0 ? 0 : (double) unitsReserved / unitsOrdered)
+                .results(results)
+                .build();
+    }
+
+    private void reserveInInventory(List<StockDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int[] counts = inventoryJdbcRepository.reserveIfAvailable(deltas);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                StockDelta delta = deltas.get(i);
+                throw new StockChangedException("product " + delta.getProductId() + " in warehouse " + delta.getWarehouseId());
+            }
+        }
+        deltas.forEach(delta -> eventPublisher.publishEvent(
+                new InventoryChangedEvent(delta.getProductId(), delta.getWarehouseId(), 0, delta.getQuantity())));
+    }
+
+    /**
+     * Partial grants are released by the ledger when the transaction rolls back
+     */
+    private void reserveInLedger(List<StockDelta> deltas) {
+        for (StockDelta delta : deltas) {
+            int granted = availableToPromiseLedger.reserveUpTo(delta.getProductId(), delta.getWarehouseId(), delta.getQuantity());
+            if (granted < delta.getQuantity()) {
+                throw new StockChangedException("product " + delta.getProductId() + " in warehouse " + delta.getWarehouseId());
+            }
+        }
+    }
+
+    private static class StockChangedException extends RuntimeException {
+        StockChangedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Atomic reservation primitive on one inventory row.
+ *
+ * Each attempt is a single conditional UPDATE (qty_on_hand - qty_reserved >= n), so two orders
+ * can never both take the same stock and no row lock is held between read and write.
+ * When the row changed under us, the current available quantity is re-read and the attempt
+ * retried with what is left, up to max-attempts; the caller then falls back to the next warehouse.
+ */
+@Component
+@Slf4j
+public class ConditionalInventoryReserver {
+
+    private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxAttempts;
+
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public ConditionalInventoryReserver(InventoryRepository inventoryRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${inventory.reservation.max-attempts:3}") int maxAttempts) {
+        this.inventoryRepository = inventoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.conflicts = Counter.builder("inventory.reservation.conflicts")
+                .description("Conditional reservation updates that matched no row")
+                .register(meterRegistry);
+        this.retries = Counter.builder("inventory.reservation.retries")
+                .description("Reservation attempts retried after a fresh read")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("inventory.reservation.exhausted")
+                .description("Reservations given up on a warehouse after max attempts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserve up to {@code requestedQty} units on the row.
+     *
+     * @param expectedAvailable available quantity as last seen by the caller
+     * @return quantity actually reserved (0 when the row has nothing left or kept conflicting)
+     */
+    public int reserveUpTo(Inventory inventory, int requestedQty, int expectedAvailable) {
+        int available = expectedAvailable;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            int toReserve = Math.min(available, requestedQty);
+            if (toReserve <= 0) {
+                return 0;
+            }
+
+            if (inventoryRepository.reserveIfAvailable(inventory.getId(), toReserve, LocalDateTime.now()) == 1) {
+                eventPublisher.publishEvent(new InventoryChangedEvent(
+                        inventory.getProduct().getId(), inventory.getWarehouse().getId(), 0, toReserve));
+                return toReserve;
+            }
+
+            conflicts.increment();
+            Integer current = inventoryRepository.findCurrentAvailableById(inventory.getId());
+            available = current == null ? 0 : current;
+            log.debug("Reservation conflict on inventory {} | wanted={} | nowAvailable={} | attempt={}",
+                    inventory.getId(), toReserve, available, attempt);
+            if (attempt < maxAttempts && available > 0) {
+                retries.increment();
+            }
+        }
+
+        if (available > 0) {
+            exhausted.increment();
+            log.warn("Gave up reserving on inventory {} after {} attempts", inventory.getId(), maxAttempts);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,281 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Sources the whole order at once, choosing the set of warehouses with the lowest cost.
+ *
+ * A plan always reserves as many units as the stock allows; among those plans the cost is
+ * the shipping cost to the order's warehouse ({@link WarehouseCostMatrix}: per unit plus a fixed
+ * cost per shipment), a penalty for every extra warehouse the order is split over, and a small
+ * charge for draining a warehouse's stock of a product (keeps stock balanced between warehouses).
+ *
+ * The warehouse set is built greedily (lowest added cost per unit covered), from scratch and from
+ * a few single-warehouse seeds, and each start is improved by adding, dropping and swapping single
+ * warehouses until no move helps. Within a set, each product is taken from the cheapest warehouses first.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.sourcing.strategy", havingValue = "cost", matchIfMissing = true)
+public class CostAwareSourcingStrategy implements SourcingStrategy {
+
+    private static final int MAX_IMPROVEMENT_PASSES = 8;
+    private static final int MAX_SEEDS = 4;
+    private static final double EPSILON = 1e-9;
+
+    private final WarehouseCostMatrix costMatrix;
+    private final double splitPenalty;
+    private final double balanceWeight;
+
+    public CostAwareSourcingStrategy(WarehouseCostMatrix costMatrix,
+                                     @Value("${inventory.sourcing.split-penalty:25}") double splitPenalty,
+                                     @Value("${inventory.sourcing.balance-weight:1}") double balanceWeight) {
+        this.costMatrix = costMatrix;
+        this.splitPenalty = splitPenalty;
+        this.balanceWeight = balanceWeight;
+    }
+
+    @Override
+    public List<List<StockDelta>> plan(Long warehouseId, List<StockDelta> demand, List<StockLevel> supply) {
+        Search search = new Search(warehouseId, demand, supply);
+        boolean[] chosen = search.chooseWarehouses();
+        return search.allocate(chosen);
+    }
+
+    private record Score(long covered, double cost) {
+
+        boolean betterThan(Score other) {
+            return covered > other.covered || (covered == other.covered && cost < other.cost - EPSILON);
+        }
+    }
+
+    private class Search {
+
+        private final List<StockDelta> demand;
+        private final Map<Long, Integer> productIndex = new HashMap<>();
+        private final List<Long> warehouseIds = new ArrayList<>();
+        private final int[] demandByProduct;
+        private final int[][] available;
+        private final double[] unitCost;
+        private final double[] shipmentCost;
+        // Per product: warehouses holding it, cheapest first, then the one with most stock
+        private final int[][] sourcingOrder;
+        private final long coverable;
+
+        Search(Long warehouseId, List<StockDelta> demand, List<StockLevel> supply) {
+            this.demand = demand;
+            for (StockDelta line : demand) {
+                productIndex.putIfAbsent(line.getProductId(), productIndex.size());
+            }
+            demandByProduct = new int[productIndex.size()];
+            demand.forEach(line -> demandByProduct[productIndex.get(line.getProductId())] += line.getQuantity());
+
+            Map<Long, Integer> warehouseIndex = new HashMap<>();
+            for (StockLevel level : supply) {
+                if (productIndex.containsKey(level.getProductId()) && level.getQtyAvailable() > 0
+                        && warehouseIndex.putIfAbsent(level.getWarehouseId(), warehouseIndex.size()) == null) {
+                    warehouseIds.add(level.getWarehouseId());
+                }
+            }
+
+            available = new int[productIndex.size()][warehouseIds.size()];
+            for (StockLevel level : supply) {
+                Integer p = productIndex.get(level.getProductId());
+                Integer w = warehouseIndex.get(level.getWarehouseId());
+                if (p != null && w != null && level.getQtyAvailable() > 0) {
+                    available[p][w] += level.getQtyAvailable();
+                }
+            }
+
+            unitCost = new double[warehouseIds.size()];
+            shipmentCost = new double[warehouseIds.size()];
+            for (int w = 0; w < warehouseIds.size(); w++) {
+                unitCost[w] = costMatrix.unitCost(warehouseIds.get(w), warehouseId);
+                shipmentCost[w] = costMatrix.shipmentCost(warehouseIds.get(w), warehouseId);
+            }
+
+            sourcingOrder = new int[productIndex.size()][];
+            long total = 0;
+            for (int p = 0; p < productIndex.size(); p++) {
+                int[] stock = available[p];
+                sourcingOrder[p] = IntStream.range(0, warehouseIds.size())
+                        .filter(w -> stock[w] > 0)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble((Integer w) -> unitCost[w])
+                                .thenComparing(w -> -stock[w])
+                                .thenComparing(warehouseIds::get))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                total += Math.min(demandByProduct[p], Arrays.stream(stock).asLongStream().sum());
+            }
+            coverable = total;
+        }
+
+        /**
+         * Best warehouse set over several starts: the plain greedy construction and a construction
+         * seeded with each of the warehouses that cover the most units on their own (a single
+         * warehouse shipping the whole order is often two moves away from the greedy result).
+         */
+        boolean[] chooseWarehouses() {
+            int count = warehouseIds.size();
+            List<Integer> seeds = new ArrayList<>(List.of(-1));
+            IntStream.range(0, count)
+                    .boxed()
+                    .sorted(Comparator.comparingLong((Integer w) -> -coverage(w)))
+                    .limit(MAX_SEEDS)
+                    .forEach(seeds::add);
+
+            boolean[] best = new boolean[count];
+            Score bestScore = null;
+            for (int seed : seeds) {
+                boolean[] chosen = new boolean[count];
+                if (seed >= 0) {
+                    chosen[seed] = true;
+                }
+                Score score = improve(chosen, complete(chosen));
+                if (bestScore == null || score.betterThan(bestScore)) {
+                    best = chosen;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Greedy: add the warehouse with the lowest added cost per unit covered until
+         * everything that can be covered is
+         */
+        private Score complete(boolean[] chosen) {
+            Score current = evaluate(chosen, null);
+            while (current.covered() < coverable) {
+                int best = -1;
+                Score bestScore = null;
+                double bestRatio = Double.POSITIVE_INFINITY;
+                for (int w = 0; w < chosen.length; w++) {
+                    if (chosen[w]) continue;
+                    chosen[w] = true;
+                    Score score = evaluate(chosen, null);
+                    chosen[w] = false;
+                    long gain = score.covered() - current.covered();
+                    if (gain > 0 && (score.cost() - current.cost()) / gain < bestRatio - EPSILON) {
+                        best = w;
+                        bestScore = score;
+                        bestRatio = (score.cost() - current.cost()) / gain;
+                    }
+                }
+                if (best < 0) break;
+                chosen[best] = true;
+                current = bestScore;
+            }
+            return current;
+        }
+
+        /**
+         * Local search: add, drop or swap one warehouse while it lowers the cost
+         */
+        private Score improve(boolean[] chosen, Score current) {
+            int count = chosen.length;
+            for (int pass = 0; pass < MAX_IMPROVEMENT_PASSES; pass++) {
+                boolean improved = false;
+                for (int w = 0; w < count; w++) {
+                    chosen[w] = !chosen[w];
+                    Score score = evaluate(chosen, null);
+                    if (score.betterThan(current)) {
+                        current = score;
+                        improved = true;
+                    } else {
+                        chosen[w] = !chosen[w];
+                    }
+                }
+                for (int out = 0; out < count; out++) {
+                    if (!chosen[out]) continue;
+                    for (int in = 0; in < count; in++) {
+                        if (chosen[in]) continue;
+                        chosen[out] = false;
+                        chosen[in] = true;
+                        Score score = evaluate(chosen, null);
+                        if (score.betterThan(current)) {
+                            current = score;
+                            improved = true;
+                            break;
+                        }
+                        chosen[in] = false;
+                        chosen[out] = true;
+                    }
+                }
+                if (!improved) break;
+            }
+            return current;
+        }
+
+        private long coverage(int warehouse) {
+            long covered = 0;
+            for (int p = 0; p < demandByProduct.length; p++) {
+                covered += Math.min(demandByProduct[p], available[p][warehouse]);
+            }
+            return covered;
+        }
+
+        /**
+         * Cost of taking each product from the chosen warehouses, cheapest first
+         *
+         * @param taken filled with the quantity taken per (product, warehouse) when not null
+         */
+        private Score evaluate(boolean[] chosen, int[][] taken) {
+            long covered = 0;
+            double cost = 0;
+            boolean[] used = new boolean[chosen.length];
+            int shipments = 0;
+            for (int p = 0; p < sourcingOrder.length; p++) {
+                int need = demandByProduct[p];
+                for (int w : sourcingOrder[p]) {
+                    if (need == 0) break;
+                    if (!chosen[w]) continue;
+                    int take = Math.min(need, available[p][w]);
+                    need -= take;
+                    covered += take;
+                    cost += take * unitCost[w] + balanceWeight * take / available[p][w];
+                    if (!used[w]) {
+                        used[w] = true;
+                        shipments++;
+                        cost += shipmentCost[w];
+                    }
+                    if (taken != null) {
+                        taken[p][w] = take;
+                    }
+                }
+            }
+            cost += splitPenalty * Math.max(0, shipments - 1);
+            return new Score(covered, cost);
+        }
+
+        List<List<StockDelta>> allocate(boolean[] chosen) {
+            int[][] left = new int[productIndex.size()][warehouseIds.size()];
+            evaluate(chosen, left);
+
+            List<List<StockDelta>> plan = new ArrayList<>(demand.size());
+            for (StockDelta line : demand) {
+                int p = productIndex.get(line.getProductId());
+                int need = line.getQuantity();
+                List<StockDelta> sources = new ArrayList<>();
+                for (int w : sourcingOrder[p]) {
+                    if (need == 0) break;
+                    int take = Math.min(need, left[p][w]);
+                    if (take > 0) {
+                        left[p][w] -= take;
+                        need -= take;
+                        sources.add(new StockDelta(line.getProductId(), warehouseIds.get(w), take));
+                    }
+                }
+                plan.add(sources);
+            }
+            return plan;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.exceptions.CreditLimitExceededException;
+import com.logistic.digitale_logistic.repository.CreditExposureJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Credit admission against {@code Client.creditLimit} without summing the order history: each
+ * client has a running total of its open orders (client_credit_exposure), raised when an order is
+ * created and lowered when it is delivered or cancelled. Admission is one conditional UPDATE on
+ * that row, within the order's transaction, so concurrent orders of one client cannot overshoot
+ * the limit together. A null or zero limit means no limit.
+ *
+ * The totals are checked against sales_orders every {@code sales-order.credit-check.reconcile-ms}
+ * and corrected where they drifted (orders changed outside these paths).
+ */
+@Service
+@Slf4j
+public class CreditExposureService {
+
+    private final CreditExposureJdbcRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransaction;
+    private final boolean enforce;
+
+    public CreditExposureService(CreditExposureJdbcRepository repository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${sales-order.credit-check.enabled:true}") boolean enforce) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enforce = enforce;
+    }
+
+    /**
+     * Count a new order against the client's credit limit. Call within the transaction that
+     * creates the order, so that the exposure is given back if it rolls back.
+     *
+     * @throws CreditLimitExceededException when the order does not fit within the limit
+     */
+    public void admit(Long clientId, BigDecimal orderTotal) {
+        if (!tryAdmit(clientId, orderTotal)) {
+            throw new CreditLimitExceededException("Credit limit exceeded for client " + clientId
+                    + ": open orders " + repository.findOpenAmount(clientId).orElse(BigDecimal.ZERO)
+                    + " + this order " + orderTotal);
+        }
+    }
+
+    /**
+     * {@link #admit} for a batch of new orders, in order
+     *
+     * @return positions of the orders that do not fit within their client's limit
+     */
+    public BitSet admitAll(List<SalesOrder> orders) {
+        Map<Long, List<Integer>> positionsByClient = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            positionsByClient.computeIfAbsent(orders.get(i).getClient().getUserId(), id -> new ArrayList<>()).add(i);
+        }
+
+        BitSet rejected = new BitSet(orders.size());
+        positionsByClient.forEach((clientId, positions) -> {
+            BigDecimal total = positions.stream()
+                    .map(i -> orders.get(i).getTotalAmount())
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            // Usually the whole batch of a client fits; otherwise admit its orders one by one
+            if (positions.size() == 1 || !tryAdmit(clientId, total)) {
+                positions.stream()
+                        .filter(i -> !tryAdmit(clientId, orders.get(i).getTotalAmount()))
+                        .forEach(rejected::set);
+            }
+        });
+        return rejected;
+    }
+
+    /**
+     * An order of the client is no longer open (delivered or cancelled)
+     */
+    public void release(Long clientId, BigDecimal orderTotal) {
+        repository.release(clientId, orderTotal);
+    }
+
+    /**
+     * Compare every client's total with its open orders and correct the ones that drifted
+     *
+     * @return number of clients corrected
+     */
+    @Scheduled(fixedDelayString = "${sales-order.credit-check.reconcile-ms:3600000}",
+            initialDelayString = "${sales-order.credit-check.reconcile-initial-delay-ms:60000}")
+    public int reconcile() {
+        Map<Long, BigDecimal> counted = repository.findAllOpenAmounts();
+        Map<Long, BigDecimal> expected = repository.sumOpenOrdersByClient();
+        Set<Long> clients = new HashSet<>(counted.keySet());
+        clients.addAll(expected.keySet());
+
+        int corrected = 0;
+        for (Long clientId : clients) {
+            BigDecimal was = counted.getOrDefault(clientId, BigDecimal.ZERO);
+            if (was.compareTo(expected.getOrDefault(clientId, BigDecimal.ZERO)) == 0 && counted.containsKey(clientId)) {
+                continue;
+            }
+            // Compared without locks: recount under the row lock, so orders admitted meanwhile are included
+            BigDecimal now = transactionTemplate.execute(status -> {
+                if (repository.lock(clientId).isEmpty()) {
+                    repository.insertFromOrders(clientId);
+                } else {
+                    repository.recount(clientId);
+                }
+                return repository.findOpenAmount(clientId).orElse(BigDecimal.ZERO);
+            });
+            if (was.compareTo(now) != 0) {
+                log.warn("Credit exposure of client {} corrected from {} to {}", clientId, was, now);
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    private boolean tryAdmit(Long clientId, BigDecimal amount) {
+        if (repository.tryAdd(clientId, amount, enforce)) {
+            return true;
+        }
+        if (repository.findOpenAmount(clientId).isPresent()) {
+            return false;
+        }
+        // First order of the client since the table exists: create its row from the open orders.
+        // In a transaction of its own, so a concurrent insert of the same row does not abort the caller's.
+        newTransaction.executeWithoutResult(status -> repository.insertFromOrders(clientId));
+        return repository.tryAdd(clientId, amount, enforce);
+    }
+}
@@ -0,0 +1,118 @@
+package com.logistic.digitale_logistic.service.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Document numbers (sales orders, purchase orders, shipments) without a database round trip.
+ *
+ * Each number packs the milliseconds since 2024-01-01, the node id of this instance
+ * ({@code document-number.node-id}, 0-1023, must differ between instances) and a per-millisecond
+ * sequence of 4096, so numbers are unique across instances and sort by creation time.
+ * Issuing is lock-free (one CAS). When the sequence of a millisecond is used up, or the clock
+ * goes back, numbers keep coming from the last issued millisecond onwards instead of repeating.
+ *
+ * Rendered as PREFIX-yyyyMMdd-XXXXXXXXXX, the second part being the time of day, node and
+ * sequence in Crockford base32 (fixed width, so numbers of one prefix also sort as text).
+ */
+@Component
+@Slf4j
+public class DocumentNumberGenerator {
+
+    static final long EPOCH = 1_704_067_200_000L;
+    static final int MAX_NODE = (1 << 10) - 1;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long DRIFT_WARNING_MS = 1_000;
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final long node;
+    private final LongSupplier clock;
+    // Last issued (millis since EPOCH << SEQUENCE_BITS | sequence)
+    private final AtomicLong last = new AtomicLong();
+    private volatile boolean drifting;
+
+    @Autowired
+    public DocumentNumberGenerator(@Value("${document-number.node-id:-1}") int nodeId) {
+        this(nodeId >= 0 ? nodeId : hostNodeId(), System::currentTimeMillis);
+    }
+
+    DocumentNumberGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("document-number.node-id must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Next number with the given prefix, e.g. SO-20261018-0B7Q4M1C02
+     */
+    public String next(String prefix) {
+        return format(prefix, nextId());
+    }
+
+    /**
+     * Next raw id: millis since EPOCH (41 bits), node (10 bits), sequence (12 bits)
+     */
+    public long nextId() {
+        long now = clock.getAsLong() - EPOCH;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            // A new millisecond restarts the sequence; otherwise count on, carrying into the next millisecond
+            next = now > previous >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : previous + 1;
+        } while (!last.compareAndSet(previous, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        if (millis - now > DRIFT_WARNING_MS) {
+            if (!drifting) {
+                drifting = true;
+                log.warn("Document numbers are running {} ms ahead of the clock (clock set back?)", millis - now);
+            }
+        } else {
+            drifting = false;
+        }
+        return millis << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | (next & SEQUENCE_MASK);
+    }
+
+    static String format(String prefix, long id) {
+        long millis = (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+        long rest = id & ((1L << (NODE_BITS + SEQUENCE_BITS)) - 1);
+        long suffix = Math.floorMod(millis, MILLIS_PER_DAY) << (NODE_BITS + SEQUENCE_BITS) | rest;
+
+        char[] chars = new char[10];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = BASE32[(int) (suffix & 31)];
+            suffix >>>= 5;
+        }
+        return prefix + "-" + DATE.format(Instant.ofEpochMilli(millis)) + "-" + new String(chars);
+    }
+
+    private static int hostNodeId() {
+        try {
+            String host = InetAddress.getLocalHost().getHostName();
+            int nodeId = Math.floorMod(host.hashCode(), MAX_NODE + 1);
+            log.warn("document-number.node-id is not set, using {} derived from host {}; " +
+                    "set a distinct id per instance to rule out duplicate numbers", nodeId, host);
+            return nodeId;
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("document-number.node-id is not set and the host name is unknown", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * The order's warehouse first, then the other warehouses by available quantity, line by line
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.sourcing.strategy", havingValue = "greedy")
+public class GreedySourcingStrategy implements SourcingStrategy {
+
+    @Override
+    public List<List<StockDelta>> plan(Long warehouseId, List<StockDelta> demand, List<StockLevel> supply) {
+        Map<Long, Map<Long, Integer>> remaining = new HashMap<>();
+        for (StockLevel level : supply) {
+            remaining.computeIfAbsent(level.getProductId(), id -> new LinkedHashMap<>())
+                    .merge(level.getWarehouseId(), Math.max(0, level.getQtyAvailable()), Integer::sum);
+        }
+
+        List<List<StockDelta>> plan = new ArrayList<>(demand.size());
+        for (StockDelta line : demand) {
+            Map<Long, Integer> byWarehouse = remaining.getOrDefault(line.getProductId(), Map.of());
+            List<Long> candidates = new ArrayList<>(byWarehouse.keySet());
+            candidates.sort(Comparator
+                    .comparing((Long id) -> !id.equals(warehouseId))
+                    .thenComparing(id -> -byWarehouse.get(id)));
+
+            List<StockDelta> sources = new ArrayList<>();
+            int toSource = line.getQuantity();
+            for (Long candidate : candidates) {
+                if (toSource <= 0) break;
+                int take = Math.min(toSource, byWarehouse.get(candidate));
+                if (take > 0) {
+                    byWarehouse.merge(candidate, -take, Integer::sum);
+                    sources.add(new StockDelta(line.getProductId(), candidate, take));
+                    toSource -= take;
+                }
+            }
+            plan.add(sources);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,119 @@
+package com.logistic.digitale_logistic.service.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel for ids with a deadline.
+ *
+ * Four levels of 64 slots: level 0 has one slot per tick, each higher level covers 64 times
+ * the range of the one below (with 1 s ticks: 64 s, 68 min, 73 h, 194 days). Scheduling is O(1);
+ * when a lower level wraps, the next slot of the level above is cascaded down. Deadlines beyond
+ * the top level wait in an overflow list that is re-examined on every top-level wrap.
+ *
+ * Entries are never removed explicitly: callers re-check an id when it fires.
+ * Not thread-safe on its own; the owner synchronizes access.
+ */
+class HierarchicalTimingWheel {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final List<Entry>[][] wheels;
+    private List<Entry> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.currentTick = startMillis / this.tickMillis;
+        this.wheels = new List[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayList<>();
+            }
+        }
+    }
+
+    /**
+     * Schedule {@code id} to fire at the first tick at or after {@code deadlineMillis}.
+     * Deadlines already in the past fire on the next advance.
+     */
+    void schedule(long id, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(new Entry(id, Math.max(deadlineTick, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Advance the wheel to {@code nowMillis} and hand every due id to {@code expired}
+     *
+     * @return number of ids fired
+     */
+    int advance(long nowMillis, LongConsumer expired) {
+        long targetTick = nowMillis / tickMillis;
+        int fired = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            List<Entry> due = wheels[0][(int) (currentTick & SLOT_MASK)];
+            if (!due.isEmpty()) {
+                wheels[0][(int) (currentTick & SLOT_MASK)] = new ArrayList<>();
+                for (Entry entry : due) {
+                    expired.accept(entry.id);
+                }
+                fired += due.size();
+                size -= due.size();
+            }
+        }
+        return fired;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * On the first tick of a higher-level slot, push that slot's entries down.
+     * Highest level first, so entries landing in a lower slot that starts now are cascaded too.
+     */
+    private void cascade() {
+        int top = 0;
+        while (top < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        if (top == LEVELS - 1) {
+            List<Entry> pending = overflow;
+            overflow = new ArrayList<>();
+            pending.forEach(this::place);
+        }
+        for (int level = top; level >= 1; level--) {
+            int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            List<Entry> entries = wheels[level][slot];
+            if (!entries.isEmpty()) {
+                wheels[level][slot] = new ArrayList<>();
+                entries.forEach(this::place);
+            }
+        }
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.tick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                int slot = (int) ((entry.tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                wheels[level][slot].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private record Entry(long id, long tick) {
+    }
+}
@@ -2,16 +2,21 @@ package com.logistic.digitale_logistic.service.client;
 
 import com.logistic.digitale_logistic.dto.BackorderDTO;
 import com.logistic.digitale_logistic.dto.ReservationResultDTO;
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
 import com.logistic.digitale_logistic.entity.*;
 import com.logistic.digitale_logistic.enums.BackorderStatus;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
 import com.logistic.digitale_logistic.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,16 +26,27 @@ public class InventoryReservationService {
     private final InventoryRepository inventoryRepository;
     private final BackorderRepository backorderRepository;
     private final SalesOrderRepository salesOrderRepository;
-    private final SoLineRepository soLineRepository;
+    private final AvailableToPromiseLedger availableToPromiseLedger;
+    private final ConditionalInventoryReserver conditionalInventoryReserver;
+    private final ReservationCombiner reservationCombiner;
+    private final ReservationHoldService reservationHoldService;
+    private final SourcingStrategy sourcingStrategy;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Main reservation process - returns structured response for Postman
+     *
+     * Set-based: the order, its lines and products are loaded in one query, every inventory row
+     * for the order's products in a second one. Each reservation is then a conditional UPDATE
+     * (see {@link ConditionalInventoryReserver}); reserved_quantity changes are flushed by
+     * Hibernate as one JDBC batch. Which warehouses each line is taken from is decided for the
+     * whole order by the {@link SourcingStrategy}.
      */
     @Transactional
     public ReservationResultDTO processOrderReservation(Long salesOrderId) {
         log.info("Starting reservation process for Sales Order ID: {}", salesOrderId);
 
-        SalesOrder salesOrder = salesOrderRepository.findById(salesOrderId)
+        SalesOrder salesOrder = salesOrderRepository.findWithLinesAndProductsById(salesOrderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sales order not found with ID: " + salesOrderId));
 
         if (!"CREATED".equals(salesOrder.getStatus())) {
@@ -38,57 +54,63 @@ public class InventoryReservationService {
         }
 
         Warehouse selectedWarehouse = salesOrder.getWarehouse();
-        List<BackorderDTO> backorders = new ArrayList<>();
-        List<String> fullyReservedProducts = new ArrayList<>();
-        List<String> partiallyReservedProducts = new ArrayList<>();
-        List<String> noStockProducts = new ArrayList<>();
-
-        boolean anyReserved = false;
-        boolean fullyReserved = true;
+        boolean useLedger = availableToPromiseLedger.isEnabled();
+        Map<Long, List<Inventory>> inventoryByProduct = useLedger ? Map.of() : loadInventoryByProduct(salesOrder);
+        Map<Inventory, Integer> availableByRow = new IdentityHashMap<>();
+        inventoryByProduct.values().forEach(rows -> rows.forEach(inv -> availableByRow.put(inv, availableOf(inv))));
+
+        List<StockDelta> demand = salesOrder.getLines().stream()
+                .map(line -> new StockDelta(line.getProduct().getId(), selectedWarehouse.getId(), line.getOrderedQuantity()))
+                .toList();
+        List<StockLevel> supply = useLedger ? ledgerStockLevels(salesOrder) : inventoryByProduct.values().stream()
+                .flatMap(List::stream)
+                .map(inv -> new StockLevel(inv.getProduct().getId(), inv.getWarehouse().getId(), availableByRow.get(inv), 0))
+                .toList();
+        List<List<StockDelta>> sourcing = sourcingStrategy.plan(selectedWarehouse.getId(), demand, supply);
 
         // Process each line
-        for (SoLine soLine : salesOrder.getLines()) {
+        Map<SoLine, Integer> reservedByLine = new IdentityHashMap<>();
+        List<StockDelta> holds = new ArrayList<>();
+        for (int i = 0; i < salesOrder.getLines().size(); i++) {
+            SoLine soLine = salesOrder.getLines().get(i);
             Product product = soLine.getProduct();
             int requestedQty = soLine.getOrderedQuantity();
 
             log.debug("Processing product: {} - Requested: {}", product.getSku(), requestedQty);
 
-            int reservedQty = 0;
-            int remainingQty = requestedQty;
+            int reservedQty = useLedger
+                    ? reserveFromLedger(product, selectedWarehouse, requestedQty, sourcing.get(i), holds)
+                    : reserveFromInventory(product, selectedWarehouse, requestedQty,
+                            inventoryByProduct.getOrDefault(product.getId(), List.of()), sourcing.get(i),
+                            availableByRow, holds);
+            reservedByLine.put(soLine, reservedQty);
+        }
 
-            // STEP 1: Check selected warehouse first
-            Inventory selectedInventory = inventoryRepository.findByProduct_IdAndWarehouse_Id(
-                    product.getId(), selectedWarehouse.getId()).orElse(null);
+        return completeReservation(salesOrder, reservedByLine, holds);
+    }
 
-            if (selectedInventory != null && selectedInventory.getQtyAvailable() > 0) {
-                int toReserve = Math.min(selectedInventory.getQtyAvailable(), remainingQty);
-                reserveInventory(selectedInventory, toReserve);
-                reservedQty += toReserve;
-                remainingQty -= toReserve;
-                log.info("Reserved {} units of {} from selected warehouse: {}",
-                        toReserve, product.getSku(), selectedWarehouse.getName());
-            }
+    /**
+     * Record the reserved quantity of every line, create backorders for the rest,
+     * update the order status and build the report. Stock must already be reserved;
+     * {@code holds} is what was taken per inventory row, kept until the reservation expires.
+     * Shared with {@link BatchAllocationService}.
+     */
+    ReservationResultDTO completeReservation(SalesOrder salesOrder, Map<SoLine, Integer> reservedByLine,
+                                             List<StockDelta> holds) {
+        Warehouse selectedWarehouse = salesOrder.getWarehouse();
+        List<Backorder> backorders = new ArrayList<>();
+        List<String> fullyReservedProducts = new ArrayList<>();
+        List<String> partiallyReservedProducts = new ArrayList<>();
+        List<String> noStockProducts = new ArrayList<>();
 
-            // STEP 2: Check other warehouses if needed
-            if (remainingQty > 0) {
-                List<Inventory> otherInventories = inventoryRepository.findAllByProductIdOrderByQtyAvailableDesc(product.getId())
-                        .stream()
-                        .filter(inv -> !inv.getWarehouse().getId().equals(selectedWarehouse.getId()))
-                        .toList();
-
-                for (Inventory inv : otherInventories) {
-                    if (remainingQty <= 0) break;
-                    int available = inv.getQtyAvailable();
-                    if (available > 0) {
-                        int toReserve = Math.min(available, remainingQty);
-                        reserveInventory(inv, toReserve);
-                        reservedQty += toReserve;
-                        remainingQty -= toReserve;
-                        log.info("Reserved {} units of {} from other warehouse: {}",
-                                toReserve, product.getSku(), inv.getWarehouse().getName());
-                    }
-                }
-            }
+        boolean anyReserved = false;
+        boolean fullyReserved = true;
+
+        for (SoLine soLine : salesOrder.getLines()) {
+            Product product = soLine.getProduct();
+            int requestedQty = soLine.getOrderedQuantity();
+            int reservedQty = reservedByLine.getOrDefault(soLine, 0);
+            int remainingQty = requestedQty - reservedQty;
 
             // STEP 3: Categorize result and handle backorders
             if (reservedQty == 0) {
@@ -104,8 +126,7 @@ public class InventoryReservationService {
                 fullyReserved = false;
 
                 // Create backorder for remaining quantity
-                Backorder backorder = createBackorder(soLine, product, selectedWarehouse, remainingQty);
-                backorders.add(convertToBackorderDTO(backorder));
+                backorders.add(createBackorder(soLine, product, selectedWarehouse, remainingQty));
                 log.info("Partially reserved {} units, backordered {} units for product: {}",
                         reservedQty, remainingQty, product.getSku());
 
@@ -116,16 +137,24 @@ public class InventoryReservationService {
                 log.info("Fully reserved {} units for product: {}", reservedQty, product.getSku());
             }
 
-            // Update SO line reserved quantity
+            // Update SO line reserved quantity (flushed with the other lines as one JDBC batch)
             soLine.setReservedQuantity(reservedQty);
-            soLineRepository.save(soLine);
         }
 
+        List<BackorderDTO> backorderDTOs = backorders.isEmpty() ? new ArrayList<>() :
+                backorderRepository.saveAll(backorders).stream()
+                        .map(this::convertToBackorderDTO)
+                        .collect(Collectors.toList());
+
         // Update sales order status
         String newStatus = anyReserved ? "RESERVED" : "CREATED";
         salesOrder.setStatus(newStatus);
         salesOrder.setUpdatedAt(LocalDateTime.now());
+        if (anyReserved) {
+            reservationHoldService.recordHolds(salesOrder, holds);
+        }
         salesOrderRepository.save(salesOrder);
+        eventPublisher.publishEvent(new SalesOrderChangedEvent(salesOrder.getId()));
 
         // Build response with clear messages
         String message = buildResponseMessage(
@@ -139,27 +168,168 @@ public class InventoryReservationService {
                 salesOrder.getOrderNumber(), newStatus, message);
 
         return ReservationResultDTO.builder()
-                .salesOrderId(salesOrderId)
+                .salesOrderId(salesOrder.getId())
                 .salesOrderNumber(salesOrder.getOrderNumber())
                 .status(newStatus)
                 .fullyReserved(fullyReserved && anyReserved)
-                .hasBackorders(!backorders.isEmpty())
-                .backorders(backorders)
+                .hasBackorders(!backorderDTOs.isEmpty())
+                .backorders(backorderDTOs)
                 .message(message)
                 .build();
     }
 
     /**
-     * Reserve inventory and update qtyReserved
+     * Load every inventory row for the order's products with a single IN query
      */
-    private void reserveInventory(Inventory inventory, int qty) {
-        inventory.setQtyReserved(inventory.getQtyReserved() + qty);
-        inventory.setUpdatedAt(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+    private Map<Long, List<Inventory>> loadInventoryByProduct(SalesOrder salesOrder) {
+        Set<Long> productIds = salesOrder.getLines().stream()
+                .map(line -> line.getProduct().getId())
+                .collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return inventoryRepository.findAllByProductIdIn(productIds).stream()
+                .collect(Collectors.groupingBy(inv -> inv.getProduct().getId()));
+    }
+
+    private List<StockLevel> ledgerStockLevels(SalesOrder salesOrder) {
+        return salesOrder.getLines().stream()
+                .map(line -> line.getProduct().getId())
+                .distinct()
+                .flatMap(productId -> availableToPromiseLedger.stockLevels(productId).stream())
+                .toList();
+    }
+
+    /**
+     * Reserve from the preloaded inventory rows: the warehouses planned for this line first, then
+     * (when a planned row was taken concurrently) the selected warehouse and the others by available
+     * quantity. availableByRow is the order's view of each row; it is lowered after each reservation,
+     * so a product repeated on several lines sees what the previous lines already took. The database
+     * stays the arbiter through the conditional UPDATE.
+     *
+     * @return quantity reserved
+     */
+    private int reserveFromInventory(Product product, Warehouse selectedWarehouse, int requestedQty,
+                                     List<Inventory> inventories, List<StockDelta> sources,
+                                     Map<Inventory, Integer> availableByRow, List<StockDelta> holds) {
+        int remainingQty = requestedQty;
+
+        // STEP 1: Take what the sourcing plan assigned to this line
+        for (StockDelta source : sources) {
+            if (remainingQty <= 0) break;
+            Inventory inventory = inventories.stream()
+                    .filter(inv -> inv.getWarehouse().getId().equals(source.getWarehouseId()))
+                    .findFirst()
+                    .orElse(null);
+            if (inventory != null && availableByRow.get(inventory) > 0) {
+                int reserved = reserveInventory(inventory, Math.min(source.getQuantity(), remainingQty), availableByRow, holds);
+                remainingQty -= reserved;
+                if (reserved > 0) {
+                    log.info("Reserved {} units of {} from warehouse: {}",
+                            reserved, product.getSku(), inventory.getWarehouse().getName());
+                }
+            }
+        }
+
+        // STEP 2: Fall back to the remaining rows if a planned one conflicted
+        if (remainingQty > 0) {
+            List<Inventory> fallback = inventories.stream()
+                    .filter(inv -> availableByRow.get(inv) > 0)
+                    .sorted(Comparator
+                            .comparing((Inventory inv) -> !inv.getWarehouse().getId().equals(selectedWarehouse.getId()))
+                            .thenComparing(inv -> -availableByRow.get(inv)))
+                    .toList();
+
+            for (Inventory inv : fallback) {
+                if (remainingQty <= 0) break;
+                if (availableByRow.get(inv) > 0) {
+                    int reserved = reserveInventory(inv, remainingQty, availableByRow, holds);
+                    remainingQty -= reserved;
+                    if (reserved > 0) {
+                        log.info("Reserved {} units of {} from fallback warehouse: {}",
+                                reserved, product.getSku(), inv.getWarehouse().getName());
+                    }
+                }
+            }
+        }
+
+        return requestedQty - remainingQty;
+    }
+
+    /**
+     * Reserve through the in-memory available-to-promise ledger: the warehouses planned for this
+     * line first, then the selected warehouse and the others by available quantity for whatever a
+     * concurrent reservation took. Inventory rows are updated by the ledger write-behind.
+     *
+     * @return quantity reserved
+     */
+    private int reserveFromLedger(Product product, Warehouse selectedWarehouse, int requestedQty,
+                                  List<StockDelta> sources, List<StockDelta> holds) {
+        int remainingQty = requestedQty;
+
+        // STEP 1: Take what the sourcing plan assigned to this line
+        for (StockDelta source : sources) {
+            if (remainingQty <= 0) break;
+            remainingQty -= reserveFromLedger(product, source.getWarehouseId(), Math.min(source.getQuantity(), remainingQty), holds);
+        }
+
+        // STEP 2: Fall back to the selected warehouse, then the others by available quantity
+        if (remainingQty > 0) {
+            remainingQty -= reserveFromLedger(product, selectedWarehouse.getId(), remainingQty, holds);
+        }
+        if (remainingQty > 0) {
+            List<StockLevel> otherLevels = availableToPromiseLedger.stockLevels(product.getId())
+                    .stream()
+                    .filter(level -> !level.getWarehouseId().equals(selectedWarehouse.getId()))
+                    .filter(level -> level.getQtyAvailable() > 0)
+                    .sorted(Comparator.comparingInt(StockLevel::getQtyAvailable).reversed())
+                    .toList();
+
+            for (StockLevel level : otherLevels) {
+                if (remainingQty <= 0) break;
+                remainingQty -= reserveFromLedger(product, level.getWarehouseId(), remainingQty, holds);
+            }
+        }
+
+        return requestedQty - remainingQty;
+    }
+
+    private int reserveFromLedger(Product product, Long warehouseId, int qty, List<StockDelta> holds) {
+        int granted = availableToPromiseLedger.reserveUpTo(product.getId(), warehouseId, qty);
+        if (granted > 0) {
+            holds.add(new StockDelta(product.getId(), warehouseId, granted));
+            log.info("Reserved {} units of {} from warehouse ID: {}", granted, product.getSku(), warehouseId);
+        }
+        return granted;
+    }
+
+    /**
+     * Reserve inventory with a conditional update (combined with concurrent orders on the same row
+     * when the combining stage is enabled) and keep the order's view of the row in step.
+     * The Inventory entity itself is never modified, so dirty checking cannot overwrite qty_reserved.
+     *
+     * @return quantity reserved
+     */
+    private int reserveInventory(Inventory inventory, int qty, Map<Inventory, Integer> availableByRow,
+                                 List<StockDelta> holds) {
+        int expected = availableByRow.get(inventory);
+        int reserved = reservationCombiner.isEnabled()
+                ? reservationCombiner.reserveUpTo(inventory, qty, expected)
+                : conditionalInventoryReserver.reserveUpTo(inventory, qty, expected);
+        // On conflict the row's real availability is unknown here, skip it for the rest of the order
+        availableByRow.put(inventory, reserved > 0 ? expected - reserved : 0);
+        if (reserved > 0) {
+            holds.add(new StockDelta(inventory.getProduct().getId(), inventory.getWarehouse().getId(), reserved));
+        }
+        return reserved;
+    }
+
+    private int availableOf(Inventory inventory) {
+        return inventory.getQtyOnHand() - inventory.getQtyReserved();
     }
 
     /**
-     * Create backorder record
+     * Create backorder record (saved with the order's other backorders)
      */
     private Backorder createBackorder(SoLine soLine, Product product, Warehouse warehouse, int qty) {
         Backorder backorder = new Backorder();
@@ -171,7 +341,7 @@ public class InventoryReservationService {
         backorder.setStatus(BackorderStatus.PENDING);
         backorder.setNotes("Auto-created during order reservation - partial stock available");
         backorder.setCreatedAt(LocalDateTime.now());
-        return backorderRepository.save(backorder);
+        return backorder;
     }
 
     /**
@@ -0,0 +1,242 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.OrderBackorderRow;
+import com.logistic.digitale_logistic.dto.OrderShipmentRow;
+import com.logistic.digitale_logistic.dto.OrderTrackingLineDTO;
+import com.logistic.digitale_logistic.entity.OrderTracking;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.enums.BackorderStatus;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
+import com.logistic.digitale_logistic.repository.BackorderRepository;
+import com.logistic.digitale_logistic.repository.OrderTrackingRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import com.logistic.digitale_logistic.repository.ShipmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the order_tracking read model in step with the orders. Every writer publishes a
+ * {@link SalesOrderChangedEvent}; the orders changed by one transaction are collected and their
+ * rows rebuilt together just before it commits, so a row is never ahead of or behind its order.
+ * The orders are locked first: two transactions changing one order rebuild its row one after the
+ * other, the second from data that includes the first, never both from their own snapshot.
+ * A rebuild is five queries per {@code sales-order.tracking.batch-size} orders (the lock, orders
+ * with lines and products, shipment lines, backorders, current rows) and one JDBC batch of writes.
+ *
+ * Orders without an up-to-date row (written before the table existed, or outside these paths)
+ * are picked up every {@code sales-order.tracking.catch-up-ms}.
+ */
+@Service
+@Slf4j
+public class OrderTrackingProjector {
+
+    private static final Set<String> SHIPPED_STATUSES = Set.of("SHIPPED", "IN_TRANSIT", "DELIVERED");
+    private static final Set<BackorderStatus> OPEN_BACKORDERS =
+            EnumSet.of(BackorderStatus.PENDING, BackorderStatus.PARTIALLY_FULFILLED);
+
+    private final SalesOrderRepository salesOrderRepository;
+    private final ShipmentRepository shipmentRepository;
+    private final BackorderRepository backorderRepository;
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    // Key of the transaction-bound set of changed order ids
+    private final Object pendingKey = new Object();
+
+    public OrderTrackingProjector(SalesOrderRepository salesOrderRepository,
+                                  ShipmentRepository shipmentRepository,
+                                  BackorderRepository backorderRepository,
+                                  OrderTrackingRepository orderTrackingRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${sales-order.tracking.batch-size:500}") int batchSize) {
+        this.salesOrderRepository = salesOrderRepository;
+        this.shipmentRepository = shipmentRepository;
+        this.backorderRepository = backorderRepository;
+        this.orderTrackingRepository = orderTrackingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onSalesOrderChanged(SalesOrderChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionTemplate.executeWithoutResult(status -> refresh(List.of(event.getSalesOrderId())));
+            return;
+        }
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending == null) {
+            Set<Long> changed = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(pendingKey, changed);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    refresh(changed);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+                }
+            });
+            pending = changed;
+        }
+        pending.add(event.getSalesOrderId());
+    }
+
+    /**
+     * Rebuild the rows of these orders from the orders, their shipments and backorders.
+     * Call within a transaction.
+     */
+    public void refresh(Collection<Long> salesOrderIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(salesOrderIds));
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            refreshBatch(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+    }
+
+    /**
+     * Build the rows of orders that have none or an outdated one
+     *
+     * @return number of orders refreshed
+     */
+    @Scheduled(fixedDelayString = "${sales-order.tracking.catch-up-ms:300000}",
+            initialDelayString = "${sales-order.tracking.catch-up-initial-delay-ms:30000}")
+    public int catchUp() {
+        int refreshed = 0;
+        long after = 0;
+        List<Long> stale;
+        do {
+            stale = orderTrackingRepository.findStaleOrderIds(after, Limit.of(batchSize));
+            if (!stale.isEmpty()) {
+                List<Long> batch = stale;
+                transactionTemplate.executeWithoutResult(status -> refresh(batch));
+                refreshed += stale.size();
+                after = stale.get(stale.size() - 1);
+            }
+        } while (stale.size() == batchSize);
+        if (refreshed > 0) {
+            log.info("Order tracking caught up | orders={}", refreshed);
+        }
+        return refreshed;
+    }
+
+    private void refreshBatch(List<Long> ids) {
+        salesOrderRepository.lockByIdIn(ids);
+        Map<Long, List<OrderShipmentRow>> shipments = shipmentRepository.findRowsBySalesOrderIdIn(ids).stream()
+                .collect(Collectors.groupingBy(OrderShipmentRow::getSalesOrderId));
+        Map<Long, List<OrderBackorderRow>> backorders = backorderRepository.findRowsBySalesOrderIdIn(ids).stream()
+                .collect(Collectors.groupingBy(OrderBackorderRow::getSalesOrderId));
+        Map<Long, OrderTracking> rows = orderTrackingRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(OrderTracking::getOrderId, Function.identity()));
+
+        List<OrderTracking> changed = new ArrayList<>(ids.size());
+        for (SalesOrder order : salesOrderRepository.findWithDetailsByIdIn(ids)) {
+            OrderTracking row = rows.remove(order.getId());
+            changed.add(project(order,
+                    row != null ? row : new OrderTracking(),
+                    shipments.getOrDefault(order.getId(), List.of()),
+                    backorders.getOrDefault(order.getId(), List.of())));
+        }
+        orderTrackingRepository.saveAll(changed);
+        // Rows left over belong to orders that no longer exist
+        if (!rows.isEmpty()) {
+            orderTrackingRepository.deleteAll(rows.values());
+        }
+    }
+
+    static OrderTracking project(SalesOrder order, OrderTracking row,
+                                 List<OrderShipmentRow> shipments, List<OrderBackorderRow> backorders) {
+        Map<Long, Integer> shippedByLine = new HashMap<>();
+        Set<Long> shipmentIds = new HashSet<>();
+        String shipmentStatus = null;
+        // Rows come by shipment id: the last one is the latest shipment
+        for (OrderShipmentRow shipment : shipments) {
+            shipmentIds.add(shipment.getShipmentId());
+            shipmentStatus = shipment.getStatus();
+            if (shipment.getSoLineId() != null && SHIPPED_STATUSES.contains(shipment.getStatus())) {
+                shippedByLine.merge(shipment.getSoLineId(), quantity(shipment.getQuantityShipped()), Integer::sum);
+            }
+        }
+
+        Map<Long, Integer> backorderedByLine = new HashMap<>();
+        int openBackorders = 0;
+        for (OrderBackorderRow backorder : backorders) {
+            if (OPEN_BACKORDERS.contains(backorder.getStatus())) {
+                openBackorders++;
+                backorderedByLine.merge(backorder.getSoLineId(),
+                        quantity(backorder.getQuantityBackordered()) - quantity(backorder.getQuantityFulfilled()),
+                        Integer::sum);
+            }
+        }
+
+        List<OrderTrackingLineDTO> lines = new ArrayList<>(order.getLines().size());
+        int ordered = 0;
+        int reserved = 0;
+        int shipped = 0;
+        int backordered = 0;
+        for (SoLine line : order.getLines()) {
+            OrderTrackingLineDTO summary = OrderTrackingLineDTO.builder()
+                    .soLineId(line.getId())
+                    .productId(line.getProduct().getId())
+                    .productSku(line.getProduct().getSku())
+                    .productName(line.getProduct().getName())
+                    .orderedQuantity(quantity(line.getOrderedQuantity()))
+                    .reservedQuantity(quantity(line.getReservedQuantity()))
+                    .shippedQuantity(shippedByLine.getOrDefault(line.getId(), 0))
+                    .backorderedQuantity(backorderedByLine.getOrDefault(line.getId(), 0))
+                    .unitPrice(line.getUnitPrice())
+                    // Generated by the database, not yet known for a line inserted by this transaction
+                    .lineTotal(line.getLineTotal() != null || line.getUnitPrice() == null ? line.getLineTotal()
+                            : line.getUnitPrice().multiply(BigDecimal.valueOf(quantity(line.getOrderedQuantity()))))
+                    .build();
+            lines.add(summary);
+            ordered += summary.getOrderedQuantity();
+            reserved += summary.getReservedQuantity();
+            shipped += summary.getShippedQuantity();
+            backordered += summary.getBackorderedQuantity();
+        }
+
+        row.setOrderId(order.getId());
+        row.setClientId(order.getClient().getUserId());
+        row.setOrderNumber(order.getOrderNumber());
+        row.setStatus(order.getStatus());
+        row.setOrderDate(order.getOrderDate());
+        row.setPlannedShipDate(order.getPlannedShipDate());
+        row.setUpdatedAt(order.getUpdatedAt());
+        row.setWarehouseId(order.getWarehouse().getId());
+        row.setWarehouseName(order.getWarehouse().getName());
+        row.setTotalAmount(order.getTotalAmount());
+        row.setLineCount(lines.size());
+        row.setOrderedQuantity(ordered);
+        row.setReservedQuantity(reserved);
+        row.setShippedQuantity(shipped);
+        row.setShipmentCount(shipmentIds.size());
+        row.setShipmentStatus(shipmentStatus);
+        row.setOpenBackorders(openBackorders);
+        row.setBackorderedQuantity(backordered);
+        row.setLines(lines);
+        row.setRefreshedAt(LocalDateTime.now());
+        return row;
+    }
+
+    private static int quantity(Integer quantity) {
+        return quantity == null ? 0 : quantity;
+    }
+}
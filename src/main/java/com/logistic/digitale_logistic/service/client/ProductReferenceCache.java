@@ -0,0 +1,151 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ProductReference;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * Near-cache of product reference data (id, sku, name, selling price, active) for validating
+ * order and purchase-order lines without a lookup per line.
+ *
+ * Bounded to {@code product.cache.max-size} entries (least recently used go first) and each entry
+ * expires {@code product.cache.ttl} after it was loaded. Misses of one call are loaded together
+ * with a single findAllById. ProductService invalidates the entries it changes; changes made on
+ * other instances show up here once the entry expires.
+ */
+@Component
+public class ProductReferenceCache {
+
+    private final ProductRepository productRepository;
+    private final LongSupplier nanoClock;
+    private final long ttlNanos;
+    private final Map<Long, Entry> entries;
+    // Bumped on every invalidation, guarded by entries: a load that raced an invalidation is not kept
+    private long invalidations;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loads;
+
+    @Autowired
+    public ProductReferenceCache(ProductRepository productRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${product.cache.max-size:10000}") int maxSize,
+                                 @Value("${product.cache.ttl:PT5M}") Duration ttl) {
+        this(productRepository, meterRegistry, maxSize, ttl, System::nanoTime);
+    }
+
+    ProductReferenceCache(ProductRepository productRepository, MeterRegistry meterRegistry,
+                          int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.productRepository = productRepository;
+        this.nanoClock = nanoClock;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = meterRegistry.counter("product.cache.hits");
+        this.misses = meterRegistry.counter("product.cache.misses");
+        this.evictions = meterRegistry.counter("product.cache.evictions");
+        this.loads = Timer.builder("product.cache.load")
+                .description("Time spent loading missing products from the database")
+                .register(meterRegistry);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        Gauge.builder("product.cache.size", this, ProductReferenceCache::size)
+                .register(meterRegistry);
+        Gauge.builder("product.cache.hit.ratio", this, ProductReferenceCache::hitRatio)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reference data of the given products; ids that do not exist are absent from the result
+     */
+    public Map<Long, ProductReference> getAll(Collection<Long> productIds) {
+        Map<Long, ProductReference> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        long generation;
+        synchronized (entries) {
+            for (Long id : new LinkedHashSet<>(productIds)) {
+                Entry entry = entries.get(id);
+                if (entry != null && now - entry.loadedAt < ttlNanos) {
+                    found.put(id, entry.product);
+                } else {
+                    missing.add(id);
+                }
+            }
+            generation = invalidations;
+        }
+        hits.increment(found.size());
+        misses.increment(missing.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        List<ProductReference> loaded = loads.record(() -> productRepository.findAllById(missing).stream()
+                .map(ProductReferenceCache::toReference)
+                .toList());
+        synchronized (entries) {
+            if (generation == invalidations) {
+                loaded.forEach(product -> entries.put(product.getId(), new Entry(product, now)));
+            }
+        }
+        loaded.forEach(product -> found.put(product.getId(), product));
+        return found;
+    }
+
+    public Optional<ProductReference> get(Long productId) {
+        return Optional.ofNullable(getAll(List.of(productId)).get(productId));
+    }
+
+    public void invalidate(Long productId) {
+        synchronized (entries) {
+            invalidations++;
+            entries.remove(productId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            invalidations++;
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private static ProductReference toReference(Product product) {
+        return new ProductReference(product.getId(), product.getSku(), product.getName(),
+                product.getSellingPrice(), product.getActive());
+    }
+
+    private record Entry(ProductReference product, long loadedAt) {
+    }
+}
@@ -0,0 +1,584 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ProductSearchResultDTO;
+import com.logistic.digitale_logistic.event.ProductChangedEvent;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory product search for search-as-you-type: SKU prefixes and name/category tokens, ranked.
+ *
+ * Products live in a segment built at startup and every {@code product.search.rebuild-ms}: an
+ * array sorted by lower-cased SKU, where the products under a SKU prefix are one binary-searched
+ * range (a flattened SKU trie), and a sorted token dictionary with the ascending positions of the
+ * products holding each token, doubled by a bitset for common tokens. Committed
+ * {@link ProductChangedEvent}s re-read the one product into an overlay that shadows its segment
+ * entry. Every {@code product.search.compact-ms}, an overlay holding
+ * {@code product.search.merge-threshold} products is merged into a new segment, on the scheduler
+ * thread rather than on the committing one. Searches take no lock and look at a bounded number of
+ * candidates, whatever the catalogue size.
+ *
+ * The estimated footprint is published as {@code product.search.index.bytes}. A segment estimated
+ * above {@code product.search.max-bytes} is not kept: searches then go to the database until a
+ * rebuild fits again.
+ */
+@Component
+@Slf4j
+public class ProductSearchIndex implements SmartInitializingSingleton {
+
+    public static final int MAX_LIMIT = 100;
+    // Work per search: products ranked from the SKU prefix and from the words (per result asked,
+    // and at most), posting entries walked, and sparse posting entries of the last word gathered
+    // into a bitset (beyond that the last word is checked on the product text)
+    private static final int CANDIDATES_PER_RESULT = 5;
+    private static final int MAX_CANDIDATES = 200;
+    private static final int MAX_SCANNED = 100_000;
+    private static final int MAX_UNION = 100_000;
+
+    private final ProductRepository productRepository;
+    private final long maxBytes;
+    private final int mergeThreshold;
+    private final Counter databaseSearches;
+
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final Map<Long, Change> overlay = new ConcurrentHashMap<>();
+    private volatile Segment segment;
+    // Last change included in the current segment, guarded by this
+    private long segmentSequence = -1;
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${product.search.max-bytes:536870912}") long maxBytes,
+                              @Value("${product.search.merge-threshold:1000}") int mergeThreshold) {
+        this.productRepository = productRepository;
+        this.maxBytes = maxBytes;
+        this.mergeThreshold = Math.max(1, mergeThreshold);
+        this.databaseSearches = Counter.builder("product.search.database")
+                .description("Searches answered by the database because the index was unavailable")
+                .register(meterRegistry);
+
+        Gauge.builder("product.search.index.bytes", this, ProductSearchIndex::estimatedBytes)
+                .description("Estimated heap held by the product search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("product.search.index.products", this, ProductSearchIndex::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Reload every product from the database
+     */
+    @Scheduled(fixedDelayString = "${product.search.rebuild-ms:3600000}",
+            initialDelayString = "${product.search.rebuild-ms:3600000}")
+    public void rebuild() {
+        long sequence = changeSequence.get();
+        // Changes already in the overlay were committed before the reload and are part of it
+        Map<Long, Change> covered = new HashMap<>(overlay);
+        List<Doc> docs = productRepository.findAllSearchEntries().stream()
+                .map(ProductSearchIndex::doc)
+                .toList();
+        install(docs, sequence, covered);
+    }
+
+    /**
+     * Fold a full overlay into a new segment
+     */
+    @Scheduled(fixedDelayString = "${product.search.compact-ms:1000}",
+            initialDelayString = "${product.search.compact-ms:1000}")
+    public void compact() {
+        if (overlay.size() < mergeThreshold) {
+            return;
+        }
+        if (segment == null) {
+            rebuild();
+        } else {
+            merge();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Doc doc = productRepository.findSearchEntryById(event.getProductId())
+                .map(ProductSearchIndex::doc)
+                .orElse(null);
+        overlay.put(event.getProductId(), new Change(doc, changeSequence.incrementAndGet()));
+    }
+
+    /**
+     * Products whose SKU starts with the text, or whose name or category hold every word of it
+     * (the last word as a prefix). Exact SKUs rank first, then SKU prefixes, then word matches,
+     * name before category.
+     */
+    public List<ProductSearchResultDTO> search(String text, int limit, boolean includeInactive) {
+        String query = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        Segment current = segment;
+        if (current == null) {
+            databaseSearches.increment();
+            return productRepository.searchByText(query, includeInactive, Limit.of(max));
+        }
+
+        List<String> terms = tokens(query);
+        int candidates = Math.min(MAX_CANDIDATES, max * CANDIDATES_PER_RESULT);
+        Map<Long, Hit> hits = new HashMap<>();
+        int from = lowerBound(current.docs, query);
+        for (int i = from; i < current.docs.length && i - from < candidates
+                && current.docs[i].skuKey().startsWith(query); i++) {
+            consider(current.docs[i], query, terms, includeInactive, hits, true);
+        }
+        collectWordMatches(current, query, terms, includeInactive, candidates, hits);
+        for (Change change : overlay.values()) {
+            if (change.doc() != null) {
+                consider(change.doc(), query, terms, includeInactive, hits, false);
+            }
+        }
+
+        return hits.values().stream()
+                .sorted(Comparator.comparingInt(Hit::score).reversed()
+                        .thenComparing(hit -> hit.doc().skuKey()))
+                .limit(max)
+                .map(hit -> hit.doc().toResult())
+                .toList();
+    }
+
+    /**
+     * Products in the segment, or 0 while searches go to the database
+     */
+    public int size() {
+        Segment current = segment;
+        return current == null ? 0 : current.docs.length;
+    }
+
+    public long estimatedBytes() {
+        Segment current = segment;
+        long bytes = current == null ? 0 : current.bytes;
+        for (Change change : overlay.values()) {
+            // Map node, key and change record
+            bytes += 64 + (change.doc() == null ? 0 : docBytes(change.doc()));
+        }
+        return bytes;
+    }
+
+    private synchronized void merge() {
+        long sequence = changeSequence.get();
+        Segment current = segment;
+        if (current == null) {
+            return;
+        }
+        // Changes arriving while merging stay in the overlay for the next one
+        Map<Long, Change> merged = new HashMap<>(overlay);
+        List<Doc> docs = new ArrayList<>(current.docs.length + merged.size());
+        for (Doc doc : current.docs) {
+            if (!merged.containsKey(doc.id())) {
+                docs.add(doc);
+            }
+        }
+        for (Change change : merged.values()) {
+            if (change.doc() != null) {
+                docs.add(change.doc());
+            }
+        }
+        install(docs, sequence, merged);
+    }
+
+    /**
+     * Replace the segment and drop the overlay changes it holds, unless a newer one is installed
+     */
+    private synchronized void install(List<Doc> docs, long sequence, Map<Long, Change> included) {
+        if (sequence < segmentSequence) {
+            // A merge already installed newer data while this rebuild was loading
+            return;
+        }
+        Segment built = Segment.build(docs, maxBytes);
+        if (built == null) {
+            log.warn("Product search index over its budget, searching the database instead | products={} maxBytes={}",
+                    docs.size(), maxBytes);
+        }
+        segment = built;
+        segmentSequence = sequence;
+        // Only the exact changes read: a product changed again since keeps its newer entry
+        included.forEach(overlay::remove);
+        log.debug("Product search index built | products={} bytes={}", docs.size(), estimatedBytes());
+    }
+
+    private void consider(Doc doc, String query, List<String> terms, boolean includeInactive,
+                          Map<Long, Hit> hits, boolean fromSegment) {
+        if ((!includeInactive && !doc.active()) || (fromSegment && overlay.containsKey(doc.id()))
+                || hits.containsKey(doc.id())) {
+            return;
+        }
+        int score = score(doc, query, terms);
+        if (score > 0) {
+            hits.put(doc.id(), new Hit(doc, score));
+        }
+    }
+
+    /**
+     * Products holding every word of the query. The shortest posting list, the first full word's or
+     * those of the tokens the last word is a prefix of, is walked and its products kept when they
+     * hold the other words too.
+     */
+    private void collectWordMatches(Segment segment, String query, List<String> terms, boolean includeInactive,
+                                    int candidates, Map<Long, Hit> hits) {
+        if (terms.isEmpty()) {
+            return;
+        }
+        List<Integer> required = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms.subList(0, terms.size() - 1))) {
+            int token = Arrays.binarySearch(segment.tokens, term);
+            if (token < 0) {
+                return;
+            }
+            required.add(token);
+        }
+        required.sort(Comparator.comparingInt(token -> segment.postings[token].length));
+
+        String prefix = terms.get(terms.size() - 1);
+        int from = tokenBound(segment.tokens, prefix);
+        int to = tokenBound(segment.tokens, prefix + Character.MAX_VALUE);
+        long expandedSize = 0;
+        for (int token = from; token < to && expandedSize <= MAX_SCANNED; token++) {
+            expandedSize += segment.postings[token].length;
+        }
+
+        int scanned = 0;
+        int found = hits.size();
+        if (required.isEmpty() || expandedSize < segment.postings[required.get(0)].length) {
+            for (int token = from; token < to; token++) {
+                List<IntPredicate> filters = required.stream().map(segment::holders).toList();
+                for (int position : segment.postings[token]) {
+                    if (++scanned > MAX_SCANNED || hits.size() - found >= candidates) {
+                        return;
+                    }
+                    if (holdsAll(filters, position)) {
+                        consider(segment.docs[position], query, terms, includeInactive, hits, true);
+                    }
+                }
+            }
+            return;
+        }
+        List<IntPredicate> filters = new ArrayList<>();
+        required.subList(1, required.size()).forEach(token -> filters.add(segment.holders(token)));
+        filters.add(segment.holdersOfAny(from, to, prefix));
+        for (int position : segment.postings[required.get(0)]) {
+            if (++scanned > MAX_SCANNED || hits.size() - found >= candidates) {
+                return;
+            }
+            if (holdsAll(filters, position)) {
+                consider(segment.docs[position], query, terms, includeInactive, hits, true);
+            }
+        }
+    }
+
+    private static boolean holdsAll(List<IntPredicate> filters, int position) {
+        for (IntPredicate filter : filters) {
+            if (!filter.test(position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int tokenBound(String[] tokens, String key) {
+        int position = Arrays.binarySearch(tokens, key);
+        return position < 0 ? -position - 1 : position;
+    }
+
+    static int score(Doc doc, String query, List<String> terms) {
+        int score = 0;
+        if (doc.skuKey().equals(query)) {
+            score += 100;
+        } else if (doc.skuKey().startsWith(query)) {
+            score += 50;
+        }
+        int words = 0;
+        for (int t = 0; t < terms.size(); t++) {
+            boolean last = t == terms.size() - 1;
+            int best = Math.max(2 * match(doc.name(), terms.get(t), last), match(doc.category(), terms.get(t), last));
+            if (best == 0) {
+                return score;
+            }
+            words += best;
+        }
+        if (!terms.isEmpty() && startsWithWord(doc.name(), terms.get(0))) {
+            words += 2;
+        }
+        return score + words;
+    }
+
+    /**
+     * 5 when the text holds the lower-cased word, 3 when one of its words starts with it and
+     * prefixes count, else 0. Reads the text in place: this runs for every candidate.
+     */
+    private static int match(String text, String term, boolean prefix) {
+        if (text == null) {
+            return 0;
+        }
+        int best = 0;
+        for (int i = 0; i + term.length() <= text.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(text.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+            if (wordStart && text.regionMatches(true, i, term, 0, term.length())) {
+                int end = i + term.length();
+                if (end == text.length() || !Character.isLetterOrDigit(text.charAt(end))) {
+                    return 5;
+                }
+                if (prefix) {
+                    best = 3;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static boolean startsWithWord(String text, String term) {
+        if (text == null) {
+            return false;
+        }
+        int i = 0;
+        while (i < text.length() && !Character.isLetterOrDigit(text.charAt(i))) {
+            i++;
+        }
+        return text.regionMatches(true, i, term, 0, term.length());
+    }
+
+    /**
+     * Lower-cased words of a text, in order
+     */
+    static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static int lowerBound(Doc[] docs, String key) {
+        int low = 0;
+        int high = docs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (docs[mid].skuKey().compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Doc doc(ProductSearchResultDTO product) {
+        String sku = product.getSku() == null ? "" : product.getSku();
+        return new Doc(product.getId(), sku, sku.toLowerCase(Locale.ROOT), product.getName(), product.getCategory(),
+                Boolean.TRUE.equals(product.getActive()));
+    }
+
+    private static long docBytes(Doc doc) {
+        // Header, id, four references and the flag; the lower-cased SKU is usually the SKU itself
+        return 40 + stringBytes(doc.sku()) + (doc.skuKey() == doc.sku() ? 0 : stringBytes(doc.skuKey()))
+                + stringBytes(doc.name()) + stringBytes(doc.category());
+    }
+
+    private static long stringBytes(String value) {
+        // String object plus its byte array, one byte per character for Latin-1 text
+        return value == null ? 0 : 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    record Doc(long id, String sku, String skuKey, String name, String category, boolean active) {
+
+        ProductSearchResultDTO toResult() {
+            return new ProductSearchResultDTO(id, sku, name, category, active);
+        }
+    }
+
+    private record Change(Doc doc, long sequence) {
+    }
+
+    private record Hit(Doc doc, int score) {
+    }
+
+    private static final class Segment {
+
+        final Doc[] docs;       // by lower-cased SKU
+        final String[] tokens;  // sorted
+        final int[][] postings; // ascending positions in docs, per token
+        // Same positions as a bitset, for tokens held by at least 1 product in 32 (no larger than the list)
+        final long[][] dense;
+        final long bytes;
+
+        private Segment(Doc[] docs, String[] tokens, int[][] postings, long[][] dense, long bytes) {
+            this.docs = docs;
+            this.tokens = tokens;
+            this.postings = postings;
+            this.dense = dense;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Whether a product holds the token, asked for ascending positions
+         */
+        IntPredicate holders(int token) {
+            long[] bits = dense[token];
+            if (bits != null) {
+                return position -> (bits[position >>> 6] & (1L << position)) != 0;
+            }
+            int[] list = postings[token];
+            int[] cursor = new int[1];
+            return position -> {
+                // Gallop from the last position to a window holding this one, then binary search it
+                int low = cursor[0];
+                int high = low;
+                for (int step = 1; high < list.length && list[high] < position; step <<= 1) {
+                    low = high + 1;
+                    high += step;
+                }
+                int index = Arrays.binarySearch(list, low, Math.min(high + 1, list.length), position);
+                cursor[0] = index < 0 ? -index - 1 : index;
+                return index >= 0;
+            };
+        }
+
+        /**
+         * Whether a product holds one of the tokens [from, to), all starting with the prefix
+         */
+        IntPredicate holdersOfAny(int from, int to, String prefix) {
+            long sparse = 0;
+            for (int token = from; token < to && sparse <= MAX_UNION; token++) {
+                sparse += dense[token] == null ? postings[token].length : 0;
+            }
+            if (sparse > MAX_UNION) {
+                // A prefix this common matches most products anyway
+                return position -> match(docs[position].name(), prefix, true) > 0
+                        || match(docs[position].category(), prefix, true) > 0;
+            }
+            long[] bits = new long[words(docs.length)];
+            for (int token = from; token < to; token++) {
+                if (dense[token] != null) {
+                    for (int word = 0; word < bits.length; word++) {
+                        bits[word] |= dense[token][word];
+                    }
+                } else {
+                    for (int position : postings[token]) {
+                        bits[position >>> 6] |= 1L << position;
+                    }
+                }
+            }
+            return position -> (bits[position >>> 6] & (1L << position)) != 0;
+        }
+
+        private static int words(int positions) {
+            return (positions + 63) >>> 6;
+        }
+
+        /**
+         * @return the segment, or null when it is estimated above maxBytes
+         */
+        static Segment build(List<Doc> products, long maxBytes) {
+            Doc[] docs = products.toArray(new Doc[0]);
+            Arrays.sort(docs, Comparator.comparing(Doc::skuKey));
+            long bytes = align(16 + 4L * docs.length);
+            // Few distinct categories: every product shares one copy of its category
+            Map<String, String> categories = new HashMap<>();
+            for (int i = 0; i < docs.length; i++) {
+                Doc doc = docs[i];
+                bytes += docBytes(doc) - stringBytes(doc.category());
+                if (doc.category() != null) {
+                    String category = categories.putIfAbsent(doc.category(), doc.category());
+                    if (category == null) {
+                        bytes += stringBytes(doc.category());
+                    } else if (category != doc.category()) {
+                        docs[i] = new Doc(doc.id(), doc.sku(), doc.skuKey(), doc.name(), category, doc.active());
+                    }
+                }
+            }
+            if (bytes > maxBytes) {
+                return null;
+            }
+
+            Map<String, IntList> byToken = new HashMap<>();
+            for (int position = 0; position < docs.length; position++) {
+                for (String token : tokens(docs[position].name())) {
+                    byToken.computeIfAbsent(token, key -> new IntList()).addOnce(position);
+                }
+                for (String token : tokens(docs[position].category())) {
+                    byToken.computeIfAbsent(token, key -> new IntList()).addOnce(position);
+                }
+            }
+            String[] tokens = byToken.keySet().toArray(new String[0]);
+            Arrays.sort(tokens);
+            int[][] postings = new int[tokens.length][];
+            long[][] dense = new long[tokens.length][];
+            bytes += 3 * align(16 + 4L * tokens.length);
+            for (int i = 0; i < tokens.length; i++) {
+                postings[i] = byToken.get(tokens[i]).toArray();
+                bytes += stringBytes(tokens[i]) + align(16 + 4L * postings[i].length);
+                if (32L * postings[i].length >= docs.length) {
+                    dense[i] = new long[words(docs.length)];
+                    for (int position : postings[i]) {
+                        dense[i][position >>> 6] |= 1L << position;
+                    }
+                    bytes += align(16 + 8L * dense[i].length);
+                }
+            }
+            return bytes > maxBytes ? null : new Segment(docs, tokens, postings, dense, bytes);
+        }
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[2];
+        private int size;
+
+        // Positions come in ascending order, a product holding a token twice is listed once
+        void addOnce(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
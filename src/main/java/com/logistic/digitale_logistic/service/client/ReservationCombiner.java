@@ -0,0 +1,480 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.config.CatalogVersions;
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Combining stage for hot inventory rows (flash-sale bursts on one SKU).
+ *
+ * Concurrent reservations on the same inventory row queue up behind one leader thread.
+ * The leader drains the queue, applies the whole batch as one conditional UPDATE and splits
+ * the granted quantity back in arrival order; callers that got less fall back to the next
+ * warehouse as usual. Under no contention a batch is just the caller's own request.
+ *
+ * The batch commits on its own, short transaction so the row lock is held for one statement
+ * instead of for the whole order transaction. Each share is journaled in that same transaction
+ * (inventory_reservation_grants) and the journal row is deleted by the order's transaction when it
+ * commits, so the reservation only stands if the order does. A rolled-back order releases its share
+ * at once; anything left behind (crash, failed release) is released by {@link #reconcile()} once it
+ * is older than the grant timeout, on startup and periodically.
+ *
+ * Runs on the application pool: at most max-participants callers (pool size - 1 by default) wait
+ * in the stage, so a leader always finds a connection for the batch; the others reserve directly
+ * in their own transaction.
+ *
+ * Disabled by default (inventory.reservation.combining.enabled).
+ */
+@Component
+@Slf4j
+public class ReservationCombiner implements SmartInitializingSingleton {
+
+    private static final String RESERVE_SQL =
+            "UPDATE inventory SET qty_reserved = qty_reserved + ?, updated_at = ? " +
+            "WHERE id = ? AND qty_on_hand - qty_reserved >= ?";
+    private static final String RELEASE_SQL =
+            "UPDATE inventory SET qty_reserved = GREATEST(qty_reserved - ?, 0), updated_at = ? WHERE id = ?";
+    private static final String AVAILABLE_SQL =
+            "SELECT qty_on_hand - qty_reserved FROM inventory WHERE id = ?";
+    private static final String INSERT_GRANT_SQL =
+            "INSERT INTO inventory_reservation_grants (id, inventory_id, quantity, created_at) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_GRANT_SQL =
+            "DELETE FROM inventory_reservation_grants WHERE id = ?";
+    private static final String EXPIRED_GRANTS_SQL =
+            "SELECT id, inventory_id, quantity FROM inventory_reservation_grants WHERE created_at < ? ORDER BY id LIMIT ?";
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final DocumentNumberGenerator documentNumberGenerator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersions catalogVersions;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final int maxAttempts;
+    private final Duration grantTimeout;
+    private final Semaphore participants;
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final Counter batches;
+    private final DistributionSummary batchSize;
+    private final Counter bypassed;
+    private final Counter releaseFailures;
+    private final Counter reconciled;
+
+    public ReservationCombiner(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               DocumentNumberGenerator documentNumberGenerator,
+                               ApplicationEventPublisher eventPublisher,
+                               CatalogVersions catalogVersions,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.reservation.combining.enabled:false}") boolean enabled,
+                               @Value("${inventory.reservation.combining.window-micros:0}") long windowMicros,
+                               @Value("${inventory.reservation.combining.max-batch:256}") int maxBatch,
+                               @Value("${inventory.reservation.combining.max-participants:0}") int maxParticipants,
+                               @Value("${inventory.reservation.combining.grant-timeout:PT10M}") Duration grantTimeout,
+                               @Value("${inventory.reservation.max-attempts:3}") int maxAttempts) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // The caller's order transaction is suspended while its batch commits
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.documentNumberGenerator = documentNumberGenerator;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersions = catalogVersions;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, windowMicros));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.grantTimeout = grantTimeout;
+        this.participants = new Semaphore(participantLimit(dataSource, maxParticipants));
+        this.batches = Counter.builder("inventory.reservation.combined.batches")
+                .description("Combined reservation batches applied")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("inventory.reservation.combined.batch.size")
+                .description("Reservation requests per combined batch")
+                .register(meterRegistry);
+        this.bypassed = Counter.builder("inventory.reservation.combined.bypassed")
+                .description("Reservations made directly because the combining stage was full")
+                .register(meterRegistry);
+        this.releaseFailures = Counter.builder("inventory.reservation.combined.release.failures")
+                .description("Shares of rolled-back orders left to reconciliation")
+                .register(meterRegistry);
+        this.reconciled = Counter.builder("inventory.reservation.combined.reconciled")
+                .description("Shares of orders that never committed, released by reconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Below the pool size, so the leader of a batch never waits on connections held by its own followers
+     */
+    private static int participantLimit(DataSource dataSource, int configured) {
+        if (configured > 0) {
+            return configured;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return Math.max(1, dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize() - 1);
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read the connection pool size, combining stage left unbounded: {}", e.getMessage());
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inventory rows with callers in the stage right now
+     */
+    int activeRows() {
+        return slots.size();
+    }
+
+    /**
+     * Release shares left behind by a previous run before serving reservations
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Reserve up to {@code requestedQty} units on the row, combined with concurrent callers.
+     * Within a transaction the reservation stands only if that transaction commits.
+     *
+     * @param expectedAvailable available quantity as last seen by the caller
+     * @return quantity granted to this caller
+     */
+    public int reserveUpTo(Inventory inventory, int requestedQty, int expectedAvailable) {
+        if (requestedQty <= 0 || expectedAvailable <= 0) {
+            return 0;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        int granted;
+        if (participants.tryAcquire()) {
+            try {
+                Request request = new Request(requestedQty, expectedAvailable, inTransaction);
+                combine(inventory.getId(), request);
+                granted = request.granted;
+                if (request.grantId != null) {
+                    confirmOnCommit(new Grant(request.grantId, inventory.getId(), granted));
+                }
+            } finally {
+                participants.release();
+            }
+        } else {
+            // In the caller's own transaction, nothing to confirm
+            bypassed.increment();
+            granted = reserve(inventory.getId(), requestedQty, expectedAvailable);
+        }
+
+        if (granted > 0) {
+            eventPublisher.publishEvent(new InventoryChangedEvent(
+                    inventory.getProduct().getId(), inventory.getWarehouse().getId(), 0, granted));
+        }
+        return granted;
+    }
+
+    private void combine(Long inventoryId, Request request) {
+        Slot slot = slots.compute(inventoryId, (id, current) -> {
+            Slot joined = current == null ? new Slot() : current;
+            joined.users++;
+            return joined;
+        });
+        try {
+            slot.pending.add(request);
+            slot.lock.lock();
+            try {
+                // Whoever holds the lock combines; most followers find their request already served
+                while (!request.done) {
+                    combineBatch(inventoryId, slot);
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        } finally {
+            // Drop the slot with its last user, so only rows being reserved right now have one
+            slots.computeIfPresent(inventoryId, (id, current) -> --current.users == 0 ? null : current);
+        }
+    }
+
+    /**
+     * Runs under the slot lock
+     */
+    private void combineBatch(Long inventoryId, Slot slot) {
+        if (windowNanos > 0) {
+            LockSupport.parkNanos(windowNanos);
+        }
+
+        List<Request> batch = new ArrayList<>();
+        int total = 0;
+        int expected = 0;
+        Request next;
+        while (batch.size() < maxBatch && (next = slot.pending.poll()) != null) {
+            batch.add(next);
+            total += next.requested;
+            expected = Math.max(expected, next.expectedAvailable);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int granted = 0;
+        try {
+            granted = applyBatch(inventoryId, batch, total, expected);
+        } catch (RuntimeException e) {
+            // Rolled back as a whole: nobody in the batch got anything
+            batch.forEach(request -> {
+                request.granted = 0;
+                request.grantId = null;
+            });
+            log.error("Combined reservation failed on inventory {}: {}", inventoryId, e.getMessage(), e);
+        }
+        batch.forEach(request -> request.done = true);
+
+        batches.increment();
+        batchSize.record(batch.size());
+        log.debug("Combined reservation | inventory={} | requests={} | requested={} | granted={}",
+                inventoryId, batch.size(), total, granted);
+    }
+
+    /**
+     * One conditional UPDATE for the whole batch, split back in arrival order, and the grant
+     * journal rows of the shares taken within a transaction, all committed together
+     *
+     * @return quantity reserved for the batch
+     */
+    private int applyBatch(Long inventoryId, List<Request> batch, int total, int expectedAvailable) {
+        Integer result = batchTransaction.execute(status -> {
+            int granted = reserve(inventoryId, total, expectedAvailable);
+            int remaining = granted;
+            List<Request> journaled = new ArrayList<>();
+            for (Request request : batch) {
+                request.granted = Math.min(request.requested, remaining);
+                remaining -= request.granted;
+                if (request.granted > 0 && request.inTransaction) {
+                    request.grantId = documentNumberGenerator.nextId();
+                    journaled.add(request);
+                }
+            }
+            if (!journaled.isEmpty()) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                jdbcTemplate.batchUpdate(INSERT_GRANT_SQL, journaled, journaled.size(), (ps, request) -> {
+                    ps.setLong(1, request.grantId);
+                    ps.setLong(2, inventoryId);
+                    ps.setInt(3, request.granted);
+                    ps.setTimestamp(4, now);
+                });
+            }
+            return granted;
+        });
+        return result == null ? 0 : result;
+    }
+
+    /**
+     * Conditional UPDATE retried with the fresh availability on a miss, in the current transaction
+     *
+     * @return quantity reserved
+     */
+    private int reserve(Long inventoryId, int total, int expectedAvailable) {
+        int available = expectedAvailable;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            int toReserve = Math.min(available, total);
+            if (toReserve <= 0) {
+                return 0;
+            }
+            if (jdbcTemplate.update(RESERVE_SQL, toReserve, Timestamp.valueOf(LocalDateTime.now()),
+                    inventoryId, toReserve) == 1) {
+                return toReserve;
+            }
+            Integer current = jdbcTemplate.queryForObject(AVAILABLE_SQL, Integer.class, inventoryId);
+            available = current == null ? 0 : current;
+        }
+        return 0;
+    }
+
+    /**
+     * Delete the caller's grant rows with its transaction; give the shares back if it does not commit
+     */
+    private void confirmOnCommit(Grant grant) {
+        TransactionalGrants pending = (TransactionalGrants) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new TransactionalGrants();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.grants.add(grant);
+    }
+
+    /**
+     * Release shares whose order did not commit within the grant timeout
+     *
+     * @return number of shares released
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.combining.reconcile-ms:60000}",
+            initialDelayString = "${inventory.reservation.combining.reconcile-ms:60000}")
+    public int reconcile() {
+        if (!enabled) {
+            return 0;
+        }
+        int total = 0;
+        try {
+            int found;
+            do {
+                Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(grantTimeout));
+                AtomicInteger released = new AtomicInteger();
+                Integer batch = batchTransaction.execute(status -> {
+                    List<Grant> expired = jdbcTemplate.query(EXPIRED_GRANTS_SQL,
+                            (rs, rowNum) -> new Grant(rs.getLong("id"), rs.getLong("inventory_id"), rs.getInt("quantity")),
+                            cutoff, RECONCILE_BATCH_SIZE);
+                    expired.forEach(grant -> {
+                        if (release(grant)) {
+                            released.incrementAndGet();
+                        }
+                    });
+                    return expired.size();
+                });
+                found = batch == null ? 0 : batch;
+                releasedOnCommit(released.get());
+                total += released.get();
+            } while (found == RECONCILE_BATCH_SIZE);
+        } catch (RuntimeException e) {
+            log.error("Combined reservation reconciliation failed, will retry on next run: {}", e.getMessage(), e);
+        }
+        if (total > 0) {
+            reconciled.increment(total);
+            log.warn("Released {} combined reservation shares of orders that never committed", total);
+        }
+        return total;
+    }
+
+    /**
+     * Give the share back unless its order has committed or it was released already.
+     *
+     * @return whether this call released it
+     */
+    private boolean release(Grant grant) {
+        if (jdbcTemplate.update(DELETE_GRANT_SQL, grant.id()) != 1) {
+            return false;
+        }
+        jdbcTemplate.update(RELEASE_SQL, grant.quantity(), Timestamp.valueOf(LocalDateTime.now()), grant.inventoryId());
+        return true;
+    }
+
+    /**
+     * After a release batch has committed. No InventoryChangedEvent: the reservation event was
+     * discarded with the order's transaction, so the ledger never counted the share. The
+     * availability pollers saw may have included it, though, so the warehouse catalog moves on.
+     */
+    private void releasedOnCommit(int released) {
+        if (released > 0) {
+            catalogVersions.advance(CatalogVersions.Resource.WAREHOUSES);
+        }
+    }
+
+    private static final class Slot {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<Request> pending = new ConcurrentLinkedQueue<>();
+        // Callers between joining and leaving, only changed inside slots.compute
+        private int users;
+    }
+
+    /**
+     * Written by the combining thread under the slot lock, read by the owner after taking that lock
+     */
+    private static final class Request {
+        private final int requested;
+        private final int expectedAvailable;
+        private final boolean inTransaction;
+        private int granted;
+        private Long grantId;
+        private boolean done;
+
+        private Request(int requested, int expectedAvailable, boolean inTransaction) {
+            this.requested = requested;
+            this.expectedAvailable = expectedAvailable;
+            this.inTransaction = inTransaction;
+        }
+    }
+
+    private record Grant(long id, long inventoryId, int quantity) {
+    }
+
+    private final class TransactionalGrants implements TransactionSynchronization {
+        private final List<Grant> grants = new ArrayList<>();
+
+        /**
+         * The shares become the order's own: a grant already released by reconciliation fails the commit
+         */
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            int[][] counts = jdbcTemplate.batchUpdate(DELETE_GRANT_SQL, grants, grants.size(),
+                    (ps, grant) -> ps.setLong(1, grant.id()));
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    if (count == 0) {
+                        throw new IllegalStateException("Combined reservation was released before the order committed "
+                                + "(older than " + grantTimeout + ")");
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ReservationCombiner.this);
+            if (status == STATUS_COMMITTED) {
+                return;
+            }
+            try {
+                Long released = batchTransaction.execute(tx ->
+                        grants.stream().filter(ReservationCombiner.this::release).count());
+                releasedOnCommit(released == null ? 0 : released.intValue());
+                log.warn("Order transaction rolled back, released {} combined reservation shares", grants.size());
+            } catch (RuntimeException e) {
+                // The grant rows are still there: reconciliation releases them after the grant timeout
+                releaseFailures.increment(grants.size());
+                log.error("Failed to release {} combined reservation shares {}, left to reconciliation: {}",
+                        grants.size(), grants, e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.entity.ReservationHold;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.enums.BackorderStatus;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.event.ReservationHeldEvent;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
+import com.logistic.digitale_logistic.repository.BackorderRepository;
+import com.logistic.digitale_logistic.repository.ReservationHoldJdbcRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Reservation holds with a time-to-live.
+ *
+ * Reserving an order records what it holds per inventory row and stamps the order with
+ * reservation_expires_at. The expiry is tracked in memory by a {@link HierarchicalTimingWheel},
+ * so finding expired orders never scans sales_orders: due order ids are re-checked and locked by
+ * primary key and released in batches (qty_reserved given back, lines reset, open backorders
+ * cancelled, order back to CREATED). The wheel is rebuilt from the indexed expiry column on startup.
+ *
+ * Once an order goes to shipment its holds are consumed and it no longer expires. Shipment and
+ * release both take the order row first, so only one of them gets the holds.
+ */
+@Service
+@Slf4j
+public class ReservationHoldService implements SmartInitializingSingleton {
+
+    private final ReservationHoldJdbcRepository holdRepository;
+    private final SalesOrderRepository salesOrderRepository;
+    private final BackorderRepository backorderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int releaseBatchSize;
+
+    private final HierarchicalTimingWheel wheel;
+    private final Object wheelLock = new Object();
+
+    public ReservationHoldService(ReservationHoldJdbcRepository holdRepository,
+                                  SalesOrderRepository salesOrderRepository,
+                                  BackorderRepository backorderRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${inventory.hold.enabled:true}") boolean enabled,
+                                  @Value("${inventory.hold.ttl:PT48H}") Duration ttl,
+                                  @Value("${inventory.hold.tick-ms:1000}") long tickMillis,
+                                  @Value("${inventory.hold.release-batch-size:500}") int releaseBatchSize) {
+        this.holdRepository = holdRepository;
+        this.salesOrderRepository = salesOrderRepository;
+        this.backorderRepository = backorderRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.releaseBatchSize = Math.max(1, releaseBatchSize);
+        this.wheel = new HierarchicalTimingWheel(tickMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Load the expiry of every order currently holding stock
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        List<ReservationHeldEvent> active = salesOrderRepository.findActiveReservationExpiries();
+        synchronized (wheelLock) {
+            active.forEach(held -> wheel.schedule(held.getSalesOrderId(), toMillis(held.getExpiresAt())));
+        }
+        log.info("Reservation hold expiry wheel loaded | activeOrders={}", active.size());
+    }
+
+    /**
+     * Record stock held by an order in the current transaction. The first hold of an order
+     * starts its TTL; later holds (e.g. backorder fulfilment) share the same expiry.
+     */
+    public void recordHolds(SalesOrder salesOrder, Collection<StockDelta> holds) {
+        if (!enabled || holds.isEmpty()) {
+            return;
+        }
+        holdRepository.insertHolds(salesOrder.getId(), holds);
+        if (salesOrder.getReservationExpiresAt() == null) {
+            salesOrder.setReservationExpiresAt(LocalDateTime.now().plus(ttl));
+            eventPublisher.publishEvent(new ReservationHeldEvent(salesOrder.getId(), salesOrder.getReservationExpiresAt()));
+        }
+    }
+
+    /**
+     * The order is going to shipment: its reserved stock is no longer subject to expiry
+     *
+     * @throws IllegalStateException when the reservation expired since the order was read
+     */
+    public void consumeHolds(SalesOrder salesOrder) {
+        if (!enabled) {
+            return;
+        }
+        if (!holdRepository.claimReservation(salesOrder.getId())) {
+            throw new IllegalStateException("Reservation of order " + salesOrder.getId() + " has expired");
+        }
+        holdRepository.deleteBySalesOrderIds(List.of(salesOrder.getId()));
+        salesOrder.setReservationExpiresAt(null);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReservationHeld(ReservationHeldEvent event) {
+        synchronized (wheelLock) {
+            wheel.schedule(event.getSalesOrderId(), toMillis(event.getExpiresAt()));
+        }
+    }
+
+    /**
+     * Advance the wheel and release the holds of every order that came due
+     *
+     * @return number of orders released
+     */
+    @Scheduled(fixedDelayString = "${inventory.hold.tick-ms:1000}")
+    public int releaseExpired() {
+        if (!enabled) {
+            return 0;
+        }
+        List<Long> due = new ArrayList<>();
+        synchronized (wheelLock) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+        int released = 0;
+        for (int from = 0; from < due.size(); from += releaseBatchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + releaseBatchSize, due.size()));
+            try {
+                Integer count = transactionTemplate.execute(status -> releaseBatch(batch));
+                released += count == null ? 0 : count;
+            } catch (RuntimeException e) {
+                log.error("Failed to release {} expired reservations, rescheduling: {}", batch.size(), e.getMessage(), e);
+                long retryAt = System.currentTimeMillis() + Duration.ofMinutes(1).toMillis();
+                synchronized (wheelLock) {
+                    batch.forEach(id -> wheel.schedule(id, retryAt));
+                }
+            }
+        }
+        return released;
+    }
+
+    private int releaseBatch(List<Long> salesOrderIds) {
+        // Re-check and lock by id: shipped, cancelled or re-reserved orders are skipped, and a
+        // shipment waits for this release before it can consume the holds
+        LocalDateTime checkedAt = LocalDateTime.now();
+        List<Long> expiredIds = holdRepository.lockExpiredReservations(salesOrderIds, checkedAt);
+        if (expiredIds.isEmpty()) {
+            return 0;
+        }
+        List<SalesOrder> expired = salesOrderRepository.findExpiredReservations(expiredIds, checkedAt);
+
+        Map<StockKey, Integer> byRow = new LinkedHashMap<>();
+        for (ReservationHold hold : holdRepository.findBySalesOrderIds(expiredIds)) {
+            byRow.merge(new StockKey(hold.getProductId(), hold.getWarehouseId()), hold.getQuantity(), Integer::sum);
+        }
+        List<StockDelta> releases = byRow.entrySet().stream()
+                .map(e -> new StockDelta(e.getKey().productId(), e.getKey().warehouseId(), e.getValue()))
+                .toList();
+        if (!releases.isEmpty()) {
+            holdRepository.releaseReserved(releases);
+        }
+        holdRepository.deleteBySalesOrderIds(expiredIds);
+        backorderRepository.updateStatusForSalesOrders(expiredIds,
+                List.of(BackorderStatus.PENDING, BackorderStatus.PARTIALLY_FULFILLED), BackorderStatus.CANCELLED);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (SalesOrder order : expired) {
+            order.getLines().forEach((SoLine line) -> line.setReservedQuantity(0));
+            order.setStatus("CREATED");
+            order.setReservationExpiresAt(null);
+            order.setUpdatedAt(now);
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId()));
+        }
+        releases.forEach(release -> eventPublisher.publishEvent(new InventoryChangedEvent(
+                release.getProductId(), release.getWarehouseId(), 0, -release.getQuantity())));
+
+        log.info("Released expired reservations | orders={} | inventoryRows={}", expired.size(), releases.size());
+        return expired.size();
+    }
+
+    int scheduledCount() {
+        synchronized (wheelLock) {
+            return wheel.size();
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record StockKey(long productId, long warehouseId) {
+    }
+}
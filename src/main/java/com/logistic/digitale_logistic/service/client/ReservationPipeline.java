@@ -0,0 +1,226 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ReservationResultDTO;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.event.ReservationCompletedEvent;
+import com.logistic.digitale_logistic.exceptions.IntakeOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Asynchronous order intake: reservations run on a bounded worker pool once the order has committed.
+ *
+ * The intake request only persists the order and answers 202; its connection is released before
+ * the reservation starts. Places in the pipeline (running + queued) are limited: when all of them
+ * are taken, new orders are refused with 503 before anything is written, so bursts queue here
+ * instead of piling up on the connection pool. Results are kept for polling (most recent
+ * {@code result-cache-size}) and published as {@link ReservationCompletedEvent}.
+ *
+ * Queued orders that never ran (shutdown) stay CREATED and are picked up by the batch allocation.
+ * Disabled by default (sales-order.intake.async).
+ */
+@Component
+@Slf4j
+public class ReservationPipeline {
+
+    public static final String PENDING = "PENDING";
+
+    private final InventoryReservationService inventoryReservationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Semaphore places;
+    private final ThreadPoolExecutor executor;
+    private final Map<Long, ReservationResultDTO> results;
+
+    private final Counter rejected;
+    private final Counter failed;
+    private final Timer lag;
+    private final Timer duration;
+
+    public ReservationPipeline(InventoryReservationService inventoryReservationService,
+                               ApplicationEventPublisher eventPublisher,
+                               MeterRegistry meterRegistry,
+                               @Value("${sales-order.intake.async:false}") boolean enabled,
+                               @Value("${sales-order.intake.workers:4}") int workers,
+                               @Value("${sales-order.intake.queue-capacity:1000}") int queueCapacity,
+                               @Value("${sales-order.intake.result-cache-size:10000}") int resultCacheSize) {
+        this.inventoryReservationService = inventoryReservationService;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.places = new Semaphore(Math.max(1, workers) + Math.max(0, queueCapacity));
+        // The queue never refuses work: admission is bounded by the places above
+        this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new CustomizableThreadFactory("reservation-worker-"));
+        this.results = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ReservationResultDTO> eldest) {
+                return size() > resultCacheSize;
+            }
+        });
+
+        this.rejected = meterRegistry.counter("order.intake.rejected");
+        this.failed = meterRegistry.counter("order.intake.failed");
+        this.lag = Timer.builder("order.intake.lag")
+                .description("Time an order waited in the queue before its reservation started")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.duration = meterRegistry.timer("order.intake.reservation");
+        Gauge.builder("order.intake.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("order.intake.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("order.intake.oldest.wait", this, ReservationPipeline::oldestWaitSeconds)
+                .description("Age of the oldest queued order, in seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a place for an order about to be created, before anything is written. The place is
+     * given back if the current transaction rolls back without the order being queued.
+     *
+     * @throws IntakeOverloadedException when every place is taken
+     */
+    public Admission admit() {
+        if (!places.tryAcquire()) {
+            rejected.increment();
+            throw new IntakeOverloadedException("Too many orders waiting for reservation, please retry shortly");
+        }
+        Admission admission = new Admission();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(admission);
+        }
+        return admission;
+    }
+
+    /**
+     * Latest known result for an order queued on this instance
+     */
+    public Optional<ReservationResultDTO> result(Long salesOrderId) {
+        return Optional.ofNullable(results.get(salesOrderId));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Reservation pipeline stopped with {} orders still queued; they stay CREATED",
+                    executor.shutdownNow().size());
+        }
+    }
+
+    private void submit(Long salesOrderId, String orderNumber) {
+        executor.execute(new QueuedReservation(salesOrderId, orderNumber, System.nanoTime()));
+    }
+
+    private double oldestWaitSeconds() {
+        Runnable head = executor.getQueue().peek();
+        return head instanceof QueuedReservation queued
+                ? (System.nanoTime() - queued.enqueuedAt) / 1_000_000_000.0
+                : 0;
+    }
+
+    /**
+     * A place in the pipeline: queued when the order's transaction commits, released otherwise
+     */
+    public class Admission implements TransactionSynchronization {
+
+        private Long salesOrderId;
+        private String orderNumber;
+
+        /**
+         * Queue the reservation of the order (after commit when a transaction is active)
+         *
+         * @return the pending result returned to the client
+         */
+        public ReservationResultDTO queue(SalesOrder salesOrder) {
+            this.salesOrderId = salesOrder.getId();
+            this.orderNumber = salesOrder.getOrderNumber();
+            ReservationResultDTO pending = ReservationResultDTO.builder()
+                    .salesOrderId(salesOrderId)
+                    .salesOrderNumber(orderNumber)
+                    .status(PENDING)
+                    .fullyReserved(false)
+                    .hasBackorders(false)
+                    .backorders(List.of())
+                    .message("Order accepted, reservation queued")
+                    .build();
+            results.put(salesOrderId, pending);
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                submit(salesOrderId, orderNumber);
+            }
+            return pending;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED && salesOrderId != null) {
+                submit(salesOrderId, orderNumber);
+            } else {
+                if (salesOrderId != null) {
+                    results.remove(salesOrderId);
+                }
+                places.release();
+            }
+        }
+    }
+
+    private class QueuedReservation implements Runnable {
+
+        private final Long salesOrderId;
+        private final String orderNumber;
+        private final long enqueuedAt;
+
+        QueuedReservation(Long salesOrderId, String orderNumber, long enqueuedAt) {
+            this.salesOrderId = salesOrderId;
+            this.orderNumber = orderNumber;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            lag.record(start - enqueuedAt, TimeUnit.NANOSECONDS);
+            MDC.put("businessId", salesOrderId.toString());
+            ReservationResultDTO result;
+            try {
+                result = inventoryReservationService.processOrderReservation(salesOrderId);
+            } catch (Exception e) {
+                failed.increment();
+                log.error("Queued reservation failed", e);
+                result = ReservationResultDTO.builder()
+                        .salesOrderId(salesOrderId)
+                        .salesOrderNumber(orderNumber)
+                        .status("CREATED")
+                        .fullyReserved(false)
+                        .hasBackorders(false)
+                        .message("Reservation failed: " + e.getMessage())
+                        .build();
+            } finally {
+                places.release();
+                duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                MDC.remove("businessId");
+            }
+            results.put(salesOrderId, result);
+            eventPublisher.publishEvent(new ReservationCompletedEvent(result));
+        }
+    }
+}
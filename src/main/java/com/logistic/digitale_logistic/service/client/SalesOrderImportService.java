@@ -0,0 +1,431 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.dto.*;
+import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import com.logistic.digitale_logistic.enums.ImportFormat;
+import com.logistic.digitale_logistic.enums.ImportReservationMode;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
+import com.logistic.digitale_logistic.repository.ClientRepository;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderImportJdbcRepository;
+import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk sales-order import for ERP feeds.
+ *
+ * The body is parsed as it is read (NDJSON: one order per line; CSV: one row per order line,
+ * consecutive rows with the same ref forming one order) and handled in chunks of
+ * {@code sales-order.import.chunk-size} orders. Clients, warehouses and product prices are loaded
+ * once per import and every order is validated against them in memory, like the single-order API
+ * would. Each chunk is written in its own transaction with two JDBC batches (orders, lines), then
+ * reserved per order or as one batch allocation run, and its results are written to the report
+ * straight away. Invalid orders are reported as REJECTED and do not stop the import.
+ */
+@Service
+@Slf4j
+public class SalesOrderImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of("ref", "client_id", "warehouse_id", "product_id", "quantity");
+
+    private final ProductRepository productRepository;
+    private final ClientRepository clientRepository;
+    private final WareHouseRepository warehouseRepository;
+    private final SalesOrderImportJdbcRepository importRepository;
+    private final InventoryReservationService inventoryReservationService;
+    private final BatchAllocationService batchAllocationService;
+    private final DocumentNumberGenerator documentNumberGenerator;
+    private final CreditExposureService creditExposureService;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public SalesOrderImportService(ProductRepository productRepository,
+                                   ClientRepository clientRepository,
+                                   WareHouseRepository warehouseRepository,
+                                   SalesOrderImportJdbcRepository importRepository,
+                                   InventoryReservationService inventoryReservationService,
+                                   BatchAllocationService batchAllocationService,
+                                   DocumentNumberGenerator documentNumberGenerator,
+                                   CreditExposureService creditExposureService,
+                                   ObjectMapper objectMapper,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${sales-order.import.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.clientRepository = clientRepository;
+        this.warehouseRepository = warehouseRepository;
+        this.importRepository = importRepository;
+        this.inventoryReservationService = inventoryReservationService;
+        this.batchAllocationService = batchAllocationService;
+        this.documentNumberGenerator = documentNumberGenerator;
+        this.creditExposureService = creditExposureService;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public record ImportSummary(int imported, int rejected, long durationMs) {
+    }
+
+    /**
+     * Import every order of the body, writing one NDJSON result per order to the report
+     */
+    public ImportSummary importOrders(Reader body, ImportFormat format, ImportReservationMode mode, Writer report) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedReader in = new BufferedReader(body);
+        OrderReader reader = format == ImportFormat.CSV ? new CsvOrderReader(in) : new NdjsonOrderReader(in);
+        Catalog catalog = loadCatalog();
+
+        int imported = 0;
+        int rejected = 0;
+        List<ParsedOrder> chunk = new ArrayList<>(chunkSize);
+        ParsedOrder parsed;
+        do {
+            parsed = reader.next();
+            if (parsed != null) {
+                chunk.add(parsed);
+            }
+            if (chunk.size() == chunkSize || (parsed == null && !chunk.isEmpty())) {
+                for (SalesOrderImportResultDTO result : importChunk(chunk, catalog, mode)) {
+                    if ("REJECTED".equals(result.getStatus())) {
+                        rejected++;
+                    } else {
+                        imported++;
+                    }
+                    report.write(objectMapper.writeValueAsString(result));
+                    report.write('\n');
+                }
+                report.flush();
+                chunk.clear();
+            }
+        } while (parsed != null);
+
+        ImportSummary summary = new ImportSummary(imported, rejected, System.currentTimeMillis() - start);
+        log.info("Sales order import completed | format={} | reservation={} | imported={} | rejected={} | durationMs={}",
+                format, mode, summary.imported(), summary.rejected(), summary.durationMs());
+        return summary;
+    }
+
+    private Catalog loadCatalog() {
+        return new Catalog(
+                productRepository.findAllPrices().stream()
+                        .collect(Collectors.toMap(ProductPrice::getProductId, Function.identity())),
+                new HashSet<>(clientRepository.findAllIds()),
+                new HashSet<>(warehouseRepository.findAllIds()));
+    }
+
+    private List<SalesOrderImportResultDTO> importChunk(List<ParsedOrder> chunk, Catalog catalog,
+                                                        ImportReservationMode mode) {
+        List<SalesOrderImportResultDTO> results = new ArrayList<>(chunk.size());
+        // Valid orders and their results, same positions
+        List<SalesOrder> orders = new ArrayList<>(chunk.size());
+        List<SalesOrderImportResultDTO> accepted = new ArrayList<>(chunk.size());
+        for (ParsedOrder parsed : chunk) {
+            String ref = parsed.order() != null ? parsed.order().getRef() : null;
+            String error = parsed.error() != null ? parsed.error() : validate(parsed.order(), catalog);
+            SalesOrderImportResultDTO result = SalesOrderImportResultDTO.builder()
+                    .record(parsed.record())
+                    .ref(ref)
+                    .status(error != null ? "REJECTED" : "CREATED")
+                    .message(error)
+                    .build();
+            results.add(result);
+            if (error == null) {
+                orders.add(toSalesOrder(parsed.order(), catalog, documentNumberGenerator.next("SO")));
+                accepted.add(result);
+            }
+        }
+        if (orders.isEmpty()) {
+            return results;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Admitted in the chunk's transaction, so a failed insert gives the credit back
+                BitSet overLimit = creditExposureService.admitAll(orders);
+                for (int i = overLimit.length() - 1; i >= 0; i = overLimit.previousSetBit(i - 1)) {
+                    SalesOrder order = orders.remove(i);
+                    SalesOrderImportResultDTO result = accepted.remove(i);
+                    result.setStatus("REJECTED");
+                    result.setMessage("Credit limit exceeded for client " + order.getClient().getUserId());
+                }
+                if (!orders.isEmpty()) {
+                    importRepository.insertOrders(orders);
+                    orders.forEach(order -> eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId())));
+                }
+            });
+        } catch (DataAccessException e) {
+            log.error("Sales order import chunk failed", e);
+            accepted.forEach(result -> {
+                result.setStatus("REJECTED");
+                result.setMessage("Import failed: " + e.getMostSpecificCause().getMessage());
+            });
+            return results;
+        }
+        if (orders.isEmpty()) {
+            return results;
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            accepted.get(i).setSalesOrderId(orders.get(i).getId());
+            accepted.get(i).setOrderNumber(orders.get(i).getOrderNumber());
+        }
+
+        switch (mode) {
+            case PER_ORDER -> accepted.forEach(result -> reserveOne(result.getSalesOrderId(), result));
+            case BATCH -> reserveBatch(accepted);
+            case NONE -> {
+            }
+        }
+        return results;
+    }
+
+    private void reserveOne(Long salesOrderId, SalesOrderImportResultDTO result) {
+        try {
+            apply(inventoryReservationService.processOrderReservation(salesOrderId), result);
+        } catch (Exception e) {
+            log.error("Reservation of imported sales order {} failed", salesOrderId, e);
+            result.setMessage("Reservation failed: " + e.getMessage());
+        }
+    }
+
+    private void reserveBatch(List<SalesOrderImportResultDTO> accepted) {
+        List<Long> ids = accepted.stream().map(SalesOrderImportResultDTO::getSalesOrderId).toList();
+        try {
+            Map<Long, ReservationResultDTO> reservations = batchAllocationService
+                    .allocateOrders(ids, AllocationObjective.FILL_RATE)
+                    .getResults().stream()
+                    .collect(Collectors.toMap(ReservationResultDTO::getSalesOrderId, Function.identity()));
+            accepted.forEach(result -> {
+                ReservationResultDTO reservation = reservations.get(result.getSalesOrderId());
+                if (reservation != null) {
+                    apply(reservation, result);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Batch reservation of {} imported sales orders failed", ids.size(), e);
+            accepted.forEach(result -> result.setMessage("Reservation failed: " + e.getMessage()));
+        }
+    }
+
+    private static void apply(ReservationResultDTO reservation, SalesOrderImportResultDTO result) {
+        result.setStatus(reservation.getStatus());
+        result.setFullyReserved(reservation.isFullyReserved());
+        result.setMessage(reservation.getMessage());
+    }
+
+    /**
+     * Same rules as the single-order API
+     *
+     * @return the reason the order is rejected, null when it is valid
+     */
+    private static String validate(SalesOrderImportDTO order, Catalog catalog) {
+        if (order.getClientId() == null || !catalog.clientIds().contains(order.getClientId())) {
+            return "Client not found with ID: " + order.getClientId();
+        }
+        if (order.getWarehouseId() == null || !catalog.warehouseIds().contains(order.getWarehouseId())) {
+            return "Warehouse not found with ID: " + order.getWarehouseId();
+        }
+        if (order.getLines() == null || order.getLines().isEmpty()) {
+            return "Sales order must contain at least one line";
+        }
+        for (SoLineDTO line : order.getLines()) {
+            ProductPrice product = line.getProductId() != null ? catalog.products().get(line.getProductId()) : null;
+            if (product == null) {
+                return "Product not found with ID: " + line.getProductId();
+            }
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                return "Product is not active: " + line.getProductId();
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                return "Quantity must be greater than 0";
+            }
+            if (product.getSellingPrice() == null) {
+                return "Product does not have a selling price: " + line.getProductId();
+            }
+        }
+        return null;
+    }
+
+    private static SalesOrder toSalesOrder(SalesOrderImportDTO dto, Catalog catalog, String orderNumber) {
+        Client client = new Client();
+        client.setUserId(dto.getClientId());
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(dto.getWarehouseId());
+
+        SalesOrder salesOrder = new SalesOrder();
+        salesOrder.setOrderNumber(orderNumber);
+        salesOrder.setClient(client);
+        salesOrder.setWarehouse(warehouse);
+        salesOrder.setStatus("CREATED");
+        salesOrder.setOrderDate(LocalDateTime.now());
+        salesOrder.setUpdatedAt(LocalDateTime.now());
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        for (SoLineDTO lineDto : dto.getLines()) {
+            Product product = new Product();
+            product.setId(lineDto.getProductId());
+            BigDecimal unitPrice = catalog.products().get(lineDto.getProductId()).getSellingPrice();
+
+            SoLine line = new SoLine();
+            line.setSalesOrder(salesOrder);
+            line.setProduct(product);
+            line.setOrderedQuantity(lineDto.getQuantity());
+            line.setReservedQuantity(0);
+            line.setUnitPrice(unitPrice);
+            salesOrder.getLines().add(line);
+
+            totalAmount = totalAmount.add(unitPrice.multiply(BigDecimal.valueOf(lineDto.getQuantity())));
+        }
+        salesOrder.setTotalAmount(totalAmount);
+        return salesOrder;
+    }
+
+    private record Catalog(Map<Long, ProductPrice> products, Set<Long> clientIds, Set<Long> warehouseIds) {
+    }
+
+    /**
+     * An order read from the body, or the reason it could not be read
+     */
+    private record ParsedOrder(int record, SalesOrderImportDTO order, String error) {
+    }
+
+    private interface OrderReader {
+
+        /**
+         * @return the next order, null at the end of the body
+         */
+        ParsedOrder next() throws IOException;
+    }
+
+    private class NdjsonOrderReader implements OrderReader {
+
+        private final BufferedReader in;
+        private int records;
+
+        NdjsonOrderReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public ParsedOrder next() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            records++;
+            try {
+                return new ParsedOrder(records, objectMapper.readValue(line, SalesOrderImportDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedOrder(records, null, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * CSV with a header naming the columns ref, client_id, warehouse_id, product_id and quantity
+     * (any order, other columns ignored). Values are plain: no quoting.
+     */
+    private static class CsvOrderReader implements OrderReader {
+
+        private final BufferedReader in;
+        private int[] columns;
+        private String[] pending;
+        private boolean done;
+        private int records;
+
+        CsvOrderReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public ParsedOrder next() throws IOException {
+            if (done) {
+                return null;
+            }
+            if (columns == null) {
+                String[] header = readRow();
+                List<String> names = header == null ? List.of()
+                        : Arrays.stream(header).map(name -> name.toLowerCase(Locale.ROOT)).toList();
+                if (!names.containsAll(CSV_COLUMNS)) {
+                    done = true;
+                    return new ParsedOrder(0, null, "CSV header must contain the columns " + String.join(",", CSV_COLUMNS));
+                }
+                columns = CSV_COLUMNS.stream().mapToInt(names::indexOf).toArray();
+            }
+
+            String[] row = pending != null ? pending : readRow();
+            if (row == null) {
+                done = true;
+                return null;
+            }
+            String ref = value(row, 0);
+            SalesOrderImportDTO order = new SalesOrderImportDTO(ref, null, null, new ArrayList<>());
+            String error = null;
+            do {
+                try {
+                    Long clientId = Long.valueOf(value(row, 1));
+                    Long warehouseId = Long.valueOf(value(row, 2));
+                    if (order.getClientId() == null) {
+                        order.setClientId(clientId);
+                        order.setWarehouseId(warehouseId);
+                    } else if (!order.getClientId().equals(clientId) || !order.getWarehouseId().equals(warehouseId)) {
+                        error = error != null ? error : "All rows of an order must have the same client_id and warehouse_id";
+                    }
+                    order.getLines().add(SoLineDTO.builder()
+                            .productId(Long.valueOf(value(row, 3)))
+                            .quantity(Integer.valueOf(value(row, 4)))
+                            .build());
+                } catch (NumberFormatException e) {
+                    error = error != null ? error : "Invalid number in CSV row: " + String.join(",", row);
+                }
+                row = readRow();
+            } while (row != null && ref.equals(value(row, 0)));
+            pending = row;
+
+            records++;
+            return new ParsedOrder(records, order, error);
+        }
+
+        private String value(String[] row, int column) {
+            int index = columns[column];
+            return index < row.length ? row[index].trim() : "";
+        }
+
+        private String[] readRow() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            return line.split(",", -1);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.SalesOrderPageDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.exceptions.InvalidCursorException;
+import com.logistic.digitale_logistic.mapper.SalesOrderMapper;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderSearchRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderSearchRepository.Keyset;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Filtered sales-order listing, newest first, paged with keyset cursors on (orderDate, id):
+ * every page is one range scan on an index, however deep, and the total is only counted when
+ * asked for. A page is two queries: the ids, then those orders with their lines.
+ */
+@Service
+@RequiredArgsConstructor
+public class SalesOrderSearchService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final SalesOrderSearchRepository salesOrderSearchRepository;
+    private final SalesOrderRepository salesOrderRepository;
+    private final SalesOrderMapper salesOrderMapper;
+
+    /**
+     * @param cursor       nextCursor of the previous page, null for the first page
+     * @param size         orders per page, at most {@value #MAX_PAGE_SIZE}
+     * @param includeTotal also count all matching orders (one more query)
+     */
+    @Transactional(readOnly = true)
+    public SalesOrderPageDTO search(SalesOrderSearchCriteria criteria, String cursor, Integer size, boolean includeTotal) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        // One more than the page to know whether another page follows
+        List<Long> ids = salesOrderSearchRepository.findIds(criteria, decode(cursor), pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        Map<Long, SalesOrder> orders = ids.isEmpty() ? Map.of() : salesOrderRepository.findWithDetailsByIdIn(ids).stream()
+                .collect(Collectors.toMap(SalesOrder::getId, Function.identity()));
+        List<SalesOrder> page = ids.stream().map(orders::get).toList();
+
+        return SalesOrderPageDTO.builder()
+                .items(page.stream().map(salesOrderMapper::toDTO).toList())
+                .nextCursor(hasMore ? encode(page.get(page.size() - 1)) : null)
+                .total(includeTotal ? salesOrderSearchRepository.count(criteria) : null)
+                .build();
+    }
+
+    static String encode(SalesOrder last) {
+        return encode(last.getOrderDate(), last.getId());
+    }
+
+    /**
+     * Cursor after this (orderDate, id) position; also used for the client's order tracking pages
+     */
+    static String encode(LocalDateTime orderDate, Long id) {
+        String position = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Keyset decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new Keyset(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
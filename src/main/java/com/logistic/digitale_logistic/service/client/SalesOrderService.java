@@ -1,15 +1,22 @@
 package com.logistic.digitale_logistic.service.client;
 
+import com.logistic.digitale_logistic.dto.OrderTrackingPageDTO;
+import com.logistic.digitale_logistic.dto.ProductReference;
 import com.logistic.digitale_logistic.dto.ReservationResultDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderWithReservationDTO;
 import com.logistic.digitale_logistic.dto.SoLineDTO;
 import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
+import com.logistic.digitale_logistic.exceptions.ForbeidenException;
+import com.logistic.digitale_logistic.mapper.OrderTrackingMapper;
 import com.logistic.digitale_logistic.mapper.SalesOrderMapper;
 import com.logistic.digitale_logistic.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +24,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,7 +38,18 @@ public class SalesOrderService {
     private final ProductRepository productRepository;
     private final SalesOrderMapper salesOrderMapper;
     private final InventoryReservationService inventoryReservationService;
-
+    private final ReservationPipeline reservationPipeline;
+    private final DocumentNumberGenerator documentNumberGenerator;
+    private final ProductReferenceCache productReferenceCache;
+    private final CreditExposureService creditExposureService;
+    private final OrderTrackingRepository orderTrackingRepository;
+    private final OrderTrackingMapper orderTrackingMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Create the order and reserve its stock. With async intake (sales-order.intake.async) the
+     * reservation is queued instead and the result carries status PENDING until it has run.
+     */
     @Transactional
     public SalesOrderWithReservationDTO createSalesOrder(SalesOrderDTO dto) {
 
@@ -40,6 +59,9 @@ public class SalesOrderService {
                 dto.getWarehouseId()
         );
 
+        // Refuse early when the reservation pipeline is full, before anything is written
+        ReservationPipeline.Admission admission = reservationPipeline.isEnabled() ? reservationPipeline.admit() : null;
+
         // Validate client exists
         Client client = clientRepository.findById(dto.getClientId())
                 .orElseThrow(() ->
@@ -54,7 +76,7 @@ public class SalesOrderService {
 
         // Create sales order
         SalesOrder salesOrder = new SalesOrder();
-        salesOrder.setOrderNumber(generateOrderNumber());
+        salesOrder.setOrderNumber(documentNumberGenerator.next("SO"));
         salesOrder.setClient(client);
         salesOrder.setWarehouse(warehouse);
         salesOrder.setStatus("CREATED");
@@ -65,13 +87,15 @@ public class SalesOrderService {
         // Create and validate lines
         List<SoLine> lines = new ArrayList<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
+        Map<Long, ProductReference> products = productReferenceCache.getAll(
+                dto.getLines().stream().map(SoLineDTO::getProductId).toList());
 
         for (SoLineDTO lineDto : dto.getLines()) {
 
-            Product product = productRepository.findById(lineDto.getProductId())
-                    .orElseThrow(() ->
-                            new IllegalArgumentException("Product not found with ID: " + lineDto.getProductId())
-                    );
+            ProductReference product = products.get(lineDto.getProductId());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found with ID: " + lineDto.getProductId());
+            }
 
             if (!product.getActive()) {
                 throw new IllegalArgumentException("Product is not active: " + product.getName());
@@ -90,7 +114,7 @@ public class SalesOrderService {
 
             SoLine line = new SoLine();
             line.setSalesOrder(salesOrder);
-            line.setProduct(product);
+            line.setProduct(productRepository.getReferenceById(product.getId()));
             line.setOrderedQuantity(lineDto.getQuantity());
             line.setReservedQuantity(0);
             line.setUnitPrice(unitPrice);
@@ -105,8 +129,12 @@ public class SalesOrderService {
         salesOrder.setLines(lines);
         salesOrder.setTotalAmount(totalAmount);
 
+        // Refused when it takes the client over its credit limit; undone if this transaction rolls back
+        creditExposureService.admit(client.getUserId(), totalAmount);
+
         // Save order
         SalesOrder savedOrder = salesOrderRepository.save(salesOrder);
+        eventPublisher.publishEvent(new SalesOrderChangedEvent(savedOrder.getId()));
 
         // 👉 Business context starts here
         MDC.put("businessId", savedOrder.getId().toString());
@@ -120,6 +148,14 @@ public class SalesOrderService {
                     savedOrder.getLines().size()
             );
 
+            if (admission != null) {
+                log.info("Inventory reservation queued for sales order");
+                return SalesOrderWithReservationDTO.builder()
+                        .salesOrder(salesOrderMapper.toDTO(savedOrder))
+                        .reservationResult(admission.queue(savedOrder))
+                        .build();
+            }
+
             // AUTOMATIC RESERVATION
             log.info("Starting inventory reservation for sales order");
 
@@ -168,14 +204,21 @@ public class SalesOrderService {
 
     @Transactional(readOnly = true)
     public List<SalesOrderDTO> getAllSalesOrders() {
-        return salesOrderRepository.findAll()
+        return salesOrderRepository.findAllWithDetails()
                 .stream()
                 .map(salesOrderMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The client's orders, newest first, one page at a time, read from the order_tracking read
+     * model: the client lookup and one index range scan, however many orders the client has
+     *
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param size   orders per page, at most {@value SalesOrderSearchService#MAX_PAGE_SIZE}
+     */
     @Transactional(readOnly = true)
-    public List<SalesOrderDTO> getMyOrders() {
+    public OrderTrackingPageDTO getMyOrders(String cursor, Integer size) {
 
         String email = org.springframework.security.core.context.SecurityContextHolder
                 .getContext()
@@ -187,13 +230,63 @@ public class SalesOrderService {
                         new RuntimeException("Client not found for user")
                 );
 
-        return salesOrderRepository.findByClientUserId(client.getUserId())
-                .stream()
-                .map(salesOrderMapper::toDTO)
-                .collect(Collectors.toList());
+        int pageSize = size == null ? SalesOrderSearchService.DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(size, SalesOrderSearchService.MAX_PAGE_SIZE));
+        SalesOrderSearchRepository.Keyset after = SalesOrderSearchService.decode(cursor);
+
+        // One more than the page to know whether another page follows
+        List<OrderTracking> rows = after == null
+                ? orderTrackingRepository.findFirstPage(client.getUserId(), Limit.of(pageSize + 1))
+                : orderTrackingRepository.findPageAfter(client.getUserId(), after.orderDate(), after.id(),
+                        Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        OrderTracking last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        return OrderTrackingPageDTO.builder()
+                .items(rows.stream().map(orderTrackingMapper::toDTO).toList())
+                .nextCursor(last != null ? SalesOrderSearchService.encode(last.getOrderDate(), last.getOrderId()) : null)
+                .build();
     }
 
-    private String generateOrderNumber() {
-        return "SO-" + System.currentTimeMillis();
+    /**
+     * Reservation result of one of the client's orders, for polling after an async intake
+     */
+    @Transactional(readOnly = true)
+    public ReservationResultDTO getReservationResult(Long salesOrderId) {
+
+        SalesOrder salesOrder = salesOrderRepository.findById(salesOrderId)
+                .orElseThrow(() ->
+                        new IllegalArgumentException("Sales order not found with ID: " + salesOrderId)
+                );
+
+        String email = org.springframework.security.core.context.SecurityContextHolder
+                .getContext()
+                .getAuthentication()
+                .getName();
+
+        Client client = clientRepository.findByUserEmail(email)
+                .orElseThrow(() ->
+                        new RuntimeException("Client not found for user")
+                );
+
+        if (!salesOrder.getClient().getUserId().equals(client.getUserId())) {
+            throw new ForbeidenException("Sales order does not belong to the current client");
+        }
+
+        // Evicted, or queued on another instance: report what the order shows
+        return reservationPipeline.result(salesOrderId).orElseGet(() -> ReservationResultDTO.builder()
+                .salesOrderId(salesOrder.getId())
+                .salesOrderNumber(salesOrder.getOrderNumber())
+                .status(salesOrder.getStatus())
+                .fullyReserved(salesOrder.getLines().stream()
+                        .allMatch(line -> line.getReservedQuantity().equals(line.getOrderedQuantity())))
+                .hasBackorders(salesOrder.getLines().stream()
+                        .anyMatch(line -> line.getReservedQuantity() > 0
+                                && line.getReservedQuantity() < line.getOrderedQuantity()))
+                .message("Order status: " + salesOrder.getStatus())
+                .build());
     }
 }
@@ -3,10 +3,13 @@ package com.logistic.digitale_logistic.service.client;
 import com.logistic.digitale_logistic.dto.ShipmentDTO;
 import com.logistic.digitale_logistic.entity.*;
 import com.logistic.digitale_logistic.enums.MovementType;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
 import com.logistic.digitale_logistic.mapper.ShipmentMapper;
 import com.logistic.digitale_logistic.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +17,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +32,10 @@ public class ShipmentService {
     private final InventoryRepository inventoryRepository;
     private final InventoryMovementRepository inventoryMovementRepository;
     private final ShipmentMapper shipmentMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationHoldService reservationHoldService;
+    private final DocumentNumberGenerator documentNumberGenerator;
+    private final CreditExposureService creditExposureService;
 
     /**
      * Create shipment for a fully or partially reserved sales order
@@ -36,7 +47,7 @@ public class ShipmentService {
     public ShipmentDTO createShipment(Long salesOrderId) {
         log.info("Creating shipment for Sales Order ID: {}", salesOrderId);
 
-        SalesOrder salesOrder = salesOrderRepository.findById(salesOrderId)
+        SalesOrder salesOrder = salesOrderRepository.findWithLinesAndProductsById(salesOrderId)
                 .orElseThrow(() -> new IllegalArgumentException("Sales order not found with ID: " + salesOrderId));
 
         // Validate order status - only RESERVED orders can be shipped
@@ -49,7 +60,7 @@ public class ShipmentService {
 
         // Create shipment
         Shipment shipment = new Shipment();
-        shipment.setShipmentNumber(generateShipmentNumber());
+        shipment.setShipmentNumber(documentNumberGenerator.next("SHIP"));
         shipment.setSalesOrder(salesOrder);
         shipment.setStatus("PLANNED");
         shipment.setPlannedShipDate(salesOrder.getPlannedShipDate() != null ?
@@ -78,7 +89,11 @@ public class ShipmentService {
 
         shipment.setLines(shipmentLines);
 
+        // The reserved stock is now committed to this shipment and no longer expires
+        reservationHoldService.consumeHolds(salesOrder);
+
         Shipment savedShipment = shipmentRepository.save(shipment);
+        eventPublisher.publishEvent(new SalesOrderChangedEvent(salesOrder.getId()));
 
         log.info("Shipment created: {}", savedShipment.getShipmentNumber());
 
@@ -97,16 +112,24 @@ public class ShipmentService {
     public ShipmentDTO shipShipment(Long shipmentId, String trackingNumber, String carrier) {
         log.info("Processing shipment ID: {}", shipmentId);
 
-        Shipment shipment = shipmentRepository.findById(shipmentId)
+        Shipment shipment = shipmentRepository.findWithDetailsById(shipmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Shipment not found with ID: " + shipmentId));
 
         if (!"PLANNED".equals(shipment.getStatus())) {
             throw new IllegalStateException("Can only ship PLANNED shipments. Current status: " + shipment.getStatus());
         }
 
+        // All inventory rows up front: a lookup per line would flush the pending writes every
+        // time and defeat JDBC batching
+        Map<Long, Inventory> inventories = inventoryRepository.findByWarehouseIdAndProductIdIn(
+                        shipment.getSalesOrder().getWarehouse().getId(),
+                        shipment.getLines().stream().map(line -> line.getProduct().getId()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(inventory -> inventory.getProduct().getId(), Function.identity()));
+
         // Process inventory movements (OUTBOUND)
         for (ShipmentLine line : shipment.getLines()) {
-            processOutboundMovement(line, shipment);
+            processOutboundMovement(line, shipment, inventories);
         }
 
         // Update shipment
@@ -121,6 +144,7 @@ public class ShipmentService {
         salesOrder.setStatus("SHIPPED");
         salesOrder.setUpdatedAt(LocalDateTime.now());
         salesOrderRepository.save(salesOrder);
+        eventPublisher.publishEvent(new SalesOrderChangedEvent(salesOrder.getId()));
 
         log.info("Shipment {} dispatched successfully", shipment.getShipmentNumber());
 
@@ -130,23 +154,24 @@ public class ShipmentService {
     /**
      * Process OUTBOUND inventory movement for shipment line
      */
-    private void processOutboundMovement(ShipmentLine line, Shipment shipment) {
+    private void processOutboundMovement(ShipmentLine line, Shipment shipment, Map<Long, Inventory> inventories) {
         Product product = line.getProduct();
         Warehouse warehouse = shipment.getSalesOrder().getWarehouse();
         int quantity = line.getQuantity();
 
         // Get inventory
-        Inventory inventory = inventoryRepository.findByProduct_IdAndWarehouse_Id(
-                        product.getId(), warehouse.getId())
+        Inventory inventory = Optional.ofNullable(inventories.get(product.getId()))
                 .orElseThrow(() -> new IllegalStateException(
                         "Inventory not found for product " + product.getSku() + " in warehouse"));
 
 
-        // Update inventory: decrease qtyOnHand and qtyReserved
-        inventory.setQtyOnHand(inventory.getQtyOnHand() - quantity);
-        inventory.setQtyReserved(inventory.getQtyReserved() - quantity);
-        inventory.setUpdatedAt(LocalDateTime.now());
-        inventoryRepository.save(inventory);
+        // Decrease qtyOnHand and qtyReserved in the database, relative to the row as it is now: the
+        // entity read above may be older than a reservation committed since
+        if (inventoryRepository.shipReserved(inventory.getId(), quantity, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException(
+                    "Not enough stock on hand to ship " + quantity + " of product " + product.getSku());
+        }
+        eventPublisher.publishEvent(new InventoryChangedEvent(product.getId(), warehouse.getId(), -quantity, -quantity));
 
         // Create OUTBOUND movement
         InventoryMovement movement = new InventoryMovement();
@@ -164,8 +189,7 @@ public class ShipmentService {
         // record how many units were shipped on the shipment line
         line.setQuantityShipped(quantity);
 
-        log.debug("OUTBOUND movement recorded: Product={}, Qty={}, OnHand={}, Reserved={}",
-                product.getSku(), quantity, inventory.getQtyOnHand(), inventory.getQtyReserved());
+        log.debug("OUTBOUND movement recorded: Product={}, Qty={}", product.getSku(), quantity);
     }
 
     /**
@@ -175,7 +199,7 @@ public class ShipmentService {
     public ShipmentDTO markAsDelivered(Long shipmentId) {
         log.info("Marking shipment ID: {} as delivered", shipmentId);
 
-        Shipment shipment = shipmentRepository.findById(shipmentId)
+        Shipment shipment = shipmentRepository.findWithDetailsById(shipmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Shipment not found with ID: " + shipmentId));
 
         if (!"SHIPPED".equals(shipment.getStatus())) {
@@ -196,7 +220,9 @@ public class ShipmentService {
             salesOrder.setStatus("DELIVERED");
             salesOrder.setUpdatedAt(LocalDateTime.now());
             salesOrderRepository.save(salesOrder);
+            creditExposureService.release(salesOrder.getClient().getUserId(), salesOrder.getTotalAmount());
         }
+        eventPublisher.publishEvent(new SalesOrderChangedEvent(salesOrder.getId()));
 
         log.info("Shipment {} marked as delivered", shipment.getShipmentNumber());
 
@@ -204,8 +230,4 @@ public class ShipmentService {
     }
 
 
-
-    private String generateShipmentNumber() {
-        return "SHIP-" + System.currentTimeMillis();
-    }
 }
@@ -0,0 +1,21 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+
+import java.util.List;
+
+/**
+ * Decides which warehouses an order's lines are taken from.
+ * Selected with {@code inventory.sourcing.strategy} ({@code cost} or {@code greedy}).
+ */
+public interface SourcingStrategy {
+
+    /**
+     * @param warehouseId the order's warehouse
+     * @param demand      one entry per order line: product and ordered quantity
+     * @param supply      available stock per (product, warehouse)
+     * @return per demand entry, the quantity to take from each warehouse, in the order to take it
+     */
+    List<List<StockDelta>> plan(Long warehouseId, List<StockDelta> demand, List<StockLevel> supply);
+}
@@ -0,0 +1,101 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.entity.WarehouseShippingCost;
+import com.logistic.digitale_logistic.repository.WarehouseShippingCostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of warehouse_shipping_costs, so scoring a sourcing plan never hits the database.
+ *
+ * Lanes are kept in dense arrays indexed by warehouse; the whole matrix is rebuilt on refresh and
+ * swapped in at once. Lanes that are not configured cost the defaults, shipping within a
+ * warehouse costs nothing.
+ */
+@Component
+@Slf4j
+public class WarehouseCostMatrix implements SmartInitializingSingleton {
+
+    private final WarehouseShippingCostRepository repository;
+    private final double defaultUnitCost;
+    private final double defaultShipmentCost;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new double[0][0], new double[0][0]);
+
+    public WarehouseCostMatrix(WarehouseShippingCostRepository repository,
+                               @Value("${inventory.sourcing.default-unit-cost:1}") double defaultUnitCost,
+                               @Value("${inventory.sourcing.default-shipment-cost:20}") double defaultShipmentCost) {
+        this.repository = repository;
+        this.defaultUnitCost = defaultUnitCost;
+        this.defaultShipmentCost = defaultShipmentCost;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sourcing.cost-refresh-ms:300000}",
+            initialDelayString = "${inventory.sourcing.cost-refresh-ms:300000}")
+    public void refresh() {
+        List<WarehouseShippingCost> lanes = repository.findAll();
+
+        Map<Long, Integer> index = new HashMap<>();
+        for (WarehouseShippingCost lane : lanes) {
+            index.putIfAbsent(lane.getFromWarehouseId(), index.size());
+            index.putIfAbsent(lane.getToWarehouseId(), index.size());
+        }
+        double[][] unitCosts = new double[index.size()][index.size()];
+        double[][] shipmentCosts = new double[index.size()][index.size()];
+        for (int from = 0; from < index.size(); from++) {
+            Arrays.fill(unitCosts[from], defaultUnitCost);
+            Arrays.fill(shipmentCosts[from], defaultShipmentCost);
+        }
+        for (WarehouseShippingCost lane : lanes) {
+            int from = index.get(lane.getFromWarehouseId());
+            int to = index.get(lane.getToWarehouseId());
+            unitCosts[from][to] = lane.getUnitCost().doubleValue();
+            shipmentCosts[from][to] = lane.getShipmentCost().doubleValue();
+        }
+
+        snapshot = new Snapshot(index, unitCosts, shipmentCosts);
+        log.info("Warehouse cost matrix loaded | warehouses={} | lanes={}", index.size(), lanes.size());
+    }
+
+    /**
+     * Cost per unit shipped from {@code fromWarehouseId} to {@code toWarehouseId}
+     */
+    public double unitCost(Long fromWarehouseId, Long toWarehouseId) {
+        if (fromWarehouseId.equals(toWarehouseId)) {
+            return 0;
+        }
+        Snapshot current = snapshot;
+        Integer from = current.index().get(fromWarehouseId);
+        Integer to = current.index().get(toWarehouseId);
+        return from == null || to == null ? defaultUnitCost : current.unitCosts()[from][to];
+    }
+
+    /**
+     * Fixed cost of one shipment from {@code fromWarehouseId} to {@code toWarehouseId}
+     */
+    public double shipmentCost(Long fromWarehouseId, Long toWarehouseId) {
+        if (fromWarehouseId.equals(toWarehouseId)) {
+            return 0;
+        }
+        Snapshot current = snapshot;
+        Integer from = current.index().get(fromWarehouseId);
+        Integer to = current.index().get(toWarehouseId);
+        return from == null || to == null ? defaultShipmentCost : current.shipmentCosts()[from][to];
+    }
+
+    private record Snapshot(Map<Long, Integer> index, double[][] unitCosts, double[][] shipmentCosts) {
+    }
+}
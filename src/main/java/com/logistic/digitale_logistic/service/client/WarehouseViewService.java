@@ -2,8 +2,7 @@ package com.logistic.digitale_logistic.service.client;
 
 import com.logistic.digitale_logistic.dto.ProductInventoryDTO;
 import com.logistic.digitale_logistic.dto.WarehouseDTO;
-import com.logistic.digitale_logistic.entity.Inventory;
-import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.dto.WarehouseProductRow;
 import com.logistic.digitale_logistic.entity.Warehouse;
 import com.logistic.digitale_logistic.repository.InventoryRepository;
 import com.logistic.digitale_logistic.repository.WareHouseRepository;
@@ -12,8 +11,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -29,36 +29,23 @@ public class WarehouseViewService {
      */
     @Transactional(readOnly = true)
     public List<WarehouseDTO> getAllWarehousesWithInventory() {
-        // Get all active warehouses
-        List<Warehouse> warehouses = warehouseRepository.findAll().stream()
-                .filter(Warehouse::getActive)
-                .toList();
-
-        List<WarehouseDTO> warehouseDTOs = new ArrayList<>();
-
-        for (Warehouse warehouse : warehouses) {
-            // Get inventory for this warehouse
-            List<Inventory> inventoryList = inventoryRepository.findByWarehouse(warehouse);
-
-            // Convert inventory to ProductInventoryDTO (only active products)
-            List<ProductInventoryDTO> productInventoryDTOs = inventoryList.stream()
-                    .filter(inv -> inv.getProduct().getActive()) // Only active products
-                    .map(this::toProductInventoryDTO)
-                    .collect(Collectors.toList());
-
-            // Build warehouse DTO
-            WarehouseDTO warehouseDTO = WarehouseDTO.builder()
-                    .id(warehouse.getId())
-                    .name(warehouse.getName())
-                    .location(warehouse.getLocation())
-                    .active(warehouse.getActive())
-                    .products(productInventoryDTOs)
-                    .build();
-
-            warehouseDTOs.add(warehouseDTO);
+        // One query for every active warehouse and its active products, grouped here
+        Map<Long, WarehouseDTO> warehouseDTOs = new LinkedHashMap<>();
+        for (WarehouseProductRow row : warehouseRepository.findActiveWarehouseProducts()) {
+            WarehouseDTO warehouseDTO = warehouseDTOs.computeIfAbsent(row.getWarehouseId(), id ->
+                    WarehouseDTO.builder()
+                            .id(id)
+                            .name(row.getWarehouseName())
+                            .location(row.getLocation())
+                            .active(row.getActive())
+                            .products(new ArrayList<>())
+                            .build());
+            if (row.getProductId() != null) {
+                warehouseDTO.getProducts().add(row.toProductInventory());
+            }
         }
 
-        return warehouseDTOs;
+        return new ArrayList<>(warehouseDTOs.values());
     }
 
     /**
@@ -76,14 +63,9 @@ public class WarehouseViewService {
             throw new IllegalArgumentException("Warehouse is not active");
         }
 
-        // Get inventory for this warehouse
-        List<Inventory> inventoryList = inventoryRepository.findByWarehouse(warehouse);
-
-        // Convert inventory to ProductInventoryDTO (only active products)
-        List<ProductInventoryDTO> productInventoryDTOs = inventoryList.stream()
-                .filter(inv -> inv.getProduct().getActive()) // Only active products
-                .map(this::toProductInventoryDTO)
-                .collect(Collectors.toList());
+        // Active products only, read as DTOs without loading the entities
+        List<ProductInventoryDTO> productInventoryDTOs =
+                inventoryRepository.findActiveProductInventoryByWarehouseId(warehouse.getId());
 
         return WarehouseDTO.builder()
                 .id(warehouse.getId())
@@ -93,23 +75,4 @@ public class WarehouseViewService {
                 .products(productInventoryDTOs)
                 .build();
     }
-
-    /**
-     * Convert Inventory entity to ProductInventoryDTO
-     */
-    private ProductInventoryDTO toProductInventoryDTO(Inventory inventory) {
-        Product product = inventory.getProduct();
-
-        return ProductInventoryDTO.builder()
-                .productId(product.getId())
-                .sku(product.getSku())
-                .name(product.getName())
-                .category(product.getCategory())
-                .unitPrice(product.getSellingPrice())
-                .qtyOnHand(inventory.getQtyOnHand())
-                .qtyReserved(inventory.getQtyReserved())
-                .qtyAvailable(inventory.getQtyAvailable()) // DB-calculated field
-                .build();
-    }
 }
-
@@ -1,23 +1,31 @@
 package com.logistic.digitale_logistic.service.warehouse_manager;
 
 import com.logistic.digitale_logistic.dto   .PoLineDTO;
+import com.logistic.digitale_logistic.dto.ProductReference;
 import com.logistic.digitale_logistic.dto.PurchaseOrderDTO;
 import com.logistic.digitale_logistic.dto.ReceiveLineDTO;
 import com.logistic.digitale_logistic.entity.*;
 import com.logistic.digitale_logistic.enums.MovementType;
 import com.logistic.digitale_logistic.enums.PurchaseOrderStatus;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
 import com.logistic.digitale_logistic.exceptions.BusinessException;
 import com.logistic.digitale_logistic.mapper.PurchaseOrderMapper;
 import com.logistic.digitale_logistic.repository.*;
 import com.logistic.digitale_logistic.service.client.BackorderFulfillmentService;
+import com.logistic.digitale_logistic.service.client.DocumentNumberGenerator;
+import com.logistic.digitale_logistic.service.client.ProductReferenceCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -33,6 +41,9 @@ public class PurchaseOrderService {
     private final ProductRepository productRepository;
     private final PurchaseOrderMapper purchaseOrderMapper;
     private final BackorderFulfillmentService backorderFulfillmentService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DocumentNumberGenerator documentNumberGenerator;
+    private final ProductReferenceCache productReferenceCache;
 
     // ========== 1. CREATE PURCHASE ORDER ==========
     @Transactional
@@ -47,7 +58,7 @@ public class PurchaseOrderService {
 
         // Create Purchase Order
         PurchaseOrder po = new PurchaseOrder();
-        po.setPoNumber(generatePoNumber());
+        po.setPoNumber(documentNumberGenerator.next("PO"));
         po.setSupplier(supplier);
         po.setWarehouse(warehouse);
         po.setStatus(PurchaseOrderStatus.DRAFT);
@@ -60,13 +71,16 @@ public class PurchaseOrderService {
 
         // Create PO Lines
         if (dto.getLines() != null && !dto.getLines().isEmpty()) {
+            Map<Long, ProductReference> products = productReferenceCache.getAll(
+                    dto.getLines().stream().map(PoLineDTO::getProductId).toList());
             for (PoLineDTO lineDTO : dto.getLines()) {
-                Product product = productRepository.findById(lineDTO.getProductId())
-                        .orElseThrow(() -> new BusinessException("Product not found: " + lineDTO.getProductId()));
+                if (!products.containsKey(lineDTO.getProductId())) {
+                    throw new BusinessException("Product not found: " + lineDTO.getProductId());
+                }
 
                 PoLine line = new PoLine();
                 line.setPurchaseOrder(po);
-                line.setProduct(product);
+                line.setProduct(productRepository.getReferenceById(lineDTO.getProductId()));
                 line.setOrderedQuantity(lineDTO.getOrderedQuantity());
                 line.setReceivedQuantity(0);
                 line.setUnitCost(lineDTO.getUnitCost());
@@ -118,6 +132,14 @@ public class PurchaseOrderService {
             throw new BusinessException("Purchase Order has no lines to receive");
         }
 
+        // All inventory rows up front: a lookup per line would flush the pending writes every
+        // time and defeat JDBC batching
+        Map<Long, Inventory> inventories = inventoryRepository.findByWarehouseIdAndProductIdIn(
+                        po.getWarehouse().getId(),
+                        po.getLines().stream().map(line -> line.getProduct().getId()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(inventory -> inventory.getProduct().getId(), Function.identity()));
+
         // Process ALL lines automatically with their full ordered quantity
         for (PoLine poLine : po.getLines()) {
             Integer qtyToReceive = poLine.getOrderedQuantity() - poLine.getReceivedQuantity();
@@ -134,14 +156,14 @@ public class PurchaseOrderService {
             poLine.setReceivedQuantity(poLine.getReceivedQuantity() + qtyToReceive);
             poLine.setReceivedDate(LocalDateTime.now());
 
-            // Update Inventory (qtyOnHand)
-            Inventory inventory = findOrCreateInventory(poLine.getProduct(), po.getWarehouse());
-            inventory.setQtyOnHand(inventory.getQtyOnHand() + qtyToReceive);
-            inventory.setUpdatedAt(LocalDateTime.now());
-            inventoryRepository.save(inventory);
+            // Update Inventory (qtyOnHand), added in the database to the row as it is now
+            Inventory inventory = findOrCreateInventory(poLine.getProduct(), po.getWarehouse(), inventories);
+            inventoryRepository.receive(inventory.getId(), qtyToReceive, LocalDateTime.now());
+            eventPublisher.publishEvent(new InventoryChangedEvent(
+                    poLine.getProduct().getId(), po.getWarehouse().getId(), qtyToReceive, 0));
 
-            log.info("Updated inventory for {} in {}: qtyOnHand = {}",
-                    poLine.getProduct().getSku(), po.getWarehouse().getName(), inventory.getQtyOnHand());
+            log.info("Updated inventory for {} in {}: qtyOnHand +{}",
+                    poLine.getProduct().getSku(), po.getWarehouse().getName(), qtyToReceive);
 
             // Create Inventory Movement (INBOUND)
             InventoryMovement movement = new InventoryMovement();
@@ -206,15 +228,11 @@ public class PurchaseOrderService {
 
 
 
-    private Inventory findOrCreateInventory(Product product, Warehouse warehouse) {
-        // Try to find existing inventory using optimized query
-        Optional<Inventory> existingInventory = inventoryRepository.findByProduct_IdAndWarehouse_Id(
-                product.getId(),
-                warehouse.getId()
-        );
+    private Inventory findOrCreateInventory(Product product, Warehouse warehouse, Map<Long, Inventory> inventories) {
+        Inventory existingInventory = inventories.get(product.getId());
 
-        if (existingInventory.isPresent()) {
-            return existingInventory.get();
+        if (existingInventory != null) {
+            return existingInventory;
         }
 
         // Create new inventory if not exists
@@ -224,10 +242,8 @@ public class PurchaseOrderService {
         newInventory.setQtyOnHand(0);
         newInventory.setQtyReserved(0);
         newInventory.setUpdatedAt(LocalDateTime.now());
-        return inventoryRepository.save(newInventory);
-    }
-
-    private String generatePoNumber() {
-        return "PO-" + System.currentTimeMillis();
+        newInventory = inventoryRepository.save(newInventory);
+        inventories.put(product.getId(), newInventory);
+        return newInventory;
     }
 }
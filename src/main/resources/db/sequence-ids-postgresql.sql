@@ -0,0 +1,108 @@
+-- Sequence ids with a pooled optimiser (allocationSize = 50) for every entity.
+--
+-- Runs after Hibernate's schema update on every start and is idempotent. For each table:
+-- create the sequence if Hibernate has not, turn an IDENTITY id column into a plain column
+-- defaulting to the sequence (plain JDBC inserts keep working), and move the sequence past
+-- the highest existing id so pooled blocks never collide with rows written before.
+
+CREATE SEQUENCE IF NOT EXISTS backorders_seq INCREMENT BY 50;
+ALTER TABLE backorders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE backorders ALTER COLUMN id SET DEFAULT nextval('backorders_seq');
+ALTER SEQUENCE backorders_seq OWNED BY backorders.id;
+SELECT setval('backorders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM backorders) + 50, (SELECT last_value FROM backorders_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS inventory_seq INCREMENT BY 50;
+ALTER TABLE inventory ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE inventory ALTER COLUMN id SET DEFAULT nextval('inventory_seq');
+ALTER SEQUENCE inventory_seq OWNED BY inventory.id;
+SELECT setval('inventory_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM inventory) + 50, (SELECT last_value FROM inventory_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS inventory_movements_seq INCREMENT BY 50;
+ALTER TABLE inventory_movements ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE inventory_movements ALTER COLUMN id SET DEFAULT nextval('inventory_movements_seq');
+ALTER SEQUENCE inventory_movements_seq OWNED BY inventory_movements.id;
+SELECT setval('inventory_movements_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM inventory_movements) + 50, (SELECT last_value FROM inventory_movements_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS inventory_reservation_journal_seq INCREMENT BY 50;
+ALTER TABLE inventory_reservation_journal ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE inventory_reservation_journal ALTER COLUMN id SET DEFAULT nextval('inventory_reservation_journal_seq');
+ALTER SEQUENCE inventory_reservation_journal_seq OWNED BY inventory_reservation_journal.id;
+SELECT setval('inventory_reservation_journal_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM inventory_reservation_journal) + 50, (SELECT last_value FROM inventory_reservation_journal_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS products_seq INCREMENT BY 50;
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN id SET DEFAULT nextval('products_seq');
+ALTER SEQUENCE products_seq OWNED BY products.id;
+SELECT setval('products_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products) + 50, (SELECT last_value FROM products_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS purchase_order_lines_seq INCREMENT BY 50;
+ALTER TABLE purchase_order_lines ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE purchase_order_lines ALTER COLUMN id SET DEFAULT nextval('purchase_order_lines_seq');
+ALTER SEQUENCE purchase_order_lines_seq OWNED BY purchase_order_lines.id;
+SELECT setval('purchase_order_lines_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM purchase_order_lines) + 50, (SELECT last_value FROM purchase_order_lines_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS purchase_orders_seq INCREMENT BY 50;
+ALTER TABLE purchase_orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE purchase_orders ALTER COLUMN id SET DEFAULT nextval('purchase_orders_seq');
+ALTER SEQUENCE purchase_orders_seq OWNED BY purchase_orders.id;
+SELECT setval('purchase_orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM purchase_orders) + 50, (SELECT last_value FROM purchase_orders_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS refresh_token_seq INCREMENT BY 50;
+ALTER TABLE refresh_token ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE refresh_token ALTER COLUMN id SET DEFAULT nextval('refresh_token_seq');
+ALTER SEQUENCE refresh_token_seq OWNED BY refresh_token.id;
+SELECT setval('refresh_token_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM refresh_token) + 50, (SELECT last_value FROM refresh_token_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS reservation_holds_seq INCREMENT BY 50;
+ALTER TABLE reservation_holds ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE reservation_holds ALTER COLUMN id SET DEFAULT nextval('reservation_holds_seq');
+ALTER SEQUENCE reservation_holds_seq OWNED BY reservation_holds.id;
+SELECT setval('reservation_holds_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM reservation_holds) + 50, (SELECT last_value FROM reservation_holds_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS sales_order_lines_seq INCREMENT BY 50;
+ALTER TABLE sales_order_lines ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE sales_order_lines ALTER COLUMN id SET DEFAULT nextval('sales_order_lines_seq');
+ALTER SEQUENCE sales_order_lines_seq OWNED BY sales_order_lines.id;
+SELECT setval('sales_order_lines_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM sales_order_lines) + 50, (SELECT last_value FROM sales_order_lines_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS sales_orders_seq INCREMENT BY 50;
+ALTER TABLE sales_orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE sales_orders ALTER COLUMN id SET DEFAULT nextval('sales_orders_seq');
+ALTER SEQUENCE sales_orders_seq OWNED BY sales_orders.id;
+SELECT setval('sales_orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM sales_orders) + 50, (SELECT last_value FROM sales_orders_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS shipment_lines_seq INCREMENT BY 50;
+ALTER TABLE shipment_lines ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE shipment_lines ALTER COLUMN id SET DEFAULT nextval('shipment_lines_seq');
+ALTER SEQUENCE shipment_lines_seq OWNED BY shipment_lines.id;
+SELECT setval('shipment_lines_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM shipment_lines) + 50, (SELECT last_value FROM shipment_lines_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS shipments_seq INCREMENT BY 50;
+ALTER TABLE shipments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE shipments ALTER COLUMN id SET DEFAULT nextval('shipments_seq');
+ALTER SEQUENCE shipments_seq OWNED BY shipments.id;
+SELECT setval('shipments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM shipments) + 50, (SELECT last_value FROM shipments_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS suppliers_seq INCREMENT BY 50;
+ALTER TABLE suppliers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE suppliers ALTER COLUMN id SET DEFAULT nextval('suppliers_seq');
+ALTER SEQUENCE suppliers_seq OWNED BY suppliers.id;
+SELECT setval('suppliers_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM suppliers) + 50, (SELECT last_value FROM suppliers_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+SELECT setval('users_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users) + 50, (SELECT last_value FROM users_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS warehouse_shipping_costs_seq INCREMENT BY 50;
+ALTER TABLE warehouse_shipping_costs ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE warehouse_shipping_costs ALTER COLUMN id SET DEFAULT nextval('warehouse_shipping_costs_seq');
+ALTER SEQUENCE warehouse_shipping_costs_seq OWNED BY warehouse_shipping_costs.id;
+SELECT setval('warehouse_shipping_costs_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM warehouse_shipping_costs) + 50, (SELECT last_value FROM warehouse_shipping_costs_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS warehouses_seq INCREMENT BY 50;
+ALTER TABLE warehouses ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE warehouses ALTER COLUMN id SET DEFAULT nextval('warehouses_seq');
+ALTER SEQUENCE warehouses_seq OWNED BY warehouses.id;
+SELECT setval('warehouses_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM warehouses) + 50, (SELECT last_value FROM warehouses_seq)));
@@ -0,0 +1,210 @@
+package com.logistic.digitale_logistic.security;
+
+import com.logistic.digitale_logistic.config.CatalogVersions;
+import com.logistic.digitale_logistic.config.ConditionalGetFilter;
+import com.logistic.digitale_logistic.entity.InventoryReservationJournal;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.event.ProductChangedEvent;
+import com.logistic.digitale_logistic.event.WarehouseChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryLedgerJdbcRepository;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import com.logistic.digitale_logistic.service.client.AvailableToPromiseLedger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalGetFilterTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogVersions catalogVersions;
+    private ConditionalGetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalogVersions = new CatalogVersions();
+        filter = new ConditionalGetFilter(catalogVersions, meterRegistry);
+    }
+
+    @Test
+    void testMatchingIfNoneMatchIsAnsweredWithoutTheController() throws Exception {
+        MockHttpServletResponse first = get("/api/client/warehouses", null);
+        String eTag = first.getHeader("ETag");
+
+        MockHttpServletResponse poll = get("/api/client/warehouses", eTag);
+
+        assertEquals(200, first.getStatus());
+        assertNotNull(eTag);
+        assertEquals(304, poll.getStatus());
+        assertEquals(eTag, poll.getHeader("ETag"));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testInventoryChangeInvalidatesTheWarehouseCatalogOnly() throws Exception {
+        String warehouses = get("/api/client/warehouses/3", null).getHeader("ETag");
+        String products = get("/api/products/all", null).getHeader("ETag");
+
+        catalogVersions.onInventoryChanged(new InventoryChangedEvent(1L, 3L, 0, 2));
+
+        MockHttpServletResponse warehousesPoll = get("/api/client/warehouses/3", warehouses);
+        assertEquals(200, warehousesPoll.getStatus());
+        assertNotEquals(warehouses, warehousesPoll.getHeader("ETag"));
+        assertEquals(304, get("/api/products/all", products).getStatus());
+    }
+
+    @Test
+    void testProductChangeInvalidatesBothAndWarehouseChangeTheCatalog() throws Exception {
+        String warehouses = get("/api/client/warehouses", null).getHeader("ETag");
+        String products = get("/api/products/all", null).getHeader("ETag");
+
+        catalogVersions.onProductChanged(new ProductChangedEvent(1L));
+
+        assertEquals(200, get("/api/client/warehouses", warehouses).getStatus());
+        assertEquals(200, get("/api/products/all", products).getStatus());
+
+        products = catalogVersions.eTag(CatalogVersions.Resource.PRODUCTS);
+        catalogVersions.onWarehouseChanged(new WarehouseChangedEvent(3L));
+
+        assertEquals(304, get("/api/products/all", products).getStatus());
+    }
+
+    @Test
+    void testLedgerFlushInvalidatesTheWarehouseCatalog() throws Exception {
+        InventoryLedgerJdbcRepository ledgerJdbcRepository = mock(InventoryLedgerJdbcRepository.class);
+        AvailableToPromiseLedger ledger = new AvailableToPromiseLedger(mock(InventoryRepository.class),
+                ledgerJdbcRepository, mock(PlatformTransactionManager.class), catalogVersions, true, 16, 500);
+        String warehouses = get("/api/client/warehouses", null).getHeader("ETag");
+
+        // Nothing to apply: the catalog is unchanged
+        when(ledgerJdbcRepository.findJournalBatch(anyInt())).thenReturn(List.of());
+        ledger.flush();
+        assertEquals(304, get("/api/client/warehouses", warehouses).getStatus());
+
+        when(ledgerJdbcRepository.findJournalBatch(anyInt())).thenReturn(
+                List.of(new InventoryReservationJournal(1L, 1L, 3L, 2, null)), List.of());
+        ledger.flush();
+        assertEquals(200, get("/api/client/warehouses", warehouses).getStatus());
+    }
+
+    @Test
+    void testIfNoneMatchListsAndWeakComparison() throws Exception {
+        String eTag = catalogVersions.eTag(CatalogVersions.Resource.PRODUCTS);
+        String strong = eTag.substring(2);
+
+        assertEquals(304, get("/api/products/all", "\"other\", " + strong).getStatus());
+        assertEquals(304, get("/api/products/all", "*").getStatus());
+        assertEquals(200, get("/api/products/all", "\"other\"").getStatus());
+    }
+
+    @Test
+    void testEachRepresentationHasItsOwnTag() throws Exception {
+        String json = get("/api/products/all", null).getHeader("ETag");
+
+        MockHttpServletResponse rows = get("/api/products/all", json, "application/vnd.logistic.rows", null);
+        String narrow = get("/api/products/all", null, null, "name,id").getHeader("ETag");
+
+        assertEquals(200, rows.getStatus());
+        assertEquals("Accept", rows.getHeader("Vary"));
+        assertTrue(rows.getHeader("ETag").endsWith("-rows\""));
+        assertNotEquals(json, narrow);
+        assertEquals(304, get("/api/products/all", narrow, null, " id, name").getStatus());
+        assertEquals(200, get("/api/products/all", narrow, null, "id").getStatus());
+
+        // "Aa" and "BB" share a String hash code, the tags still differ
+        String aa = get("/api/products/all", null, null, "Aa").getHeader("ETag");
+        assertEquals(200, get("/api/products/all", aa, null, "BB").getStatus());
+    }
+
+    @Test
+    void testOtherRequestsAreNotTouched() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/products/all");
+        post.setServletPath("/api/products/all");
+        MockHttpServletResponse postResponse = new MockHttpServletResponse();
+        filter.doFilter(post, postResponse, chain());
+
+        MockHttpServletResponse other = get("/api/client/sales-orders", "*");
+
+        assertNull(postResponse.getHeader("ETag"));
+        assertNull(other.getHeader("ETag"));
+        assertEquals(200, other.getStatus());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testConcurrentWritesEachMoveTheVersion() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                long productId = i;
+                writes.add(executor.submit(() -> catalogVersions.onInventoryChanged(
+                        new InventoryChangedEvent(productId, 1L, 1, 0))));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1_000, catalogVersions.version(CatalogVersions.Resource.WAREHOUSES));
+    }
+
+    @Test
+    void testNotModifiedShareIsReported() throws Exception {
+        String eTag = get("/api/client/warehouses", null).getHeader("ETag");
+        get("/api/client/warehouses", eTag);
+        get("/api/client/warehouses", eTag);
+        get("/api/client/warehouses", eTag);
+
+        assertEquals(3, meterRegistry.get("http.conditional.requests")
+                .tags("resource", "warehouses", "outcome", "not_modified").counter().count());
+        assertEquals(0.75, meterRegistry.get("http.conditional.not_modified.ratio")
+                .tag("resource", "warehouses").gauge().value());
+        assertEquals(0, meterRegistry.get("http.conditional.not_modified.ratio")
+                .tag("resource", "products").gauge().value());
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch) throws Exception {
+        return get(path, ifNoneMatch, null, null);
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch, String accept, String fields) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        if (fields != null) {
+            request.setParameter("fields", fields);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain());
+        return response;
+    }
+
+    private FilterChain chain() {
+        return (request, response) -> executions.incrementAndGet();
+    }
+}
@@ -0,0 +1,240 @@
+package com.logistic.digitale_logistic.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.config.IdempotencyFilter;
+import com.logistic.digitale_logistic.config.IdempotencyStore;
+import com.logistic.digitale_logistic.repository.IdempotencyJdbcRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IdempotencyFilter filter;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE idempotency_keys (id VARCHAR(64) PRIMARY KEY, " +
+                "request_hash VARCHAR(64) NOT NULL, response_status INT, content_type VARCHAR(255), " +
+                "response_body VARBINARY(1048576), created_at TIMESTAMP NOT NULL, expires_at TIMESTAMP NOT NULL)");
+
+        IdempotencyStore store = new IdempotencyStore(new IdempotencyJdbcRepository(jdbcTemplate),
+                Duration.ofHours(24), Duration.ofSeconds(5), Duration.ofMinutes(2), 100);
+        filter = new IdempotencyFilter(store, new ObjectMapper(),
+                List.of("/api/client/sales-orders", "/api/client/shipments/**"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("client@test.com", null, List.of()));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRetryWithTheSameKeyReplaysTheFirstResponse() throws Exception {
+        MockHttpServletResponse first = send("k-1", "{\"clientId\":1}", created());
+        MockHttpServletResponse retry = send("k-1", "{\"clientId\":1}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("application/json", retry.getContentType());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testStoredResponseSurvivesTheInMemoryCache() throws Exception {
+        send("k-1", "{}", created());
+        IdempotencyStore otherInstance = new IdempotencyStore(new IdempotencyJdbcRepository(jdbcTemplate),
+                Duration.ofHours(24), Duration.ofSeconds(5), Duration.ofMinutes(2), 100);
+        filter = new IdempotencyFilter(otherInstance, new ObjectMapper(), List.of("/api/client/sales-orders"));
+
+        MockHttpServletResponse retry = send("k-1", "{}", created());
+
+        assertEquals(1, executions.get());
+        assertEquals("{\"id\":1}", retry.getContentAsString());
+    }
+
+    @Test
+    void testKeyReusedWithAnotherBodyIsRejected() throws Exception {
+        send("k-1", "{\"clientId\":1}", created());
+
+        MockHttpServletResponse other = send("k-1", "{\"clientId\":2}", created());
+
+        assertEquals(422, other.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testKeysAreScopedPerUser() throws Exception {
+        send("k-1", "{}", created());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("other@test.com", null, List.of()));
+
+        send("k-1", "{}", created());
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void testServerErrorsAreNotStored() throws Exception {
+        FilterChain failing = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+
+        send("k-1", "{}", failing);
+        MockHttpServletResponse retry = send("k-1", "{}", created());
+
+        assertEquals(2, executions.get());
+        assertEquals(201, retry.getStatus());
+    }
+
+    @Test
+    void testRequestsWithoutKeyOrOutsideThePathsAreNotTouched() throws Exception {
+        send(null, "{}", created());
+        send(null, "{}", created());
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletRequest other = request("k-1", "{}");
+            other.setServletPath("/api/products");
+            filter.doFilter(other, new MockHttpServletResponse(), created());
+        }
+
+        assertEquals(4, executions.get());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class));
+    }
+
+    @Test
+    void testNonBlockingReadersGetTheCachedBody() throws Exception {
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allRead = new AtomicInteger();
+        FilterChain nonBlocking = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[4];
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(buffer, 0, in.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        send("k-1", "{\"clientId\":1}", nonBlocking);
+
+        assertEquals("{\"clientId\":1}", read.toString(StandardCharsets.UTF_8));
+        assertEquals(1, allRead.get());
+    }
+
+    @Test
+    void testConcurrentDuplicatesRunOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("{\"id\":7}");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> send("k-1", "{}", slow)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                responses.add(executor.submit(() -> send("k-1", "{}", slow)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertEquals(201, response.get(5, TimeUnit.SECONDS).getStatus());
+                assertEquals("{\"id\":7}", response.get().getContentAsString());
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Worker threads of the concurrency test
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken("client@test.com", null, List.of()));
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(key, body), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/client/sales-orders");
+        request.setServletPath("/api/client/sales-orders");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        return request;
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            // The body read by the filter is still there for the controller
+            assertTrue(request.getInputStream().readAllBytes().length > 0);
+            int id = executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(201);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"id\":" + id + "}");
+        };
+    }
+}
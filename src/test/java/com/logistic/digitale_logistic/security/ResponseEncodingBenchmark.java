@@ -0,0 +1,165 @@
+package com.logistic.digitale_logistic.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.logistic.digitale_logistic.config.ResponseEncodingConfig;
+import com.logistic.digitale_logistic.config.RowsHttpMessageConverter;
+import com.logistic.digitale_logistic.config.SparseFieldsetAdvice.FieldSelection;
+import com.logistic.digitale_logistic.dto.InventoryDTO;
+import com.logistic.digitale_logistic.dto.ProductDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderDTO;
+import com.logistic.digitale_logistic.dto.SoLineDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes (raw and gzip) and serialisation time of the ERP list responses: plain JSON against
+ * {@code ?fields=}, the rows encoding, and both, for LIST_SIZE products, inventory rows and orders.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ResponseEncodingBenchmark {
+
+    private static final int LIST_SIZE = 10_000;
+    private static final int RUNS = 30;
+
+    private final ObjectMapper objectMapper = objectMapper();
+    private final MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter(objectMapper);
+    private final RowsHttpMessageConverter rows = new RowsHttpMessageConverter(objectMapper);
+
+    @Test
+    void measureBytesAndSerialisationTime() throws IOException {
+        Random random = new Random(42);
+        List<ProductDTO> products = new ArrayList<>();
+        List<InventoryDTO> inventories = new ArrayList<>();
+        List<SalesOrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < LIST_SIZE; i++) {
+            products.add(product(i, random));
+            inventories.add(inventory(i, random));
+            orders.add(order(i, random));
+        }
+
+        measure("products", products, ProductDTO.class, Set.of("id", "name", "sellingPrice"));
+        measure("inventory", inventories, InventoryDTO.class, Set.of("productId", "warehouseId", "qtyAvailable"));
+        measure("orders", orders, SalesOrderDTO.class, Set.of("id", "orderNumber", "status", "totalAmount"));
+    }
+
+    private void measure(String name, List<?> list, Class<?> elementType, Set<String> fields) throws IOException {
+        Type type = ResolvableType.forClassWithGenerics(List.class, elementType).getType();
+        long[] plain = measure(json, list, type, MediaType.APPLICATION_JSON);
+        System.out.printf("%-9s %-12s %9d bytes %8d gzip %6.2f ms%n", name, "json", plain[0], plain[1], plain[2] / 1e6);
+        report(name, "json+fields", plain, measure(json, new FieldSelection(list, fields), type, MediaType.APPLICATION_JSON));
+        report(name, "rows", plain, measure(rows, list, type, RowsHttpMessageConverter.ROWS));
+        report(name, "rows+fields", plain, measure(rows, new FieldSelection(list, fields), type, RowsHttpMessageConverter.ROWS));
+    }
+
+    /**
+     * Bytes, gzip bytes and median nanoseconds to write the body
+     */
+    private static long[] measure(GenericHttpMessageConverter<Object> converter, Object body, Type type,
+                                  MediaType mediaType) throws IOException {
+        byte[] bytes = null;
+        long[] nanos = new long[RUNS];
+        for (int run = -RUNS; run < RUNS; run++) {
+            MockHttpOutputMessage message = new MockHttpOutputMessage();
+            long start = System.nanoTime();
+            converter.write(body, type, mediaType, message);
+            long elapsed = System.nanoTime() - start;
+            if (run >= 0) {
+                nanos[run] = elapsed;
+            }
+            bytes = message.getBodyAsBytes();
+        }
+        Arrays.sort(nanos);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return new long[]{bytes.length, compressed.size(), nanos[RUNS / 2]};
+    }
+
+    private static void report(String name, String encoding, long[] plain, long[] result) {
+        System.out.printf("%-9s %-12s %9d bytes %8d gzip %6.2f ms  (%3.0f%% / %3.0f%% / %3.0f%% of json)%n",
+                name, encoding, result[0], result[1], result[2] / 1e6,
+                100.0 * result[0] / plain[0], 100.0 * result[1] / plain[1], 100.0 * result[2] / plain[2]);
+        assertTrue(result[0] < plain[0], name + " " + encoding);
+    }
+
+    private static ObjectMapper objectMapper() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ResponseEncodingConfig.sparseFieldsetCustomizer().customize(builder);
+        return builder.build();
+    }
+
+    private static ProductDTO product(int i, Random random) {
+        ProductDTO product = new ProductDTO();
+        product.setId((long) i);
+        product.setName("Product " + Integer.toString(random.nextInt(1_000_000), 36));
+        product.setCategory("Category " + (i % 20));
+        product.setSellingPrice(BigDecimal.valueOf(random.nextInt(100_000), 2));
+        product.setCostPrice(BigDecimal.valueOf(random.nextInt(80_000), 2));
+        product.setActive(i % 10 != 0);
+        return product;
+    }
+
+    private static InventoryDTO inventory(int i, Random random) {
+        int onHand = random.nextInt(1_000);
+        int reserved = random.nextInt(onHand + 1);
+        return InventoryDTO.builder()
+                .id((long) i)
+                .productId((long) random.nextInt(LIST_SIZE))
+                .warehouseId((long) (i % 12))
+                .qtyOnHand(onHand)
+                .qtyReserved(reserved)
+                .qtyAvailable(onHand - reserved)
+                .build();
+    }
+
+    private static SalesOrderDTO order(int i, Random random) {
+        List<SoLineDTO> lines = new ArrayList<>();
+        for (int line = 0; line < 1 + random.nextInt(4); line++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(10_000), 2);
+            int quantity = 1 + random.nextInt(20);
+            lines.add(new SoLineDTO((long) line, (long) random.nextInt(LIST_SIZE), quantity, price,
+                    price.multiply(BigDecimal.valueOf(quantity)), quantity, "Product " + line, "SKU-" + line));
+        }
+        LocalDateTime orderDate = LocalDateTime.of(2026, 1, 1, 8, 0).plusMinutes(i * 7L);
+        return SalesOrderDTO.builder()
+                .id((long) i)
+                .orderNumber(String.format("SO-%08d", i))
+                .clientId((long) (i % 500))
+                .warehouseId((long) (i % 12))
+                .lines(lines)
+                .status(i % 3 == 0 ? "SHIPPED" : "RESERVED")
+                .orderDate(orderDate)
+                .plannedShipDate(orderDate.toLocalDate().plusDays(2))
+                .totalAmount(lines.stream().map(SoLineDTO::getLineTotal).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .updatedAt(orderDate.plusHours(1))
+                .clientName("Client " + (i % 500))
+                .warehouseName("Warehouse " + (i % 12))
+                .build();
+    }
+}
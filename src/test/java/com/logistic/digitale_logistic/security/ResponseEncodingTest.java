@@ -0,0 +1,93 @@
+package com.logistic.digitale_logistic.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.config.ResponseEncodingConfig;
+import com.logistic.digitale_logistic.config.RowsHttpMessageConverter;
+import com.logistic.digitale_logistic.config.SparseFieldsetAdvice;
+import com.logistic.digitale_logistic.controller.ProductController;
+import com.logistic.digitale_logistic.dto.ProductDTO;
+import com.logistic.digitale_logistic.service.Admin.ProductService;
+import com.logistic.digitale_logistic.service.Admin.UserService;
+import com.logistic.digitale_logistic.service.client.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class ResponseEncodingTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ResponseEncodingConfig.sparseFieldsetCustomizer().customize(builder);
+        ObjectMapper objectMapper = builder.build();
+
+        ProductService productService = mock(ProductService.class);
+        when(productService.getAllProducts()).thenReturn(List.of(
+                product(1L, "Euro pallet", "12.50"), product(2L, "Stretch wrap", null)));
+        ProductController controller = new ProductController(productService, mock(UserService.class),
+                mock(ProductSearchIndex.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper),
+                        new RowsHttpMessageConverter(objectMapper))
+                .setControllerAdvice(new SparseFieldsetAdvice())
+                .build();
+    }
+
+    @Test
+    void testJsonIsUnchangedByDefault() throws Exception {
+        String body = body(mockMvc.perform(get("/api/products/all")).andReturn().getResponse());
+
+        assertEquals("[{\"id\":1,\"name\":\"Euro pallet\",\"category\":\"Pallets\",\"sellingPrice\":12.50,"
+                + "\"costPrice\":null,\"active\":true},{\"id\":2,\"name\":\"Stretch wrap\",\"category\":\"Pallets\","
+                + "\"sellingPrice\":null,\"costPrice\":null,\"active\":true}]", body);
+    }
+
+    @Test
+    void testFieldsKeepOnlyTheRequestedProperties() throws Exception {
+        String body = body(mockMvc.perform(get("/api/products/all").param("fields", "name, id,unknown"))
+                .andReturn().getResponse());
+
+        assertEquals("[{\"id\":1,\"name\":\"Euro pallet\"},{\"id\":2,\"name\":\"Stretch wrap\"}]", body);
+    }
+
+    @Test
+    void testRowsOnlyWhenAskedForAndWithFields() throws Exception {
+        var rows = mockMvc.perform(get("/api/products/all").accept(RowsHttpMessageConverter.ROWS))
+                .andReturn().getResponse();
+        var narrow = mockMvc.perform(get("/api/products/all").accept(RowsHttpMessageConverter.ROWS)
+                .param("fields", "sellingPrice,id")).andReturn().getResponse();
+
+        assertEquals(RowsHttpMessageConverter.MEDIA_TYPE, rows.getContentType());
+        assertEquals("{\"fields\":[\"id\",\"name\",\"category\",\"sellingPrice\",\"costPrice\",\"active\"],"
+                + "\"rows\":[[1,\"Euro pallet\",\"Pallets\",12.50,null,true],[2,\"Stretch wrap\",\"Pallets\",null,null,true]]}",
+                body(rows));
+        assertEquals("{\"fields\":[\"id\",\"sellingPrice\"],\"rows\":[[1,12.50],[2,null]]}", body(narrow));
+    }
+
+    private static String body(org.springframework.mock.web.MockHttpServletResponse response) throws Exception {
+        assertEquals(200, response.getStatus());
+        return response.getContentAsString();
+    }
+
+    private static ProductDTO product(Long id, String name, String sellingPrice) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory("Pallets");
+        product.setSellingPrice(sellingPrice == null ? null : new BigDecimal(sellingPrice));
+        product.setActive(true);
+        return product;
+    }
+}
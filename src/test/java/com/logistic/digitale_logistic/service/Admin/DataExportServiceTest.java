@@ -0,0 +1,161 @@
+package com.logistic.digitale_logistic.service.Admin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.enums.ExportFormat;
+import com.logistic.digitale_logistic.repository.ExportJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataExportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+    private DataExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE warehouses (id BIGINT PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, sku VARCHAR(100), name VARCHAR(255), " +
+                "category VARCHAR(100), selling_price DECIMAL(10,2), cost_price DECIMAL(10,2), active BOOLEAN, " +
+                "created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE inventory (id BIGINT PRIMARY KEY, product_id BIGINT, warehouse_id BIGINT, " +
+                "qty_on_hand INT, qty_reserved INT, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE sales_orders (id BIGINT PRIMARY KEY, order_number VARCHAR(100), " +
+                "client_id BIGINT, warehouse_id BIGINT, status VARCHAR(50), order_date TIMESTAMP, planned_ship_date DATE, " +
+                "total_amount DECIMAL(10,2), updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE inventory_movements (id BIGINT PRIMARY KEY, product_id BIGINT, " +
+                "warehouse_id BIGINT, movement_type VARCHAR(50), quantity INT, purchase_order_id BIGINT, " +
+                "sales_order_id BIGINT, reference_doc VARCHAR(255), notes VARCHAR(255), occurred_at TIMESTAMP)");
+
+        jdbcTemplate.execute("INSERT INTO users VALUES (1, 'Alice'), (2, 'Bob')");
+        jdbcTemplate.execute("INSERT INTO warehouses VALUES (7, 'North')");
+        jdbcTemplate.execute("INSERT INTO products VALUES " +
+                "(10, 'SKU-10', 'Pallet', 'Packaging', 12.50, 8.00, TRUE, '2025-01-01 08:00:00'), " +
+                "(20, 'SKU-20', 'Box, large \"XL\"', NULL, 3.00, 1.20, FALSE, NULL)");
+        jdbcTemplate.execute("INSERT INTO inventory VALUES (100, 10, 7, 40, 15, '2025-01-02 09:30:00'), " +
+                "(101, 20, 7, 5, 0, NULL)");
+
+        // Fetch size below the row counts, so the exports span several fetches
+        exportService = new DataExportService(new ExportJdbcRepository(dataSource, 2), objectMapper);
+    }
+
+    @Test
+    void testInventoryNdjsonHasOneCamelCaseObjectPerRow() throws IOException {
+        StringWriter out = new StringWriter();
+
+        long rows = exportService.exportInventory(ExportFormat.NDJSON, out);
+
+        List<JsonNode> lines = ndjson(out);
+        assertEquals(2, rows);
+        assertEquals(2, lines.size());
+        JsonNode first = lines.get(0);
+        assertEquals(100, first.get("id").asLong());
+        assertEquals("SKU-10", first.get("sku").asText());
+        assertEquals("North", first.get("warehouseName").asText());
+        assertEquals(40, first.get("qtyOnHand").asInt());
+        assertEquals(25, first.get("qtyAvailable").asInt());
+        assertEquals("2025-01-02T09:30", first.get("updatedAt").asText());
+        assertTrue(lines.get(1).get("updatedAt").isNull());
+    }
+
+    @Test
+    void testNdjsonKeepsDecimalPricesAndAmounts() throws IOException {
+        jdbcTemplate.execute("INSERT INTO sales_orders VALUES (500, 'SO-500', 1, 7, 'CREATED', " +
+                "'2025-02-01 10:00:00', NULL, 1234.56, NULL)");
+        StringWriter products = new StringWriter();
+        StringWriter orders = new StringWriter();
+
+        exportService.exportProducts(ExportFormat.NDJSON, products);
+        exportService.exportSalesOrders(SalesOrderSearchCriteria.builder().build(), ExportFormat.NDJSON, orders);
+
+        assertTrue(products.toString().contains("\"sellingPrice\":12.50,\"costPrice\":8.00,"), products.toString());
+        assertTrue(orders.toString().contains("\"totalAmount\":1234.56,"), orders.toString());
+    }
+
+    @Test
+    void testProductsCsvHasHeaderAndQuotesSpecialCharacters() throws IOException {
+        StringWriter out = new StringWriter();
+
+        exportService.exportProducts(ExportFormat.CSV, out);
+
+        assertEquals("""
+                id,sku,name,category,selling_price,cost_price,active,created_at
+                10,SKU-10,Pallet,Packaging,12.50,8.00,true,2025-01-01T08:00
+                20,SKU-20,"Box, large ""XL\"\"",,3.00,1.20,false,
+                """, out.toString());
+    }
+
+    @Test
+    void testSalesOrdersFollowTheSearchFiltersOldestFirst() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        for (int i = 0; i < 9; i++) {
+            jdbcTemplate.update("INSERT INTO sales_orders VALUES (?, ?, ?, 7, ?, ?, NULL, 10.00, NULL)",
+                    i + 1, "SO-" + i, i % 3 == 0 ? 2 : 1, i % 2 == 0 ? "CREATED" : "RESERVED", start.plusDays(i));
+        }
+        SalesOrderSearchCriteria criteria = SalesOrderSearchCriteria.builder()
+                .status("CREATED")
+                .clientId(1L)
+                .from(start.plusDays(1))
+                .to(start.plusDays(8))
+                .build();
+        StringWriter out = new StringWriter();
+
+        long rows = exportService.exportSalesOrders(criteria, ExportFormat.NDJSON, out);
+
+        assertEquals(2, rows);
+        assertEquals(List.of("SO-2", "SO-4"), ndjson(out).stream().map(line -> line.get("orderNumber").asText()).toList());
+        assertEquals("Alice", ndjson(out).get(0).get("clientName").asText());
+    }
+
+    @Test
+    void testMovementsWindowIsHalfOpen() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 4, 1, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO inventory_movements VALUES (?, 10, 7, 'OUTBOUND', 1, NULL, NULL, ?, NULL, ?)",
+                    i + 1, "REF-" + i, start.plusHours(i));
+        }
+        StringWriter out = new StringWriter();
+
+        long rows = exportService.exportInventoryMovements(start.plusHours(1), start.plusHours(4), ExportFormat.CSV, out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, rows);
+        assertEquals(4, lines.length);
+        assertTrue(lines[1].contains("REF-1") && lines[3].contains("REF-3"), out.toString());
+    }
+
+    @Test
+    void testEmptyExportWritesNothing() throws IOException {
+        StringWriter out = new StringWriter();
+
+        assertEquals(0, exportService.exportInventoryMovements(null, null, ExportFormat.NDJSON, out));
+        assertEquals("", out.toString());
+    }
+
+    private List<JsonNode> ndjson(StringWriter out) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
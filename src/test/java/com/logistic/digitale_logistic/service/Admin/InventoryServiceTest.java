@@ -4,6 +4,7 @@ import com.logistic.digitale_logistic.dto.InventoryDTO;
 import com.logistic.digitale_logistic.entity.Inventory;
 import com.logistic.digitale_logistic.entity.Product;
 import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
 import com.logistic.digitale_logistic.mapper.InventoryMapper;
 import com.logistic.digitale_logistic.repository.InventoryRepository;
 import com.logistic.digitale_logistic.repository.ProductRepository;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -34,6 +36,9 @@ class InventoryServiceTest {
     @Mock
     private InventoryMapper inventoryMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -76,4 +81,31 @@ class InventoryServiceTest {
         verify(inventoryRepository).save(inventoryEntity);
         verify(inventoryMapper).toDTO(savedInventory);
     }
+
+    @Test
+    void testUpdateInventoryAppliesTheCorrectionAsADelta() {
+        Product product = new Product();
+        product.setId(1L);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(2L);
+        Inventory inventory = new Inventory();
+        inventory.setId(10L);
+        inventory.setProduct(product);
+        inventory.setWarehouse(warehouse);
+        inventory.setQtyOnHand(100);
+        inventory.setQtyReserved(20);
+
+        InventoryDTO correction = new InventoryDTO();
+        correction.setQtyOnHand(90);
+        correction.setQtyReserved(25);
+        when(inventoryRepository.findById(10L)).thenReturn(Optional.of(inventory));
+        when(inventoryMapper.toDTO(inventory)).thenReturn(correction);
+
+        inventoryService.updateInventory(10L, correction);
+
+        // Relative to the row as it is when written, never an absolute overwrite
+        verify(inventoryRepository).adjust(eq(10L), eq(-10), eq(5), any());
+        verify(inventoryRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(any(InventoryChangedEvent.class));
+    }
 }
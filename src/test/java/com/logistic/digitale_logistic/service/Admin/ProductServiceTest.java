@@ -2,14 +2,20 @@ package com.logistic.digitale_logistic.service.Admin;
 
 import com.logistic.digitale_logistic.dto.ProductDTO;
 import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.event.ProductChangedEvent;
 import com.logistic.digitale_logistic.mapper.ProductMapper;
 import com.logistic.digitale_logistic.repository.ProductRepository;
+import com.logistic.digitale_logistic.service.client.ProductReferenceCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.math.BigDecimal;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,6 +31,12 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
+    @Mock
+    private ProductReferenceCache productReferenceCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -52,4 +64,23 @@ class ProductServiceTest {
             return true;
         }));
     }
+
+    @Test
+    void testUpdateProduct_InvalidatesCachedReferenceAndPublishesChange() throws Exception {
+        Product product = new Product();
+        product.setId(7L);
+        ProductDTO dto = new ProductDTO();
+        dto.setSellingPrice(new BigDecimal("12.50"));
+
+        when(productRepository.findById(7L)).thenReturn(Optional.of(product));
+        when(productRepository.save(product)).thenReturn(product);
+        when(productMapper.toProductDTO(product)).thenReturn(new ProductDTO());
+
+        productService.updateProduct(dto, 7L);
+
+        InOrder inOrder = inOrder(productRepository, productReferenceCache, eventPublisher);
+        inOrder.verify(productRepository).save(product);
+        inOrder.verify(productReferenceCache).invalidate(7L);
+        inOrder.verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
 }
@@ -0,0 +1,123 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.AvailabilityQuoteDTO;
+import com.logistic.digitale_logistic.dto.AvailabilityQuoteRequestDTO;
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityQuoteServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private AvailableToPromiseLedger availableToPromiseLedger;
+
+    private AvailabilitySnapshot availabilitySnapshot;
+    private AvailabilityQuoteService availabilityQuoteService;
+
+    @BeforeEach
+    void setUp() {
+        when(inventoryRepository.findActiveStockLevels()).thenReturn(List.of(
+                new StockLevel(10L, 1L, 5, 2),
+                new StockLevel(10L, 2L, 20, 0),
+                new StockLevel(20L, 2L, 4, 4)));
+        availabilitySnapshot = new AvailabilitySnapshot(inventoryRepository, availableToPromiseLedger);
+        availabilitySnapshot.afterSingletonsInstantiated();
+        availabilityQuoteService = new AvailabilityQuoteService(availabilitySnapshot, new GreedySourcingStrategy());
+    }
+
+    @Test
+    void testQuoteShowsPromisableQuantityAndSourcing() {
+        AvailabilityQuoteDTO quote = availabilityQuoteService.quote(request(1L,
+                new AvailabilityQuoteRequestDTO.Line(10L, 8),
+                new AvailabilityQuoteRequestDTO.Line(20L, 1)));
+
+        assertFalse(quote.isFullyAvailable());
+
+        AvailabilityQuoteDTO.Line laptop = quote.getLines().get(0);
+        assertEquals(8, laptop.getPromisableQuantity());
+        assertEquals(List.of(new StockDelta(10L, 1L, 3), new StockDelta(10L, 2L, 5)), laptop.getSourcing());
+        assertEquals(List.of(new StockDelta(10L, 1L, 3), new StockDelta(10L, 2L, 20)), laptop.getAvailableByWarehouse());
+
+        AvailabilityQuoteDTO.Line mouse = quote.getLines().get(1);
+        assertEquals(0, mouse.getPromisableQuantity());
+        assertTrue(mouse.getAvailableByWarehouse().isEmpty());
+
+        // Served from the snapshot loaded on startup
+        verify(inventoryRepository, times(1)).findActiveStockLevels();
+        verifyNoMoreInteractions(inventoryRepository);
+    }
+
+    @Test
+    void testSnapshotFollowsCommittedInventoryChanges() {
+        availabilitySnapshot.onInventoryChanged(new InventoryChangedEvent(20L, 2L, 10, 0));
+        availabilitySnapshot.onInventoryChanged(new InventoryChangedEvent(10L, 1L, 0, 3));
+
+        AvailabilityQuoteDTO quote = availabilityQuoteService.quote(request(1L,
+                new AvailabilityQuoteRequestDTO.Line(20L, 10)));
+
+        assertTrue(quote.isFullyAvailable());
+        assertEquals(List.of(new StockDelta(20L, 2L, 10)), quote.getLines().get(0).getSourcing());
+        assertTrue(availabilitySnapshot.stockLevels(10L).stream()
+                .anyMatch(level -> level.getWarehouseId() == 1L && level.getQtyAvailable() == 0));
+    }
+
+    @Test
+    void testInactivePositionsAreNeverPromised() {
+        // Product 20 and warehouse 2 have been deactivated since the last reload
+        when(inventoryRepository.findActiveStockLevels()).thenReturn(List.of(new StockLevel(10L, 1L, 5, 2)));
+        availabilitySnapshot.refresh();
+        availabilitySnapshot.onInventoryChanged(new InventoryChangedEvent(20L, 2L, 10, 0));
+        availabilitySnapshot.onInventoryChanged(new InventoryChangedEvent(10L, 2L, 10, 0));
+
+        AvailabilityQuoteDTO quote = availabilityQuoteService.quote(request(1L,
+                new AvailabilityQuoteRequestDTO.Line(10L, 8),
+                new AvailabilityQuoteRequestDTO.Line(20L, 1)));
+
+        assertEquals(List.of(new StockDelta(10L, 1L, 3)), quote.getLines().get(0).getSourcing());
+        assertEquals(List.of(new StockDelta(10L, 1L, 3)), quote.getLines().get(0).getAvailableByWarehouse());
+        assertEquals(0, quote.getLines().get(1).getPromisableQuantity());
+    }
+
+    @Test
+    void testLedgerLevelsAreRestrictedToActivePositions() {
+        when(availableToPromiseLedger.isEnabled()).thenReturn(true);
+        when(availableToPromiseLedger.stockLevels(10L)).thenReturn(List.of(
+                new StockLevel(10L, 1L, 50, 0), new StockLevel(10L, 3L, 50, 0)));
+
+        AvailabilityQuoteDTO quote = availabilityQuoteService.quote(request(3L,
+                new AvailabilityQuoteRequestDTO.Line(10L, 8)));
+
+        assertEquals(List.of(new StockDelta(10L, 1L, 8)), quote.getLines().get(0).getSourcing());
+    }
+
+    @Test
+    void testLedgerIsReadDirectlyWhenEnabled() {
+        when(availableToPromiseLedger.isEnabled()).thenReturn(true);
+        when(availableToPromiseLedger.stockLevels(10L)).thenReturn(List.of(new StockLevel(10L, 1L, 50, 0)));
+
+        AvailabilityQuoteDTO quote = availabilityQuoteService.quote(request(1L,
+                new AvailabilityQuoteRequestDTO.Line(10L, 8)));
+
+        assertTrue(quote.isFullyAvailable());
+        assertEquals(List.of(new StockDelta(10L, 1L, 8)), quote.getLines().get(0).getSourcing());
+    }
+
+    private static AvailabilityQuoteRequestDTO request(Long warehouseId, AvailabilityQuoteRequestDTO.Line... lines) {
+        return new AvailabilityQuoteRequestDTO(warehouseId, List.of(lines));
+    }
+}
@@ -0,0 +1,166 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.config.CatalogVersions;
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.InventoryReservationJournal;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryLedgerJdbcRepository;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class AvailableToPromiseLedgerTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryLedgerJdbcRepository ledgerJdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AvailableToPromiseLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(ledgerJdbcRepository.findJournalBatch(anyInt())).thenReturn(List.of());
+        when(inventoryRepository.findAllStockLevels()).thenReturn(List.of(
+                new StockLevel(1L, 10L, 100, 20),
+                new StockLevel(1L, 20L, 5, 0),
+                new StockLevel(2L, 10L, 50, 0)
+        ));
+
+        ledger = new AvailableToPromiseLedger(inventoryRepository, ledgerJdbcRepository, transactionManager, new CatalogVersions(), true, 16, 500);
+        ledger.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void testRebuildLoadsPositionsFromInventory() {
+        assertTrue(ledger.isEnabled());
+        assertEquals(80, ledger.available(1L, 10L));
+        assertEquals(5, ledger.available(1L, 20L));
+        assertEquals(0, ledger.available(3L, 10L));
+        assertEquals(2, ledger.stockLevels(1L).size());
+    }
+
+    @Test
+    void testReserveUpToGrantsAtMostAvailableAndJournalsIt() {
+        int granted = ledger.reserveUpTo(1L, 20L, 8);
+
+        assertEquals(5, granted);
+        assertEquals(0, ledger.available(1L, 20L));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<StockDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(ledgerJdbcRepository).appendJournal(captor.capture());
+        StockDelta delta = captor.getValue().iterator().next();
+        assertEquals(1L, delta.getProductId());
+        assertEquals(20L, delta.getWarehouseId());
+        assertEquals(5, delta.getQuantity());
+    }
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger total = new AtomicInteger();
+
+        for (int i = 0; i < 200; i++) {
+            pool.submit(() -> {
+                start.await();
+                total.addAndGet(ledger.reserveUpTo(1L, 10L, 1));
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(80, total.get());
+        assertEquals(0, ledger.available(1L, 10L));
+    }
+
+    @Test
+    void testCommittedInventoryChangesAreMirrored() {
+        ledger.onInventoryChanged(new InventoryChangedEvent(1L, 10L, 30, 0));
+        ledger.onInventoryChanged(new InventoryChangedEvent(3L, 30L, 12, 2));
+
+        assertEquals(110, ledger.available(1L, 10L));
+        assertEquals(10, ledger.available(3L, 30L));
+    }
+
+    @Test
+    void testFlushAggregatesJournalPerInventoryRow() {
+        List<InventoryReservationJournal> journal = new ArrayList<>();
+        journal.add(new InventoryReservationJournal(1L, 1L, 10L, 3, null));
+        journal.add(new InventoryReservationJournal(2L, 1L, 10L, 4, null));
+        journal.add(new InventoryReservationJournal(3L, 2L, 10L, 1, null));
+        when(ledgerJdbcRepository.findJournalBatch(anyInt())).thenReturn(journal);
+
+        int flushed = ledger.flush();
+
+        assertEquals(3, flushed);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<StockDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(ledgerJdbcRepository).applyReservedDeltas(captor.capture());
+        List<StockDelta> deltas = new ArrayList<>(captor.getValue());
+        assertEquals(2, deltas.size());
+        assertEquals(7, deltas.get(0).getQuantity());
+        verify(ledgerJdbcRepository).deleteJournalEntries(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void testRebuildWaitsForTheJournalToBeApplied() {
+        when(ledgerJdbcRepository.findJournalBatch(anyInt()))
+                .thenThrow(new IllegalStateException("connection lost"))
+                .thenReturn(List.of(new InventoryReservationJournal(1L, 2L, 10L, 30, null)))
+                .thenReturn(List.of());
+        when(inventoryRepository.findAllStockLevels()).thenReturn(List.of(new StockLevel(2L, 10L, 50, 30)));
+
+        // The 30 journaled units could not be applied: positions are not loaded from a
+        // qty_reserved still missing them
+        assertThrows(IllegalStateException.class, ledger::rebuild);
+        assertFalse(ledger.isEnabled());
+        verify(inventoryRepository, times(1)).findAllStockLevels();
+
+        // The next scheduled run applies the journal, then rebuilds
+        assertEquals(0, ledger.flush());
+        assertTrue(ledger.isEnabled());
+        verify(ledgerJdbcRepository).applyReservedDeltas(any());
+        assertEquals(20, ledger.available(2L, 10L));
+    }
+
+    @Test
+    void testDisabledLedgerIsNeverUsed() {
+        AvailableToPromiseLedger disabled =
+                new AvailableToPromiseLedger(inventoryRepository, ledgerJdbcRepository, transactionManager, new CatalogVersions(), false, 16, 500);
+        disabled.afterSingletonsInstantiated();
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(0, disabled.flush());
+        verify(ledgerJdbcRepository, never()).applyReservedDeltas(any());
+    }
+}
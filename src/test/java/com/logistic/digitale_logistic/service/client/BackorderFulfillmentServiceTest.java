@@ -6,6 +6,7 @@ import com.logistic.digitale_logistic.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +31,12 @@ class BackorderFulfillmentServiceTest {
     @Mock
     private SalesOrderRepository salesOrderRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ReservationHoldService reservationHoldService;
+
     @InjectMocks
     private BackorderFulfillmentService service;
 
@@ -74,6 +81,7 @@ class BackorderFulfillmentServiceTest {
                 .thenReturn(List.of(backorder));
 
         Inventory inventory = new Inventory();
+        inventory.setId(40L);
         inventory.setProduct(product);
         inventory.setWarehouse(warehouse);
         inventory.setQtyOnHand(0);
@@ -81,24 +89,46 @@ class BackorderFulfillmentServiceTest {
 
         when(inventoryRepository.findByProduct_IdAndWarehouse_Id(1L, 1L))
                 .thenReturn(Optional.of(inventory));
+        when(inventoryRepository.reserveIfAvailable(eq(40L), anyInt(), any())).thenReturn(1);
 
         service.processPendingBackorders(1L, 1L, 5, null);
 
         assertEquals(5, backorder.getQuantityFulfilled());
-        assertEquals(5, inventory.getQtyReserved());
         assertEquals(5, soLine.getReservedQuantity());
 
         verify(backorderRepository, times(1)).save(backorder);
-        verify(inventoryRepository, times(1)).save(inventory);
+        verify(inventoryRepository, times(1)).reserveIfAvailable(eq(40L), eq(5), any());
+        verify(inventoryRepository, never()).save(inventory);
         verify(soLineRepository, times(1)).save(soLine);
     }
 
+    @Test
+    void testProcessPendingBackorders_StockTakenMeanwhile() {
+        when(backorderRepository.findPendingBackordersByProductAndWarehouse(1L, 1L))
+                .thenReturn(List.of(backorder));
+
+        Inventory inventory = new Inventory();
+        inventory.setId(40L);
+        when(inventoryRepository.findByProduct_IdAndWarehouse_Id(1L, 1L))
+                .thenReturn(Optional.of(inventory));
+        // A reservation committed since the receipt took the stock
+        when(inventoryRepository.reserveIfAvailable(eq(40L), eq(5), any())).thenReturn(0);
+
+        service.processPendingBackorders(1L, 1L, 5, null);
+
+        assertEquals(0, backorder.getQuantityFulfilled());
+        assertEquals(BackorderStatus.PENDING, backorder.getStatus());
+        verify(backorderRepository, never()).save(any());
+        verifyNoInteractions(soLineRepository, eventPublisher);
+    }
+
     @Test
     void testProcessPendingBackorders_FulfillAll() {
         when(backorderRepository.findPendingBackordersByProductAndWarehouse(1L, 1L))
                 .thenReturn(List.of(backorder));
 
         Inventory inventory = new Inventory();
+        inventory.setId(40L);
         inventory.setProduct(product);
         inventory.setWarehouse(warehouse);
         inventory.setQtyOnHand(0);
@@ -106,11 +136,12 @@ class BackorderFulfillmentServiceTest {
 
         when(inventoryRepository.findByProduct_IdAndWarehouse_Id(1L, 1L))
                 .thenReturn(Optional.of(inventory));
+        when(inventoryRepository.reserveIfAvailable(eq(40L), anyInt(), any())).thenReturn(1);
 
         service.processPendingBackorders(1L, 1L, 10, null);
 
         assertEquals(10, backorder.getQuantityFulfilled());
-        assertEquals(10, inventory.getQtyReserved());
+        verify(inventoryRepository).reserveIfAvailable(eq(40L), eq(10), any());
         assertEquals(10, soLine.getReservedQuantity());
         assertEquals(BackorderStatus.FULFILLED, backorder.getStatus());
     }
@@ -0,0 +1,121 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAllocationPlannerTest {
+
+    private final BatchAllocationPlanner planner = new BatchAllocationPlanner();
+
+    private final Warehouse main = warehouse(1L);
+    private final Warehouse other = warehouse(2L);
+    private final Product laptop = product(10L);
+    private final Product mouse = product(20L);
+
+    @Test
+    void testFillRateSharesShortStockProRata() {
+        SalesOrder first = order(main, line(laptop, 6));
+        SalesOrder second = order(main, line(laptop, 3));
+        SalesOrder third = order(main, line(laptop, 1));
+
+        BatchAllocationPlanner.AllocationPlan plan = planner.plan(List.of(first, second, third),
+                List.of(new StockLevel(10L, 1L, 5, 0)), AllocationObjective.FILL_RATE);
+
+        assertEquals(3, reserved(plan, first));
+        assertEquals(2, reserved(plan, second));
+        assertEquals(0, reserved(plan, third));
+        assertEquals(5, totalDelta(plan));
+    }
+
+    @Test
+    void testCompleteOrdersPrefersOrdersThatCanBeFinished() {
+        // Arrival order would give everything to the big order and complete none
+        SalesOrder big = order(main, line(laptop, 8), line(mouse, 1));
+        SalesOrder small1 = order(main, line(laptop, 2));
+        SalesOrder small2 = order(main, line(laptop, 3));
+
+        BatchAllocationPlanner.AllocationPlan plan = planner.plan(List.of(big, small1, small2),
+                List.of(new StockLevel(10L, 1L, 8, 0), new StockLevel(20L, 1L, 1, 0)),
+                AllocationObjective.COMPLETE_ORDERS);
+
+        assertEquals(2, reserved(plan, small1));
+        assertEquals(3, reserved(plan, small2));
+        // Leftover still goes to the big order, nothing is left on the shelf
+        assertEquals(3 + 1, reserved(plan, big));
+        assertEquals(9, totalDelta(plan));
+    }
+
+    @Test
+    void testLinesAreSourcedFromTheOrderWarehouseFirst() {
+        SalesOrder order = order(main, line(laptop, 7));
+
+        BatchAllocationPlanner.AllocationPlan plan = planner.plan(List.of(order),
+                List.of(new StockLevel(10L, 2L, 50, 0), new StockLevel(10L, 1L, 5, 1)),
+                AllocationObjective.FILL_RATE);
+
+        assertEquals(7, reserved(plan, order));
+        StockDelta fromMain = plan.deltas().stream().filter(d -> d.getWarehouseId() == 1L).findFirst().orElseThrow();
+        StockDelta fromOther = plan.deltas().stream().filter(d -> d.getWarehouseId() == 2L).findFirst().orElseThrow();
+        assertEquals(4, fromMain.getQuantity());
+        assertEquals(3, fromOther.getQuantity());
+    }
+
+    @Test
+    void testDeltasAreAggregatedPerInventoryRow() {
+        List<SalesOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            orders.add(order(other, line(mouse, 2)));
+        }
+
+        BatchAllocationPlanner.AllocationPlan plan = planner.plan(orders,
+                List.of(new StockLevel(20L, 2L, 1000, 0)), AllocationObjective.FILL_RATE);
+
+        assertEquals(1, plan.deltas().size());
+        assertEquals(100, plan.deltas().get(0).getQuantity());
+    }
+
+    private int reserved(BatchAllocationPlanner.AllocationPlan plan, SalesOrder order) {
+        return order.getLines().stream().mapToInt(line -> plan.reservedByLine().getOrDefault(line, 0)).sum();
+    }
+
+    private int totalDelta(BatchAllocationPlanner.AllocationPlan plan) {
+        return plan.deltas().stream().mapToInt(StockDelta::getQuantity).sum();
+    }
+
+    private static SalesOrder order(Warehouse warehouse, SoLine... lines) {
+        SalesOrder order = new SalesOrder();
+        order.setWarehouse(warehouse);
+        order.setLines(List.of(lines));
+        return order;
+    }
+
+    private static SoLine line(Product product, int qty) {
+        SoLine line = new SoLine();
+        line.setProduct(product);
+        line.setOrderedQuantity(qty);
+        return line;
+    }
+
+    private static Warehouse warehouse(Long id) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(id);
+        return warehouse;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
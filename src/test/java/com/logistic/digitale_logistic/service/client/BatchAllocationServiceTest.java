@@ -0,0 +1,130 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.BatchAllocationRequestDTO;
+import com.logistic.digitale_logistic.dto.BatchAllocationResultDTO;
+import com.logistic.digitale_logistic.dto.ReservationResultDTO;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryLedgerJdbcRepository;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchAllocationServiceTest {
+
+    @Mock
+    private SalesOrderRepository salesOrderRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryLedgerJdbcRepository inventoryJdbcRepository;
+
+    @Mock
+    private AvailableToPromiseLedger availableToPromiseLedger;
+
+    @Mock
+    private InventoryReservationService inventoryReservationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchAllocationService service;
+    private SalesOrder order;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchAllocationService(salesOrderRepository, inventoryRepository, inventoryJdbcRepository,
+                availableToPromiseLedger, inventoryReservationService, new BatchAllocationPlanner(),
+                eventPublisher, transactionManager, 3);
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1L);
+        Product product = new Product();
+        product.setId(10L);
+        SoLine line = new SoLine();
+        line.setProduct(product);
+        line.setOrderedQuantity(4);
+        order = new SalesOrder();
+        order.setId(100L);
+        order.setWarehouse(warehouse);
+        order.setLines(List.of(line));
+
+        when(salesOrderRepository.findForAllocationInWarehouse(eq("CREATED"), eq(1L), any(), any()))
+                .thenReturn(List.of(order));
+        when(inventoryRepository.findStockLevelsByProductIdIn(Set.of(10L)))
+                .thenReturn(List.of(new StockLevel(10L, 1L, 10, 0)));
+        lenient().when(inventoryReservationService.completeReservation(same(order), anyMap(), anyList()))
+                .thenAnswer(invocation -> {
+                    Map<SoLine, Integer> reserved = invocation.getArgument(1);
+                    order.getLines().forEach(l -> l.setReservedQuantity(reserved.get(l)));
+                    return ReservationResultDTO.builder().salesOrderId(100L).status("RESERVED").fullyReserved(true).build();
+                });
+    }
+
+    @Test
+    void testAllocationIsWrittenBackInOneBatch() {
+        when(inventoryJdbcRepository.reserveIfAvailable(anyList())).thenReturn(new int[]{1});
+
+        BatchAllocationResultDTO result = service.allocate(request());
+
+        assertEquals(1, result.getOrdersConsidered());
+        assertEquals(1, result.getOrdersFullyReserved());
+        assertEquals(1.0, result.getFillRate());
+        assertEquals(1, result.getResults().size());
+        verify(inventoryJdbcRepository, times(1)).reserveIfAvailable(anyList());
+        verify(eventPublisher).publishEvent(any(InventoryChangedEvent.class));
+    }
+
+    @Test
+    void testConcurrentChangeTriggersRecomputationFromFreshSnapshot() {
+        when(inventoryJdbcRepository.reserveIfAvailable(anyList()))
+                .thenReturn(new int[]{0})
+                .thenReturn(new int[]{1});
+
+        BatchAllocationResultDTO result = service.allocate(request());
+
+        assertEquals(1, result.getOrdersFullyReserved());
+        verify(inventoryRepository, times(2)).findStockLevelsByProductIdIn(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        when(inventoryJdbcRepository.reserveIfAvailable(anyList())).thenReturn(new int[]{0});
+
+        assertThrows(IllegalStateException.class, () -> service.allocate(request()));
+        verify(inventoryJdbcRepository, times(3)).reserveIfAvailable(anyList());
+    }
+
+    private BatchAllocationRequestDTO request() {
+        return BatchAllocationRequestDTO.builder()
+                .warehouseId(1L)
+                .objective(AllocationObjective.COMPLETE_ORDERS)
+                .build();
+    }
+}
@@ -5,8 +5,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import com.logistic.digitale_logistic.dto.ProductReference;
 import com.logistic.digitale_logistic.dto.ReservationResultDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderWithReservationDTO;
@@ -25,6 +28,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 
 public class ClientSalesOrderServiceTest {
 
@@ -43,9 +48,24 @@ public class ClientSalesOrderServiceTest {
     @Mock
     private InventoryReservationService inventoryReservationService;
 
+    @Mock
+    private ReservationPipeline reservationPipeline;
+
     @Mock
     private SalesOrderMapper salesOrderMapper;
 
+    @Spy
+    private DocumentNumberGenerator documentNumberGenerator = new DocumentNumberGenerator(1);
+
+    @Mock
+    private ProductReferenceCache productReferenceCache;
+
+    @Mock
+    private CreditExposureService creditExposureService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SalesOrderService salesOrderService;
 
@@ -80,7 +100,9 @@ public class ClientSalesOrderServiceTest {
 
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
         when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(productRepository.findById(100L)).thenReturn(Optional.of(product));
+        when(productReferenceCache.getAll(List.of(100L))).thenReturn(Map.of(100L,
+                new ProductReference(100L, "SKU-100", "Product", BigDecimal.valueOf(20), true)));
+        when(productRepository.getReferenceById(100L)).thenReturn(product);
 
         // Mock save for SalesOrder
         SalesOrder savedOrder = new SalesOrder();
@@ -118,7 +140,7 @@ public class ClientSalesOrderServiceTest {
 
         verify(clientRepository).findById(1L);
         verify(warehouseRepository).findById(1L);
-        verify(productRepository).findById(100L);
+        verify(productReferenceCache).getAll(List.of(100L));
         verify(salesOrderRepository).save(any(SalesOrder.class));
         verify(inventoryReservationService).processOrderReservation(1L);
     }
@@ -0,0 +1,129 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.WarehouseProductDTO;
+import com.logistic.digitale_logistic.dto.WarehouseWithProductsDTO;
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the catalog query on Hibernate with H2 and counts the statements it takes
+ */
+class ClientWarehouseServiceTest {
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private ClientWarehouseService clientWarehouseService;
+    private int skus;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = H2SessionFactory.create();
+
+        entityManager = sessionFactory.createEntityManager();
+        clientWarehouseService = new ClientWarehouseService(
+                new JpaRepositoryFactory(entityManager).getRepository(WareHouseRepository.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void testCatalogListsActiveProductsOfActiveWarehouses() {
+        entityManager.getTransaction().begin();
+        Warehouse casablanca = warehouse("Casablanca", true);
+        Warehouse closed = warehouse("Closed", false);
+        Warehouse empty = warehouse("Empty", true);
+        Product laptop = product("Laptop", "999.00", true);
+        Product mouse = product("Mouse", "19.90", true);
+        Product retired = product("Retired", "5.00", false);
+        inventory(casablanca, laptop, 10, 3);
+        inventory(casablanca, mouse, 50, 0);
+        inventory(casablanca, retired, 7, 0);
+        inventory(closed, laptop, 4, 0);
+        inventory(empty, retired, 1, 0);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        List<WarehouseWithProductsDTO> catalog = clientWarehouseService.getAllWarehousesWithProducts();
+
+        assertEquals(List.of("Casablanca", "Empty"), catalog.stream().map(WarehouseWithProductsDTO::getName).toList());
+        assertEquals(List.of("Laptop", "Mouse"),
+                catalog.get(0).getProducts().stream().map(WarehouseProductDTO::getName).toList());
+        WarehouseProductDTO laptopStock = catalog.get(0).getProducts().get(0);
+        assertEquals(laptop.getId(), laptopStock.getProductId());
+        assertEquals(0, new BigDecimal("999.00").compareTo(laptopStock.getUnitPrice()));
+        assertEquals(7, laptopStock.getAvailableQuantity());
+        assertEquals(10, laptopStock.getQtyOnHand());
+        assertEquals(3, laptopStock.getQtyReserved());
+        assertTrue(catalog.get(1).getProducts().isEmpty());
+    }
+
+    @Test
+    void testStatementCountDoesNotGrowWithWarehouses() {
+        long few = statementsFor(2);
+        long many = statementsFor(40);
+
+        assertEquals(1, few);
+        assertEquals(few, many);
+    }
+
+    private long statementsFor(int warehouses) {
+        entityManager.getTransaction().begin();
+        List<Product> products = List.of(product("A", "1.00", true), product("B", "2.00", true));
+        for (int i = 0; i < warehouses; i++) {
+            Warehouse warehouse = warehouse("W" + i, true);
+            products.forEach(product -> inventory(warehouse, product, 5, 1));
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        Statistics statistics = sessionFactory.getStatistics();
+        long before = statistics.getPrepareStatementCount();
+        assertTrue(clientWarehouseService.getAllWarehousesWithProducts().size() >= warehouses);
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private Warehouse warehouse(String name, boolean active) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        warehouse.setActive(active);
+        entityManager.persist(warehouse);
+        return warehouse;
+    }
+
+    private Product product(String name, String price, boolean active) {
+        Product product = new Product();
+        product.setSku("SKU-" + ++skus);
+        product.setName(name);
+        product.setSellingPrice(new BigDecimal(price));
+        product.setActive(active);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void inventory(Warehouse warehouse, Product product, int onHand, int reserved) {
+        Inventory inventory = new Inventory();
+        inventory.setWarehouse(warehouse);
+        inventory.setProduct(product);
+        inventory.setQtyOnHand(onHand);
+        inventory.setQtyReserved(reserved);
+        entityManager.persist(inventory);
+    }
+}
@@ -0,0 +1,105 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalInventoryReserverTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConditionalInventoryReserver reserver;
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reserver = new ConditionalInventoryReserver(inventoryRepository, eventPublisher, meterRegistry, 3);
+
+        Product product = new Product();
+        product.setId(1L);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(2L);
+
+        inventory = new Inventory();
+        inventory.setId(50L);
+        inventory.setProduct(product);
+        inventory.setWarehouse(warehouse);
+    }
+
+    @Test
+    void testReserveSucceedsOnFirstAttempt() {
+        when(inventoryRepository.reserveIfAvailable(eq(50L), eq(5), any())).thenReturn(1);
+
+        int reserved = reserver.reserveUpTo(inventory, 5, 10);
+
+        assertEquals(5, reserved);
+        verify(inventoryRepository, never()).findCurrentAvailableById(any());
+        verify(eventPublisher).publishEvent(any(InventoryChangedEvent.class));
+        assertEquals(0.0, counter("inventory.reservation.conflicts"));
+    }
+
+    @Test
+    void testConflictRetriesWithFreshAvailability() {
+        when(inventoryRepository.reserveIfAvailable(eq(50L), eq(5), any())).thenReturn(0);
+        when(inventoryRepository.findCurrentAvailableById(50L)).thenReturn(3);
+        when(inventoryRepository.reserveIfAvailable(eq(50L), eq(3), any())).thenReturn(1);
+
+        int reserved = reserver.reserveUpTo(inventory, 5, 10);
+
+        assertEquals(3, reserved);
+        assertEquals(1.0, counter("inventory.reservation.conflicts"));
+        assertEquals(1.0, counter("inventory.reservation.retries"));
+    }
+
+    @Test
+    void testStockGoneReturnsZeroWithoutRetry() {
+        when(inventoryRepository.reserveIfAvailable(eq(50L), eq(5), any())).thenReturn(0);
+        when(inventoryRepository.findCurrentAvailableById(50L)).thenReturn(0);
+
+        int reserved = reserver.reserveUpTo(inventory, 5, 10);
+
+        assertEquals(0, reserved);
+        verify(inventoryRepository, times(1)).reserveIfAvailable(any(), anyInt(), any());
+        assertEquals(0.0, counter("inventory.reservation.retries"));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        when(inventoryRepository.reserveIfAvailable(eq(50L), anyInt(), any())).thenReturn(0);
+        when(inventoryRepository.findCurrentAvailableById(50L)).thenReturn(2);
+
+        int reserved = reserver.reserveUpTo(inventory, 5, 10);
+
+        assertEquals(0, reserved);
+        verify(inventoryRepository, times(3)).reserveIfAvailable(any(), anyInt(), any());
+        assertEquals(3.0, counter("inventory.reservation.conflicts"));
+        assertEquals(2.0, counter("inventory.reservation.retries"));
+        assertEquals(1.0, counter("inventory.reservation.exhausted"));
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,118 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.WarehouseShippingCost;
+import com.logistic.digitale_logistic.repository.WarehouseShippingCostRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CostAwareSourcingStrategyTest {
+
+    private static final long LAPTOP = 10L;
+    private static final long MOUSE = 20L;
+
+    @Test
+    void testShipsFromOneWarehouseRatherThanSplitting() {
+        // Greedy would take laptops at home and mice from warehouse 3 (most stock): two shipments
+        CostAwareSourcingStrategy strategy = strategy(List.of());
+
+        List<List<StockDelta>> plan = strategy.plan(1L,
+                List.of(demand(LAPTOP, 5), demand(MOUSE, 5)),
+                List.of(stock(LAPTOP, 1L, 5), stock(LAPTOP, 2L, 5), stock(MOUSE, 2L, 5), stock(MOUSE, 3L, 50)));
+
+        assertEquals(Set.of(2L), warehouses(plan));
+        assertEquals(10, reserved(plan));
+    }
+
+    @Test
+    void testUsesTheOrderWarehouseWhenItHasEverything() {
+        CostAwareSourcingStrategy strategy = strategy(List.of());
+
+        List<List<StockDelta>> plan = strategy.plan(1L,
+                List.of(demand(LAPTOP, 5), demand(MOUSE, 5)),
+                List.of(stock(LAPTOP, 1L, 5), stock(MOUSE, 1L, 5), stock(LAPTOP, 2L, 100), stock(MOUSE, 2L, 100)));
+
+        assertEquals(Set.of(1L), warehouses(plan));
+    }
+
+    @Test
+    void testPrefersTheCheaperLane() {
+        CostAwareSourcingStrategy strategy = strategy(List.of(lane(2L, 1L, "5", "20"), lane(3L, 1L, "1", "10")));
+
+        List<List<StockDelta>> plan = strategy.plan(1L, List.of(demand(LAPTOP, 8)),
+                List.of(stock(LAPTOP, 2L, 100), stock(LAPTOP, 3L, 10)));
+
+        assertEquals(List.of(new StockDelta(LAPTOP, 3L, 8)), plan.get(0));
+    }
+
+    @Test
+    void testSplitsWhenNoWarehouseHasEnough() {
+        CostAwareSourcingStrategy strategy = strategy(List.of());
+
+        List<List<StockDelta>> plan = strategy.plan(1L, List.of(demand(LAPTOP, 12)),
+                List.of(stock(LAPTOP, 1L, 4), stock(LAPTOP, 2L, 4), stock(LAPTOP, 3L, 3), stock(LAPTOP, 4L, 2)));
+
+        // Everything that exists is reserved, home stock first
+        assertEquals(12, reserved(plan));
+        assertEquals(new StockDelta(LAPTOP, 1L, 4), plan.get(0).get(0));
+    }
+
+    @Test
+    void testRepeatedProductNeverTakesMoreThanTheStock() {
+        CostAwareSourcingStrategy strategy = strategy(List.of());
+
+        List<List<StockDelta>> plan = strategy.plan(1L, List.of(demand(LAPTOP, 4), demand(LAPTOP, 4)),
+                List.of(stock(LAPTOP, 1L, 3), stock(LAPTOP, 2L, 3)));
+
+        assertEquals(6, reserved(plan));
+        assertEquals(4, plan.get(0).stream().mapToInt(StockDelta::getQuantity).sum());
+        assertEquals(2, plan.get(1).stream().mapToInt(StockDelta::getQuantity).sum());
+    }
+
+    @Test
+    void testNoStockGivesEmptyPlans() {
+        CostAwareSourcingStrategy strategy = strategy(List.of());
+
+        List<List<StockDelta>> plan = strategy.plan(1L, List.of(demand(LAPTOP, 4), demand(MOUSE, 1)),
+                List.of(stock(LAPTOP, 2L, 0)));
+
+        assertEquals(List.of(List.of(), List.of()), plan);
+    }
+
+    static CostAwareSourcingStrategy strategy(List<WarehouseShippingCost> lanes) {
+        WarehouseShippingCostRepository repository = mock(WarehouseShippingCostRepository.class);
+        when(repository.findAll()).thenReturn(lanes);
+        WarehouseCostMatrix matrix = new WarehouseCostMatrix(repository, 1, 20);
+        matrix.refresh();
+        return new CostAwareSourcingStrategy(matrix, 25, 1);
+    }
+
+    private static WarehouseShippingCost lane(Long from, Long to, String unitCost, String shipmentCost) {
+        return new WarehouseShippingCost(null, from, to, new BigDecimal(unitCost), new BigDecimal(shipmentCost));
+    }
+
+    private static StockDelta demand(long productId, int quantity) {
+        return new StockDelta(productId, 1L, quantity);
+    }
+
+    private static StockLevel stock(long productId, Long warehouseId, int available) {
+        return new StockLevel(productId, warehouseId, available, 0);
+    }
+
+    private static Set<Long> warehouses(List<List<StockDelta>> plan) {
+        return plan.stream().flatMap(List::stream).map(StockDelta::getWarehouseId).collect(Collectors.toSet());
+    }
+
+    private static int reserved(List<List<StockDelta>> plan) {
+        return plan.stream().flatMap(List::stream).mapToInt(StockDelta::getQuantity).sum();
+    }
+}
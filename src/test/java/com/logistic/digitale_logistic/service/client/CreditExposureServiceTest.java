@@ -0,0 +1,148 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.entity.Client;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.exceptions.CreditLimitExceededException;
+import com.logistic.digitale_logistic.repository.CreditExposureJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditExposureServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+    private CreditExposureService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE clients (user_id BIGINT PRIMARY KEY, credit_limit DECIMAL(10,2))");
+        jdbcTemplate.execute("CREATE TABLE sales_orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, client_id BIGINT NOT NULL, " +
+                "status VARCHAR(50) NOT NULL, total_amount DECIMAL(10,2))");
+        jdbcTemplate.execute("CREATE TABLE client_credit_exposure (client_id BIGINT PRIMARY KEY, " +
+                "open_amount DECIMAL(14,2) NOT NULL, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("INSERT INTO clients VALUES (1, 1000), (2, 0), (3, NULL)");
+
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        service = new CreditExposureService(
+                new CreditExposureJdbcRepository(new NamedParameterJdbcTemplate(dataSource)), transactionManager, true);
+    }
+
+    @Test
+    void testOrdersAreAdmittedUpToTheLimit() {
+        service.admit(1L, new BigDecimal("600"));
+        service.admit(1L, new BigDecimal("400"));
+
+        CreditLimitExceededException e = assertThrows(CreditLimitExceededException.class,
+                () -> service.admit(1L, new BigDecimal("0.01")));
+        assertTrue(e.getMessage().contains("1000.00"));
+        assertEquals(0, new BigDecimal("1000").compareTo(openAmount(1L)));
+    }
+
+    @Test
+    void testNoLimitWhenTheLimitIsZeroOrNull() {
+        service.admit(2L, new BigDecimal("1000000"));
+        service.admit(3L, new BigDecimal("1000000"));
+
+        assertEquals(0, new BigDecimal("1000000").compareTo(openAmount(2L)));
+        assertEquals(0, new BigDecimal("1000000").compareTo(openAmount(3L)));
+    }
+
+    @Test
+    void testLimitNotEnforcedWhenDisabledButStillCounted() {
+        CreditExposureService disabled = new CreditExposureService(
+                new CreditExposureJdbcRepository(new NamedParameterJdbcTemplate(jdbcTemplate.getDataSource())),
+                transactionManager, false);
+
+        disabled.admit(1L, new BigDecimal("5000"));
+
+        assertEquals(0, new BigDecimal("5000").compareTo(openAmount(1L)));
+    }
+
+    @Test
+    void testFirstAdmissionStartsFromTheOpenOrders() {
+        jdbcTemplate.execute("INSERT INTO sales_orders (client_id, status, total_amount) VALUES " +
+                "(1, 'RESERVED', 700), (1, 'SHIPPED', 200), (1, 'DELIVERED', 5000), (1, 'CANCELLED', 5000)");
+
+        service.admit(1L, new BigDecimal("100"));
+
+        assertEquals(0, new BigDecimal("1000").compareTo(openAmount(1L)));
+        assertThrows(CreditLimitExceededException.class, () -> service.admit(1L, BigDecimal.ONE));
+    }
+
+    @Test
+    void testRolledBackOrderGivesTheCreditBack() {
+        service.admit(1L, new BigDecimal("100"));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            service.admit(1L, new BigDecimal("900"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, new BigDecimal("100").compareTo(openAmount(1L)));
+    }
+
+    @Test
+    void testReleaseFreesTheCredit() {
+        service.admit(1L, new BigDecimal("1000"));
+
+        service.release(1L, new BigDecimal("400"));
+        service.admit(1L, new BigDecimal("400"));
+
+        assertEquals(0, new BigDecimal("1000").compareTo(openAmount(1L)));
+    }
+
+    @Test
+    void testAdmitAllRejectsOnlyTheOrdersOverTheLimit() {
+        List<SalesOrder> orders = List.of(
+                order(1L, "600"), order(2L, "5000"), order(1L, "500"), order(1L, "400"));
+
+        BitSet rejected = service.admitAll(orders);
+
+        assertEquals(BitSet.valueOf(new long[]{0b100}), rejected);
+        assertEquals(0, new BigDecimal("1000").compareTo(openAmount(1L)));
+        assertEquals(0, new BigDecimal("5000").compareTo(openAmount(2L)));
+    }
+
+    @Test
+    void testReconcileCorrectsDrift() {
+        jdbcTemplate.execute("INSERT INTO sales_orders (client_id, status, total_amount) VALUES " +
+                "(1, 'CREATED', 300), (2, 'RESERVED', 50)");
+        jdbcTemplate.execute("INSERT INTO client_credit_exposure VALUES (1, 900, NULL), (3, 20, NULL)");
+
+        assertEquals(3, service.reconcile());
+
+        assertEquals(0, new BigDecimal("300").compareTo(openAmount(1L)));
+        assertEquals(0, new BigDecimal("50").compareTo(openAmount(2L)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(openAmount(3L)));
+        assertEquals(0, service.reconcile());
+    }
+
+    private BigDecimal openAmount(Long clientId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT open_amount FROM client_credit_exposure WHERE client_id = ?", BigDecimal.class, clientId);
+    }
+
+    private static SalesOrder order(Long clientId, String total) {
+        Client client = new Client();
+        client.setUserId(clientId);
+        SalesOrder order = new SalesOrder();
+        order.setClient(client);
+        order.setTotalAmount(new BigDecimal(total));
+        return order;
+    }
+}
@@ -0,0 +1,117 @@
+package com.logistic.digitale_logistic.service.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentNumberGeneratorTest {
+
+    private static final long NOW = 1_760_745_600_000L; // 2025-10-18T00:00:00Z
+
+    @Test
+    void testConcurrentNumbersAreUniqueAndIncreasingPerThread() throws Exception {
+        DocumentNumberGenerator generator = new DocumentNumberGenerator(3, System::currentTimeMillis);
+        int threads = 8;
+        int perThread = 250_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[perThread];
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> all = new HashSet<>(threads * perThread * 2);
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    assertTrue(ids[i] > ids[i - 1], "ids of one thread must increase");
+                }
+                all.add(ids[i]);
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(threads * perThread, all.size());
+    }
+
+    @Test
+    void testClockGoingBackDoesNotRepeatNumbers() {
+        AtomicLong clock = new AtomicLong(NOW);
+        DocumentNumberGenerator generator = new DocumentNumberGenerator(1, clock::get);
+
+        long before = generator.nextId();
+        clock.set(NOW - 5_000);
+        long afterRollback = generator.nextId();
+        clock.set(NOW + 1);
+        long afterRecovery = generator.nextId();
+
+        assertTrue(afterRollback > before);
+        assertTrue(afterRecovery > afterRollback);
+        assertEquals(NOW + 1 - DocumentNumberGenerator.EPOCH, afterRecovery >>> 22);
+    }
+
+    @Test
+    void testExhaustedSequenceCarriesIntoTheNextMillisecond() {
+        DocumentNumberGenerator generator = new DocumentNumberGenerator(1, () -> NOW);
+
+        long previous = generator.nextId();
+        for (int i = 1; i < 4096; i++) {
+            long id = generator.nextId();
+            assertEquals(previous + 1, id);
+            previous = id;
+        }
+        long carried = generator.nextId();
+
+        assertEquals(NOW - DocumentNumberGenerator.EPOCH, previous >>> 22);
+        assertEquals(NOW + 1 - DocumentNumberGenerator.EPOCH, carried >>> 22);
+        assertEquals(0, carried & 4095);
+    }
+
+    @Test
+    void testNodesNeverShareANumber() {
+        long a = new DocumentNumberGenerator(1, () -> NOW).nextId();
+        long b = new DocumentNumberGenerator(2, () -> NOW).nextId();
+
+        assertNotEquals(a, b);
+        assertNotEquals(DocumentNumberGenerator.format("SO", a), DocumentNumberGenerator.format("SO", b));
+    }
+
+    @Test
+    void testFormatIsFixedWidthAndSortsLikeTheIds() {
+        AtomicLong clock = new AtomicLong(NOW);
+        DocumentNumberGenerator generator = new DocumentNumberGenerator(DocumentNumberGenerator.MAX_NODE, clock::get);
+
+        String first = generator.next("PO");
+        clock.set(NOW + 3_600_000);
+        String second = generator.next("PO");
+        clock.set(NOW + 86_399_999);
+        String last = generator.next("PO");
+
+        assertTrue(first.matches("PO-20251018-[0-9A-HJKMNP-TV-Z]{10}"), first);
+        assertEquals(first.length(), last.length());
+        assertTrue(first.compareTo(second) < 0);
+        assertTrue(second.compareTo(last) < 0);
+    }
+
+    @Test
+    void testNodeIdOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new DocumentNumberGenerator(1024, System::currentTimeMillis));
+        assertThrows(IllegalArgumentException.class, () -> new DocumentNumberGenerator(-2, System::currentTimeMillis));
+    }
+}
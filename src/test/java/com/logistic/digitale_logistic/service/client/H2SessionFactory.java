@@ -0,0 +1,50 @@
+package com.logistic.digitale_logistic.service.client;
+
+import jakarta.persistence.Entity;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hibernate over a fresh in-memory H2 database with every entity of the application and
+ * statistics on, for tests that count statements without a Spring context
+ */
+final class H2SessionFactory {
+
+    private H2SessionFactory() {
+    }
+
+    static SessionFactory create() {
+        return create(Map.of());
+    }
+
+    /**
+     * @param properties extra Hibernate settings, e.g. to turn on the second-level cache
+     */
+    static SessionFactory create(Map<String, String> properties) {
+        Configuration configuration = new Configuration();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents("com.logistic.digitale_logistic.entity")) {
+            try {
+                configuration.addAnnotatedClass(Class.forName(entity.getBeanClassName()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        configuration.setProperty("hibernate.connection.username", "sa");
+        configuration.setProperty("hibernate.connection.password", "");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create");
+        configuration.setProperty("hibernate.jdbc.batch_size", "50");
+        configuration.setProperty("hibernate.order_inserts", "true");
+        configuration.setProperty("hibernate.generate_statistics", "true");
+        properties.forEach(configuration::setProperty);
+        return configuration.buildSessionFactory();
+    }
+}
@@ -0,0 +1,68 @@
+package com.logistic.digitale_logistic.service.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void testFiresAtDeadlineNotBefore() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 0);
+        wheel.schedule(1L, 5_000);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(4_999, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(5_000, fired::add);
+        assertEquals(List.of(1L), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(1000, 10_000);
+        wheel.schedule(7L, 1_000);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advance(11_000, fired::add);
+        assertEquals(List.of(7L), fired);
+    }
+
+    @Test
+    void testEntriesCascadeThroughEveryLevelOnTime() {
+        long tick = 1000;
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(tick, 0);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 20_000; id++) {
+            // Up to ~300 days: covers all four levels and the overflow list
+            long deadline = (1 + random.nextInt(26_000_000)) * tick;
+            deadlines.put(id, deadline);
+            wheel.schedule(id, deadline);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        long now = 0;
+        long step = 37 * tick;
+        while (wheel.size() > 0) {
+            now += step;
+            long at = now;
+            wheel.advance(now, id -> firedAt.put(id, at));
+        }
+
+        assertEquals(deadlines.size(), firedAt.size());
+        deadlines.forEach((id, deadline) -> {
+            long fired = firedAt.get(id);
+            assertTrue(fired >= deadline, "fired early: " + id);
+            assertTrue(fired - deadline < step, "fired late: " + id);
+        });
+    }
+}
@@ -0,0 +1,363 @@
+package com.logistic.digitale_logistic.service.client;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.enums.MovementType;
+import com.logistic.digitale_logistic.enums.PurchaseOrderStatus;
+import com.logistic.digitale_logistic.enums.Role;
+import jakarta.persistence.Entity;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statements and latency of the write paths, on Hibernate with H2:
+ * before (IDENTITY ids, which disable JDBC insert batching, and an inventory lookup per line,
+ * which flushes the pending writes each time) and after (pooled sequences, inventory rows loaded
+ * once), plus IDENTITY with the single lookup to separate the two effects.
+ *
+ * Each flow issues the statements of the corresponding service: order creation (lookups, order
+ * and lines), PO receipt (lines, inventory, INBOUND movements, PO status; backorder allocation
+ * left out) and shipment dispatch (inventory, OUTBOUND movements, shipment lines, shipment and
+ * order status).
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class IdGenerationBenchmark {
+
+    private static final int RUNS = 300;
+    private static final int LINES = 10;
+
+    @BeforeAll
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    @Test
+    void compareIdentityWithSequences() {
+        // Warm-up pass over every setup, then the measured one
+        runAll(false, false, false);
+        runAll(false, true, false);
+        runAll(true, true, false);
+
+        System.out.printf("%-24s %-18s %12s %10s %10s%n", "setup", "flow", "statements", "p50 us", "p99 us");
+        double[] before = runAll(false, false, true);
+        runAll(false, true, true);
+        double[] after = runAll(true, true, true);
+        for (int flow = 0; flow < before.length; flow++) {
+            assertTrue(after[flow] < before[flow], "fewer statements expected");
+        }
+    }
+
+    private double[] runAll(boolean sequences, boolean preload, boolean print) {
+        try (SessionFactory sessionFactory = sessionFactory(sequences)) {
+            Fixture fixture = new Fixture(sessionFactory, preload);
+            String ids = (sequences ? "sequence" : "identity") + (preload ? ", one lookup" : ", lookup per line");
+            return new double[]{
+                    measure(sessionFactory, print ? ids : null, "order creation", fixture::createOrder, i -> {
+                    }),
+                    measure(sessionFactory, print ? ids : null, "PO receipt", fixture::receivePurchaseOrder, fixture::approvedPurchaseOrder),
+                    measure(sessionFactory, print ? ids : null, "shipment dispatch", fixture::dispatchShipment, fixture::plannedShipment)
+            };
+        }
+    }
+
+    /**
+     * @param ids     setup name, null to run without printing
+     * @param prepare creates what the flow works on (not measured)
+     * @return statements per run
+     */
+    private double measure(SessionFactory sessionFactory, String ids, String name,
+                           Consumer<Integer> flow, Consumer<Integer> prepare) {
+        Statistics statistics = sessionFactory.getStatistics();
+        long[] latencies = new long[RUNS];
+        long statements = 0;
+        for (int i = 0; i < RUNS; i++) {
+            prepare.accept(i);
+            long before = statistics.getPrepareStatementCount();
+            long start = System.nanoTime();
+            flow.accept(i);
+            latencies[i] = System.nanoTime() - start;
+            statements += statistics.getPrepareStatementCount() - before;
+        }
+        Arrays.sort(latencies);
+        double perRun = (double) statements / RUNS;
+        if (ids != null) {
+            System.out.printf("%-24s %-18s %12.1f %10d %10d%n", ids, name, perRun,
+                    latencies[RUNS / 2] / 1_000, latencies[RUNS * 99 / 100] / 1_000);
+        }
+        return perRun;
+    }
+
+    private static SessionFactory sessionFactory(boolean sequences) {
+        Configuration configuration = new Configuration();
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition entity : scanner.findCandidateComponents("com.logistic.digitale_logistic.entity")) {
+            try {
+                configuration.addAnnotatedClass(Class.forName(entity.getBeanClassName()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (!sequences) {
+            configuration.addResource("benchmark/identity-ids-orm.xml");
+        }
+        configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        configuration.setProperty("hibernate.connection.username", "sa");
+        configuration.setProperty("hibernate.connection.password", "");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create");
+        configuration.setProperty("hibernate.jdbc.batch_size", "50");
+        configuration.setProperty("hibernate.order_inserts", "true");
+        configuration.setProperty("hibernate.order_updates", "true");
+        configuration.setProperty("hibernate.generate_statistics", "true");
+        return configuration.buildSessionFactory();
+    }
+
+    private static class Fixture {
+
+        private final SessionFactory sessionFactory;
+        private final boolean preload;
+        private final Long clientId;
+        private final Long warehouseId;
+        private final Long supplierId;
+        private final List<Long> productIds = new ArrayList<>();
+        private final List<Long> purchaseOrderIds = new ArrayList<>();
+        private final List<Long> shipmentIds = new ArrayList<>();
+
+        Fixture(SessionFactory sessionFactory, boolean preload) {
+            this.sessionFactory = sessionFactory;
+            this.preload = preload;
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                User user = new User();
+                user.setEmail("client@example.com");
+                user.setPassword("secret");
+                user.setName("Client");
+                user.setRole(Role.CLIENT);
+                session.persist(user);
+                Client client = new Client();
+                client.setUser(user);
+                session.persist(client);
+
+                Warehouse warehouse = new Warehouse();
+                warehouse.setName("Main");
+                warehouse.setCreatedAt(LocalDateTime.now());
+                session.persist(warehouse);
+
+                Supplier supplier = new Supplier();
+                supplier.setName("Supplier");
+                session.persist(supplier);
+
+                for (int p = 0; p < LINES; p++) {
+                    Product product = new Product();
+                    product.setSku("SKU-" + p);
+                    product.setName("Product " + p);
+                    product.setSellingPrice(BigDecimal.TEN);
+                    session.persist(product);
+                    productIds.add(product.getId());
+
+                    Inventory inventory = new Inventory();
+                    inventory.setProduct(product);
+                    inventory.setWarehouse(warehouse);
+                    inventory.setQtyOnHand(1_000_000);
+                    inventory.setQtyReserved(1_000_000);
+                    session.persist(inventory);
+                }
+                session.getTransaction().commit();
+                clientId = client.getUserId();
+                warehouseId = warehouse.getId();
+                supplierId = supplier.getId();
+            }
+        }
+
+        /**
+         * SalesOrderService.createSalesOrder without the reservation
+         */
+        void createOrder(int run) {
+            inTransaction(session -> newOrder(session, "SO-" + run));
+        }
+
+        private SalesOrder newOrder(Session session, String orderNumber) {
+            SalesOrder order = new SalesOrder();
+            order.setOrderNumber(orderNumber);
+            order.setClient(session.find(Client.class, clientId));
+            order.setWarehouse(session.find(Warehouse.class, warehouseId));
+            order.setOrderDate(LocalDateTime.now());
+            order.setUpdatedAt(LocalDateTime.now());
+            for (Long productId : productIds) {
+                Product product = session.find(Product.class, productId);
+                SoLine line = new SoLine();
+                line.setSalesOrder(order);
+                line.setProduct(product);
+                line.setOrderedQuantity(2);
+                line.setReservedQuantity(0);
+                line.setUnitPrice(product.getSellingPrice());
+                order.getLines().add(line);
+            }
+            session.persist(order);
+            return order;
+        }
+
+        void approvedPurchaseOrder(int run) {
+            inTransaction(session -> {
+                PurchaseOrder po = new PurchaseOrder();
+                po.setPoNumber("PO-" + run + "-" + UUID.randomUUID());
+                po.setSupplier(session.getReference(Supplier.class, supplierId));
+                po.setWarehouse(session.getReference(Warehouse.class, warehouseId));
+                po.setStatus(PurchaseOrderStatus.APPROVED);
+                for (Long productId : productIds) {
+                    PoLine line = new PoLine();
+                    line.setPurchaseOrder(po);
+                    line.setProduct(session.getReference(Product.class, productId));
+                    line.setOrderedQuantity(10);
+                    line.setReceivedQuantity(0);
+                    line.setUnitCost(BigDecimal.ONE);
+                    po.getLines().add(line);
+                }
+                session.persist(po);
+                purchaseOrderIds.add(po.getId());
+            });
+        }
+
+        /**
+         * PurchaseOrderService.receiveEntirePurchaseOrder without the backorder allocation
+         */
+        void receivePurchaseOrder(int run) {
+            inTransaction(session -> {
+                PurchaseOrder po = session.find(PurchaseOrder.class, purchaseOrderIds.remove(purchaseOrderIds.size() - 1));
+                Map<Long, Inventory> inventories = inventories(session);
+                for (PoLine line : po.getLines()) {
+                    int quantity = line.getOrderedQuantity() - line.getReceivedQuantity();
+                    line.setReceivedQuantity(line.getOrderedQuantity());
+                    line.setReceivedDate(LocalDateTime.now());
+
+                    Inventory inventory = inventory(session, inventories, line.getProduct().getId());
+                    inventory.setQtyOnHand(inventory.getQtyOnHand() + quantity);
+                    inventory.setUpdatedAt(LocalDateTime.now());
+
+                    InventoryMovement movement = new InventoryMovement();
+                    movement.setProduct(line.getProduct());
+                    movement.setWarehouse(po.getWarehouse());
+                    movement.setMovementType(MovementType.INBOUND);
+                    movement.setQuantity(quantity);
+                    movement.setPurchaseOrder(po);
+                    movement.setReferenceDoc(po.getPoNumber());
+                    movement.setOccurredAt(LocalDateTime.now());
+                    session.persist(movement);
+                }
+                po.setStatus(PurchaseOrderStatus.RECEIVED);
+                po.setUpdatedAt(LocalDateTime.now());
+            });
+        }
+
+        void plannedShipment(int run) {
+            inTransaction(session -> {
+                SalesOrder order = newOrder(session, "SO-S-" + run + "-" + UUID.randomUUID());
+                Shipment shipment = new Shipment();
+                shipment.setShipmentNumber("SH-" + order.getOrderNumber());
+                shipment.setSalesOrder(order);
+                shipment.setStatus("PLANNED");
+                for (SoLine soLine : order.getLines()) {
+                    ShipmentLine line = new ShipmentLine();
+                    line.setShipment(shipment);
+                    line.setSalesOrderLine(soLine);
+                    line.setProduct(soLine.getProduct());
+                    line.setQuantity(soLine.getOrderedQuantity());
+                    shipment.getLines().add(line);
+                }
+                session.persist(shipment);
+                shipmentIds.add(shipment.getId());
+            });
+        }
+
+        /**
+         * ShipmentService.shipShipment
+         */
+        void dispatchShipment(int run) {
+            inTransaction(session -> {
+                Shipment shipment = session.find(Shipment.class, shipmentIds.remove(shipmentIds.size() - 1));
+                Map<Long, Inventory> inventories = inventories(session);
+                for (ShipmentLine line : shipment.getLines()) {
+                    Inventory inventory = inventory(session, inventories, line.getProduct().getId());
+                    inventory.setQtyOnHand(inventory.getQtyOnHand() - line.getQuantity());
+                    inventory.setQtyReserved(inventory.getQtyReserved() - line.getQuantity());
+                    inventory.setUpdatedAt(LocalDateTime.now());
+
+                    InventoryMovement movement = new InventoryMovement();
+                    movement.setProduct(line.getProduct());
+                    movement.setWarehouse(shipment.getSalesOrder().getWarehouse());
+                    movement.setMovementType(MovementType.OUTBOUND);
+                    movement.setQuantity(line.getQuantity());
+                    movement.setSalesOrder(shipment.getSalesOrder());
+                    movement.setReferenceDoc(shipment.getShipmentNumber());
+                    movement.setOccurredAt(LocalDateTime.now());
+                    session.persist(movement);
+
+                    line.setQuantityShipped(line.getQuantity());
+                }
+                shipment.setStatus("SHIPPED");
+                shipment.setActualShipDate(LocalDate.now());
+                shipment.getSalesOrder().setStatus("SHIPPED");
+                shipment.getSalesOrder().setUpdatedAt(LocalDateTime.now());
+            });
+        }
+
+        private Map<Long, Inventory> inventories(Session session) {
+            if (!preload) {
+                return null;
+            }
+            return session.createQuery(
+                            "SELECT i FROM Inventory i WHERE i.warehouse.id = :warehouseId AND i.product.id IN :productIds",
+                            Inventory.class)
+                    .setParameter("warehouseId", warehouseId)
+                    .setParameter("productIds", productIds)
+                    .getResultStream()
+                    .collect(Collectors.toMap(inventory -> inventory.getProduct().getId(), Function.identity()));
+        }
+
+        private Inventory inventory(Session session, Map<Long, Inventory> inventories, Long productId) {
+            if (inventories != null) {
+                return inventories.get(productId);
+            }
+            return session.createQuery(
+                            "SELECT i FROM Inventory i WHERE i.product.id = :productId AND i.warehouse.id = :warehouseId",
+                            Inventory.class)
+                    .setParameter("productId", productId)
+                    .setParameter("warehouseId", warehouseId)
+                    .getSingleResult();
+        }
+
+        private void inTransaction(Consumer<Session> work) {
+            try (Session session = sessionFactory.openSession()) {
+                session.beginTransaction();
+                work.accept(session);
+                session.getTransaction().commit();
+            }
+        }
+    }
+}
@@ -5,18 +5,24 @@ import com.logistic.digitale_logistic.entity.*;
 import com.logistic.digitale_logistic.repository.BackorderRepository;
 import com.logistic.digitale_logistic.repository.InventoryRepository;
 import com.logistic.digitale_logistic.repository.SalesOrderRepository;
-import com.logistic.digitale_logistic.repository.SoLineRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +38,22 @@ class InventoryReservationServiceTest {
     private SalesOrderRepository salesOrderRepository;
 
     @Mock
-    private SoLineRepository soLineRepository;
+    private AvailableToPromiseLedger availableToPromiseLedger;
+
+    @Mock
+    private ConditionalInventoryReserver conditionalInventoryReserver;
+
+    @Mock
+    private ReservationCombiner reservationCombiner;
+
+    @Mock
+    private ReservationHoldService reservationHoldService;
+
+    @Spy
+    private SourcingStrategy sourcingStrategy = new GreedySourcingStrategy();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private InventoryReservationService inventoryReservationService;
@@ -74,22 +95,19 @@ class InventoryReservationServiceTest {
         inventory.setId(50L);
         inventory.setProduct(product);
         inventory.setWarehouse(warehouse);
-        inventory.setQtyAvailable(10);
+        inventory.setQtyOnHand(10);
         inventory.setQtyReserved(0);
 
         // ---- MOCKING BEHAVIOR ----
 
-        when(salesOrderRepository.findById(100L))
+        when(salesOrderRepository.findWithLinesAndProductsById(100L))
                 .thenReturn(Optional.of(salesOrder));
 
-        when(inventoryRepository.findByProduct_IdAndWarehouse_Id(1L, 1L))
-                .thenReturn(Optional.of(inventory));
+        when(inventoryRepository.findAllByProductIdIn(Set.of(1L)))
+                .thenReturn(List.of(inventory));
 
-        when(inventoryRepository.save(any(Inventory.class)))
-                .thenAnswer(i -> i.getArgument(0));
-
-        when(soLineRepository.save(any(SoLine.class)))
-                .thenAnswer(i -> i.getArgument(0));
+        when(conditionalInventoryReserver.reserveUpTo(inventory, 5, 10))
+                .thenReturn(5);
 
         when(salesOrderRepository.save(any(SalesOrder.class)))
                 .thenAnswer(i -> i.getArgument(0));
@@ -104,10 +122,145 @@ class InventoryReservationServiceTest {
         assertEquals(100L, result.getSalesOrderId());
         assertEquals("SO-100", result.getSalesOrderNumber());
 
-        // Inventory was updated
-        assertEquals(5, inventory.getQtyReserved());
+        // Inventory was reserved through the conditional update
+        verify(conditionalInventoryReserver).reserveUpTo(inventory, 5, 10);
 
         // SO Line updated
         assertEquals(5, soLine.getReservedQuantity());
     }
+
+    @Test
+    void testProcessOrderReservation_MultiLineUsesOneInventoryLoad() {
+
+        Warehouse main = new Warehouse();
+        main.setId(1L);
+        main.setName("Main WH");
+        Warehouse other = new Warehouse();
+        other.setId(2L);
+        other.setName("Other WH");
+
+        Product laptop = new Product();
+        laptop.setId(1L);
+        laptop.setSku("SKU-123");
+        Product mouse = new Product();
+        mouse.setId(2L);
+        mouse.setSku("SKU-456");
+
+        SoLine laptopLine = new SoLine();
+        laptopLine.setProduct(laptop);
+        laptopLine.setOrderedQuantity(8);
+        laptopLine.setReservedQuantity(0);
+        SoLine secondLaptopLine = new SoLine();
+        secondLaptopLine.setProduct(laptop);
+        secondLaptopLine.setOrderedQuantity(6);
+        secondLaptopLine.setReservedQuantity(0);
+        SoLine mouseLine = new SoLine();
+        mouseLine.setProduct(mouse);
+        mouseLine.setOrderedQuantity(3);
+        mouseLine.setReservedQuantity(0);
+
+        SalesOrder salesOrder = new SalesOrder();
+        salesOrder.setId(200L);
+        salesOrder.setOrderNumber("SO-200");
+        salesOrder.setStatus("CREATED");
+        salesOrder.setWarehouse(main);
+        salesOrder.setLines(List.of(laptopLine, secondLaptopLine, mouseLine));
+
+        Inventory laptopMain = new Inventory();
+        laptopMain.setProduct(laptop);
+        laptopMain.setWarehouse(main);
+        laptopMain.setQtyOnHand(5);
+        laptopMain.setQtyReserved(0);
+        Inventory laptopOther = new Inventory();
+        laptopOther.setProduct(laptop);
+        laptopOther.setWarehouse(other);
+        laptopOther.setQtyOnHand(8);
+        laptopOther.setQtyReserved(1);
+        Inventory mouseMain = new Inventory();
+        mouseMain.setProduct(mouse);
+        mouseMain.setWarehouse(main);
+        mouseMain.setQtyOnHand(10);
+        mouseMain.setQtyReserved(0);
+
+        when(salesOrderRepository.findWithLinesAndProductsById(200L))
+                .thenReturn(Optional.of(salesOrder));
+        when(inventoryRepository.findAllByProductIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(laptopMain, laptopOther, mouseMain));
+        when(conditionalInventoryReserver.reserveUpTo(any(Inventory.class), anyInt(), anyInt()))
+                .thenAnswer(i -> Math.min(i.<Integer>getArgument(1), i.<Integer>getArgument(2)));
+        when(backorderRepository.saveAll(anyList()))
+                .thenAnswer(i -> i.getArgument(0));
+        when(salesOrderRepository.save(any(SalesOrder.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        ReservationResultDTO result = inventoryReservationService.processOrderReservation(200L);
+
+        // Second laptop line only gets what the first one left behind
+        assertEquals(8, laptopLine.getReservedQuantity());
+        assertEquals(4, secondLaptopLine.getReservedQuantity());
+        assertEquals(3, mouseLine.getReservedQuantity());
+        verify(conditionalInventoryReserver).reserveUpTo(laptopMain, 5, 5);
+        verify(conditionalInventoryReserver).reserveUpTo(laptopOther, 3, 7);
+        verify(conditionalInventoryReserver).reserveUpTo(laptopOther, 4, 4);
+
+        assertEquals("RESERVED", result.getStatus());
+        assertFalse(result.isFullyReserved());
+        assertTrue(result.isHasBackorders());
+        assertEquals(1, result.getBackorders().size());
+        verify(inventoryRepository, times(1)).findAllByProductIdIn(any());
+    }
+
+    @Test
+    void testProcessOrderReservation_FallsBackToNextWarehouseOnConflict() {
+
+        Warehouse main = new Warehouse();
+        main.setId(1L);
+        main.setName("Main WH");
+        Warehouse other = new Warehouse();
+        other.setId(2L);
+        other.setName("Other WH");
+
+        Product product = new Product();
+        product.setId(1L);
+        product.setSku("SKU-123");
+
+        SoLine soLine = new SoLine();
+        soLine.setProduct(product);
+        soLine.setOrderedQuantity(4);
+        soLine.setReservedQuantity(0);
+
+        SalesOrder salesOrder = new SalesOrder();
+        salesOrder.setId(300L);
+        salesOrder.setOrderNumber("SO-300");
+        salesOrder.setStatus("CREATED");
+        salesOrder.setWarehouse(main);
+        salesOrder.setLines(List.of(soLine));
+
+        Inventory mainInventory = new Inventory();
+        mainInventory.setProduct(product);
+        mainInventory.setWarehouse(main);
+        mainInventory.setQtyOnHand(4);
+        mainInventory.setQtyReserved(0);
+        Inventory otherInventory = new Inventory();
+        otherInventory.setProduct(product);
+        otherInventory.setWarehouse(other);
+        otherInventory.setQtyOnHand(6);
+        otherInventory.setQtyReserved(0);
+
+        when(salesOrderRepository.findWithLinesAndProductsById(300L))
+                .thenReturn(Optional.of(salesOrder));
+        when(inventoryRepository.findAllByProductIdIn(Set.of(1L)))
+                .thenReturn(List.of(mainInventory, otherInventory));
+        // A concurrent order took the main warehouse stock
+        when(conditionalInventoryReserver.reserveUpTo(mainInventory, 4, 4)).thenReturn(0);
+        when(conditionalInventoryReserver.reserveUpTo(otherInventory, 4, 6)).thenReturn(4);
+        when(salesOrderRepository.save(any(SalesOrder.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        ReservationResultDTO result = inventoryReservationService.processOrderReservation(300L);
+
+        assertEquals(4, soLine.getReservedQuantity());
+        assertTrue(result.isFullyReserved());
+        assertFalse(result.isHasBackorders());
+    }
 }
@@ -0,0 +1,175 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.SalesOrderDTO;
+import com.logistic.digitale_logistic.dto.ShipmentDTO;
+import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.enums.Role;
+import com.logistic.digitale_logistic.mapper.SalesOrderMapper;
+import com.logistic.digitale_logistic.mapper.ShipmentLineMapperImpl;
+import com.logistic.digitale_logistic.mapper.ShipmentMapperImpl;
+import com.logistic.digitale_logistic.mapper.SoLineMapper;
+import com.logistic.digitale_logistic.repository.ClientRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import com.logistic.digitale_logistic.repository.ShipmentRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the order read paths on Hibernate with H2 and counts the statements: mapping all orders,
+ * or a shipment, costs the same whatever the number of orders, lines and products.
+ */
+class OrderGraphLoadingTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private final List<Long> shipmentIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = H2SessionFactory.create();
+        statistics = sessionFactory.getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void testAllOrdersAreMappedInOneStatement() {
+        seed(2, 1);
+        assertEquals(1, statements(entityManager -> assertEquals(2, service(entityManager).getAllSalesOrders().size())));
+
+        seed(30, 4);
+        List<SalesOrderDTO> orders = new ArrayList<>();
+        assertEquals(1, statements(entityManager -> orders.addAll(service(entityManager).getAllSalesOrders())));
+
+        assertEquals(32, orders.size());
+        assertEquals(4, orders.get(31).getLines().size());
+        assertNotNull(orders.get(31).getLines().get(3).getProductName());
+        assertEquals("client-2", orders.get(31).getClientName());
+        assertEquals("North", orders.get(31).getWarehouseName());
+    }
+
+    @Test
+    void testShipmentIsMappedInOneStatement() {
+        seed(1, 6);
+
+        ShipmentMapperImpl shipmentMapper = new ShipmentMapperImpl();
+        ReflectionTestUtils.setField(shipmentMapper, "shipmentLineMapper", new ShipmentLineMapperImpl());
+
+        List<ShipmentDTO> shipments = new ArrayList<>();
+        assertEquals(1, statements(entityManager -> shipments.add(shipmentMapper.toDTO(
+                repository(entityManager, ShipmentRepository.class).findWithDetailsById(shipmentIds.get(0)).orElseThrow()))));
+
+        ShipmentDTO shipment = shipments.get(0);
+        assertEquals(6, shipment.getLines().size());
+        assertNotNull(shipment.getSalesOrderNumber());
+        assertTrue(shipment.getLines().stream().allMatch(line -> line.getProductSku() != null));
+    }
+
+    /**
+     * One client with {@code orders} orders of {@code lines} lines each, every line on its own
+     * product, and a shipment per order
+     */
+    private void seed(int orders, int lines) {
+        inTransaction(entityManager -> {
+            int clientNumber = entityManager.createQuery("SELECT COUNT(c) FROM Client c", Long.class)
+                    .getSingleResult().intValue() + 1;
+            User user = new User();
+            user.setEmail("client-" + clientNumber + "@test.com");
+            user.setPassword("secret");
+            user.setName("client-" + clientNumber);
+            user.setRole(Role.CLIENT);
+            entityManager.persist(user);
+            Client client = new Client();
+            client.setUser(user);
+            entityManager.persist(client);
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("North");
+            entityManager.persist(warehouse);
+
+            for (int o = 0; o < orders; o++) {
+                SalesOrder order = new SalesOrder();
+                order.setOrderNumber("SO-" + clientNumber + "-" + o);
+                order.setClient(client);
+                order.setWarehouse(warehouse);
+                order.setOrderDate(LocalDateTime.now());
+                entityManager.persist(order);
+
+                Shipment shipment = new Shipment();
+                shipment.setShipmentNumber("SH-" + clientNumber + "-" + o);
+                shipment.setSalesOrder(order);
+                entityManager.persist(shipment);
+                shipmentIds.add(shipment.getId());
+
+                for (int l = 0; l < lines; l++) {
+                    Product product = new Product();
+                    product.setSku("SKU-" + clientNumber + "-" + o + "-" + l);
+                    product.setName("Product " + l);
+                    product.setSellingPrice(BigDecimal.TEN);
+                    entityManager.persist(product);
+
+                    SoLine line = new SoLine();
+                    line.setSalesOrder(order);
+                    line.setProduct(product);
+                    line.setOrderedQuantity(1);
+                    line.setUnitPrice(BigDecimal.TEN);
+                    line.setLineTotal(BigDecimal.TEN);
+                    entityManager.persist(line);
+
+                    ShipmentLine shipmentLine = new ShipmentLine();
+                    shipmentLine.setShipment(shipment);
+                    shipmentLine.setSalesOrderLine(line);
+                    shipmentLine.setProduct(product);
+                    shipmentLine.setQuantity(1);
+                    entityManager.persist(shipmentLine);
+                }
+            }
+        });
+    }
+
+    private SalesOrderService service(EntityManager entityManager) {
+        return new SalesOrderService(repository(entityManager, SalesOrderRepository.class),
+                repository(entityManager, ClientRepository.class), null, null,
+                new SalesOrderMapper(new SoLineMapper()), null, null, null, null, null, null, null, null);
+    }
+
+    private long statements(Consumer<EntityManager> work) {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        long before = statistics.getPrepareStatementCount();
+        try {
+            work.accept(entityManager);
+        } finally {
+            entityManager.close();
+        }
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        work.accept(entityManager);
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    private static <T> T repository(EntityManager entityManager, Class<T> repositoryInterface) {
+        return new JpaRepositoryFactory(entityManager).getRepository(repositoryInterface);
+    }
+}
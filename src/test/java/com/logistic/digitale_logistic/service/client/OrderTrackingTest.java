@@ -0,0 +1,380 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.OrderTrackingDTO;
+import com.logistic.digitale_logistic.dto.OrderTrackingLineDTO;
+import com.logistic.digitale_logistic.dto.OrderTrackingPageDTO;
+import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.enums.BackorderStatus;
+import com.logistic.digitale_logistic.enums.Role;
+import com.logistic.digitale_logistic.event.SalesOrderChangedEvent;
+import com.logistic.digitale_logistic.mapper.OrderTrackingMapperImpl;
+import com.logistic.digitale_logistic.mapper.SalesOrderMapper;
+import com.logistic.digitale_logistic.mapper.ShipmentLineMapperImpl;
+import com.logistic.digitale_logistic.mapper.ShipmentMapperImpl;
+import com.logistic.digitale_logistic.mapper.SoLineMapper;
+import com.logistic.digitale_logistic.repository.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the order_tracking read model on Hibernate with H2 under Spring transactions: writers'
+ * changes reach the row before their transaction commits, and the client's order list is served
+ * from the rows at a fixed statement cost per page.
+ */
+class OrderTrackingTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private OrderTrackingRepository orderTrackingRepository;
+    private OrderTrackingProjector projector;
+    private ApplicationEventPublisher eventPublisher;
+
+    private Client client;
+    private Warehouse warehouse;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = H2SessionFactory.create();
+        statistics = sessionFactory.getStatistics();
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(sessionFactory));
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(sessionFactory);
+        orderTrackingRepository = repository(OrderTrackingRepository.class);
+        projector = new OrderTrackingProjector(repository(SalesOrderRepository.class), repository(ShipmentRepository.class),
+                repository(BackorderRepository.class), orderTrackingRepository,
+                new JpaTransactionManager(sessionFactory), 10);
+        eventPublisher = event -> {
+            if (event instanceof SalesOrderChangedEvent changed) {
+                projector.onSalesOrderChanged(changed);
+            }
+        };
+
+        inTransaction(() -> {
+            client = client("alice");
+            warehouse = new Warehouse();
+            warehouse.setName("North");
+            entityManager.persist(warehouse);
+            for (int i = 0; i < 3; i++) {
+                Product product = new Product();
+                product.setSku("SKU-" + i);
+                product.setName("Product " + i);
+                product.setSellingPrice(BigDecimal.TEN);
+                entityManager.persist(product);
+                products.add(product);
+
+                Inventory inventory = new Inventory();
+                inventory.setProduct(product);
+                inventory.setWarehouse(warehouse);
+                inventory.setQtyOnHand(100);
+                inventory.setQtyReserved(10);
+                entityManager.persist(inventory);
+            }
+            return null;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        sessionFactory.close();
+    }
+
+    @Test
+    void testRowHoldsReservationShipmentAndBackorderProgress() {
+        Long orderId = inTransaction(() -> {
+            SalesOrder order = order(client, LocalDateTime.now(), 4, 6);
+            order.setStatus("RESERVED");
+            order.getLines().get(0).setReservedQuantity(4);
+            order.getLines().get(1).setReservedQuantity(2);
+
+            Backorder backorder = new Backorder();
+            backorder.setSoLine(order.getLines().get(1));
+            backorder.setProduct(order.getLines().get(1).getProduct());
+            backorder.setWarehouse(warehouse);
+            backorder.setQuantityBackordered(4);
+            backorder.setQuantityFulfilled(1);
+            backorder.setStatus(BackorderStatus.PARTIALLY_FULFILLED);
+            entityManager.persist(backorder);
+
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId()));
+            return order.getId();
+        });
+
+        OrderTracking row = find(orderId);
+        assertEquals("RESERVED", row.getStatus());
+        assertEquals(client.getUserId(), row.getClientId());
+        assertEquals(10, row.getOrderedQuantity());
+        assertEquals(6, row.getReservedQuantity());
+        assertEquals(1, row.getOpenBackorders());
+        assertEquals(3, row.getBackorderedQuantity());
+        assertEquals(0, row.getShipmentCount());
+        assertNull(row.getShipmentStatus());
+        assertEquals(0, new BigDecimal("100.00").compareTo(row.getTotalAmount()));
+
+        OrderTrackingLineDTO line = row.getLines().get(1);
+        assertEquals("SKU-1", line.getProductSku());
+        assertEquals(6, line.getOrderedQuantity());
+        assertEquals(2, line.getReservedQuantity());
+        assertEquals(3, line.getBackorderedQuantity());
+        assertEquals(0, new BigDecimal("60").compareTo(line.getLineTotal()));
+
+        // Shipping through the service: planned, shipped, delivered
+        ShipmentService shipmentService = shipmentService();
+        Long shipmentId = inTransaction(() -> shipmentService.createShipment(orderId).getId());
+        assertEquals("PLANNED", find(orderId).getShipmentStatus());
+        assertEquals(0, find(orderId).getShippedQuantity());
+
+        inTransaction(() -> shipmentService.shipShipment(shipmentId, "TRK-1", "DHL"));
+        row = find(orderId);
+        assertEquals("SHIPPED", row.getStatus());
+        assertEquals("SHIPPED", row.getShipmentStatus());
+        assertEquals(1, row.getShipmentCount());
+        assertEquals(6, row.getShippedQuantity());
+        assertEquals(4, row.getLines().get(0).getShippedQuantity());
+
+        inTransaction(() -> shipmentService.markAsDelivered(shipmentId));
+        assertEquals("DELIVERED", find(orderId).getStatus());
+        assertEquals("DELIVERED", find(orderId).getShipmentStatus());
+    }
+
+    @Test
+    void testChangesOfOneTransactionAreProjectedOnceBeforeCommit() {
+        List<Long> ids = new ArrayList<>();
+        long before = statistics.getPrepareStatementCount();
+        inTransaction(() -> {
+            for (int i = 0; i < 25; i++) {
+                SalesOrder order = order(client, LocalDateTime.now().minusMinutes(i), 1, 1);
+                ids.add(order.getId());
+                eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId()));
+                eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId()));
+            }
+            // Nothing is projected until the transaction commits
+            assertTrue(orderTrackingRepository.findAllById(ids).isEmpty());
+            return null;
+        });
+        long statements = statistics.getPrepareStatementCount() - before;
+
+        assertEquals(25, orderTrackingRepository.findAllById(ids).size());
+        // Writes of the orders, the check above, then 4 queries per batch of 10 and batched inserts
+        assertTrue(statements < 40, "statements: " + statements);
+
+        // A rolled back writer leaves no row behind
+        assertThrows(IllegalStateException.class, () -> inTransaction(() -> {
+            SalesOrder order = order(client, LocalDateTime.now(), 1, 1);
+            ids.add(order.getId());
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId()));
+            throw new IllegalStateException("rolled back");
+        }));
+        assertFalse(orderTrackingRepository.existsById(ids.get(ids.size() - 1)));
+    }
+
+    @Test
+    void testMyOrdersArePagedFromTheReadModel() {
+        Client other = inTransaction(() -> client("bob"));
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 8, 0);
+        inTransaction(() -> {
+            for (int i = 0; i < 25; i++) {
+                eventPublisher.publishEvent(new SalesOrderChangedEvent(order(client, start.plusHours(i), 2, 3).getId()));
+            }
+            // Same order date as the newest orders of alice: the id breaks the tie
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(order(other, start.plusHours(24), 1, 1).getId()));
+            return null;
+        });
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice@test.com", null, List.of()));
+        SalesOrderService salesOrderService = salesOrderService();
+
+        List<OrderTrackingDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String after = cursor;
+            long before = statistics.getPrepareStatementCount();
+            OrderTrackingPageDTO page = inTransaction(() -> salesOrderService.getMyOrders(after, 10));
+            // The client lookup and one range scan, whatever the page
+            assertEquals(2, statistics.getPrepareStatementCount() - before);
+            seen.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(25, seen.size());
+        assertEquals(start.plusHours(24), seen.get(0).getOrderDate());
+        assertEquals(start, seen.get(24).getOrderDate());
+        assertTrue(seen.stream().allMatch(order -> order.getLines().size() == 2 && order.getOrderedQuantity() == 5));
+        assertEquals(25, seen.stream().map(OrderTrackingDTO::getOrderId).distinct().count());
+    }
+
+    @Test
+    void testCatchUpBuildsMissingAndOutdatedRows() {
+        List<Long> ids = inTransaction(() -> {
+            List<Long> created = new ArrayList<>();
+            for (int i = 0; i < 23; i++) {
+                created.add(order(client, LocalDateTime.now(), 1, 1).getId());
+            }
+            return created;
+        });
+
+        assertEquals(23, projector.catchUp());
+        assertEquals(23, orderTrackingRepository.findAllById(ids).size());
+        assertEquals(0, projector.catchUp());
+
+        // Changed without an event
+        inTransaction(() -> {
+            SalesOrder order = entityManager.find(SalesOrder.class, ids.get(5));
+            order.setStatus("CANCELLED");
+            order.setUpdatedAt(LocalDateTime.now().plusSeconds(1));
+            return null;
+        });
+
+        assertEquals(1, projector.catchUp());
+        assertEquals("CANCELLED", find(ids.get(5)).getStatus());
+    }
+
+    @Test
+    void testConcurrentWritersOfOneOrderRebuildItsRowInTurn() throws Exception {
+        Long orderId = inTransaction(() -> {
+            SalesOrder order = order(client, LocalDateTime.now(), 4, 6);
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(order.getId()));
+            return order.getId();
+        });
+
+        // The first writer has rebuilt the row and is about to commit when the second one rebuilds
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        ExecutorService first = Executors.newSingleThreadExecutor();
+        Future<?> committed = first.submit(() -> inTransaction(() -> {
+            backorder(orderId, 0, 4);
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(orderId));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    rebuilt.countDown();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            return null;
+        }));
+        assertTrue(rebuilt.await(5, TimeUnit.SECONDS));
+        inTransaction(() -> {
+            backorder(orderId, 1, 3);
+            eventPublisher.publishEvent(new SalesOrderChangedEvent(orderId));
+            return null;
+        });
+        committed.get(5, TimeUnit.SECONDS);
+        first.shutdown();
+
+        // The row committed last was built with both backorders
+        OrderTracking row = find(orderId);
+        assertEquals(2, row.getOpenBackorders());
+        assertEquals(7, row.getBackorderedQuantity());
+    }
+
+    private void backorder(Long orderId, int line, int quantity) {
+        SoLine soLine = entityManager.find(SalesOrder.class, orderId).getLines().get(line);
+        Backorder backorder = new Backorder();
+        backorder.setSoLine(soLine);
+        backorder.setProduct(soLine.getProduct());
+        backorder.setWarehouse(warehouse);
+        backorder.setQuantityBackordered(quantity);
+        backorder.setQuantityFulfilled(0);
+        backorder.setStatus(BackorderStatus.PENDING);
+        entityManager.persist(backorder);
+    }
+
+    private Client client(String name) {
+        User user = new User();
+        user.setEmail(name + "@test.com");
+        user.setPassword("secret");
+        user.setName(name);
+        user.setRole(Role.CLIENT);
+        entityManager.persist(user);
+        Client client = new Client();
+        client.setUser(user);
+        entityManager.persist(client);
+        return client;
+    }
+
+    /**
+     * An order with one line per quantity, on the seeded products, priced 10 each
+     */
+    private SalesOrder order(Client client, LocalDateTime orderDate, int... quantities) {
+        SalesOrder order = new SalesOrder();
+        order.setOrderNumber("SO-" + System.nanoTime());
+        order.setClient(entityManager.getReference(Client.class, client.getUserId()));
+        order.setWarehouse(entityManager.getReference(Warehouse.class, warehouse.getId()));
+        order.setOrderDate(orderDate);
+        order.setUpdatedAt(orderDate);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < quantities.length; i++) {
+            SoLine line = new SoLine();
+            line.setSalesOrder(order);
+            line.setProduct(entityManager.getReference(Product.class, products.get(i).getId()));
+            line.setOrderedQuantity(quantities[i]);
+            line.setUnitPrice(BigDecimal.TEN);
+            order.getLines().add(line);
+            total = total.add(BigDecimal.TEN.multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        order.setTotalAmount(total);
+        entityManager.persist(order);
+        order.getLines().forEach(entityManager::persist);
+        return order;
+    }
+
+    private OrderTracking find(Long orderId) {
+        return inTransaction(() -> orderTrackingRepository.findById(orderId).orElseThrow());
+    }
+
+    private ShipmentService shipmentService() {
+        ShipmentMapperImpl shipmentMapper = new ShipmentMapperImpl();
+        ReflectionTestUtils.setField(shipmentMapper, "shipmentLineMapper", new ShipmentLineMapperImpl());
+        return new ShipmentService(repository(ShipmentRepository.class), repository(SalesOrderRepository.class),
+                repository(InventoryRepository.class), repository(InventoryMovementRepository.class), shipmentMapper,
+                eventPublisher, mock(ReservationHoldService.class), new DocumentNumberGenerator(1),
+                mock(CreditExposureService.class));
+    }
+
+    private SalesOrderService salesOrderService() {
+        return new SalesOrderService(repository(SalesOrderRepository.class), repository(ClientRepository.class),
+                null, null, new SalesOrderMapper(new SoLineMapper()), null, null, null, null, null,
+                orderTrackingRepository, new OrderTrackingMapperImpl(), eventPublisher);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private <T> T repository(Class<T> repositoryInterface) {
+        return new JpaRepositoryFactory(entityManager).getRepository(repositoryInterface);
+    }
+}
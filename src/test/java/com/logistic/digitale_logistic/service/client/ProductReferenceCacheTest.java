@@ -0,0 +1,123 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ProductReference;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductReferenceCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProductRepository productRepository;
+    private ProductReferenceCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllById(any())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream()
+                        .filter(id -> id < 100)
+                        .map(ProductReferenceCacheTest::product)
+                        .toList());
+        cache = new ProductReferenceCache(productRepository, meterRegistry, 3, Duration.ofMinutes(5), clock::get);
+    }
+
+    @Test
+    void testMissesAreLoadedTogetherAndHitsNotAgain() {
+        Map<Long, ProductReference> first = cache.getAll(List.of(1L, 2L, 2L, 404L));
+        Map<Long, ProductReference> second = cache.getAll(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, reference(1L), 2L, reference(2L)), first);
+        assertEquals(first, second);
+        verify(productRepository).findAllById(List.of(1L, 2L, 404L));
+        verifyNoMoreInteractions(productRepository);
+        assertEquals(2, meterRegistry.counter("product.cache.hits").count());
+        assertEquals(3, meterRegistry.counter("product.cache.misses").count());
+        assertEquals(0.4, meterRegistry.get("product.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void testUnknownProductsAreNotCached() {
+        cache.getAll(List.of(404L));
+        cache.getAll(List.of(404L));
+
+        verify(productRepository, times(2)).findAllById(List.of(404L));
+    }
+
+    @Test
+    void testEntriesExpireAfterTheTtl() {
+        cache.getAll(List.of(1L));
+        clock.addAndGet(Duration.ofMinutes(5).toNanos() - 1);
+        cache.getAll(List.of(1L));
+        clock.addAndGet(1);
+        cache.getAll(List.of(1L));
+
+        verify(productRepository, times(2)).findAllById(List.of(1L));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvictedBeyondTheMaxSize() {
+        cache.getAll(List.of(1L, 2L, 3L));
+        cache.getAll(List.of(1L));
+        cache.getAll(List.of(4L));
+
+        assertEquals(3, cache.size());
+        assertEquals(1, meterRegistry.counter("product.cache.evictions").count());
+        cache.getAll(List.of(1L, 3L, 4L));
+        verify(productRepository, never()).findAllById(List.of(1L));
+        cache.getAll(List.of(2L));
+        verify(productRepository).findAllById(List.of(2L));
+    }
+
+    @Test
+    void testInvalidatedProductIsReloaded() {
+        cache.getAll(List.of(1L, 2L));
+        cache.invalidate(1L);
+
+        cache.getAll(List.of(1L, 2L));
+
+        verify(productRepository).findAllById(List.of(1L));
+    }
+
+    @Test
+    void testLoadRacingAnInvalidationIsNotKept() {
+        when(productRepository.findAllById(List.of(1L))).thenAnswer(invocation -> {
+            // The product changes and is invalidated while this load is in flight
+            cache.invalidate(1L);
+            return List.of(product(1L));
+        });
+
+        assertEquals(reference(1L), cache.getAll(List.of(1L)).get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku("SKU-" + id);
+        product.setName("Product " + id);
+        product.setSellingPrice(BigDecimal.valueOf(id));
+        product.setActive(true);
+        return product;
+    }
+
+    private static ProductReference reference(Long id) {
+        return new ProductReference(id, "SKU-" + id, "Product " + id, BigDecimal.valueOf(id), true);
+    }
+}
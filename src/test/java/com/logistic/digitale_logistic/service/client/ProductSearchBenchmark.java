@@ -0,0 +1,75 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ProductSearchResultDTO;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Search-as-you-type latency on a catalogue of PRODUCTS SKUs: every prefix of random SKUs and of
+ * random name words, as typed one character at a time.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ProductSearchBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int QUERIES = 20_000;
+    private static final String[] WORDS = {"pallet", "box", "crate", "wrap", "film", "tape", "label", "drum",
+            "bin", "tote", "strap", "liner", "bag", "sack", "cover", "hood", "euro", "plastic", "steel", "wood"};
+    private static final String[] CATEGORIES = {"Pallets", "Packaging", "Containers", "Consumables", "Spare parts"};
+
+    @Test
+    void measureAutocompleteLatency() {
+        Random random = new Random(42);
+        List<ProductSearchResultDTO> catalogue = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + Integer.toString(random.nextInt(100_000), 36);
+            catalogue.add(new ProductSearchResultDTO((long) i, String.format("SKU-%07d", i), name,
+                    CATEGORIES[i % CATEGORIES.length], i % 10 != 0));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSearchEntries()).thenReturn(catalogue);
+
+        ProductSearchIndex index = new ProductSearchIndex(productRepository, new SimpleMeterRegistry(), Long.MAX_VALUE, 1000);
+        long begin = System.nanoTime();
+        index.rebuild();
+        System.out.printf("built %d products in %d ms, estimated %d MB%n",
+                index.size(), (System.nanoTime() - begin) / 1_000_000, index.estimatedBytes() >> 20);
+
+        List<String> queries = new ArrayList<>();
+        while (queries.size() < QUERIES) {
+            String text = random.nextBoolean()
+                    ? catalogue.get(random.nextInt(PRODUCTS)).getSku()
+                    : catalogue.get(random.nextInt(PRODUCTS)).getName();
+            for (int length = 1; length <= text.length(); length++) {
+                queries.add(text.substring(0, length));
+            }
+        }
+
+        // Warm-up, then measured pass
+        queries.forEach(query -> index.search(query, 10, true));
+        long[] nanos = new long[queries.size()];
+        for (int i = 0; i < queries.size(); i++) {
+            long start = System.nanoTime();
+            List<ProductSearchResultDTO> results = index.search(queries.get(i), 10, true);
+            nanos[i] = System.nanoTime() - start;
+            assertFalse(results.isEmpty(), queries.get(i));
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%d queries: p50 %d us, p99 %d us, max %d us%n", nanos.length,
+                nanos[nanos.length / 2] / 1_000, nanos[nanos.length * 99 / 100] / 1_000, nanos[nanos.length - 1] / 1_000);
+    }
+}
@@ -0,0 +1,156 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ProductSearchResultDTO;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.event.ProductChangedEvent;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ProductSearchResultDTO> catalogue = new ArrayList<>();
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        catalogue.add(product(1L, "PAL-100", "Euro pallet", "Pallets", true));
+        catalogue.add(product(2L, "PAL-1000", "Plastic pallet heavy duty", "Pallets", true));
+        catalogue.add(product(3L, "BOX-7", "Cardboard box", "Packaging", true));
+        catalogue.add(product(4L, "WRP-1", "Stretch wrap for pallets", "Packaging", true));
+        catalogue.add(product(5L, "PAL-OLD", "Wooden pallet", "Pallets", false));
+
+        productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSearchEntries()).thenAnswer(invocation -> List.copyOf(catalogue));
+        when(productRepository.findSearchEntryById(anyLong())).thenAnswer(invocation -> catalogue.stream()
+                .filter(product -> product.getId().equals(invocation.getArgument(0)))
+                .findFirst());
+        index = new ProductSearchIndex(productRepository, meterRegistry, 1_000_000, 3);
+        index.rebuild();
+    }
+
+    @Test
+    void testSkuPrefixRanksTheExactSkuFirst() {
+        assertEquals(List.of("PAL-100", "PAL-1000"), skus(index.search("pal-100", 10, false)));
+        assertEquals(List.of("BOX-7"), skus(index.search("  box-7 ", 10, false)));
+    }
+
+    @Test
+    void testWordsMatchNameBeforeCategoryAndTheLastWordAsAPrefix() {
+        // The word itself in the name before a longer word starting with it
+        assertEquals(List.of("PAL-100", "PAL-1000", "WRP-1"), skus(index.search("pallet", 10, false)));
+        assertEquals(List.of("PAL-1000"), skus(index.search("plastic hea", 10, false)));
+        assertEquals(List.of("BOX-7", "WRP-1"), skus(index.search("packag", 10, false)));
+        assertEquals(List.of(), index.search("steel pallet", 10, false));
+        assertEquals(List.of(), index.search(" ", 10, false));
+    }
+
+    @Test
+    void testInactiveProductsOnlyOnRequestAndLimitIsApplied() {
+        // SKU prefixes before a name word starting with "pal"
+        assertEquals(List.of("PAL-100", "PAL-1000", "PAL-OLD", "WRP-1"), skus(index.search("pal-", 10, true)));
+        assertEquals(List.of("PAL-100", "PAL-1000", "WRP-1"), skus(index.search("pal-", 10, false)));
+        assertEquals(1, index.search("pal-", 1, false).size());
+    }
+
+    @Test
+    void testCommittedChangesAreSearchableAndCompactedAtTheThreshold() {
+        catalogue.set(2, product(3L, "BOX-7", "Shipping crate", "Packaging", true));
+        catalogue.add(product(6L, "CRT-9", "Crate lid", "Packaging", true));
+        index.onProductChanged(new ProductChangedEvent(3L));
+        index.onProductChanged(new ProductChangedEvent(6L));
+
+        assertEquals(List.of("CRT-9", "BOX-7"), skus(index.search("crate", 10, false)));
+        assertEquals(List.of(), index.search("cardboard", 10, false));
+        assertEquals(5, index.size());
+
+        // Below the threshold, compaction leaves the overlay alone
+        index.compact();
+        assertEquals(5, index.size());
+
+        // Third change reaches the threshold: the listener only records it, compaction merges it
+        // into one segment again, with no reload from the database
+        catalogue.set(0, product(1L, "PAL-100", "Euro pallet", "Pallets", false));
+        index.onProductChanged(new ProductChangedEvent(1L));
+        assertEquals(5, index.size());
+        assertEquals(List.of("PAL-1000", "WRP-1"), skus(index.search("pal-", 10, false)));
+        index.compact();
+        assertEquals(6, index.size());
+        assertEquals(List.of("PAL-1000", "WRP-1"), skus(index.search("pal-", 10, false)));
+        assertEquals(List.of("CRT-9", "BOX-7"), skus(index.search("crate", 10, false)));
+        verify(productRepository, times(1)).findAllSearchEntries();
+    }
+
+    @Test
+    void testFootprintIsReportedAndBounded() {
+        double bytes = meterRegistry.get("product.search.index.bytes").gauge().value();
+        assertTrue(bytes > 0);
+        assertEquals(5, meterRegistry.get("product.search.index.products").gauge().value());
+
+        ProductSearchIndex small = new ProductSearchIndex(productRepository, meterRegistry, (long) bytes - 1, 3);
+        small.rebuild();
+        when(productRepository.searchByText(eq("pal"), eq(false), any(Limit.class)))
+                .thenReturn(List.of(catalogue.get(0)));
+
+        assertEquals(0, small.size());
+        assertEquals(0, small.estimatedBytes());
+        assertEquals(List.of("PAL-100"), skus(small.search("PAL", 10, false)));
+        verify(productRepository).searchByText("pal", false, Limit.of(10));
+        assertEquals(1, meterRegistry.get("product.search.database").counter().count());
+    }
+
+    @Test
+    void testDatabaseQueriesRunOnHibernate() {
+        SessionFactory sessionFactory = H2SessionFactory.create();
+        try {
+            EntityManager entityManager = sessionFactory.createEntityManager();
+            entityManager.getTransaction().begin();
+            for (ProductSearchResultDTO entry : catalogue) {
+                Product product = new Product();
+                product.setSku(entry.getSku());
+                product.setName(entry.getName());
+                product.setCategory(entry.getCategory());
+                product.setActive(entry.getActive());
+                product.setSellingPrice(BigDecimal.ONE);
+                entityManager.persist(product);
+            }
+            entityManager.getTransaction().commit();
+
+            ProductRepository repository = new JpaRepositoryFactory(entityManager).getRepository(ProductRepository.class);
+            assertEquals(5, repository.findAllSearchEntries().size());
+            Long boxId = repository.findBySku("BOX-7").getId();
+            assertEquals(Optional.of("Cardboard box"), repository.findSearchEntryById(boxId).map(ProductSearchResultDTO::getName));
+            assertEquals(List.of("PAL-100", "PAL-1000", "WRP-1"),
+                    skus(repository.searchByText("pal", false, Limit.of(10))));
+            assertEquals(List.of("PAL-100"), skus(repository.searchByText("pal", true, Limit.of(1))));
+            entityManager.close();
+        } finally {
+            sessionFactory.close();
+        }
+    }
+
+    private static List<String> skus(List<ProductSearchResultDTO> results) {
+        return results.stream().map(ProductSearchResultDTO::getSku).toList();
+    }
+
+    private static ProductSearchResultDTO product(Long id, String sku, String name, String category, boolean active) {
+        return new ProductSearchResultDTO(id, sku, name, category, active);
+    }
+}
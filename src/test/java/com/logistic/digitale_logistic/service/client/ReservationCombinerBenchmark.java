@@ -0,0 +1,125 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.config.CatalogVersions;
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Hot-SKU reservation throughput: per-request conditional UPDATE vs. the combining stage.
+ *
+ * Every "order" reserves one unit on the same inventory row and then spends ORDER_WORK_MS
+ * on the rest of its transaction. On the per-request path the row lock is held for that
+ * whole time, on the combined path only for the batch statement (plus the grant journal rows).
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ReservationCombinerBenchmark {
+
+    private static final int ORDERS = 2_000;
+    private static final long ORDER_WORK_MS = 2;
+    private static final int[] CONCURRENCY = {1, 4, 16, 64};
+
+    private static final String RESERVE_SQL =
+            "UPDATE inventory SET qty_reserved = qty_reserved + ? WHERE id = ? AND qty_on_hand - qty_reserved >= ?";
+
+    @Test
+    void compareThroughputAsConcurrencyGrows() throws Exception {
+        System.out.printf("%-12s %18s %18s%n", "threads", "per-request ops/s", "combined ops/s");
+        for (int threads : CONCURRENCY) {
+            double perRequest = run(threads, false);
+            double combined = run(threads, true);
+            System.out.printf("%-12d %18.0f %18.0f%n", threads, perRequest, combined);
+        }
+    }
+
+    private double run(int threads, boolean combining) throws Exception {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=60000");
+            dataSource.setUsername("sa");
+            dataSource.setMaximumPoolSize(threads + 4);
+
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE inventory (id BIGINT PRIMARY KEY, qty_on_hand INT NOT NULL, " +
+                    "qty_reserved INT NOT NULL, updated_at TIMESTAMP)");
+            jdbcTemplate.execute("CREATE TABLE inventory_reservation_grants (id BIGINT PRIMARY KEY, " +
+                    "inventory_id BIGINT NOT NULL, quantity INT NOT NULL, created_at TIMESTAMP NOT NULL)");
+            jdbcTemplate.update("INSERT INTO inventory (id, qty_on_hand, qty_reserved) VALUES (1, ?, 0)", ORDERS);
+
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            TransactionTemplate orderTransaction = new TransactionTemplate(transactionManager);
+            ReservationCombiner combiner = new ReservationCombiner(dataSource, transactionManager,
+                    new DocumentNumberGenerator(1), mock(ApplicationEventPublisher.class), new CatalogVersions(),
+                    new SimpleMeterRegistry(),
+                    true, 0, 256, 0, Duration.ofMinutes(10), 3);
+            Inventory inventory = hotInventory();
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < ORDERS; i++) {
+                pool.submit(() -> {
+                    start.await();
+                    orderTransaction.executeWithoutResult(status -> {
+                        if (combining) {
+                            combiner.reserveUpTo(inventory, 1, ORDERS);
+                        } else {
+                            jdbcTemplate.update(RESERVE_SQL, 1, 1L, 1);
+                        }
+                        simulateRestOfOrder();
+                    });
+                    return null;
+                });
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.MINUTES));
+            long elapsed = System.nanoTime() - begin;
+
+            Integer reserved = jdbcTemplate.queryForObject("SELECT qty_reserved FROM inventory WHERE id = 1", Integer.class);
+            assertEquals(ORDERS, reserved);
+            return ORDERS / (elapsed / 1_000_000_000.0);
+        }
+    }
+
+    private static void simulateRestOfOrder() {
+        try {
+            Thread.sleep(ORDER_WORK_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Inventory hotInventory() {
+        Product product = new Product();
+        product.setId(1L);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1L);
+        Inventory inventory = new Inventory();
+        inventory.setId(1L);
+        inventory.setProduct(product);
+        inventory.setWarehouse(warehouse);
+        return inventory;
+    }
+}
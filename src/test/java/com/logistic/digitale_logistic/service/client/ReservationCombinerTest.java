@@ -0,0 +1,206 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.config.CatalogVersions;
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReservationCombinerTest {
+
+    private DriverManagerDataSource dataSource;
+    private DataSourceTransactionManager transactionManager;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogVersions catalogVersions;
+    private ReservationCombiner combiner;
+    private Inventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE inventory (id BIGINT PRIMARY KEY, qty_on_hand INT NOT NULL, " +
+                "qty_reserved INT NOT NULL, updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE inventory_reservation_grants (id BIGINT PRIMARY KEY, " +
+                "inventory_id BIGINT NOT NULL, quantity INT NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.update("INSERT INTO inventory (id, qty_on_hand, qty_reserved) VALUES (1, 100, 0)");
+
+        meterRegistry = new SimpleMeterRegistry();
+        catalogVersions = new CatalogVersions();
+        combiner = combiner(Duration.ofMinutes(10));
+
+        Product product = new Product();
+        product.setId(10L);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(20L);
+        inventory = new Inventory();
+        inventory.setId(1L);
+        inventory.setProduct(product);
+        inventory.setWarehouse(warehouse);
+    }
+
+    @Test
+    void testSingleRequestIsAppliedDirectly() {
+        int granted = combiner.reserveUpTo(inventory, 7, 100);
+
+        assertEquals(7, granted);
+        assertEquals(7, reservedInDb());
+        assertEquals(0, grantsInDb());
+        assertEquals(0, combiner.activeRows());
+    }
+
+    @Test
+    void testPartialGrantWhenStockRunsOut() {
+        jdbcTemplate.update("UPDATE inventory SET qty_reserved = 97 WHERE id = 1");
+
+        // Caller's view is stale, the combiner re-reads and grants what is left
+        int granted = combiner.reserveUpTo(inventory, 5, 100);
+
+        assertEquals(3, granted);
+        assertEquals(100, reservedInDb());
+    }
+
+    @Test
+    void testConcurrentRequestsAreCombinedWithoutOverselling() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger total = new AtomicInteger();
+        TransactionTemplate orderTransaction = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < 300; i++) {
+            pool.submit(() -> {
+                start.await();
+                orderTransaction.executeWithoutResult(status ->
+                        total.addAndGet(combiner.reserveUpTo(inventory, 1, 100)));
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(100, total.get());
+        assertEquals(100, reservedInDb());
+        assertEquals(0, grantsInDb());
+        assertEquals(0, combiner.activeRows());
+        double batches = meterRegistry.get("inventory.reservation.combined.batches").counter().count();
+        assertTrue(batches <= 300);
+    }
+
+    @Test
+    void testShareIsJournaledUntilTheOrderCommits() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(4, combiner.reserveUpTo(inventory, 4, 100));
+            // Batch committed on its own, the order has not yet
+            assertEquals(1, grantsInDb());
+        });
+
+        assertEquals(4, reservedInDb());
+        assertEquals(0, grantsInDb());
+    }
+
+    @Test
+    void testShareIsReleasedWhenOrderTransactionRollsBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(4, combiner.reserveUpTo(inventory, 4, 100));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, reservedInDb());
+        assertEquals(0, grantsInDb());
+    }
+
+    @Test
+    void testOrphanedShareIsReleasedOnStartupAndOnlyOnce() {
+        // Order transaction never completes, as if the instance died after the batch committed
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(4, combiner.reserveUpTo(inventory, 4, 100));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(4, reservedInDb());
+        assertEquals(1, grantsInDb());
+
+        long version = catalogVersions.version(CatalogVersions.Resource.WAREHOUSES);
+        ReservationCombiner restarted = combiner(Duration.ZERO);
+        restarted.afterSingletonsInstantiated();
+
+        assertEquals(0, reservedInDb());
+        assertEquals(0, grantsInDb());
+        // Availability went back up: pollers must not keep getting a 304
+        assertEquals(version + 1, catalogVersions.version(CatalogVersions.Resource.WAREHOUSES));
+        assertEquals(0, restarted.reconcile());
+        assertEquals(version + 1, catalogVersions.version(CatalogVersions.Resource.WAREHOUSES));
+        assertEquals(1, meterRegistry.get("inventory.reservation.combined.reconciled").counter().count());
+    }
+
+    @Test
+    void testOrderCommittingAfterReconciliationFails() {
+        ReservationCombiner expiring = combiner(Duration.ZERO);
+        TransactionTemplate orderTransaction = new TransactionTemplate(transactionManager);
+
+        assertThrows(IllegalStateException.class, () -> orderTransaction.executeWithoutResult(status -> {
+            assertEquals(4, expiring.reserveUpTo(inventory, 4, 100));
+            assertEquals(1, expiring.reconcile());
+        }));
+
+        assertEquals(0, reservedInDb());
+        assertEquals(0, grantsInDb());
+    }
+
+    @Test
+    void testFailedReleaseIsLeftToReconciliation() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(4, combiner.reserveUpTo(inventory, 4, 100));
+            jdbcTemplate.execute("ALTER TABLE inventory_reservation_grants RENAME TO grants_offline");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        jdbcTemplate.execute("ALTER TABLE grants_offline RENAME TO inventory_reservation_grants");
+
+        assertEquals(4, reservedInDb());
+        assertEquals(1, meterRegistry.get("inventory.reservation.combined.release.failures").counter().count());
+        assertEquals(1, combiner(Duration.ZERO).reconcile());
+        assertEquals(0, reservedInDb());
+    }
+
+    private ReservationCombiner combiner(Duration grantTimeout) {
+        return new ReservationCombiner(dataSource, transactionManager, new DocumentNumberGenerator(1),
+                mock(ApplicationEventPublisher.class), catalogVersions, meterRegistry, true, 0, 256, 0, grantTimeout, 3);
+    }
+
+    private int reservedInDb() {
+        return jdbcTemplate.queryForObject("SELECT qty_reserved FROM inventory WHERE id = 1", Integer.class);
+    }
+
+    private int grantsInDb() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_reservation_grants", Integer.class);
+    }
+}
@@ -0,0 +1,196 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.entity.ReservationHold;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.entity.SoLine;
+import com.logistic.digitale_logistic.enums.BackorderStatus;
+import com.logistic.digitale_logistic.event.InventoryChangedEvent;
+import com.logistic.digitale_logistic.event.ReservationHeldEvent;
+import com.logistic.digitale_logistic.repository.BackorderRepository;
+import com.logistic.digitale_logistic.repository.ReservationHoldJdbcRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationHoldServiceTest {
+
+    @Mock
+    private ReservationHoldJdbcRepository holdRepository;
+
+    @Mock
+    private SalesOrderRepository salesOrderRepository;
+
+    @Mock
+    private BackorderRepository backorderRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReservationHoldService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReservationHoldService(holdRepository, salesOrderRepository, backorderRepository,
+                eventPublisher, transactionManager, true, Duration.ofHours(1), 10, 500);
+    }
+
+    @Test
+    void testFirstHoldStartsTheTtl() {
+        SalesOrder order = new SalesOrder();
+        order.setId(1L);
+        List<StockDelta> holds = List.of(new StockDelta(10L, 20L, 3));
+
+        service.recordHolds(order, holds);
+
+        verify(holdRepository).insertHolds(1L, holds);
+        assertNotNull(order.getReservationExpiresAt());
+        assertTrue(order.getReservationExpiresAt().isAfter(LocalDateTime.now().plusMinutes(59)));
+        verify(eventPublisher).publishEvent(any(ReservationHeldEvent.class));
+    }
+
+    @Test
+    void testLaterHoldsKeepTheOrderExpiry() {
+        SalesOrder order = new SalesOrder();
+        order.setId(1L);
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(5);
+        order.setReservationExpiresAt(expiresAt);
+
+        service.recordHolds(order, List.of(new StockDelta(10L, 20L, 2)));
+
+        assertEquals(expiresAt, order.getReservationExpiresAt());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testExpiredOrdersAreReleasedInOneBatch() throws InterruptedException {
+        SoLine line = new SoLine();
+        line.setReservedQuantity(5);
+        SalesOrder order = new SalesOrder();
+        order.setId(1L);
+        order.setStatus("RESERVED");
+        order.setReservationExpiresAt(LocalDateTime.now().minusSeconds(1));
+        order.setLines(List.of(line));
+
+        when(holdRepository.lockExpiredReservations(eq(List.of(1L, 2L)), any())).thenReturn(List.of(1L));
+        when(salesOrderRepository.findExpiredReservations(eq(List.of(1L)), any())).thenReturn(List.of(order));
+        when(holdRepository.findBySalesOrderIds(List.of(1L))).thenReturn(List.of(
+                new ReservationHold(1L, 1L, 10L, 20L, 3, null),
+                new ReservationHold(2L, 1L, 10L, 20L, 2, null)));
+
+        service.onReservationHeld(new ReservationHeldEvent(1L, LocalDateTime.now()));
+        service.onReservationHeld(new ReservationHeldEvent(2L, LocalDateTime.now()));
+        assertEquals(2, service.scheduledCount());
+        Thread.sleep(30);
+
+        int released = service.releaseExpired();
+
+        assertEquals(1, released);
+        assertEquals(0, service.scheduledCount());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<StockDelta>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(holdRepository).releaseReserved(captor.capture());
+        List<StockDelta> releases = new ArrayList<>(captor.getValue());
+        assertEquals(1, releases.size());
+        assertEquals(5, releases.get(0).getQuantity());
+
+        verify(holdRepository).deleteBySalesOrderIds(List.of(1L));
+        verify(backorderRepository).updateStatusForSalesOrders(eq(List.of(1L)), anyCollection(), eq(BackorderStatus.CANCELLED));
+        verify(eventPublisher).publishEvent(any(InventoryChangedEvent.class));
+        assertEquals("CREATED", order.getStatus());
+        assertNull(order.getReservationExpiresAt());
+        assertEquals(0, line.getReservedQuantity());
+    }
+
+    @Test
+    void testShipmentTakingTheHoldsFirstLeavesNothingToRelease() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000", "sa", "");
+        DataSourceTransactionManager jdbcTransactions = new DataSourceTransactionManager(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE sales_orders (id BIGINT PRIMARY KEY, status VARCHAR(20), " +
+                "reservation_expires_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE reservation_holds (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "sales_order_id BIGINT, product_id BIGINT, warehouse_id BIGINT, quantity INT, created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE inventory (product_id BIGINT, warehouse_id BIGINT, qty_reserved INT, " +
+                "updated_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO sales_orders VALUES (1, 'RESERVED', ?)",
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(1)));
+        jdbcTemplate.update("INSERT INTO inventory VALUES (10, 20, 5, NULL)");
+        ReservationHoldJdbcRepository holds = new ReservationHoldJdbcRepository(new NamedParameterJdbcTemplate(dataSource));
+        holds.insertHolds(1L, List.of(new StockDelta(10L, 20L, 5)));
+        ReservationHoldService expiry = new ReservationHoldService(holds, salesOrderRepository, backorderRepository,
+                eventPublisher, jdbcTransactions, true, Duration.ofHours(1), 10, 500);
+        expiry.onReservationHeld(new ReservationHeldEvent(1L, LocalDateTime.now()));
+        Thread.sleep(30);
+
+        // The shipment consumes the holds and is still open when the expiry pass runs
+        SalesOrder order = new SalesOrder();
+        order.setId(1L);
+        CountDownLatch consumed = new CountDownLatch(1);
+        CountDownLatch releaseStarted = new CountDownLatch(1);
+        ExecutorService shipment = Executors.newSingleThreadExecutor();
+        Future<?> shipped = shipment.submit(() -> new TransactionTemplate(jdbcTransactions).executeWithoutResult(status -> {
+            expiry.consumeHolds(order);
+            consumed.countDown();
+            try {
+                releaseStarted.await();
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(consumed.await(5, TimeUnit.SECONDS));
+        releaseStarted.countDown();
+
+        assertEquals(0, expiry.releaseExpired());
+        shipped.get(5, TimeUnit.SECONDS);
+        shipment.shutdown();
+
+        // The shipment still owns the reserved stock and the order is not put back to CREATED
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT qty_reserved FROM inventory", Integer.class));
+        assertEquals("RESERVED", jdbcTemplate.queryForObject("SELECT status FROM sales_orders", String.class));
+        verifyNoInteractions(salesOrderRepository, backorderRepository);
+
+        // And a release that got there first makes the shipment fail instead
+        jdbcTemplate.update("UPDATE sales_orders SET status = 'CREATED'");
+        assertThrows(IllegalStateException.class, () -> expiry.consumeHolds(order));
+    }
+
+    @Test
+    void testNothingDueDoesNotTouchTheDatabase() {
+        service.onReservationHeld(new ReservationHeldEvent(1L, LocalDateTime.now().plusHours(1)));
+
+        assertEquals(0, service.releaseExpired());
+        verifyNoInteractions(salesOrderRepository, holdRepository);
+    }
+}
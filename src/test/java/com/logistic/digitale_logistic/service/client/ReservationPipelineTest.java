@@ -0,0 +1,125 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.ReservationResultDTO;
+import com.logistic.digitale_logistic.entity.SalesOrder;
+import com.logistic.digitale_logistic.event.ReservationCompletedEvent;
+import com.logistic.digitale_logistic.exceptions.IntakeOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationPipelineTest {
+
+    @Mock
+    private InventoryReservationService inventoryReservationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // One worker, one queued order: two places
+        pipeline = new ReservationPipeline(inventoryReservationService, eventPublisher, meterRegistry,
+                true, 1, 1, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void testQueuedReservationRunsAndPublishesItsResult() {
+        ReservationResultDTO reserved = ReservationResultDTO.builder().salesOrderId(1L).status("RESERVED").build();
+        when(inventoryReservationService.processOrderReservation(1L)).thenReturn(reserved);
+
+        ReservationResultDTO pending = pipeline.admit().queue(order(1L));
+
+        assertEquals(ReservationPipeline.PENDING, pending.getStatus());
+        verify(eventPublisher, timeout(5_000)).publishEvent(any(ReservationCompletedEvent.class));
+        assertEquals("RESERVED", pipeline.result(1L).orElseThrow().getStatus());
+        assertEquals(1, meterRegistry.get("order.intake.lag").timer().count());
+    }
+
+    @Test
+    void testFullPipelineRefusesNewOrders() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(inventoryReservationService.processOrderReservation(any())).thenAnswer(i -> {
+            running.countDown();
+            release.await();
+            return ReservationResultDTO.builder().status("RESERVED").build();
+        });
+
+        pipeline.admit().queue(order(1L));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        pipeline.admit().queue(order(2L));
+        assertEquals(1.0, meterRegistry.get("order.intake.queue.depth").gauge().value());
+
+        assertThrows(IntakeOverloadedException.class, () -> pipeline.admit());
+        assertEquals(1.0, meterRegistry.get("order.intake.rejected").counter().count());
+
+        release.countDown();
+        verify(eventPublisher, timeout(5_000).times(2)).publishEvent(any(ReservationCompletedEvent.class));
+        assertNotNull(pipeline.admit());
+    }
+
+    @Test
+    void testPlaceIsGivenBackWhenTheOrderRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            pipeline.admit();
+            pipeline.admit().queue(order(1L));
+            assertThrows(IntakeOverloadedException.class, () -> pipeline.admit());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(pipeline.result(1L).isEmpty());
+        assertNotNull(pipeline.admit());
+        assertNotNull(pipeline.admit());
+        verifyNoInteractions(inventoryReservationService);
+    }
+
+    @Test
+    void testFailedReservationIsReportedAndOrderStaysCreated() {
+        when(inventoryReservationService.processOrderReservation(1L)).thenThrow(new IllegalStateException("boom"));
+
+        pipeline.admit().queue(order(1L));
+
+        verify(eventPublisher, timeout(5_000)).publishEvent(any(ReservationCompletedEvent.class));
+        ReservationResultDTO result = pipeline.result(1L).orElseThrow();
+        assertEquals("CREATED", result.getStatus());
+        assertTrue(result.getMessage().contains("boom"));
+        assertEquals(1.0, meterRegistry.get("order.intake.failed").counter().count());
+    }
+
+    private static SalesOrder order(Long id) {
+        SalesOrder order = new SalesOrder();
+        order.setId(id);
+        order.setOrderNumber("SO-" + id);
+        return order;
+    }
+}
@@ -0,0 +1,187 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.dto.ProductPrice;
+import com.logistic.digitale_logistic.dto.SalesOrderImportDTO;
+import com.logistic.digitale_logistic.enums.ImportFormat;
+import com.logistic.digitale_logistic.enums.ImportReservationMode;
+import com.logistic.digitale_logistic.repository.ClientRepository;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderImportJdbcRepository;
+import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Import throughput: the bulk import (chunked, JDBC batches) vs. the statement pattern of the
+ * single-order API (one transaction per order, lookups by id, one INSERT per row), both on H2
+ * without reservation. The single-order side leaves out HTTP, JSON and Hibernate, so it is the
+ * best case for that path; over a network every saved round trip counts for much more.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class SalesOrderImportBenchmark {
+
+    private static final int ORDERS = 5_000;
+    private static final int LINES = 3;
+    private static final int PRODUCTS = 500;
+
+    @Test
+    void compareBulkImportWithSingleOrders() throws Exception {
+        String body = body();
+        System.out.printf("%-14s %10s %10s %14s%n", "path", "orders", "ms", "orders/s");
+
+        // Warm-up
+        bulk(new Database(), body);
+        single(new Database(), body);
+
+        Database bulkDb = new Database();
+        long bulkMs = bulk(bulkDb, body);
+        print("bulk import", bulkMs);
+        assertEquals(ORDERS, bulkDb.count("sales_orders"));
+        assertEquals(ORDERS * LINES, bulkDb.count("sales_order_lines"));
+
+        Database singleDb = new Database();
+        long singleMs = single(singleDb, body);
+        print("single orders", singleMs);
+        assertEquals(ORDERS * LINES, singleDb.count("sales_order_lines"));
+    }
+
+    private long bulk(Database db, String body) throws Exception {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllPrices()).thenReturn(LongStream.rangeClosed(1, PRODUCTS)
+                .mapToObj(id -> new ProductPrice(id, BigDecimal.TEN, true))
+                .toList());
+        ClientRepository clientRepository = mock(ClientRepository.class);
+        when(clientRepository.findAllIds()).thenReturn(List.of(1L, 2L, 3L));
+        WareHouseRepository warehouseRepository = mock(WareHouseRepository.class);
+        when(warehouseRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+
+        CreditExposureService creditExposureService = mock(CreditExposureService.class);
+        when(creditExposureService.admitAll(any())).thenReturn(new BitSet());
+        SalesOrderImportService service = new SalesOrderImportService(productRepository, clientRepository, warehouseRepository,
+                new SalesOrderImportJdbcRepository(new NamedParameterJdbcTemplate(db.dataSource)),
+                mock(InventoryReservationService.class), mock(BatchAllocationService.class), new DocumentNumberGenerator(1), creditExposureService, new ObjectMapper(),
+                mock(ApplicationEventPublisher.class),
+                new DataSourceTransactionManager(db.dataSource), 500);
+
+        long start = System.nanoTime();
+        service.importOrders(new StringReader(body), ImportFormat.NDJSON, ImportReservationMode.NONE, Writer.nullWriter());
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * What createSalesOrder sends to the database for each order
+     */
+    private long single(Database db, String body) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(db.dataSource));
+        JdbcTemplate jdbc = db.jdbcTemplate;
+
+        long start = System.nanoTime();
+        for (String line : body.split("\n")) {
+            SalesOrderImportDTO order = objectMapper.readValue(line, SalesOrderImportDTO.class);
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbc.queryForObject("SELECT user_id FROM clients WHERE user_id = ?", Long.class, order.getClientId());
+                jdbc.queryForObject("SELECT id FROM warehouses WHERE id = ?", Long.class, order.getWarehouseId());
+                order.getLines().forEach(l ->
+                        jdbc.queryForObject("SELECT selling_price FROM products WHERE id = ?", BigDecimal.class, l.getProductId()));
+
+                GeneratedKeyHolder key = new GeneratedKeyHolder();
+                jdbc.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            "INSERT INTO sales_orders (order_number, client_id, warehouse_id, status, order_date, total_amount, updated_at) " +
+                                    "VALUES (?, ?, ?, 'CREATED', ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                    ps.setString(1, UUID.randomUUID().toString());
+                    ps.setLong(2, order.getClientId());
+                    ps.setLong(3, order.getWarehouseId());
+                    ps.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                    ps.setBigDecimal(5, BigDecimal.TEN);
+                    ps.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
+                    return ps;
+                }, key);
+                long id = key.getKey().longValue();
+                order.getLines().forEach(l -> jdbc.update(
+                        "INSERT INTO sales_order_lines (sales_order_id, product_id, ordered_quantity, reserved_quantity, unit_price) " +
+                                "VALUES (?, ?, ?, 0, ?)", id, l.getProductId(), l.getQuantity(), BigDecimal.TEN));
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static void print(String path, long ms) {
+        System.out.printf("%-14s %10d %10d %14.0f%n", path, ORDERS, ms, ORDERS * 1000.0 / Math.max(1, ms));
+    }
+
+    private static String body() {
+        Random random = new Random(11);
+        StringWriter body = new StringWriter();
+        for (int i = 0; i < ORDERS; i++) {
+            body.append("{\"ref\":\"R").append(String.valueOf(i))
+                    .append("\",\"clientId\":").append(String.valueOf(1 + random.nextInt(3)))
+                    .append(",\"warehouseId\":").append(String.valueOf(1 + random.nextInt(2)))
+                    .append(",\"lines\":[");
+            for (int l = 0; l < LINES; l++) {
+                body.append(l > 0 ? "," : "")
+                        .append("{\"productId\":").append(String.valueOf(1 + random.nextInt(PRODUCTS)))
+                        .append(",\"quantity\":").append(String.valueOf(1 + random.nextInt(10))).append("}");
+            }
+            body.append("]}\n");
+        }
+        return body.toString();
+    }
+
+    private static class Database {
+
+        final SingleConnectionDataSource dataSource;
+        final JdbcTemplate jdbcTemplate;
+
+        Database() {
+            dataSource = new SingleConnectionDataSource("jdbc:h2:mem:" + UUID.randomUUID(), "sa", "", true);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE clients (user_id BIGINT PRIMARY KEY)");
+            jdbcTemplate.execute("CREATE TABLE warehouses (id BIGINT PRIMARY KEY)");
+            jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, selling_price DECIMAL(10,2))");
+            jdbcTemplate.execute("INSERT INTO clients VALUES (1), (2), (3)");
+            jdbcTemplate.execute("INSERT INTO warehouses VALUES (1), (2)");
+            jdbcTemplate.execute("INSERT INTO products SELECT x, 10 FROM SYSTEM_RANGE(1, " + PRODUCTS + ")");
+            jdbcTemplate.execute("CREATE TABLE sales_orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "order_number VARCHAR(100) NOT NULL UNIQUE, client_id BIGINT NOT NULL, warehouse_id BIGINT NOT NULL, " +
+                    "status VARCHAR(50) NOT NULL, order_date TIMESTAMP, total_amount DECIMAL(10,2), updated_at TIMESTAMP)");
+            jdbcTemplate.execute("CREATE TABLE sales_order_lines (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "sales_order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, ordered_quantity INT NOT NULL, " +
+                    "reserved_quantity INT NOT NULL, unit_price DECIMAL(10,2) NOT NULL)");
+        }
+
+        int count(String table) {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logistic.digitale_logistic.dto.BatchAllocationResultDTO;
+import com.logistic.digitale_logistic.dto.ProductPrice;
+import com.logistic.digitale_logistic.dto.ReservationResultDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderImportResultDTO;
+import com.logistic.digitale_logistic.enums.AllocationObjective;
+import com.logistic.digitale_logistic.enums.ImportFormat;
+import com.logistic.digitale_logistic.enums.ImportReservationMode;
+import com.logistic.digitale_logistic.repository.ClientRepository;
+import com.logistic.digitale_logistic.repository.CreditExposureJdbcRepository;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderImportJdbcRepository;
+import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SalesOrderImportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+    private InventoryReservationService inventoryReservationService;
+    private BatchAllocationService batchAllocationService;
+    private SalesOrderImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE sales_orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "order_number VARCHAR(100) NOT NULL UNIQUE, client_id BIGINT NOT NULL, warehouse_id BIGINT NOT NULL, " +
+                "status VARCHAR(50) NOT NULL, order_date TIMESTAMP, total_amount DECIMAL(10,2), updated_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE sales_order_lines (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "sales_order_id BIGINT NOT NULL, product_id BIGINT NOT NULL, ordered_quantity INT NOT NULL, " +
+                "reserved_quantity INT NOT NULL, unit_price DECIMAL(10,2) NOT NULL, " +
+                "line_total DECIMAL(10,2) GENERATED ALWAYS AS (ordered_quantity * unit_price))");
+        jdbcTemplate.execute("CREATE TABLE clients (user_id BIGINT PRIMARY KEY, credit_limit DECIMAL(10,2))");
+        jdbcTemplate.execute("INSERT INTO clients VALUES (1, 0), (2, 0)");
+        jdbcTemplate.execute("CREATE TABLE client_credit_exposure (client_id BIGINT PRIMARY KEY, " +
+                "open_amount DECIMAL(14,2) NOT NULL, updated_at TIMESTAMP)");
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllPrices()).thenReturn(List.of(
+                new ProductPrice(10L, new BigDecimal("100.00"), true),
+                new ProductPrice(20L, new BigDecimal("5.50"), true),
+                new ProductPrice(30L, new BigDecimal("9.00"), false)));
+        ClientRepository clientRepository = mock(ClientRepository.class);
+        when(clientRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        WareHouseRepository warehouseRepository = mock(WareHouseRepository.class);
+        when(warehouseRepository.findAllIds()).thenReturn(List.of(7L));
+
+        inventoryReservationService = mock(InventoryReservationService.class);
+        batchAllocationService = mock(BatchAllocationService.class);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        CreditExposureService creditExposureService = new CreditExposureService(
+                new CreditExposureJdbcRepository(new NamedParameterJdbcTemplate(dataSource)), transactionManager, true);
+        importService = new SalesOrderImportService(productRepository, clientRepository, warehouseRepository,
+                new SalesOrderImportJdbcRepository(new NamedParameterJdbcTemplate(dataSource)),
+                inventoryReservationService, batchAllocationService, new DocumentNumberGenerator(1),
+                creditExposureService, objectMapper, mock(ApplicationEventPublisher.class), transactionManager, 2);
+    }
+
+    @Test
+    void testNdjsonImportWritesOrdersAndLinesAndReportsRejections() throws IOException {
+        String body = """
+                {"ref":"A","clientId":1,"warehouseId":7,"lines":[{"productId":10,"quantity":2},{"productId":20,"quantity":4}]}
+                {"ref":"B","clientId":9,"warehouseId":7,"lines":[{"productId":10,"quantity":1}]}
+
+                {"ref":"C","clientId":2,"warehouseId":7,"lines":[{"productId":30,"quantity":1}]}
+                not json
+                {"ref":"D","clientId":2,"warehouseId":7,"lines":[{"productId":20,"quantity":1}]}
+                """;
+
+        List<SalesOrderImportResultDTO> report = run(body, ImportFormat.NDJSON, ImportReservationMode.NONE);
+
+        assertEquals(List.of("CREATED", "REJECTED", "REJECTED", "REJECTED", "CREATED"),
+                report.stream().map(SalesOrderImportResultDTO::getStatus).toList());
+        assertEquals(List.of(1, 2, 3, 4, 5), report.stream().map(SalesOrderImportResultDTO::getRecord).toList());
+        assertEquals("Client not found with ID: 9", report.get(1).getMessage());
+        assertEquals("Product is not active: 30", report.get(2).getMessage());
+        assertTrue(report.get(3).getMessage().startsWith("Invalid JSON"));
+
+        assertEquals(2, count("sales_orders"));
+        assertEquals(3, count("sales_order_lines"));
+        assertEquals(0, new BigDecimal("222.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT total_amount FROM sales_orders WHERE id = ?", BigDecimal.class, report.get(0).getSalesOrderId())));
+        assertNotEquals(report.get(0).getOrderNumber(), report.get(4).getOrderNumber());
+        verifyNoInteractions(inventoryReservationService, batchAllocationService);
+    }
+
+    @Test
+    void testCsvRowsWithTheSameRefFormOneOrder() throws IOException {
+        String body = """
+                ref,client_id,warehouse_id,product_id,quantity
+                A,1,7,10,1
+                A,1,7,20,3
+                B,2,7,20,x
+                C,2,7,10,5
+                """;
+
+        List<SalesOrderImportResultDTO> report = run(body, ImportFormat.CSV, ImportReservationMode.NONE);
+
+        assertEquals(List.of("A", "B", "C"), report.stream().map(SalesOrderImportResultDTO::getRef).toList());
+        assertEquals(List.of("CREATED", "REJECTED", "CREATED"),
+                report.stream().map(SalesOrderImportResultDTO::getStatus).toList());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM sales_order_lines WHERE sales_order_id = ?", Integer.class, report.get(0).getSalesOrderId()));
+    }
+
+    @Test
+    void testCsvWithoutTheRequiredHeaderIsRejected() throws IOException {
+        List<SalesOrderImportResultDTO> report = run("A,1,7,10,1\n", ImportFormat.CSV, ImportReservationMode.NONE);
+
+        assertEquals(1, report.size());
+        assertEquals("REJECTED", report.get(0).getStatus());
+        assertEquals(0, count("sales_orders"));
+    }
+
+    @Test
+    void testPerOrderReservation() throws IOException {
+        when(inventoryReservationService.processOrderReservation(anyLong())).thenAnswer(invocation ->
+                ReservationResultDTO.builder()
+                        .salesOrderId(invocation.getArgument(0))
+                        .status("RESERVED")
+                        .fullyReserved(true)
+                        .build());
+
+        List<SalesOrderImportResultDTO> report = run(ndjson(3), ImportFormat.NDJSON, ImportReservationMode.PER_ORDER);
+
+        assertTrue(report.stream().allMatch(result -> "RESERVED".equals(result.getStatus()) && result.isFullyReserved()));
+        verify(inventoryReservationService, times(3)).processOrderReservation(anyLong());
+        verifyNoInteractions(batchAllocationService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchReservationRunsOncePerChunk() throws IOException {
+        when(batchAllocationService.allocateOrders(any(), eq(AllocationObjective.FILL_RATE))).thenAnswer(invocation ->
+                BatchAllocationResultDTO.builder()
+                        .results(((Collection<Long>) invocation.getArgument(0)).stream()
+                                .map(id -> ReservationResultDTO.builder().salesOrderId(id).status("RESERVED").fullyReserved(true).build())
+                                .toList())
+                        .build());
+
+        List<SalesOrderImportResultDTO> report = run(ndjson(3), ImportFormat.NDJSON, ImportReservationMode.BATCH);
+
+        assertTrue(report.stream().allMatch(result -> "RESERVED".equals(result.getStatus())));
+        // Chunk size 2: two runs for three orders
+        verify(batchAllocationService, times(2)).allocateOrders(any(), eq(AllocationObjective.FILL_RATE));
+        verifyNoInteractions(inventoryReservationService);
+    }
+
+    @Test
+    void testFailedReservationLeavesTheOrderCreated() throws IOException {
+        when(inventoryReservationService.processOrderReservation(anyLong())).thenThrow(new IllegalStateException("boom"));
+
+        List<SalesOrderImportResultDTO> report = run(ndjson(1), ImportFormat.NDJSON, ImportReservationMode.PER_ORDER);
+
+        assertEquals("CREATED", report.get(0).getStatus());
+        assertEquals("Reservation failed: boom", report.get(0).getMessage());
+        assertEquals(1, count("sales_orders"));
+    }
+
+    @Test
+    void testOrdersOverTheCreditLimitAreRejected() throws IOException {
+        jdbcTemplate.update("UPDATE clients SET credit_limit = 150 WHERE user_id = 1");
+
+        List<SalesOrderImportResultDTO> report = run(ndjson(3), ImportFormat.NDJSON, ImportReservationMode.NONE);
+
+        assertEquals(List.of("CREATED", "REJECTED", "REJECTED"),
+                report.stream().map(SalesOrderImportResultDTO::getStatus).toList());
+        assertEquals("Credit limit exceeded for client 1", report.get(1).getMessage());
+        assertEquals(1, count("sales_orders"));
+        assertEquals(0, new BigDecimal("100.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT open_amount FROM client_credit_exposure WHERE client_id = 1", BigDecimal.class)));
+    }
+
+    private List<SalesOrderImportResultDTO> run(String body, ImportFormat format, ImportReservationMode mode) throws IOException {
+        StringWriter report = new StringWriter();
+        importService.importOrders(new StringReader(body), format, mode, report);
+        return Arrays.stream(report.toString().split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, SalesOrderImportResultDTO.class);
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private static String ndjson(int orders) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 1; i <= orders; i++) {
+            body.append("{\"ref\":\"R").append(i)
+                    .append("\",\"clientId\":1,\"warehouseId\":7,\"lines\":[{\"productId\":10,\"quantity\":1}]}\n");
+        }
+        return body.toString();
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
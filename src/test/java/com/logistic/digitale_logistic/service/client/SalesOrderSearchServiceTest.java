@@ -0,0 +1,189 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.SalesOrderDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderPageDTO;
+import com.logistic.digitale_logistic.dto.SalesOrderSearchCriteria;
+import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.enums.Role;
+import com.logistic.digitale_logistic.exceptions.InvalidCursorException;
+import com.logistic.digitale_logistic.mapper.SalesOrderMapper;
+import com.logistic.digitale_logistic.mapper.SoLineMapper;
+import com.logistic.digitale_logistic.repository.SalesOrderRepository;
+import com.logistic.digitale_logistic.repository.SalesOrderSearchRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the search on Hibernate with H2
+ */
+class SalesOrderSearchServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private SalesOrderSearchService searchService;
+    private Client alice;
+    private Client bob;
+    private Warehouse north;
+    private Warehouse south;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = H2SessionFactory.create();
+        entityManager = sessionFactory.createEntityManager();
+        searchService = new SalesOrderSearchService(new SalesOrderSearchRepository(entityManager),
+                new JpaRepositoryFactory(entityManager).getRepository(SalesOrderRepository.class),
+                new SalesOrderMapper(new SoLineMapper()));
+
+        entityManager.getTransaction().begin();
+        alice = client("alice");
+        bob = client("bob");
+        north = warehouse("North");
+        south = warehouse("South");
+        product = new Product();
+        product.setSku("SKU-1");
+        product.setName("Pallet");
+        product.setSellingPrice(new BigDecimal("10.00"));
+        entityManager.persist(product);
+        // 30 orders an hour apart; every third one RESERVED, every other one in South, Bob every fifth
+        for (int i = 0; i < 30; i++) {
+            order(i, i % 5 == 0 ? bob : alice, i % 2 == 0 ? north : south, i % 3 == 0 ? "RESERVED" : "CREATED",
+                    START.plusHours(i));
+        }
+        // Same instant as order 29: the id decides
+        order(30, alice, north, "CREATED", START.plusHours(29));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Test
+    void testPagesCoverEveryOrderOnceNewestFirst() {
+        List<SalesOrderDTO> all = readAll(new SalesOrderSearchCriteria(), 7);
+
+        assertEquals(31, all.size());
+        assertEquals("SO-30", all.get(0).getOrderNumber());
+        assertEquals("SO-29", all.get(1).getOrderNumber());
+        assertEquals("SO-0", all.get(30).getOrderNumber());
+        assertEquals(31, all.stream().map(SalesOrderDTO::getId).distinct().count());
+        SalesOrderDTO first = all.get(0);
+        assertEquals("alice", first.getClientName());
+        assertEquals("North", first.getWarehouseName());
+        assertEquals(1, first.getLines().size());
+        assertEquals("Pallet", first.getLines().get(0).getProductName());
+    }
+
+    @Test
+    void testFiltersCombine() {
+        SalesOrderSearchCriteria criteria = SalesOrderSearchCriteria.builder()
+                .status("CREATED")
+                .warehouseId(south.getId())
+                .clientId(alice.getUserId())
+                .from(START.plusHours(10))
+                .to(START.plusHours(20))
+                .build();
+
+        List<SalesOrderDTO> found = readAll(criteria, 2);
+
+        // Odd hours 11-19, not multiples of 3 or 5
+        assertEquals(List.of("SO-19", "SO-17", "SO-13", "SO-11"),
+                found.stream().map(SalesOrderDTO::getOrderNumber).toList());
+    }
+
+    @Test
+    void testTotalOnlyWhenRequested() {
+        SalesOrderSearchCriteria reserved = SalesOrderSearchCriteria.builder().status("RESERVED").build();
+
+        assertNull(searchService.search(reserved, null, 3, false).getTotal());
+        assertEquals(10L, searchService.search(reserved, null, 3, true).getTotal());
+    }
+
+    @Test
+    void testDeepPagesTakeTheSameStatementsAsTheFirst() {
+        Statistics statistics = sessionFactory.getStatistics();
+        SalesOrderPageDTO page = null;
+        List<Long> statements = new ArrayList<>();
+        do {
+            entityManager.clear();
+            long before = statistics.getPrepareStatementCount();
+            page = searchService.search(new SalesOrderSearchCriteria(), page != null ? page.getNextCursor() : null, 5, false);
+            statements.add(statistics.getPrepareStatementCount() - before);
+        } while (page.getNextCursor() != null);
+
+        assertEquals(7, statements.size());
+        assertTrue(statements.stream().allMatch(count -> count == 2), statements.toString());
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(InvalidCursorException.class,
+                () -> searchService.search(new SalesOrderSearchCriteria(), "not-a-cursor", 5, false));
+    }
+
+    private List<SalesOrderDTO> readAll(SalesOrderSearchCriteria criteria, int size) {
+        List<SalesOrderDTO> all = new ArrayList<>();
+        String cursor = null;
+        do {
+            SalesOrderPageDTO page = searchService.search(criteria, cursor, size, false);
+            assertTrue(page.getItems().size() <= size);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return all;
+    }
+
+    private Client client(String name) {
+        User user = new User();
+        user.setEmail(name + "@test.com");
+        user.setPassword("secret");
+        user.setName(name);
+        user.setRole(Role.CLIENT);
+        entityManager.persist(user);
+        Client client = new Client();
+        client.setUser(user);
+        entityManager.persist(client);
+        return client;
+    }
+
+    private Warehouse warehouse(String name) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setName(name);
+        entityManager.persist(warehouse);
+        return warehouse;
+    }
+
+    private void order(int number, Client client, Warehouse warehouse, String status, LocalDateTime orderDate) {
+        SalesOrder order = new SalesOrder();
+        order.setOrderNumber("SO-" + number);
+        order.setClient(client);
+        order.setWarehouse(warehouse);
+        order.setStatus(status);
+        order.setOrderDate(orderDate);
+        SoLine line = new SoLine();
+        line.setSalesOrder(order);
+        line.setProduct(product);
+        line.setOrderedQuantity(1);
+        line.setUnitPrice(product.getSellingPrice());
+        order.getLines().add(line);
+        entityManager.persist(order);
+    }
+}
@@ -1,19 +1,23 @@
 package com.logistic.digitale_logistic.service.client;
 
+import com.logistic.digitale_logistic.dto.ProductReference;
 import com.logistic.digitale_logistic.dto.ReservationResultDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderDTO;
 import com.logistic.digitale_logistic.dto.SalesOrderWithReservationDTO;
 import com.logistic.digitale_logistic.dto.SoLineDTO;
 import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.exceptions.CreditLimitExceededException;
 import com.logistic.digitale_logistic.mapper.SalesOrderMapper;
 import com.logistic.digitale_logistic.repository.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
@@ -40,6 +44,21 @@ class SalesOrderServiceTest {
     @Mock
     private InventoryReservationService inventoryReservationService;
 
+    @Mock
+    private ReservationPipeline reservationPipeline;
+
+    @Spy
+    private DocumentNumberGenerator documentNumberGenerator = new DocumentNumberGenerator(1);
+
+    @Mock
+    private ProductReferenceCache productReferenceCache;
+
+    @Mock
+    private CreditExposureService creditExposureService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SalesOrderService salesOrderService;
 
@@ -85,7 +104,8 @@ class SalesOrderServiceTest {
         // ------------------------------
         when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
         when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(productRepository.findById(10L)).thenReturn(Optional.of(product));
+        when(productReferenceCache.getAll(List.of(10L))).thenReturn(Map.of(10L, reference(product)));
+        when(productRepository.getReferenceById(10L)).thenReturn(product);
 
         when(salesOrderRepository.save(any(SalesOrder.class)))
                 .thenReturn(savedOrder);
@@ -133,5 +153,88 @@ class SalesOrderServiceTest {
 
         // Ensure reservation service was called
         assertEquals("OK", result.getReservationResult().getMessage());
+
+        verify(creditExposureService).admit(1L, new BigDecimal("200"));
+    }
+
+    @Test
+    void testCreateSalesOrder_OverCreditLimitIsNotSaved() {
+        SalesOrderDTO dto = new SalesOrderDTO();
+        dto.setClientId(1L);
+        dto.setWarehouseId(1L);
+        SoLineDTO lineDTO = new SoLineDTO();
+        lineDTO.setProductId(10L);
+        lineDTO.setQuantity(2);
+        dto.setLines(List.of(lineDTO));
+
+        Client client = new Client();
+        client.setUserId(1L);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1L);
+        Product product = new Product();
+        product.setId(10L);
+        product.setActive(true);
+        product.setSellingPrice(new BigDecimal("100"));
+
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
+        when(productReferenceCache.getAll(List.of(10L))).thenReturn(Map.of(10L, reference(product)));
+        when(productRepository.getReferenceById(10L)).thenReturn(product);
+        doThrow(new CreditLimitExceededException("Credit limit exceeded for client 1"))
+                .when(creditExposureService).admit(1L, new BigDecimal("200"));
+
+        assertThrows(CreditLimitExceededException.class, () -> salesOrderService.createSalesOrder(dto));
+        verify(salesOrderRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateSalesOrder_AsyncIntakeQueuesReservation() {
+
+        SalesOrderDTO dto = new SalesOrderDTO();
+        dto.setClientId(1L);
+        dto.setWarehouseId(1L);
+        SoLineDTO lineDTO = new SoLineDTO();
+        lineDTO.setProductId(10L);
+        lineDTO.setQuantity(2);
+        dto.setLines(List.of(lineDTO));
+
+        Client client = new Client();
+        client.setUserId(1L);
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1L);
+        Product product = new Product();
+        product.setId(10L);
+        product.setActive(true);
+        product.setSellingPrice(new BigDecimal("100"));
+
+        SalesOrder savedOrder = new SalesOrder();
+        savedOrder.setId(50L);
+        savedOrder.setOrderNumber("SO-123456");
+
+        ReservationPipeline.Admission admission = mock(ReservationPipeline.Admission.class);
+        ReservationResultDTO pending = ReservationResultDTO.builder()
+                .salesOrderId(50L)
+                .status(ReservationPipeline.PENDING)
+                .build();
+
+        when(reservationPipeline.isEnabled()).thenReturn(true);
+        when(reservationPipeline.admit()).thenReturn(admission);
+        when(admission.queue(savedOrder)).thenReturn(pending);
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
+        when(productReferenceCache.getAll(List.of(10L))).thenReturn(Map.of(10L, reference(product)));
+        when(productRepository.getReferenceById(10L)).thenReturn(product);
+        when(salesOrderRepository.save(any(SalesOrder.class))).thenReturn(savedOrder);
+        when(salesOrderMapper.toDTO(savedOrder)).thenReturn(new SalesOrderDTO());
+
+        SalesOrderWithReservationDTO result = salesOrderService.createSalesOrder(dto);
+
+        assertEquals(ReservationPipeline.PENDING, result.getReservationResult().getStatus());
+        verifyNoInteractions(inventoryReservationService);
+    }
+
+    private static ProductReference reference(Product product) {
+        return new ProductReference(product.getId(), product.getSku(), product.getName(),
+                product.getSellingPrice(), product.getActive());
     }
 }
@@ -0,0 +1,245 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.config.LocalRegionFactory;
+import com.logistic.digitale_logistic.config.LocalRegionStorage;
+import com.logistic.digitale_logistic.dto.ProductDTO;
+import com.logistic.digitale_logistic.dto.SupplierDTO;
+import com.logistic.digitale_logistic.dto.WareHouseDTO;
+import com.logistic.digitale_logistic.entity.*;
+import com.logistic.digitale_logistic.enums.Role;
+import com.logistic.digitale_logistic.mapper.ProductMapperImpl;
+import com.logistic.digitale_logistic.mapper.SupplierMapperImpl;
+import com.logistic.digitale_logistic.mapper.wareHouseMapperImpl;
+import com.logistic.digitale_logistic.repository.*;
+import com.logistic.digitale_logistic.service.Admin.ProductService;
+import com.logistic.digitale_logistic.service.Admin.SupplierService;
+import com.logistic.digitale_logistic.service.Admin.wareHouseService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the second-level cache on Hibernate with H2: reference entities read again in a later
+ * session cost no statement, and writes through the admin services are what the next session sees
+ */
+class SecondLevelCacheTest {
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private Long productId;
+    private Long warehouseId;
+    private Long supplierId;
+    private Long clientId;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = H2SessionFactory.create(Map.of(
+                "hibernate.cache.use_second_level_cache", "true",
+                "hibernate.cache.region.factory_class", LocalRegionFactory.class.getName(),
+                "hibernate.cache.local.warehouse.max-entries", "2",
+                "hibernate.cache.local.supplier.ttl", "PT0S"));
+        statistics = sessionFactory.getStatistics();
+
+        inTransaction(entityManager -> {
+            Product product = new Product();
+            product.setSku("SKU-1");
+            product.setName("Pallet");
+            product.setSellingPrice(new BigDecimal("10.00"));
+            entityManager.persist(product);
+            productId = product.getId();
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("North");
+            entityManager.persist(warehouse);
+            warehouseId = warehouse.getId();
+
+            Supplier supplier = new Supplier();
+            supplier.setName("Acme");
+            supplier.setActive(true);
+            entityManager.persist(supplier);
+            supplierId = supplier.getId();
+
+            User user = new User();
+            user.setEmail("alice@test.com");
+            user.setPassword("secret");
+            user.setName("alice");
+            user.setRole(Role.CLIENT);
+            entityManager.persist(user);
+            Client client = new Client();
+            client.setUser(user);
+            entityManager.persist(client);
+            clientId = client.getUserId();
+        });
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void testReferenceEntitiesAreReadOnceAcrossSessions() {
+        LocalRegionStorage product = storage("product");
+        LocalRegionStorage user = storage("user");
+
+        long loaded = product.puts();
+
+        assertEquals(4, statements(this::readReferences));
+        long hits = product.hits();
+        long puts = product.puts();
+        assertEquals(loaded + 1, puts);
+        long userHits = user.hits();
+
+        assertEquals(0, statements(this::readReferences));
+        assertEquals(hits + 1, product.hits());
+        assertEquals(puts, product.puts());
+        assertEquals(userHits + 1, user.hits());
+    }
+
+    @Test
+    void testSkuLookupUsesTheNaturalIdCache() {
+        statements(entityManager -> assertEquals(productId, new ProductSkuLookupImpl(entityManager).findBySku("SKU-1").getId()));
+
+        assertEquals(0, statements(entityManager ->
+                assertEquals("Pallet", new ProductSkuLookupImpl(entityManager).findBySku("SKU-1").getName())));
+        assertNull(new ProductSkuLookupImpl(sessionFactory.createEntityManager()).findBySku("SKU-404"));
+    }
+
+    @Test
+    void testProductServiceWritesAreWhatTheNextSessionReads() {
+        statements(entityManager -> entityManager.find(Product.class, productId));
+
+        inTransaction(entityManager -> {
+            ProductService productService = new ProductService(repository(entityManager, ProductRepository.class),
+                    new ProductMapperImpl(), null, null, null, mock(ProductReferenceCache.class),
+                    mock(ApplicationEventPublisher.class));
+            ProductDTO dto = new ProductDTO();
+            dto.setSellingPrice(new BigDecimal("12.50"));
+            assertDoesNotThrow(() -> productService.updateProduct(dto, productId));
+        });
+
+        assertEquals(0, statements(entityManager -> assertEquals(0, new BigDecimal("12.50")
+                .compareTo(entityManager.find(Product.class, productId).getSellingPrice()))));
+    }
+
+    @Test
+    void testWarehouseAndSupplierServiceWritesAreWhatTheNextSessionReads() {
+        inTransaction(entityManager -> {
+            WareHouseDTO warehouse = new WareHouseDTO();
+            warehouse.setName("North 2");
+            warehouse.setLocation("Dock 4");
+            warehouse.setActive(true);
+            new wareHouseService(repository(entityManager, WareHouseRepository.class), new wareHouseMapperImpl(),
+                    mock(ApplicationEventPublisher.class)).update(warehouseId, warehouse);
+
+            SupplierDTO supplier = new SupplierDTO();
+            supplier.setName("Acme Ltd");
+            new SupplierService(repository(entityManager, SupplierRepository.class), new SupplierMapperImpl())
+                    .updateSupplier(supplierId, supplier);
+        });
+
+        statements(entityManager -> {
+            assertEquals("North 2", entityManager.find(Warehouse.class, warehouseId).getName());
+            assertEquals("Acme Ltd", entityManager.find(Supplier.class, supplierId).getName());
+        });
+    }
+
+    @Test
+    void testRegionsKeepTheirSizeAndTimeToLive() {
+        inTransaction(entityManager -> {
+            for (int i = 0; i < 3; i++) {
+                Warehouse warehouse = new Warehouse();
+                warehouse.setName("Extra " + i);
+                entityManager.persist(warehouse);
+            }
+        });
+
+        LocalRegionStorage warehouses = storage("warehouse");
+        assertEquals(2, warehouses.size());
+        assertEquals(1, warehouses.evictions());
+
+        // Supplier entries expire at once
+        assertEquals(1, statements(entityManager -> entityManager.find(Supplier.class, supplierId)));
+        assertEquals(1, statements(entityManager -> entityManager.find(Supplier.class, supplierId)));
+    }
+
+    @Test
+    void testSoftLocksDoNotLetARegionGrowPastItsSize() {
+        AtomicLong clock = new AtomicLong();
+        LocalRegionStorage region = new LocalRegionStorage("test", 2, Duration.ofMinutes(10), clock::get);
+        SoftLock lock = new SoftLock() { };
+
+        region.putIntoCache(1L, lock, null);
+        region.putIntoCache(2L, "two", null);
+        region.putIntoCache(3L, "three", null);
+
+        // The locked eldest stays, the oldest unlocked entry goes
+        assertEquals(2, region.size());
+        assertTrue(region.contains(1L));
+        assertFalse(region.contains(2L));
+        assertEquals(1, region.evictions());
+
+        // A lock whose transaction never completed goes once it is stale
+        long halfTimeout = LocalRegionStorage.SOFT_LOCK_TIMEOUT.toNanos() / 2;
+        clock.addAndGet(halfTimeout);
+        region.putIntoCache(3L, lock, null);
+        clock.addAndGet(halfTimeout);
+        region.putIntoCache(4L, "four", null);
+        assertEquals(2, region.size());
+        assertFalse(region.contains(1L));
+        assertTrue(region.contains(3L));
+        assertTrue(region.contains(4L));
+    }
+
+    private void readReferences(EntityManager entityManager) {
+        assertEquals("Pallet", entityManager.find(Product.class, productId).getName());
+        assertEquals("North", entityManager.find(Warehouse.class, warehouseId).getName());
+        // Lazy Client.user, as the sales-order mapper reads it
+        assertEquals("alice", entityManager.find(Client.class, clientId).getUser().getName());
+    }
+
+    private long statements(Consumer<EntityManager> work) {
+        long before = statistics.getPrepareStatementCount();
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        try {
+            work.accept(entityManager);
+        } finally {
+            entityManager.close();
+        }
+        return statistics.getPrepareStatementCount() - before;
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager entityManager = sessionFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        work.accept(entityManager);
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    private LocalRegionStorage storage(String region) {
+        return ((LocalRegionFactory) sessionFactory.unwrap(SessionFactoryImplementor.class).getCache().getRegionFactory())
+                .getStorages().get(region);
+    }
+
+    private static <T> T repository(EntityManager entityManager, Class<T> repositoryInterface) {
+        return new JpaRepositoryFactory(entityManager).getRepository(repositoryInterface);
+    }
+}
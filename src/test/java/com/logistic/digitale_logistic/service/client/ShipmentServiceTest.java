@@ -7,11 +7,13 @@ import com.logistic.digitale_logistic.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,6 +30,17 @@ class ShipmentServiceTest {
     private InventoryMovementRepository inventoryMovementRepository;
     @Mock
     private ShipmentMapper shipmentMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ReservationHoldService reservationHoldService;
+
+    @Spy
+    private DocumentNumberGenerator documentNumberGenerator = new DocumentNumberGenerator(1);
+
+    @Mock
+    private CreditExposureService creditExposureService;
 
     @InjectMocks
     private ShipmentService shipmentService;
@@ -94,7 +107,7 @@ class ShipmentServiceTest {
 
     @Test
     void testCreateShipment_Success() {
-        when(salesOrderRepository.findById(1L)).thenReturn(Optional.of(salesOrder));
+        when(salesOrderRepository.findWithLinesAndProductsById(1L)).thenReturn(Optional.of(salesOrder));
 
         Shipment shipment = new Shipment();
         shipment.setLines(new ArrayList<>());
@@ -110,7 +123,7 @@ class ShipmentServiceTest {
     @Test
     void testCreateShipment_OrderNotReserved() {
         salesOrder.setStatus("CREATED");
-        when(salesOrderRepository.findById(1L)).thenReturn(Optional.of(salesOrder));
+        when(salesOrderRepository.findWithLinesAndProductsById(1L)).thenReturn(Optional.of(salesOrder));
 
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> shipmentService.createShipment(1L));
@@ -132,14 +145,16 @@ class ShipmentServiceTest {
         shipment.setLines(shipmentLines);
 
         Inventory inventory = new Inventory();
+        inventory.setId(30L);
         inventory.setProduct(product);
         inventory.setWarehouse(warehouse);
         inventory.setQtyOnHand(10);
         inventory.setQtyReserved(5);
 
-        when(shipmentRepository.findById(1L)).thenReturn(Optional.of(shipment));
-        when(inventoryRepository.findByProduct_IdAndWarehouse_Id(product.getId(), warehouse.getId()))
-                .thenReturn(Optional.of(inventory));
+        when(shipmentRepository.findWithDetailsById(1L)).thenReturn(Optional.of(shipment));
+        when(inventoryRepository.shipReserved(eq(30L), eq(5), any())).thenReturn(1);
+        when(inventoryRepository.findByWarehouseIdAndProductIdIn(warehouse.getId(), Set.of(product.getId())))
+                .thenReturn(List.of(inventory));
         when(shipmentRepository.save(any())).thenReturn(shipment);
         when(salesOrderRepository.save(any())).thenReturn(salesOrder);
         when(shipmentMapper.toDTO(any())).thenReturn(new ShipmentDTO());
@@ -148,7 +163,8 @@ class ShipmentServiceTest {
 
         assertNotNull(dto);
         assertEquals(5, shipmentLine.getQuantity()); // quantityShipped same as reserved
-        verify(inventoryRepository, times(1)).save(inventory);
+        verify(inventoryRepository, times(1)).shipReserved(eq(30L), eq(5), any());
+        verify(inventoryRepository, never()).save(inventory);
         verify(shipmentRepository, times(1)).save(shipment);
         verify(salesOrderRepository, times(1)).save(salesOrder);
     }
@@ -159,8 +175,13 @@ class ShipmentServiceTest {
         shipment.setId(1L);
         shipment.setStatus("SHIPPED");
         shipment.setSalesOrder(salesOrder);
+        salesOrder.setShipments(List.of(shipment));
+        Client client = new Client();
+        client.setUserId(3L);
+        salesOrder.setClient(client);
+        salesOrder.setTotalAmount(new BigDecimal("500.00"));
 
-        when(shipmentRepository.findById(1L)).thenReturn(Optional.of(shipment));
+        when(shipmentRepository.findWithDetailsById(1L)).thenReturn(Optional.of(shipment));
         when(shipmentRepository.save(any())).thenReturn(shipment);
         when(salesOrderRepository.save(any())).thenReturn(salesOrder);
         when(shipmentMapper.toDTO(any())).thenReturn(new ShipmentDTO());
@@ -170,5 +191,7 @@ class ShipmentServiceTest {
         assertNotNull(dto);
         assertEquals("DELIVERED", shipment.getStatus());
         verify(salesOrderRepository, times(1)).save(salesOrder);
+        // The delivered order no longer counts against the client's credit limit
+        verify(creditExposureService).release(3L, new BigDecimal("500.00"));
     }
 }
@@ -2,8 +2,7 @@ package com.logistic.digitale_logistic.service.client;
 
 import com.logistic.digitale_logistic.dto.ProductInventoryDTO;
 import com.logistic.digitale_logistic.dto.WarehouseDTO;
-import com.logistic.digitale_logistic.entity.Inventory;
-import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.dto.WarehouseProductRow;
 import com.logistic.digitale_logistic.entity.Warehouse;
 import com.logistic.digitale_logistic.repository.InventoryRepository;
 import com.logistic.digitale_logistic.repository.WareHouseRepository;
@@ -30,8 +29,6 @@ class WarehouseServiceTest {
     private WarehouseViewService warehouseViewService;
 
     private Warehouse warehouse;
-    private Product product;
-    private Inventory inventory;
 
     @BeforeEach
     void setUp() {
@@ -42,45 +39,36 @@ class WarehouseServiceTest {
         warehouse.setName("Main Warehouse");
         warehouse.setLocation("Casablanca");
         warehouse.setActive(true);
-
-        product = new Product();
-        product.setId(1L);
-        product.setSku("PROD-001");
-        product.setName("Product 1");
-        product.setActive(true);
-        product.setSellingPrice(BigDecimal.valueOf(100.0));
-
-        inventory = new Inventory();
-        inventory.setProduct(product);
-        inventory.setQtyOnHand(50);
-        inventory.setQtyReserved(10);
-        inventory.setQtyAvailable(40); // DB-calculated field
-        inventory.setWarehouse(warehouse);
     }
 
     @Test
     void testGetAllWarehousesWithInventory() {
-        when(warehouseRepository.findAll()).thenReturn(List.of(warehouse));
-        when(inventoryRepository.findByWarehouse(warehouse)).thenReturn(List.of(inventory));
+        when(warehouseRepository.findActiveWarehouseProducts()).thenReturn(List.of(
+                row(1L, "Main Warehouse", 1L, "PROD-001"),
+                row(1L, "Main Warehouse", 2L, "PROD-002"),
+                row(2L, "Empty Warehouse", null, null)));
 
         List<WarehouseDTO> result = warehouseViewService.getAllWarehousesWithInventory();
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
         WarehouseDTO dto = result.get(0);
         assertEquals("Main Warehouse", dto.getName());
-        assertEquals(1, dto.getProducts().size());
+        assertEquals(2, dto.getProducts().size());
         ProductInventoryDTO prodDTO = dto.getProducts().get(0);
         assertEquals("PROD-001", prodDTO.getSku());
+        assertEquals(40, prodDTO.getQtyAvailable());
+        assertTrue(result.get(1).getProducts().isEmpty());
 
-        verify(warehouseRepository, times(1)).findAll();
-        verify(inventoryRepository, times(1)).findByWarehouse(warehouse);
+        verify(warehouseRepository, times(1)).findActiveWarehouseProducts();
+        verifyNoInteractions(inventoryRepository);
     }
 
     @Test
     void testGetWarehouseWithInventory_Success() {
         when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
-        when(inventoryRepository.findByWarehouse(warehouse)).thenReturn(List.of(inventory));
+        when(inventoryRepository.findActiveProductInventoryByWarehouseId(1L)).thenReturn(List.of(
+                new ProductInventoryDTO(1L, "PROD-001", "Product 1", null, BigDecimal.valueOf(100.0), 50, 10, 40)));
 
         WarehouseDTO dto = warehouseViewService.getWarehouseWithInventory(1L);
 
@@ -109,4 +97,9 @@ class WarehouseServiceTest {
 
         assertTrue(ex.getMessage().contains("Warehouse is not active"));
     }
+
+    private static WarehouseProductRow row(Long warehouseId, String warehouseName, Long productId, String sku) {
+        return new WarehouseProductRow(warehouseId, warehouseName, "Casablanca", true, productId,
+                sku != null ? "Product " + productId : null, sku, null, BigDecimal.valueOf(100.0), 40, 50, 10);
+    }
 }
@@ -0,0 +1,146 @@
+package com.logistic.digitale_logistic.service.client;
+
+import com.logistic.digitale_logistic.dto.StockDelta;
+import com.logistic.digitale_logistic.dto.StockLevel;
+import com.logistic.digitale_logistic.entity.WarehouseShippingCost;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sourcing quality and latency: greedy (order warehouse, then by stock) vs. cost-aware.
+ *
+ * Warehouses sit at random points; a lane costs 0.01 per unit and 10 + 0.05 per shipment per
+ * unit of distance. Orders have 1 to 8 lines and their warehouse is often short.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class WarehouseSourcingBenchmark {
+
+    private static final int ORDERS = 2_000;
+    private static final int PRODUCTS = 200;
+    private static final int[] WAREHOUSES = {10, 50, 100};
+
+    @Test
+    void compareSplitsCostAndLatency() {
+        System.out.printf("%-11s %-8s %12s %12s %10s %10s %10s%n",
+                "warehouses", "strategy", "shipments", "cost", "p50 us", "p99 us", "max us");
+        for (int warehouses : WAREHOUSES) {
+            Network network = new Network(warehouses, new Random(warehouses));
+            SourcingStrategy greedy = new GreedySourcingStrategy();
+            SourcingStrategy cost = CostAwareSourcingStrategyTest.strategy(network.lanes);
+            // Warm-up
+            run(greedy, network);
+            run(cost, network);
+            print("greedy", network, run(greedy, network));
+            print("cost", network, run(cost, network));
+        }
+    }
+
+    private Result run(SourcingStrategy strategy, Network network) {
+        Random random = new Random(7);
+        long[] latencies = new long[ORDERS];
+        double shipments = 0;
+        double cost = 0;
+        for (int i = 0; i < ORDERS; i++) {
+            Long warehouseId = (long) (1 + random.nextInt(network.size));
+            List<StockDelta> demand = new ArrayList<>();
+            int lines = 1 + random.nextInt(8);
+            for (int l = 0; l < lines; l++) {
+                demand.add(new StockDelta((long) (1 + random.nextInt(PRODUCTS)), warehouseId, 1 + random.nextInt(20)));
+            }
+
+            // Like the reservation service: only the stock of the order's products
+            List<StockLevel> supply = demand.stream()
+                    .map(StockDelta::getProductId)
+                    .distinct()
+                    .flatMap(productId -> network.supply.getOrDefault(productId, List.of()).stream())
+                    .toList();
+
+            long start = System.nanoTime();
+            List<List<StockDelta>> plan = strategy.plan(warehouseId, demand, supply);
+            latencies[i] = System.nanoTime() - start;
+
+            Set<Long> sources = new HashSet<>();
+            for (List<StockDelta> line : plan) {
+                for (StockDelta source : line) {
+                    sources.add(source.getWarehouseId());
+                    cost += source.getQuantity() * network.unitCost(source.getWarehouseId(), warehouseId);
+                }
+            }
+            shipments += sources.size();
+            cost += sources.stream().mapToDouble(from -> network.shipmentCost(from, warehouseId)).sum();
+        }
+
+        Arrays.sort(latencies);
+        return new Result(shipments / ORDERS, cost / ORDERS, latencies);
+    }
+
+    private void print(String name, Network network, Result result) {
+        long[] latencies = result.latencies();
+        System.out.printf("%-11d %-8s %12.2f %12.1f %10d %10d %10d%n", network.size, name,
+                result.shipments(), result.cost(),
+                latencies[ORDERS / 2] / 1_000, latencies[ORDERS * 99 / 100] / 1_000, latencies[ORDERS - 1] / 1_000);
+        assertTrue(latencies[ORDERS * 99 / 100] < 10_000_000L, "p99 above 10ms");
+    }
+
+    private record Result(double shipments, double cost, long[] latencies) {
+    }
+
+    private static class Network {
+
+        final int size;
+        final double[][] position;
+        final List<WarehouseShippingCost> lanes = new ArrayList<>();
+        final Map<Long, List<StockLevel>> supply = new HashMap<>();
+
+        Network(int size, Random random) {
+            this.size = size;
+            position = new double[size + 1][2];
+            for (int w = 1; w <= size; w++) {
+                position[w][0] = random.nextDouble() * 1000;
+                position[w][1] = random.nextDouble() * 1000;
+            }
+            for (long from = 1; from <= size; from++) {
+                for (long to = 1; to <= size; to++) {
+                    if (from != to) {
+                        lanes.add(new WarehouseShippingCost(null, from, to,
+                                money(unitCost(from, to)), money(shipmentCost(from, to))));
+                    }
+                }
+            }
+            // Each warehouse carries a random half of the catalogue
+            for (long product = 1; product <= PRODUCTS; product++) {
+                for (long w = 1; w <= size; w++) {
+                    if (random.nextBoolean()) {
+                        supply.computeIfAbsent(product, id -> new ArrayList<>())
+                                .add(new StockLevel(product, w, random.nextInt(30), 0));
+                    }
+                }
+            }
+        }
+
+        double unitCost(Long from, Long to) {
+            return from.equals(to) ? 0 : distance(from, to) * 0.01;
+        }
+
+        double shipmentCost(Long from, Long to) {
+            return from.equals(to) ? 0 : 10 + distance(from, to) * 0.05;
+        }
+
+        private double distance(long from, long to) {
+            return Math.hypot(position[(int) from][0] - position[(int) to][0],
+                    position[(int) from][1] - position[(int) to][1]);
+        }
+
+        private static BigDecimal money(double value) {
+            return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+}
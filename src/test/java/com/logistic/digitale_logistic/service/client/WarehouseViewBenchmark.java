@@ -0,0 +1,185 @@
+package com.logistic.digitale_logistic.service.client;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.logistic.digitale_logistic.dto.InventoryDTO;
+import com.logistic.digitale_logistic.dto.ProductInventoryDTO;
+import com.logistic.digitale_logistic.entity.Inventory;
+import com.logistic.digitale_logistic.entity.Product;
+import com.logistic.digitale_logistic.entity.Warehouse;
+import com.logistic.digitale_logistic.mapper.InventoryMapperImpl;
+import com.logistic.digitale_logistic.repository.InventoryRepository;
+import com.logistic.digitale_logistic.repository.ProductRepository;
+import com.logistic.digitale_logistic.repository.WareHouseRepository;
+import com.logistic.digitale_logistic.service.Admin.InventoryService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Statements and latency of the warehouse inventory views at 10k SKUs per warehouse, on
+ * Hibernate with H2: before (inventory entities per warehouse, then one lazy product load per
+ * row to check it is active) and after (DTO projections with the active filters in SQL).
+ * Each run starts from an empty persistence context, as a request does.
+ *
+ * Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class WarehouseViewBenchmark {
+
+    private static final int WAREHOUSES = 3;
+    private static final int SKUS = 10_000;
+    private static final int RUNS = 5;
+
+    @BeforeAll
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    @Test
+    void compareEntityLoadsWithProjections() {
+        try (SessionFactory sessionFactory = H2SessionFactory.create()) {
+            EntityManager entityManager = sessionFactory.createEntityManager();
+            List<Long> warehouseIds = populate(entityManager);
+            Long warehouseId = warehouseIds.get(0);
+
+            JpaRepositoryFactory repositories = new JpaRepositoryFactory(entityManager);
+            WareHouseRepository warehouseRepository = repositories.getRepository(WareHouseRepository.class);
+            InventoryRepository inventoryRepository = repositories.getRepository(InventoryRepository.class);
+            WarehouseViewService warehouseViewService = new WarehouseViewService(warehouseRepository, inventoryRepository);
+            InventoryService inventoryService = new InventoryService(inventoryRepository, warehouseRepository,
+                    new InventoryMapperImpl(), mock(ProductRepository.class), mock(ApplicationEventPublisher.class));
+
+            System.out.printf("%-34s %-12s %12s %10s %10s%n", "view", "reads", "statements", "p50 ms", "max ms");
+            long[] allBefore = measure(sessionFactory, entityManager, "all warehouses", "entities", em ->
+                    warehouseRepository.findAll().stream()
+                            .filter(Warehouse::getActive)
+                            .mapToInt(w -> activeProducts(inventoryRepository.findByWarehouse(w)).size())
+                            .sum());
+            long[] allAfter = measure(sessionFactory, entityManager, "all warehouses", "projection", em ->
+                    warehouseViewService.getAllWarehousesWithInventory().stream()
+                            .mapToInt(w -> w.getProducts().size())
+                            .sum());
+            long[] oneBefore = measure(sessionFactory, entityManager, "one warehouse", "entities", em ->
+                    activeProducts(inventoryRepository.findByWarehouse(warehouseRepository.findById(warehouseId).orElseThrow())).size());
+            long[] oneAfter = measure(sessionFactory, entityManager, "one warehouse", "projection", em ->
+                    warehouseViewService.getWarehouseWithInventory(warehouseId).getProducts().size());
+            long[] adminBefore = measure(sessionFactory, entityManager, "inventory by warehouse (admin)", "entities", em ->
+                    inventoryRepository.findByWarehouse(warehouseRepository.findById(warehouseId).orElseThrow()).stream()
+                            .map(new InventoryMapperImpl()::toDTO)
+                            .toList()
+                            .size());
+            long[] adminAfter = measure(sessionFactory, entityManager, "inventory by warehouse (admin)", "projection", em ->
+                    inventoryService.getInventoryByWarehouse(warehouseId).size());
+
+            assertEquals(allBefore[2], allAfter[2], "same rows expected");
+            assertEquals(oneBefore[2], oneAfter[2], "same rows expected");
+            assertEquals(adminBefore[2], adminAfter[2], "same rows expected");
+            assertEquals(1, allAfter[0]);
+            assertEquals(2, oneAfter[0]);
+            assertEquals(2, adminAfter[0]);
+            assertTrue(allAfter[0] < allBefore[0] && oneAfter[0] < oneBefore[0], "fewer statements expected");
+            entityManager.close();
+        }
+    }
+
+    /**
+     * @return statements per run, p50 latency in ms, and the rows the view returned
+     */
+    private static long[] measure(SessionFactory sessionFactory, EntityManager entityManager, String view,
+                                  String reads, Function<EntityManager, Integer> run) {
+        Statistics statistics = sessionFactory.getStatistics();
+        long[] latencies = new long[RUNS];
+        long statements = 0;
+        int rows = 0;
+        for (int i = -1; i < RUNS; i++) {
+            entityManager.clear();
+            long before = statistics.getPrepareStatementCount();
+            long start = System.nanoTime();
+            rows = run.apply(entityManager);
+            // First pass is a warm-up
+            if (i >= 0) {
+                latencies[i] = System.nanoTime() - start;
+                statements += statistics.getPrepareStatementCount() - before;
+            }
+        }
+        Arrays.sort(latencies);
+        long perRun = statements / RUNS;
+        System.out.printf("%-34s %-12s %12d %10d %10d%n", view, reads, perRun,
+                latencies[RUNS / 2] / 1_000_000, latencies[RUNS - 1] / 1_000_000);
+        return new long[]{perRun, latencies[RUNS / 2], rows};
+    }
+
+    private static List<ProductInventoryDTO> activeProducts(List<Inventory> inventories) {
+        return inventories.stream()
+                .filter(inv -> inv.getProduct().getActive())
+                .map(inv -> ProductInventoryDTO.builder()
+                        .productId(inv.getProduct().getId())
+                        .sku(inv.getProduct().getSku())
+                        .name(inv.getProduct().getName())
+                        .category(inv.getProduct().getCategory())
+                        .unitPrice(inv.getProduct().getSellingPrice())
+                        .qtyOnHand(inv.getQtyOnHand())
+                        .qtyReserved(inv.getQtyReserved())
+                        .qtyAvailable(inv.getQtyOnHand() - inv.getQtyReserved())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Warehouses stocking every SKU, one SKU in twenty inactive, plus one inactive warehouse
+     */
+    private static List<Long> populate(EntityManager entityManager) {
+        entityManager.getTransaction().begin();
+        List<Product> products = new ArrayList<>(SKUS);
+        for (int i = 0; i < SKUS; i++) {
+            Product product = new Product();
+            product.setSku("SKU-" + i);
+            product.setName("Product " + i);
+            product.setCategory("Category " + i % 50);
+            product.setSellingPrice(BigDecimal.valueOf(10 + i % 90));
+            product.setActive(i % 20 != 0);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        List<Long> warehouseIds = new ArrayList<>();
+        for (int w = 0; w <= WAREHOUSES; w++) {
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("Warehouse " + w);
+            warehouse.setActive(w < WAREHOUSES);
+            entityManager.persist(warehouse);
+            warehouseIds.add(warehouse.getId());
+            for (int i = 0; i < SKUS; i++) {
+                Inventory inventory = new Inventory();
+                inventory.setWarehouse(warehouse);
+                inventory.setProduct(products.get(i));
+                inventory.setQtyOnHand(100 + i % 400);
+                inventory.setQtyReserved(i % 30);
+                entityManager.persist(inventory);
+                if (i % 1_000 == 0) {
+                    entityManager.flush();
+                }
+            }
+            entityManager.flush();
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        return warehouseIds;
+    }
+}
@@ -1,6 +1,7 @@
 package com.logistic.digitale_logistic.service.manager;
 
 import com.logistic.digitale_logistic.dto.PoLineDTO;
+import com.logistic.digitale_logistic.dto.ProductReference;
 import com.logistic.digitale_logistic.dto.PurchaseOrderDTO;
 import com.logistic.digitale_logistic.entity.*;
 import com.logistic.digitale_logistic.enums.PurchaseOrderStatus;
@@ -8,10 +9,13 @@ import com.logistic.digitale_logistic.exceptions.BusinessException;
 import com.logistic.digitale_logistic.mapper.PurchaseOrderMapper;
 import com.logistic.digitale_logistic.repository.*;
 import com.logistic.digitale_logistic.service.client.BackorderFulfillmentService;
+import com.logistic.digitale_logistic.service.client.DocumentNumberGenerator;
+import com.logistic.digitale_logistic.service.client.ProductReferenceCache;
 import com.logistic.digitale_logistic.service.warehouse_manager.PurchaseOrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -31,6 +35,11 @@ class PurchaseOrderServiceTest {
     @Mock private ProductRepository productRepository;
     @Mock private PurchaseOrderMapper purchaseOrderMapper;
     @Mock private BackorderFulfillmentService backorderFulfillmentService;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private ProductReferenceCache productReferenceCache;
+
+    @Spy
+    private DocumentNumberGenerator documentNumberGenerator = new DocumentNumberGenerator(1);
 
     @InjectMocks
     private PurchaseOrderService
@@ -71,7 +80,9 @@ class PurchaseOrderServiceTest {
 
         when(supplierRepository.findById(1L)).thenReturn(Optional.of(supplier));
         when(warehouseRepository.findById(10L)).thenReturn(Optional.of(warehouse));
-        when(productRepository.findById(5L)).thenReturn(Optional.of(product));
+        when(productReferenceCache.getAll(List.of(5L))).thenReturn(Map.of(5L,
+                new ProductReference(5L, "SKU-5", "Product", BigDecimal.TEN, true)));
+        when(productRepository.getReferenceById(5L)).thenReturn(product);
         when(purchaseOrderRepository.save(any())).thenReturn(savedPO);
         when(purchaseOrderMapper.toDTO(savedPO)).thenReturn(new PurchaseOrderDTO());
 
@@ -149,12 +160,13 @@ class PurchaseOrderServiceTest {
         po.setLines(new ArrayList<>(List.of(line)));
 
         Inventory inventory = new Inventory();
+        inventory.setId(50L);
+        inventory.setProduct(product);
         inventory.setQtyOnHand(5);
 
         when(purchaseOrderRepository.findById(1L)).thenReturn(Optional.of(po));
-        when(inventoryRepository.findByProduct_IdAndWarehouse_Id(5L, 10L))
-                .thenReturn(Optional.of(inventory));
-        when(inventoryRepository.save(any())).thenReturn(inventory);
+        when(inventoryRepository.findByWarehouseIdAndProductIdIn(10L, Set.of(5L)))
+                .thenReturn(List.of(inventory));
         when(purchaseOrderRepository.save(any())).thenReturn(po);
         when(purchaseOrderMapper.toDTO(po)).thenReturn(new PurchaseOrderDTO());
 
@@ -162,6 +174,8 @@ class PurchaseOrderServiceTest {
 
         assertNotNull(result);
         assertEquals(PurchaseOrderStatus.RECEIVED, po.getStatus());
-        assertEquals(25, inventory.getQtyOnHand()); // 5 existed + 20 received
+        // 20 added to the row in the database, not written over it
+        verify(inventoryRepository).receive(eq(50L), eq(20), any());
+        verify(inventoryRepository, never()).save(inventory);
     }
 }